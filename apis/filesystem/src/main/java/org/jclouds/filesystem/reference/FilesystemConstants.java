@@ -27,6 +27,18 @@ public final class FilesystemConstants {
     /** Specify if the Content-Type of a file should be autodetected if it is not set */
     public static final String PROPERTY_AUTO_DETECT_CONTENT_TYPE = "jclouds.filesystem.auto-detect-content-type";
 
+    /**
+     * Specify if blob metadata should be kept in a per-container index file, so that it can be read without
+     * touching extended attributes or hashing blob contents
+     */
+    public static final String PROPERTY_METADATA_INDEX = "jclouds.filesystem.metadata-index";
+
+    /**
+     * Number of threads listing directories ahead of the key iterator. With 1, directories are listed one at a time
+     * by the thread that iterates. Defaults to the number of processors.
+     */
+    public static final String PROPERTY_LIST_PARALLELISM = "jclouds.filesystem.list-parallelism";
+
     private FilesystemConstants() {
         throw new AssertionError("intentionally unimplemented");
     }
@@ -21,9 +21,11 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.io.BaseEncoding.base16;
+import static java.nio.file.Files.copy;
 import static java.nio.file.Files.createDirectories;
 import static java.nio.file.Files.getFileAttributeView;
 import static java.nio.file.Files.getPosixFilePermissions;
+import static java.nio.file.Files.isDirectory;
 import static java.nio.file.Files.probeContentType;
 import static java.nio.file.Files.readAttributes;
 import static java.nio.file.Files.setPosixFilePermissions;
@@ -40,21 +42,35 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.AccessDeniedException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.UserDefinedFileAttributeView;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 import java.util.regex.Pattern;
 
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -83,18 +99,20 @@ import org.jclouds.filesystem.reference.FilesystemConstants;
 import org.jclouds.filesystem.util.Utils;
 import org.jclouds.io.ContentMetadata;
 import org.jclouds.io.Payload;
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.logging.Logger;
 import org.jclouds.rest.AuthorizationException;
 import org.jclouds.rest.annotations.ParamValidators;
 
-import com.google.common.base.Function;
 import com.google.common.base.Supplier;
 import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
-import com.google.common.collect.Sets;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Lists;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.Hashing;
 import com.google.common.hash.HashingInputStream;
@@ -132,18 +150,40 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
    protected final boolean autoDetectContentType;
    protected final FilesystemContainerNameValidator filesystemContainerNameValidator;
    protected final FilesystemBlobKeyValidator filesystemBlobKeyValidator;
+   protected final boolean metadataIndex;
    private final Supplier<Location> defaultLocation;
+   private final ConcurrentMap<String, MetadataIndex> metadataIndexes = Maps.newConcurrentMap();
+   /** created on first use, see {@link #getListPool()} */
+   private ForkJoinPool listPool;
+   /** set once the context is closed, see {@link #shutdownListPool()} */
+   private boolean listPoolShutdown;
+
+   @com.google.inject.Inject(optional = true)
+   @Named(FilesystemConstants.PROPERTY_LIST_PARALLELISM)
+   protected int listParallelism = Runtime.getRuntime().availableProcessors();
+
+   protected FilesystemStorageStrategyImpl(Provider<BlobBuilder> blobBuilders,
+         String baseDir,
+         boolean autoDetectContentType,
+         FilesystemContainerNameValidator filesystemContainerNameValidator,
+         FilesystemBlobKeyValidator filesystemBlobKeyValidator,
+         Supplier<Location> defaultLocation) {
+      this(blobBuilders, baseDir, autoDetectContentType, false, filesystemContainerNameValidator,
+            filesystemBlobKeyValidator, defaultLocation);
+   }
 
    @Inject
    protected FilesystemStorageStrategyImpl(Provider<BlobBuilder> blobBuilders,
          @Named(FilesystemConstants.PROPERTY_BASEDIR) String baseDir,
          @Named(FilesystemConstants.PROPERTY_AUTO_DETECT_CONTENT_TYPE) boolean autoDetectContentType,
+         @Named(FilesystemConstants.PROPERTY_METADATA_INDEX) boolean metadataIndex,
          FilesystemContainerNameValidator filesystemContainerNameValidator,
          FilesystemBlobKeyValidator filesystemBlobKeyValidator,
          Supplier<Location> defaultLocation) {
       this.blobBuilders = checkNotNull(blobBuilders, "filesystem storage strategy blobBuilders");
       this.baseDirectory = checkNotNull(baseDir, "filesystem storage strategy base directory");
       this.autoDetectContentType = autoDetectContentType;
+      this.metadataIndex = metadataIndex;
       this.filesystemContainerNameValidator = checkNotNull(filesystemContainerNameValidator,
             "filesystem container name validator");
       this.filesystemBlobKeyValidator = checkNotNull(filesystemBlobKeyValidator, "filesystem blob key validator");
@@ -245,6 +285,7 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       if (!containerExists(container)) {
          return;
       }
+      deleteMetadataIndex(container);
       deleteDirectory(container, null);
    }
 
@@ -262,6 +303,8 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       String basePath = buildPathStartingFromBaseDir(container, normalizedOptsPath);
       filesystemBlobKeyValidator.validate(basePath);
       try {
+         // entries are rebuilt from whatever remains on the next lookup
+         deleteMetadataIndex(container);
          File object = new File(basePath);
          if (object.isFile()) {
             // To mimic the S3 type blobstores, a prefix for an object blob
@@ -326,6 +369,12 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       filesystemContainerNameValidator.validate(container);
       filesystemBlobKeyValidator.validate(key);
       try {
+         if (getDirectoryBlobSuffix(key) == null) {
+            MetadataIndex index = getMetadataIndex(container);
+            if (index != null && index.get(key) != null) {
+               return true;
+            }
+         }
          return buildPathAndChecksIfBlobExists(container, key);
       } catch (IOException e) {
          logger.error(e, "An error occurred while checking key %s in container %s",
@@ -343,27 +392,261 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
     */
    @Override
    public Iterable<String> getBlobKeysInsideContainer(String container, String prefix) throws IOException {
+      return getBlobKeysInsideContainer(container, prefix, null);
+   }
+
+   /**
+    * Walks the container depth-first, visiting the entries of each directory in key order, so that keys come out
+    * sorted without listing the whole container. Directories that hold no key after marker or under prefix are not
+    * opened. While a directory is being walked, up to {@link FilesystemConstants#PROPERTY_LIST_PARALLELISM} of the
+    * subdirectories it will visit next are listed in parallel.
+    */
+   @Override
+   public Iterable<String> getBlobKeysInsideContainer(String container, final String prefix, final String marker)
+         throws IOException {
       filesystemContainerNameValidator.validate(container);
-      // check if container exists
-      // TODO maybe an error is more appropriate
-      Set<String> blobNames = Sets.newHashSet();
       if (!containerExists(container)) {
-         return blobNames;
+         return ImmutableSet.of();
       }
 
-      File containerFile = openFolder(container);
-      final int containerPathLength = containerFile.getAbsolutePath().length() + 1;
-      populateBlobKeysInContainer(containerFile, blobNames, prefix, new Function<String, String>() {
+      final File containerFile = openFolder(container).getAbsoluteFile();
+      final int containerPathLength = containerFile.getPath().length() + 1;
+      final ForkJoinPool pool = getListPool();
+      return new Iterable<String>() {
          @Override
-         public String apply(String string) {
-            return denormalize(string.substring(containerPathLength));
+         public Iterator<String> iterator() {
+            return new SortedBlobKeyIterator(containerFile, containerPathLength, prefix, marker, pool,
+                  listParallelism);
+         }
+      };
+   }
+
+   /** @return the pool listing directories ahead of key iterators, or null if they list directories themselves */
+   private ForkJoinPool getListPool() {
+      if (listParallelism <= 1) {
+         return null;
+      }
+      synchronized (this) {
+         if (listPoolShutdown) {
+            return null;
+         }
+         if (listPool == null) {
+            listPool = new ForkJoinPool(listParallelism);
+         }
+         return listPool;
+      }
+   }
+
+   /**
+    * Stops the threads listing directories ahead of key iterators when the context is closed. Key iterators created
+    * afterwards list directories themselves.
+    */
+   @PreDestroy
+   public synchronized void shutdownListPool() {
+      listPoolShutdown = true;
+      if (listPool != null) {
+         listPool.shutdownNow();
+         listPool = null;
+      }
+   }
+
+   private static final class SortedBlobKeyIterator extends AbstractIterator<String> {
+      private final int containerPathLength;
+      private final String prefix;
+      private final String marker;
+      private final ForkJoinPool pool;
+      private final int lookahead;
+      private final Deque<DirectoryFrame> stack = new ArrayDeque<DirectoryFrame>();
+
+      SortedBlobKeyIterator(File containerFile, int containerPathLength, String prefix, String marker,
+            @Nullable ForkJoinPool pool, int lookahead) {
+         this.containerPathLength = containerPathLength;
+         this.prefix = prefix;
+         this.marker = marker;
+         this.pool = pool;
+         this.lookahead = lookahead;
+         push(listDirectory(containerFile, containerPathLength));
+      }
+
+      @Override
+      protected String computeNext() {
+         while (!stack.isEmpty()) {
+            DirectoryFrame frame = stack.peek();
+            if (frame.next == frame.entries.size()) {
+               stack.pop();
+               continue;
+            }
+            int index = frame.next++;
+            DirectoryEntry entry = frame.entries.get(index);
+            if (entry.directory && mayContainKeys(entry.key)) {
+               ForkJoinTask<List<DirectoryEntry>> listing = frame.listings.remove(index);
+               push(listing != null ? listing.join() : listDirectory(entry.file, containerPathLength));
+            }
+            if ((prefix == null || entry.key.startsWith(prefix)) && (marker == null || entry.key.compareTo(marker) > 0)) {
+               return entry.key;
+            }
+         }
+         return endOfData();
+      }
+
+      /** every key below a directory starts with the directory key */
+      private boolean mayContainKeys(String directoryKey) {
+         if (prefix != null && !directoryKey.startsWith(prefix) && !prefix.startsWith(directoryKey)) {
+            return false;
+         }
+         return marker == null || directoryKey.compareTo(marker) >= 0 || marker.startsWith(directoryKey);
+      }
+
+      private void push(List<DirectoryEntry> entries) {
+         DirectoryFrame frame = new DirectoryFrame(entries);
+         stack.push(frame);
+         if (pool == null) {
+            return;
+         }
+         // keep the next subdirectories of each directory on the stack listed ahead of the walk
+         for (DirectoryFrame open : stack) {
+            while (open.listings.size() < lookahead && open.scheduled < open.entries.size()) {
+               int index = open.scheduled++;
+               if (index < open.next) {
+                  continue;
+               }
+               DirectoryEntry entry = open.entries.get(index);
+               if (entry.directory && mayContainKeys(entry.key)) {
+                  open.listings.put(index, pool.submit(new ListDirectory(entry.file, containerPathLength)));
+               }
+            }
+         }
+      }
+   }
+
+   /** entries of a directory in key order, the next one to visit, and the listings of those scheduled ahead */
+   private static final class DirectoryFrame {
+      private final List<DirectoryEntry> entries;
+      private final Map<Integer, ForkJoinTask<List<DirectoryEntry>>> listings = Maps.newHashMap();
+      private int next;
+      private int scheduled;
+
+      DirectoryFrame(List<DirectoryEntry> entries) {
+         this.entries = entries;
+      }
+   }
+
+   private static final class DirectoryEntry {
+      private final String key;
+      private final File file;
+      private final boolean directory;
+
+      DirectoryEntry(String key, File file, boolean directory) {
+         this.key = key;
+         this.file = file;
+         this.directory = directory;
+      }
+   }
+
+   private static final class ListDirectory extends RecursiveTask<List<DirectoryEntry>> {
+      private final File directory;
+      private final int containerPathLength;
+
+      ListDirectory(File directory, int containerPathLength) {
+         this.directory = directory;
+         this.containerPathLength = containerPathLength;
+      }
+
+      @Override
+      protected List<DirectoryEntry> compute() {
+         return listDirectory(directory, containerPathLength);
+      }
+   }
+
+   /**
+    * Lists a directory in key order. Directories are keyed with a trailing separator, which is how their contents sort
+    * relative to siblings.
+    */
+   private static List<DirectoryEntry> listDirectory(File directory, int containerPathLength) {
+      List<DirectoryEntry> entries = Lists.newArrayList();
+      try (DirectoryStream<Path> children = newDirectoryStream(directory.toPath())) {
+         for (Path child : children) {
+            String key = denormalize(child.toString().substring(containerPathLength));
+            boolean isDirectory = isDirectory(child);
+            if (isDirectory) {
+               key += File.separator;
+            }
+            entries.add(new DirectoryEntry(key, child.toFile(), isDirectory));
+         }
+      } catch (NoSuchFileException | NotDirectoryException e) {
+         // removed behind our back
+         return ImmutableList.of();
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      }
+      Collections.sort(entries, new Comparator<DirectoryEntry>() {
+         @Override
+         public int compare(DirectoryEntry left, DirectoryEntry right) {
+            return left.key.compareTo(right.key);
          }
       });
-      return blobNames;
+      return entries;
    }
 
    @Override
    public Blob getBlob(final String container, final String key) {
+      if (getDirectoryBlobSuffix(key) != null) {
+         return readBlob(container, key);
+      }
+      MetadataIndex index;
+      try {
+         index = getMetadataIndex(container);
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      }
+      if (index == null) {
+         return readBlob(container, key);
+      }
+      MetadataIndex.Entry entry = index.get(key);
+      if (entry == null) {
+         Blob blob = readBlob(container, key);
+         if (blob != null) {
+            try {
+               index.put(key, MetadataIndex.Entry.of(blob));
+            } catch (IOException e) {
+               logger.warn(e, "Could not index %s in container %s", key, container);
+            }
+         }
+         return blob;
+      }
+      File file = getFileForBlobKey(container, key);
+      if (!file.isFile()) {
+         // removed behind our back
+         try {
+            index.remove(key);
+         } catch (IOException e) {
+            throw Throwables.propagate(e);
+         }
+         return null;
+      }
+      Blob blob = blobBuilders.get()
+            .name(key)
+            .payload(Files.asByteSource(file))
+            .cacheControl(entry.cacheControl)
+            .contentDisposition(entry.contentDisposition)
+            .contentEncoding(entry.contentEncoding)
+            .contentLanguage(entry.contentLanguage)
+            .contentLength(entry.size)
+            .contentMD5(entry.contentMD5 == null ? null : HashCode.fromBytes(entry.contentMD5))
+            .eTag(entry.eTag)
+            .contentType(entry.contentType)
+            .expires(entry.getExpires())
+            .tier(entry.tier == null ? Tier.STANDARD : Tier.valueOf(entry.tier))
+            .userMetadata(entry.userMetadata)
+            .build();
+      blob.getMetadata().setContainer(container);
+      blob.getMetadata().setLastModified(entry.getLastModified());
+      blob.getMetadata().setSize(entry.size);
+      return blob;
+   }
+
+   /** reads a blob and its metadata from the data file and its extended attributes */
+   private Blob readBlob(final String container, final String key) {
       BlobBuilder builder = blobBuilders.get();
       builder.name(key);
       File file = getFileForBlobKey(container, key);
@@ -529,11 +812,9 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       if (getDirectoryBlobSuffix(blobKey) != null) {
          return putDirectoryBlob(containerName, blob);
       }
-      File outputFile = getFileForBlobKey(containerName, blobKey);
       // TODO: should we use a known suffix to filter these out during list?
       String tmpBlobName = blobKey + "-" + UUID.randomUUID();
       File tmpFile = getFileForBlobKey(containerName, tmpBlobName);
-      Path tmpPath = tmpFile.toPath();
       boolean isMpu = false;
       if (blob.getMetadata() != null && blob.getMetadata().getETag() != null)
          isMpu = MPU_ETAG_FORMAT.matcher(blob.getMetadata().getETag()).matches();
@@ -565,39 +846,183 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
             eTag = actualHashCode.asBytes();
          }
 
-         if (outputFile.exists()) {
-            delete(outputFile);
+         return moveIntoPlace(containerName, blob, tmpBlobName, eTag);
+      } finally {
+         deleteIfExists(tmpFile);
+         closeQuietly(inputStream);
+         if (payload != null) {
+            payload.release();
          }
+      }
+   }
 
-         UserDefinedFileAttributeView view = getUserDefinedFileAttributeView(tmpPath);
-         if (view != null) {
-            try {
-               view.write(XATTR_CONTENT_MD5, ByteBuffer.wrap(eTag));
-               writeCommonMetadataAttr(view, blob);
-            } catch (IOException e) {
-               logger.debug("xattrs not supported on %s", tmpPath);
+   /**
+    * Copies the data file with {@link java.nio.file.Files#copy}, which leaves the JDK free to copy inside the kernel
+    * or clone the file where the filesystem supports it. The copy is not hard linked to the source since extended
+    * attributes, and therefore the metadata, belong to the inode.
+    */
+   @Override
+   public String copyBlob(String fromContainer, String fromName, String toContainer, Blob blob) throws IOException {
+      filesystemContainerNameValidator.validate(fromContainer);
+      filesystemContainerNameValidator.validate(toContainer);
+      filesystemBlobKeyValidator.validate(fromName);
+      String blobKey = blob.getMetadata().getName();
+      filesystemBlobKeyValidator.validate(blobKey);
+      if (getDirectoryBlobSuffix(blobKey) != null) {
+         return putDirectoryBlob(toContainer, blob);
+      }
+      File source = getFileForBlobKey(fromContainer, fromName);
+      if (!source.isFile()) {
+         throw new KeyNotFoundException(fromContainer, fromName, "while copying");
+      }
+      String tmpBlobName = blobKey + "-" + UUID.randomUUID();
+      File tmpFile = getFileForBlobKey(toContainer, tmpBlobName);
+      try {
+         Files.createParentDirs(tmpFile);
+         copy(source.toPath(), tmpFile.toPath());
+         checkContentLength(blob, tmpFile.length());
+         byte[] eTag = readContentMD5(source.toPath());
+         if (eTag == null || eTag.length != 16) {
+            // multipart etags do not survive a copy, S3 gives the copy the MD5 of its content
+            eTag = Files.asByteSource(tmpFile).hash(Hashing.md5()).asBytes();
+         }
+         return moveIntoPlace(toContainer, blob, tmpBlobName, eTag);
+      } finally {
+         deleteIfExists(tmpFile);
+      }
+   }
+
+   /**
+    * Appends the data files with {@link FileChannel#transferTo}, so that the content is copied inside the kernel
+    * where possible and never hashed: the blob must carry the multipart etag, which is derived from the etags of the
+    * parts.
+    */
+   @Override
+   public String concatenateBlobs(String containerName, List<String> sourceNames, Blob blob) throws IOException {
+      filesystemContainerNameValidator.validate(containerName);
+      String blobKey = blob.getMetadata().getName();
+      filesystemBlobKeyValidator.validate(blobKey);
+      String mpuETag = blob.getMetadata().getETag();
+      checkArgument(mpuETag != null && MPU_ETAG_FORMAT.matcher(mpuETag).matches(),
+            "concatenated blob %s needs a multipart etag, got %s", blobKey, mpuETag);
+      String tmpBlobName = blobKey + "-" + UUID.randomUUID();
+      File tmpFile = getFileForBlobKey(containerName, tmpBlobName);
+      try {
+         Files.createParentDirs(tmpFile);
+         try (FileChannel output = FileChannel.open(tmpFile.toPath(), StandardOpenOption.CREATE_NEW,
+               StandardOpenOption.WRITE)) {
+            for (String sourceName : sourceNames) {
+               filesystemBlobKeyValidator.validate(sourceName);
+               File source = getFileForBlobKey(containerName, sourceName);
+               if (!source.isFile()) {
+                  throw new KeyNotFoundException(containerName, sourceName, "while concatenating");
+               }
+               try (FileChannel input = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+                  long size = input.size();
+                  long position = 0;
+                  while (position < size) {
+                     long transferred = input.transferTo(position, size - position, output);
+                     if (transferred <= 0) {
+                        // truncated behind our back, reported by the length check below
+                        break;
+                     }
+                     position += transferred;
+                  }
+               }
             }
          }
+         checkContentLength(blob, tmpFile.length());
+         return moveIntoPlace(containerName, blob, tmpBlobName, mpuETag.getBytes());
+      } finally {
+         deleteIfExists(tmpFile);
+      }
+   }
+
+   /**
+    * Writes the metadata of the blob to the extended attributes of a fully written temporary file and renames it to
+    * the blob, so that readers never see partial content or metadata.
+    *
+    * @return etag of the blob
+    */
+   private String moveIntoPlace(String containerName, Blob blob, String tmpBlobName, byte[] eTag)
+         throws IOException {
+      String blobKey = blob.getMetadata().getName();
+      File outputFile = getFileForBlobKey(containerName, blobKey);
+      File tmpFile = getFileForBlobKey(containerName, tmpBlobName);
+      Path tmpPath = tmpFile.toPath();
 
-         setBlobAccess(containerName, tmpBlobName, BlobAccess.PRIVATE);
+      MetadataIndex index = getMetadataIndex(containerName);
+      if (index != null) {
+         index.remove(blobKey);
+      }
+      if (outputFile.exists()) {
+         delete(outputFile);
+      }
 
-         if (!tmpFile.renameTo(outputFile)) {
-            throw new IOException("Could not rename file " + tmpFile + " to " + outputFile);
+      UserDefinedFileAttributeView view = getUserDefinedFileAttributeView(tmpPath);
+      if (view != null) {
+         try {
+            view.write(XATTR_CONTENT_MD5, ByteBuffer.wrap(eTag));
+            writeCommonMetadataAttr(view, blob);
+         } catch (IOException e) {
+            logger.debug("xattrs not supported on %s", tmpPath);
          }
-         tmpFile = null;
+      }
 
-         return base16().lowerCase().encode(eTag);
-      } finally {
-         if (tmpFile != null) {
+      setBlobAccess(containerName, tmpBlobName, BlobAccess.PRIVATE);
+
+      if (!tmpFile.renameTo(outputFile)) {
+         throw new IOException("Could not rename file " + tmpFile + " to " + outputFile);
+      }
+
+      if (index != null) {
+         Blob written = readBlob(containerName, blobKey);
+         if (written != null) {
             try {
-               delete(tmpFile);
+               index.put(blobKey, MetadataIndex.Entry.of(written));
             } catch (IOException e) {
-               logger.debug("Could not delete %s: %s", tmpFile, e);
+               // the blob is in place; getBlob indexes it again from its attributes
+               logger.warn(e, "Could not index %s in container %s", blobKey, containerName);
             }
          }
-         closeQuietly(inputStream);
-         if (payload != null) {
-            payload.release();
+      }
+
+      return base16().lowerCase().encode(eTag);
+   }
+
+   private static void checkContentLength(Blob blob, long actualSize) throws IOException {
+      Long expectedSize = blob.getMetadata().getContentMetadata().getContentLength();
+      if (expectedSize != null && actualSize != expectedSize) {
+         throw new IOException("Content-Length mismatch, actual: " + actualSize +
+               " expected: " + expectedSize);
+      }
+   }
+
+   /** @return the raw content-md5 attribute, which holds the multipart etag of concatenated blobs, or null */
+   private byte[] readContentMD5(Path path) throws IOException {
+      UserDefinedFileAttributeView view = getUserDefinedFileAttributeView(path);
+      if (view == null) {
+         return null;
+      }
+      try {
+         if (!view.list().contains(XATTR_CONTENT_MD5)) {
+            return null;
+         }
+         ByteBuffer buf = ByteBuffer.allocate(view.size(XATTR_CONTENT_MD5));
+         view.read(XATTR_CONTENT_MD5, buf);
+         return buf.array();
+      } catch (IOException e) {
+         logger.debug("xattrs not supported on %s", path);
+         return null;
+      }
+   }
+
+   private void deleteIfExists(File file) {
+      if (file.exists()) {
+         try {
+            delete(file);
+         } catch (IOException e) {
+            logger.debug("Could not delete %s: %s", file, e);
          }
       }
    }
@@ -610,6 +1035,17 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       logger.debug("Deleting blob %s", fileName);
       File fileToBeDeleted = new File(fileName);
 
+      if (getDirectoryBlobSuffix(blobKey) == null) {
+         try {
+            MetadataIndex index = getMetadataIndex(container);
+            if (index != null) {
+               index.remove(blobKey);
+            }
+         } catch (IOException e) {
+            throw Throwables.propagate(e);
+         }
+      }
+
       if (fileToBeDeleted.isDirectory()) {
          try {
             UserDefinedFileAttributeView view = getUserDefinedFileAttributeView(fileToBeDeleted.toPath());
@@ -761,6 +1197,69 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
 
    // ---------------------------------------------------------- Private methods
 
+   /**
+    * Returns the metadata index of a container, opening its log or building it from the extended attributes of the
+    * blobs on first use.
+    *
+    * @return the index, or null if indexing is disabled or the container does not exist
+    */
+   private MetadataIndex getMetadataIndex(String container) throws IOException {
+      if (!metadataIndex) {
+         return null;
+      }
+      MetadataIndex index = metadataIndexes.get(container);
+      if (index != null) {
+         return index;
+      }
+      synchronized (metadataIndexes) {
+         index = metadataIndexes.get(container);
+         if (index != null || !containerExists(container)) {
+            return index;
+         }
+         File file = getMetadataIndexFile(container);
+         index = MetadataIndex.open(file);
+         if (index == null) {
+            logger.debug("Building metadata index of container %s", container);
+            Map<String, MetadataIndex.Entry> entries = Maps.newHashMap();
+            for (String key : getBlobKeysInsideContainer(container, null)) {
+               if (getDirectoryBlobSuffix(key) != null) {
+                  continue;
+               }
+               Blob blob = readBlob(container, key);
+               if (blob != null) {
+                  entries.put(key, MetadataIndex.Entry.of(blob));
+               }
+            }
+            index = MetadataIndex.create(file, entries);
+         }
+         metadataIndexes.put(container, index);
+         return index;
+      }
+   }
+
+   private void deleteMetadataIndex(String container) {
+      if (!metadataIndex) {
+         return;
+      }
+      synchronized (metadataIndexes) {
+         MetadataIndex index = metadataIndexes.remove(container);
+         try {
+            if (index != null) {
+               index.delete();
+            } else if (getMetadataIndexFile(container).exists()) {
+               delete(getMetadataIndexFile(container));
+            }
+         } catch (IOException e) {
+            throw Throwables.propagate(e);
+         }
+      }
+   }
+
+   /** kept beside rather than inside the container so that it is never listed as a blob */
+   private File getMetadataIndexFile(String container) {
+      return new File(buildPathStartingFromBaseDir(), "." + container + ".metadata-index");
+   }
+
    private boolean buildPathAndChecksIfBlobExists(String... tokens) throws IOException {
       String path = buildPathStartingFromBaseDir(tokens);
       File file = new File(path);
@@ -963,32 +1462,6 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       return folder;
    }
 
-   private static void populateBlobKeysInContainer(File directory, Set<String> blobNames,
-         String prefix, Function<String, String> function) {
-      File[] children = directory.listFiles();
-      if (children == null) {
-         return;
-      }
-      for (File child : children) {
-         String fullPath = function.apply(child.getAbsolutePath());
-         if (child.isFile()) {
-            if (prefix != null && !fullPath.startsWith(prefix)) {
-               continue;
-            }
-            blobNames.add(fullPath);
-         } else if (child.isDirectory()) {
-            // Consider a prefix /a/b/c but we have only descended to path /a.
-            // We need to match the path against the prefix to continue
-            // matching down to /a/b.
-            if (prefix != null && !fullPath.startsWith(prefix) && !prefix.startsWith(fullPath + "/")) {
-               continue;
-            }
-            blobNames.add(fullPath + File.separator); // TODO: undo if failures
-            populateBlobKeysInContainer(child, blobNames, prefix, function);
-         }
-      }
-   }
-
    /**
     * Creates a directory and returns the result
     *
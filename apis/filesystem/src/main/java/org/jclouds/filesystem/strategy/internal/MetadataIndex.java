@@ -0,0 +1,385 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.filesystem.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.CRC32;
+
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.io.ContentMetadata;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.util.Closeables2;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Metadata of the blobs in one container, persisted as an append-only log so that it can be served without reading
+ * extended attributes or hashing data files.
+ * <p>
+ * The log is replayed into memory when the index is opened, and rewritten when it is opened or appended to while most
+ * of its records are obsolete. Each record is serialized before it is appended in a single write, prefixed with its
+ * length and checksum, so that a record that could not be serialized is never partly written and a record cut short
+ * by a crash is detected and dropped. Changes made to the container behind the blobstore's back are not seen until
+ * the log is deleted, which makes the index rebuild from the extended attributes.
+ */
+final class MetadataIndex {
+
+   private static final byte PUT = 1;
+   private static final byte REMOVE = 2;
+
+   /** obsolete records tolerated regardless of the number of entries, so small indexes are not rewritten constantly */
+   private static final int MIN_RECORDS_TO_COMPACT = 1024;
+
+   /** larger lengths can only come from a corrupt log */
+   private static final int MAX_RECORD_LENGTH = 64 * 1024 * 1024;
+
+   /**
+    * Everything {@link FilesystemStorageStrategyImpl#getBlob} reads from a data file and its extended attributes.
+    */
+   static final class Entry {
+      final long size;
+      final long lastModified;
+      final String eTag;
+      final byte[] contentMD5;
+      final String cacheControl;
+      final String contentDisposition;
+      final String contentEncoding;
+      final String contentLanguage;
+      final String contentType;
+      final Long expires;
+      final String tier;
+      final Map<String, String> userMetadata;
+
+      Entry(long size, long lastModified, @Nullable String eTag, @Nullable byte[] contentMD5,
+            @Nullable String cacheControl, @Nullable String contentDisposition, @Nullable String contentEncoding,
+            @Nullable String contentLanguage, @Nullable String contentType, @Nullable Long expires,
+            @Nullable String tier, Map<String, String> userMetadata) {
+         this.size = size;
+         this.lastModified = lastModified;
+         this.eTag = eTag;
+         this.contentMD5 = contentMD5;
+         this.cacheControl = cacheControl;
+         this.contentDisposition = contentDisposition;
+         this.contentEncoding = contentEncoding;
+         this.contentLanguage = contentLanguage;
+         this.contentType = contentType;
+         this.expires = expires;
+         this.tier = tier;
+         this.userMetadata = ImmutableMap.copyOf(userMetadata);
+      }
+
+      static Entry of(Blob blob) {
+         BlobMetadata metadata = blob.getMetadata();
+         ContentMetadata content = blob.getPayload().getContentMetadata();
+         return new Entry(metadata.getSize() == null ? 0 : metadata.getSize(),
+               metadata.getLastModified() == null ? 0 : metadata.getLastModified().getTime(), metadata.getETag(),
+               content.getContentMD5(), content.getCacheControl(), content.getContentDisposition(),
+               content.getContentEncoding(), content.getContentLanguage(), content.getContentType(),
+               content.getExpires() == null ? null : content.getExpires().getTime(),
+               metadata.getTier() == null ? null : metadata.getTier().toString(), metadata.getUserMetadata());
+      }
+
+      Date getLastModified() {
+         return new Date(lastModified);
+      }
+
+      Date getExpires() {
+         return expires == null ? null : new Date(expires);
+      }
+
+      private void write(DataOutputStream out) throws IOException {
+         out.writeLong(size);
+         out.writeLong(lastModified);
+         writeNullable(out, eTag);
+         if (contentMD5 == null) {
+            out.writeInt(-1);
+         } else {
+            out.writeInt(contentMD5.length);
+            out.write(contentMD5);
+         }
+         writeNullable(out, cacheControl);
+         writeNullable(out, contentDisposition);
+         writeNullable(out, contentEncoding);
+         writeNullable(out, contentLanguage);
+         writeNullable(out, contentType);
+         out.writeLong(expires == null ? Long.MIN_VALUE : expires);
+         writeNullable(out, tier);
+         out.writeInt(userMetadata.size());
+         for (Map.Entry<String, String> entry : userMetadata.entrySet()) {
+            out.writeUTF(entry.getKey());
+            writeNullable(out, entry.getValue());
+         }
+      }
+
+      private static Entry read(DataInputStream in) throws IOException {
+         long size = in.readLong();
+         long lastModified = in.readLong();
+         String eTag = readNullable(in);
+         int md5Length = in.readInt();
+         byte[] contentMD5 = null;
+         if (md5Length >= 0) {
+            contentMD5 = new byte[md5Length];
+            in.readFully(contentMD5);
+         }
+         String cacheControl = readNullable(in);
+         String contentDisposition = readNullable(in);
+         String contentEncoding = readNullable(in);
+         String contentLanguage = readNullable(in);
+         String contentType = readNullable(in);
+         long expires = in.readLong();
+         String tier = readNullable(in);
+         int userMetadataSize = in.readInt();
+         ImmutableMap.Builder<String, String> userMetadata = ImmutableMap.builder();
+         for (int i = 0; i < userMetadataSize; i++) {
+            String key = in.readUTF();
+            String value = readNullable(in);
+            if (value != null) {
+               userMetadata.put(key, value);
+            }
+         }
+         return new Entry(size, lastModified, eTag, contentMD5, cacheControl, contentDisposition, contentEncoding,
+               contentLanguage, contentType, expires == Long.MIN_VALUE ? null : expires, tier, userMetadata.build());
+      }
+   }
+
+   private final File file;
+   private final ConcurrentSkipListMap<String, Entry> entries = new ConcurrentSkipListMap<String, Entry>();
+   private OutputStream log;
+   private int records;
+   /** set once the log is deleted; later changes are dropped, as the index is rebuilt when next opened */
+   private boolean deleted;
+
+   private MetadataIndex(File file) {
+      this.file = checkNotNull(file, "file");
+   }
+
+   /**
+    * Replays the log at {@code file}, compacting it if needed.
+    *
+    * @return the index, or null if there is no log yet
+    */
+   @Nullable
+   static MetadataIndex open(File file) throws IOException {
+      if (!file.isFile()) {
+         return null;
+      }
+      MetadataIndex index = new MetadataIndex(file);
+      index.replay();
+      index.compactIfNeeded();
+      return index;
+   }
+
+   /**
+    * Creates a new log at {@code file} holding {@code entries}, replacing any existing one.
+    */
+   static MetadataIndex create(File file, Map<String, Entry> entries) throws IOException {
+      MetadataIndex index = new MetadataIndex(file);
+      index.entries.putAll(entries);
+      index.rewrite();
+      return index;
+   }
+
+   @Nullable
+   Entry get(String key) {
+      return entries.get(key);
+   }
+
+   synchronized void put(String key, Entry entry) throws IOException {
+      if (deleted) {
+         return;
+      }
+      append(record(PUT, key, entry));
+      entries.put(key, entry);
+      compactIfNeeded();
+   }
+
+   synchronized void remove(String key) throws IOException {
+      if (deleted) {
+         return;
+      }
+      // also logged when absent, in case a put is being replaced
+      entries.remove(key);
+      append(record(REMOVE, key, null));
+      compactIfNeeded();
+   }
+
+   /**
+    * Closes and deletes the log. Holders of this index may still call it; their changes are dropped.
+    */
+   synchronized void delete() throws IOException {
+      deleted = true;
+      Closeables2.closeQuietly(log);
+      entries.clear();
+      if (file.exists() && !file.delete()) {
+         throw new IOException("Could not delete metadata index " + file);
+      }
+   }
+
+   synchronized void close() {
+      Closeables2.closeQuietly(log);
+   }
+
+   private void replay() throws IOException {
+      DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+      try {
+         while (true) {
+            int length;
+            try {
+               length = in.readInt();
+            } catch (EOFException e) {
+               break;
+            }
+            if (length <= 0 || length > MAX_RECORD_LENGTH) {
+               throw new EOFException();
+            }
+            long checksum = in.readLong();
+            byte[] record = new byte[length];
+            in.readFully(record);
+            if (checksum(record) != checksum) {
+               throw new EOFException();
+            }
+            DataInputStream recordIn = new DataInputStream(new ByteArrayInputStream(record));
+            byte op = recordIn.readByte();
+            String key = recordIn.readUTF();
+            if (op == PUT) {
+               entries.put(key, Entry.read(recordIn));
+            } else if (op == REMOVE) {
+               entries.remove(key);
+            } else {
+               throw new IOException("Corrupt metadata index " + file + ": unknown record type " + op);
+            }
+            records++;
+         }
+      } catch (EOFException e) {
+         // the last record was not completely written; the next rewrite drops it
+         records = Integer.MAX_VALUE;
+      } finally {
+         Closeables2.closeQuietly(in);
+      }
+      log = openLog();
+   }
+
+   private synchronized void compactIfNeeded() throws IOException {
+      if (records > 2 * entries.size() && records > MIN_RECORDS_TO_COMPACT) {
+         rewrite();
+      }
+   }
+
+   /**
+    * Replaces the log with one holding only the current entries. If the new log cannot be moved into place, the
+    * current one is kept and stays open for appends.
+    */
+   private synchronized void rewrite() throws IOException {
+      File tmp = new File(file.getPath() + ".tmp");
+      OutputStream out = new BufferedOutputStream(new FileOutputStream(tmp));
+      try {
+         for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            out.write(record(PUT, entry.getKey(), entry.getValue()));
+         }
+      } catch (IOException e) {
+         Closeables2.closeQuietly(out);
+         Files.deleteIfExists(tmp.toPath());
+         throw e;
+      }
+      out.close();
+      try {
+         Files.move(tmp.toPath(), file.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+      } catch (IOException e) {
+         // some platforms cannot replace a file that is open
+         Closeables2.closeQuietly(log);
+         log = null;
+         try {
+            Files.move(tmp.toPath(), file.toPath(), REPLACE_EXISTING);
+         } catch (IOException e2) {
+            Files.deleteIfExists(tmp.toPath());
+            log = openLog();
+            throw e2;
+         }
+      }
+      Closeables2.closeQuietly(log);
+      records = entries.size();
+      log = openLog();
+   }
+
+   private OutputStream openLog() throws IOException {
+      return new FileOutputStream(file, true);
+   }
+
+   /** appends a whole record in one write, so that a failure never leaves part of it in the log */
+   private void append(byte[] record) throws IOException {
+      log.write(record);
+      records++;
+   }
+
+   /**
+    * @return the record for {@code op} on {@code key}: its length, a checksum and the serialized change
+    */
+   private static byte[] record(byte op, String key, @Nullable Entry entry) throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeByte(op);
+      out.writeUTF(key);
+      if (entry != null) {
+         entry.write(out);
+      }
+      byte[] payload = bytes.toByteArray();
+      ByteArrayOutputStream record = new ByteArrayOutputStream(12 + payload.length);
+      DataOutputStream recordOut = new DataOutputStream(record);
+      recordOut.writeInt(payload.length);
+      recordOut.writeLong(checksum(payload));
+      recordOut.write(payload);
+      return record.toByteArray();
+   }
+
+   private static long checksum(byte[] bytes) {
+      CRC32 crc = new CRC32();
+      crc.update(bytes, 0, bytes.length);
+      return crc.getValue();
+   }
+
+   private static void writeNullable(DataOutputStream out, @Nullable String value) throws IOException {
+      out.writeBoolean(value != null);
+      if (value != null) {
+         out.writeUTF(value);
+      }
+   }
+
+   @Nullable
+   private static String readNullable(DataInputStream in) throws IOException {
+      return in.readBoolean() ? in.readUTF() : null;
+   }
+}
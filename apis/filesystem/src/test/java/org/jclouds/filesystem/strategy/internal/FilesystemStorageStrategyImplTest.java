@@ -24,12 +24,15 @@ import static org.jclouds.utils.TestUtils.randomByteSource;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UTFDataFormatException;
 import java.nio.file.InvalidPathException;
 import java.util.Iterator;
 import java.util.List;
@@ -56,7 +59,9 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import com.google.common.base.Strings;
 import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -104,6 +109,7 @@ public class FilesystemStorageStrategyImplTest {
 
    @AfterMethod
    protected void tearDown() throws IOException {
+      storageStrategy.shutdownListPool();
       TestUtils.cleanDirectoryContent(TestUtils.TARGET_BASE_DIR);
    }
 
@@ -624,6 +630,40 @@ public class FilesystemStorageStrategyImplTest {
       }
    }
 
+   public void testGetBlobKeysInsideContainerSorted() throws IOException {
+      storageStrategy.createContainer(CONTAINER_NAME);
+      TestUtils.createBlobsInContainer(CONTAINER_NAME, new String[] { "a-b", "a/x", "a/y/z", "b", "c/d" });
+
+      // listed by the iterating thread, then ahead of it
+      for (int parallelism : new int[] { 1, 4 }) {
+         storageStrategy.listParallelism = parallelism;
+         assertEquals(ImmutableList.copyOf(storageStrategy.getBlobKeysInsideContainer(CONTAINER_NAME, null, null)),
+               ImmutableList.of("a-b", "a" + FS, "a/x", "a/y" + FS, "a/y/z", "b", "c" + FS, "c/d"));
+         assertEquals(ImmutableList.copyOf(storageStrategy.getBlobKeysInsideContainer(CONTAINER_NAME, null, "a/x")),
+               ImmutableList.of("a/y" + FS, "a/y/z", "b", "c" + FS, "c/d"));
+         assertEquals(ImmutableList.copyOf(storageStrategy.getBlobKeysInsideContainer(CONTAINER_NAME, "a/", "a/x")),
+               ImmutableList.of("a/y" + FS, "a/y/z"));
+         assertEquals(ImmutableList.copyOf(storageStrategy.getBlobKeysInsideContainer(CONTAINER_NAME, "a/", "a/y/z")),
+               ImmutableList.of());
+         assertEquals(ImmutableList.copyOf(storageStrategy.getBlobKeysInsideContainer(CONTAINER_NAME, "a/y")),
+               ImmutableList.of("a/y" + FS, "a/y/z"));
+      }
+   }
+
+   public void testListsAfterListPoolShutdown() throws IOException {
+      storageStrategy.createContainer(CONTAINER_NAME);
+      TestUtils.createBlobsInContainer(CONTAINER_NAME, new String[] { "a/x", "b/y" });
+      storageStrategy.listParallelism = 4;
+      List<String> expected = ImmutableList.of("a" + FS, "a/x", "b" + FS, "b/y");
+      assertEquals(ImmutableList.copyOf(storageStrategy.getBlobKeysInsideContainer(CONTAINER_NAME, null, null)),
+            expected);
+
+      storageStrategy.shutdownListPool();
+
+      assertEquals(ImmutableList.copyOf(storageStrategy.getBlobKeysInsideContainer(CONTAINER_NAME, null, null)),
+            expected);
+   }
+
    public void testCountsBlob() {
       storageStrategy.countBlobs(CONTAINER_NAME, ListContainerOptions.NONE);
    }
@@ -733,8 +773,217 @@ public class FilesystemStorageStrategyImplTest {
       assertThat(blob).isNotNull();
    }
 
+   @Test(dataProvider = "ignoreOnMacOSX")
+   public void testMetadataIndex() throws Exception {
+      storageStrategy.createContainer(CONTAINER_NAME);
+      FilesystemStorageStrategyImpl indexed = newIndexedStorageStrategy();
+      ByteSource byteSource = randomByteSource().slice(0, 1024);
+      Blob blob = new BlobBuilderImpl()
+            .name("key1")
+            .payload(byteSource)
+            .contentType("text/plain")
+            .userMetadata(ImmutableMap.of("key", "value"))
+            .build();
+      String eTag = indexed.putBlob(CONTAINER_NAME, blob);
+      File indexFile = new File(TestUtils.TARGET_BASE_DIR, "." + CONTAINER_NAME + ".metadata-index");
+      assertTrue(indexFile.isFile());
+      assertThat(storageStrategy.getBlobKeysInsideContainer(CONTAINER_NAME, null)).containsOnly("key1");
+
+      // replayed from the log by a new instance, and rebuilt once the log is gone
+      for (int i = 0; i < 2; i++) {
+         FilesystemStorageStrategyImpl reopened = newIndexedStorageStrategy();
+         assertTrue(reopened.blobExists(CONTAINER_NAME, "key1"));
+         blob = reopened.getBlob(CONTAINER_NAME, "key1");
+         assertEquals(blob.getMetadata().getETag(), eTag);
+         assertEquals(blob.getMetadata().getSize(), Long.valueOf(1024));
+         assertEquals(blob.getMetadata().getContentMetadata().getContentType(), "text/plain");
+         assertEquals(blob.getMetadata().getUserMetadata(), ImmutableMap.of("key", "value"));
+         assertEquals(blob.getPayload().getContentMetadata().getContentLength(), Long.valueOf(1024));
+         assertTrue(indexFile.delete());
+      }
+
+      indexed = newIndexedStorageStrategy();
+      indexed.removeBlob(CONTAINER_NAME, "key1");
+      assertFalse(newIndexedStorageStrategy().blobExists(CONTAINER_NAME, "key1"));
+
+      indexed.deleteContainer(CONTAINER_NAME);
+      assertFalse(indexFile.exists());
+   }
+
+   public void testMetadataIndexCompactsOnAppend() throws Exception {
+      File indexFile = new File(TestUtils.TARGET_BASE_DIR, ".compacted.metadata-index");
+      MetadataIndex index = MetadataIndex.create(indexFile, ImmutableMap.<String, MetadataIndex.Entry>of());
+      try {
+         MetadataIndex.Entry entry = new MetadataIndex.Entry(1024, 0, "\"etag\"", null, null, null, null, null,
+               "text/plain", null, null, ImmutableMap.<String, String>of());
+         index.put("key", entry);
+         long recordLength = indexFile.length();
+
+         // without compaction the log would hold every overwrite
+         for (int i = 0; i < 4096; i++) {
+            index.put("key", entry);
+         }
+         index.remove("other");
+         assertTrue(indexFile.length() <= 1025 * recordLength + 16, "log not compacted: " + indexFile.length());
+      } finally {
+         index.close();
+      }
+
+      index = MetadataIndex.open(indexFile);
+      try {
+         assertEquals(index.get("key").contentType, "text/plain");
+         assertNull(index.get("other"));
+      } finally {
+         index.delete();
+      }
+   }
+
+   public void testMetadataIndexSurvivesFailedAndTornRecords() throws Exception {
+      File indexFile = new File(TestUtils.TARGET_BASE_DIR, ".torn.metadata-index");
+      MetadataIndex.Entry entry = new MetadataIndex.Entry(1024, 0, "\"etag\"", null, null, null, null, null,
+            "text/plain", null, null, ImmutableMap.<String, String>of());
+      MetadataIndex index = MetadataIndex.create(indexFile, ImmutableMap.<String, MetadataIndex.Entry>of());
+      try {
+         index.put("key", entry);
+         long length = indexFile.length();
+         // too long for writeUTF, so nothing may reach the log
+         MetadataIndex.Entry oversized = new MetadataIndex.Entry(1024, 0, "\"etag\"", null, null, null, null, null,
+               "text/plain", null, null, ImmutableMap.of("key", Strings.repeat("v", 70000)));
+         try {
+            index.put("oversized", oversized);
+            fail("expected UTFDataFormatException");
+         } catch (UTFDataFormatException expected) {
+         }
+         assertEquals(indexFile.length(), length);
+         index.put("key2", entry);
+      } finally {
+         index.close();
+      }
+
+      // a record cut short by a crash is dropped
+      RandomAccessFile raf = new RandomAccessFile(indexFile, "rw");
+      try {
+         raf.setLength(raf.length() - 1);
+      } finally {
+         raf.close();
+      }
+      index = MetadataIndex.open(indexFile);
+      try {
+         assertEquals(index.get("key").contentType, "text/plain");
+         assertNull(index.get("oversized"));
+         assertNull(index.get("key2"));
+
+         // holders of a deleted index can still call it
+         index.delete();
+         assertFalse(indexFile.exists());
+         index.put("key3", entry);
+         index.remove("key");
+         assertFalse(indexFile.exists());
+      } finally {
+         index.close();
+      }
+   }
+
+   @Test(dataProvider = "ignoreOnMacOSX")
+   public void testCopyBlob() throws Exception {
+      storageStrategy.createContainer(CONTAINER_NAME);
+      ByteSource byteSource = randomByteSource().slice(0, 1024);
+      Blob blob = new BlobBuilderImpl()
+            .name("source")
+            .payload(byteSource)
+            .contentType("text/plain")
+            .userMetadata(ImmutableMap.of("key", "source"))
+            .build();
+      String eTag = storageStrategy.putBlob(CONTAINER_NAME, blob);
+
+      Blob copy = new BlobBuilderImpl()
+            .name("a/b/copy")
+            .payload(ByteSource.empty())
+            .contentLength(1024)
+            .contentType("application/octet-stream")
+            .userMetadata(ImmutableMap.of("key", "copy"))
+            .build();
+      assertEquals(storageStrategy.copyBlob(CONTAINER_NAME, "source", CONTAINER_NAME, copy), eTag);
+
+      copy = storageStrategy.getBlob(CONTAINER_NAME, "a/b/copy");
+      assertTrue(byteSource.contentEquals(Files.asByteSource(new File(TARGET_CONTAINER_NAME, "a/b/copy"))));
+      assertEquals(copy.getMetadata().getETag(), eTag);
+      assertEquals(copy.getMetadata().getContentMetadata().getContentType(), "application/octet-stream");
+      assertEquals(copy.getMetadata().getUserMetadata(), ImmutableMap.of("key", "copy"));
+      // the source keeps its own metadata
+      blob = storageStrategy.getBlob(CONTAINER_NAME, "source");
+      assertEquals(blob.getMetadata().getContentMetadata().getContentType(), "text/plain");
+      assertEquals(blob.getMetadata().getUserMetadata(), ImmutableMap.of("key", "source"));
+   }
+
+   @Test(dataProvider = "ignoreOnMacOSX")
+   public void testConcatenateBlobs() throws Exception {
+      storageStrategy.createContainer(CONTAINER_NAME);
+      ByteSource byteSource = randomByteSource().slice(0, 3000);
+      List<String> partNames = Lists.newArrayList();
+      for (int i = 0; i < 3; i++) {
+         String partName = "part-" + i;
+         storageStrategy.putBlob(CONTAINER_NAME, new BlobBuilderImpl()
+               .name(partName)
+               .payload(byteSource.slice(i * 1000, 1000))
+               .build());
+         partNames.add(partName);
+      }
+
+      String mpuETag = "\"0123456789abcdef0123456789abcdef-3\"";
+      Blob blob = new BlobBuilderImpl()
+            .name("object")
+            .payload(ByteSource.empty())
+            .contentLength(3000)
+            .eTag(mpuETag)
+            .userMetadata(ImmutableMap.of("key", "value"))
+            .build();
+      storageStrategy.concatenateBlobs(CONTAINER_NAME, partNames, blob);
+
+      blob = storageStrategy.getBlob(CONTAINER_NAME, "object");
+      assertTrue(byteSource.contentEquals(Files.asByteSource(new File(TARGET_CONTAINER_NAME, "object"))));
+      assertEquals(blob.getMetadata().getETag(), mpuETag);
+      assertEquals(blob.getMetadata().getUserMetadata(), ImmutableMap.of("key", "value"));
+      for (String partName : partNames) {
+         assertTrue(storageStrategy.blobExists(CONTAINER_NAME, partName));
+      }
+   }
+
+   @Test
+   public void testConcatenateBlobsIncorrectContentLength() throws Exception {
+      storageStrategy.createContainer(CONTAINER_NAME);
+      storageStrategy.putBlob(CONTAINER_NAME, new BlobBuilderImpl()
+            .name("part")
+            .payload(randomByteSource().slice(0, 1024))
+            .build());
+      Blob blob = new BlobBuilderImpl()
+            .name("object")
+            .payload(ByteSource.empty())
+            .contentLength(512)
+            .eTag("\"0123456789abcdef0123456789abcdef-1\"")
+            .build();
+      try {
+         storageStrategy.concatenateBlobs(CONTAINER_NAME, ImmutableList.of("part"), blob);
+         Fail.failBecauseExceptionWasNotThrown(IOException.class);
+      } catch (IOException ioe) {
+         // expected
+      }
+      assertFalse(storageStrategy.blobExists(CONTAINER_NAME, "object"));
+      assertThat(storageStrategy.getBlobKeysInsideContainer(CONTAINER_NAME, null)).containsOnly("part");
+   }
+
    // ---------------------------------------------------------- Private methods
 
+   private static FilesystemStorageStrategyImpl newIndexedStorageStrategy() {
+      return new FilesystemStorageStrategyImpl(new Provider<BlobBuilder>() {
+         @Override
+         public BlobBuilder get() {
+            return new BlobBuilderImpl();
+         }
+      }, TestUtils.TARGET_BASE_DIR, false, true, new FilesystemContainerNameValidatorImpl(),
+            new FilesystemBlobKeyValidatorImpl(), defaultLocation);
+   }
+
    /**
     * Calculates an absolute directory path that depends on operative system
     *
@@ -50,6 +50,7 @@ import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.jclouds.Constants;
+import org.jclouds.blobstore.BatchDeleteSupport;
 import org.jclouds.blobstore.BlobStore;
 import org.jclouds.blobstore.BlobStoreContext;
 import org.jclouds.blobstore.KeyNotFoundException;
@@ -86,6 +87,7 @@ import org.jclouds.openstack.swift.v1.SwiftApi;
 import org.jclouds.openstack.swift.v1.blobstore.functions.ToBlobMetadata;
 import org.jclouds.openstack.swift.v1.blobstore.functions.ToListContainerOptions;
 import org.jclouds.openstack.swift.v1.blobstore.functions.ToResourceMetadata;
+import org.jclouds.openstack.swift.v1.domain.BulkDeleteResponse;
 import org.jclouds.openstack.swift.v1.domain.Container;
 import org.jclouds.openstack.swift.v1.domain.DeleteStaticLargeObjectResponse;
 import org.jclouds.openstack.swift.v1.domain.ObjectList;
@@ -124,7 +126,7 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Injector;
 import com.google.inject.assistedinject.Assisted;
 
-public class RegionScopedSwiftBlobStore implements BlobStore {
+public class RegionScopedSwiftBlobStore implements BlobStore, BatchDeleteSupport {
 
    @Inject
    protected RegionScopedSwiftBlobStore(Injector baseGraph, BlobStoreContext context, SwiftApi api,
@@ -408,15 +410,24 @@ public class RegionScopedSwiftBlobStore implements BlobStore {
    @Override
    public void removeBlobs(String container, Iterable<String> names) {
       BulkApi bulkApi = api.getBulkApi(regionId);
-      for (List<String> partition : Iterables.partition(names, 1000)) {
+      for (List<String> partition : Iterables.partition(names, getMaximumBatchDeleteSize())) {
          ImmutableList.Builder<String> builder = ImmutableList.builder();
          for (String name : partition) {
             builder.add(container + "/" + name);
          }
-         bulkApi.bulkDelete(builder.build());
+         BulkDeleteResponse response = bulkApi.bulkDelete(builder.build());
+         if (!response.getErrors().isEmpty()) {
+            throw new IllegalStateException(String.format("could not delete %d blobs from %s: %s",
+                  response.getErrors().size(), container, response.getErrors()));
+         }
       }
    }
 
+   @Override
+   public int getMaximumBatchDeleteSize() {
+      return 1000;
+   }
+
    @Override
    public BlobAccess getBlobAccess(String container, String name) {
       return BlobAccess.PRIVATE;
@@ -65,6 +65,7 @@ import org.jclouds.s3.domain.AccessControlList.GroupGranteeURI;
 import org.jclouds.s3.domain.AccessControlList.Permission;
 import org.jclouds.s3.domain.BucketMetadata;
 import org.jclouds.s3.domain.CannedAccessPolicy;
+import org.jclouds.s3.domain.DeleteResult;
 import org.jclouds.s3.domain.ListMultipartUploadResponse;
 import org.jclouds.s3.domain.ListMultipartUploadsResponse;
 import org.jclouds.s3.options.CopyObjectOptions;
@@ -337,11 +338,20 @@ public class S3BlobStore extends BaseBlobStore {
 
    @Override
    public void removeBlobs(String container, Iterable<String> keys) {
-      for (List<String> partition : Iterables.partition(keys, 1000)) {
-         sync.deleteObjects(container, partition);
+      for (List<String> partition : Iterables.partition(keys, getMaximumBatchDeleteSize())) {
+         DeleteResult result = sync.deleteObjects(container, partition);
+         if (!result.getErrors().isEmpty()) {
+            throw new IllegalStateException(String.format("could not delete %d blobs from %s: %s",
+                  result.getErrors().size(), container, result.getErrors()));
+         }
       }
    }
 
+   @Override
+   public int getMaximumBatchDeleteSize() {
+      return 1000;
+   }
+
    @Override
    public BlobAccess getBlobAccess(String container, String name) {
       AccessControlList acl = sync.getObjectACL(container, name);
@@ -19,12 +19,9 @@ package org.jclouds.s3.filters;
 import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.io.BaseEncoding.base16;
-import static com.google.common.io.ByteStreams.readBytes;
 import static org.jclouds.crypto.Macs.asByteProcessor;
 import static org.jclouds.http.utils.Queries.queryParser;
-import static org.jclouds.util.Strings2.toInputStream;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -33,15 +30,22 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 import javax.inject.Inject;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Maps;
@@ -50,7 +54,6 @@ import com.google.common.escape.Escaper;
 import com.google.common.hash.Hashing;
 import com.google.common.hash.HashingInputStream;
 import com.google.common.io.ByteProcessor;
-import com.google.common.io.ByteSource;
 import com.google.common.io.ByteStreams;
 import com.google.common.net.HttpHeaders;
 import com.google.common.net.PercentEscaper;
@@ -116,6 +119,14 @@ public abstract class Aws4SignerBase {
    protected final Supplier<Date> timestampProvider;
    protected final Crypto crypto;
 
+   /** signing keys by secret key, date, region and service; yesterday's keys age out */
+   private final Cache<List<String>, byte[]> signatureKeys = CacheBuilder.newBuilder()
+         .maximumSize(64)
+         .expireAfterWrite(1, TimeUnit.DAYS)
+         .build();
+
+   /** initialized once per thread from {@link Crypto}, then re-keyed for each use */
+   private final ThreadLocal<Mac> macs = new ThreadLocal<Mac>();
 
    protected Aws4SignerBase(SignatureWire signatureWire, String headerTag,
          Supplier<Credentials> creds, Supplier<Date> timestampProvider,
@@ -210,11 +221,17 @@ public abstract class Aws4SignerBase {
     * @return SigningKey
     */
    protected byte[] signatureKey(String secretKey, String datestamp, String region, String service) {
-      byte[] kSecret = ("AWS4" + secretKey).getBytes(UTF_8);
-      byte[] kDate = hmacSHA256(datestamp, kSecret);
-      byte[] kRegion = hmacSHA256(region, kDate);
-      byte[] kService = hmacSHA256(service, kRegion);
-      byte[] kSigning = hmacSHA256("aws4_request", kService);
+      // the key only changes with the date, so it is derived once per day rather than once per request
+      List<String> scope = ImmutableList.of(secretKey, datestamp, region, service);
+      byte[] kSigning = signatureKeys.getIfPresent(scope);
+      if (kSigning == null) {
+         byte[] kSecret = ("AWS4" + secretKey).getBytes(UTF_8);
+         byte[] kDate = hmacSHA256(datestamp, kSecret);
+         byte[] kRegion = hmacSHA256(region, kDate);
+         byte[] kService = hmacSHA256(service, kRegion);
+         kSigning = hmacSHA256("aws4_request", kService);
+         signatureKeys.put(scope, kSigning);
+      }
       return kSigning;
    }
 
@@ -226,9 +243,14 @@ public abstract class Aws4SignerBase {
     */
    protected byte[] hmacSHA256(String toSign, byte[] key) {
       try {
-         return readBytes(toInputStream(toSign), hmacSHA256(crypto, key));
-      } catch (IOException e) {
-         throw new HttpException("read sign error", e);
+         Mac mac = macs.get();
+         if (mac == null) {
+            mac = crypto.hmacSHA256(key);
+            macs.set(mac);
+         } else {
+            mac.init(new SecretKeySpec(key, mac.getAlgorithm()));
+         }
+         return mac.doFinal(toSign.getBytes(UTF_8));
       } catch (InvalidKeyException e) {
          throw new HttpException("invalid key", e);
       }
@@ -263,11 +285,7 @@ public abstract class Aws4SignerBase {
     * @throws HttpException
     */
    public static byte[] hash(byte[] bytes) throws HttpException {
-      try {
-         return ByteSource.wrap(bytes).hash(Hashing.sha256()).asBytes();
-      } catch (IOException e) {
-         throw new HttpException("Unable to compute hash while signing request: " + e.getMessage(), e);
-      }
+      return Hashing.sha256().hashBytes(bytes).asBytes();
    }
 
    /**
@@ -278,7 +296,7 @@ public abstract class Aws4SignerBase {
     * @throws HttpException
     */
    public static byte[] hash(String input) throws HttpException {
-      return hash(new ByteArrayInputStream(input.getBytes(UTF_8)));
+      return Hashing.sha256().hashString(input, UTF_8).asBytes();
    }
 
    /**
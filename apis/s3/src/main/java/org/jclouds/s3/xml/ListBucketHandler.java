@@ -42,8 +42,11 @@ import com.google.common.collect.ImmutableSet.Builder;
  * Parses the following XML document:
  * <p/>
  * ListBucketResult xmlns="http://s3.amazonaws.com/doc/2006-03-01"
+ * <p/>
+ * When a {@link ParseSax.ElementCallback callback} is set, each {@code Contents} entry is passed to it as soon as it
+ * is parsed and is left out of the {@link ListBucketResponse}.
  */
-public class ListBucketHandler extends ParseSax.HandlerWithResult<ListBucketResponse> {
+public class ListBucketHandler extends ParseSax.StreamingHandlerWithResult<ObjectMetadata, ListBucketResponse> {
    private Builder<ObjectMetadata> contents = ImmutableSet.builder();
    private Builder<String> commonPrefixes = ImmutableSet.builder();
    private CanonicalUser currentOwner;
@@ -74,6 +77,11 @@ public class ListBucketHandler extends ParseSax.HandlerWithResult<ListBucketResp
                commonPrefixes.build());
    }
 
+   @Override
+   protected void accumulate(ObjectMetadata element) {
+      contents.add(element);
+   }
+
    private boolean inCommonPrefixes;
    private String currentKey;
    private String nextMarker;
@@ -116,7 +124,7 @@ public class ListBucketHandler extends ParseSax.HandlerWithResult<ListBucketResp
       } else if (qName.equals("StorageClass")) {
          builder.storageClass(ObjectMetadata.StorageClass.valueOf(currentOrNull(currentText)));
       } else if (qName.equals("Contents")) {
-         contents.add(builder.build());
+         emit(builder.build());
          builder = new ObjectMetadataBuilder().bucket(bucketName);
       } else if (qName.equals("Name")) {
          this.bucketName = currentOrNull(currentText);
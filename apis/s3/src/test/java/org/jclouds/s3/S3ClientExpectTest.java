@@ -20,9 +20,12 @@ import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.hash.Hashing.md5;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 import java.net.URI;
 
+import org.jclouds.blobstore.BlobStore;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.io.Payload;
@@ -31,6 +34,7 @@ import org.jclouds.s3.domain.DeleteResult;
 import org.jclouds.s3.internal.BaseS3ClientExpectTest;
 import org.testng.annotations.Test;
 
+import com.google.common.base.Function;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 
@@ -111,4 +115,62 @@ public class S3ClientExpectTest extends BaseS3ClientExpectTest {
 
       assertEquals(result.getErrors().get("key2"), new DeleteResult.Error("AccessDenied", "Access Denied"));
    }
+
+   @Test
+   public void testRemoveBlobsFailsOnDeleteErrors() {
+      final String request = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+         "<Delete>" +
+         "<Object><Key>key1</Key></Object>" +
+         "<Object><Key>key2</Key></Object>" +
+         "</Delete>";
+
+      final Payload requestPayload = Payloads.newStringPayload(request);
+      requestPayload.getContentMetadata().setContentType("text/xml");
+      requestPayload.getContentMetadata().setContentMD5(md5().hashString(request, UTF_8));
+
+      final String response = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+         "<DeleteResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">\n" +
+         "  <Deleted>\n" +
+         "    <Key>key1</Key>\n" +
+         "  </Deleted>\n" +
+         "  <Error>\n" +
+         "    <Key>key2</Key>\n" +
+         "    <Code>AccessDenied</Code>\n" +
+         "    <Message>Access Denied</Message>\n" +
+         "  </Error>\n" +
+         "</DeleteResult>";
+
+      final Payload responsePayload = Payloads.newStringPayload(response);
+      responsePayload.getContentMetadata().setContentType("text/xml");
+
+      final HttpRequest deleteObjects = HttpRequest.builder()
+                    .method("POST")
+                    .endpoint("http://localhost/test?delete")
+                    .addHeader("Date", CONSTANT_DATE)
+                    .addHeader("Authorization", "AWS identity:XptAJrBvfz68TEfPkhXj4R58uvE=")
+                    .payload(requestPayload)
+                    .build();
+      final HttpResponse deleteResult = HttpResponse.builder()
+                     .statusCode(200)
+                     .addHeader("x-amz-request-id", "7A84C3CD4437A4C0")
+                     .addHeader("Date", CONSTANT_DATE)
+                     .addHeader("Server", "AmazonS3")
+                     .payload(responsePayload)
+                     .build();
+
+      BlobStore blobStore = createInjector(new Function<HttpRequest, HttpResponse>() {
+         @Override
+         public HttpResponse apply(HttpRequest input) {
+            assertEquals(renderRequest(input), renderRequest(deleteObjects));
+            return deleteResult;
+         }
+      }, createModule(), setupProperties()).getInstance(BlobStore.class);
+
+      try {
+         blobStore.removeBlobs("test", ImmutableSet.of("key1", "key2"));
+         fail("Expected the error deleting key2 to be reported");
+      } catch (IllegalStateException e) {
+         assertTrue(e.getMessage().contains("key2"), e.getMessage());
+      }
+   }
 }
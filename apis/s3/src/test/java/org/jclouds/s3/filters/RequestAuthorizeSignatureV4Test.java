@@ -18,6 +18,8 @@ package org.jclouds.s3.filters;
 
 import static org.jclouds.reflect.Reflection2.method;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
 
 import java.util.Date;
 
@@ -215,4 +217,16 @@ public class RequestAuthorizeSignatureV4Test {
       assertEquals(filtered.getFirstHeaderOrNull("Authorization"), LIST_BUCKET_RESULT);
    }
 
+   @Test
+   void testSignatureKeyIsDerivedOncePerScope() {
+      Aws4SignerForAuthorizationHeader signer = injector(temporaryCredentials)
+            .getInstance(Aws4SignerForAuthorizationHeader.class);
+      // example from the AWS signature version 4 documentation
+      String secretKey = "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY";
+      byte[] key = signer.signatureKey(secretKey, "20120215", "us-east-1", "iam");
+      assertEquals(Aws4SignerBase.hex(key), "f4780e2d9f65fa895f9c67b32ce1baf0b0d8a43505a000a1a9e090d414db404d");
+      assertSame(signer.signatureKey(secretKey, "20120215", "us-east-1", "iam"), key);
+      assertNotSame(signer.signatureKey(secretKey, "20120216", "us-east-1", "iam"), key);
+   }
+
 }
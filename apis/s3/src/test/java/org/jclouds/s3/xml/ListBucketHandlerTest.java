@@ -16,12 +16,17 @@
  */
 package org.jclouds.s3.xml;
 
+import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.io.BaseEncoding.base16;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.util.List;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jclouds.date.DateService;
 import org.jclouds.date.internal.SimpleDateFormatDateService;
@@ -38,7 +43,14 @@ import org.jclouds.s3.domain.internal.ListBucketResponseImpl;
 import org.jclouds.util.Strings2;
 import org.testng.annotations.Test;
 
+import com.google.common.base.Function;
+import com.google.common.collect.ContiguousSet;
+import com.google.common.collect.DiscreteDomain;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Range;
+import com.google.common.io.ByteSource;
 
 /**
  * Tests behavior of {@code ListBucketHandler}
@@ -110,6 +122,70 @@ public class ListBucketHandlerTest extends BaseHandlerTest {
       return expected;
    }
 
+   public void testApplyInputStreamWithCallback() {
+      InputStream is = getClass().getResourceAsStream("/list_bucket.xml");
+      final List<ObjectMetadata> streamed = Lists.newArrayList();
+      ListBucketHandler handler = injector.getInstance(ListBucketHandler.class);
+      handler.setCallback(new ParseSax.ElementCallback<ObjectMetadata>() {
+         @Override
+         public void onElement(ObjectMetadata element) {
+            streamed.add(element);
+         }
+      });
+
+      ListBucketResponse result = factory.create(handler).setContext(
+               HttpRequest.builder().method("GET").endpoint("http://bucket.com").build()).parse(is);
+
+      ListBucketResponse expected = expected();
+      assertEquals(streamed.toString(), ImmutableList.copyOf(expected).toString());
+      assertTrue(result.isEmpty());
+      assertEquals(result.getPrefix(), expected.getPrefix());
+      assertEquals(result.getMaxKeys(), expected.getMaxKeys());
+   }
+
+   public void testApplyLargeListingWithCallback() throws IOException {
+      final int count = 100000;
+      final AtomicInteger generated = new AtomicInteger();
+      final AtomicInteger generatedAtFirstElement = new AtomicInteger();
+      final AtomicInteger streamed = new AtomicInteger();
+      // the listing is generated as it is read, so it is never held in memory as a whole
+      Iterable<ByteSource> contents = Iterables.transform(
+            ContiguousSet.create(Range.closedOpen(0, count), DiscreteDomain.integers()),
+            new Function<Integer, ByteSource>() {
+               @Override
+               public ByteSource apply(Integer i) {
+                  generated.incrementAndGet();
+                  return ByteSource.wrap(("<Contents><Key>apps/" + i + "</Key>"
+                        + "<LastModified>2009-05-07T18:27:08.000Z</LastModified>"
+                        + "<ETag>&quot;c82e6a0025c31c5de5947fda62ac51ab&quot;</ETag><Size>8</Size>"
+                        + "<StorageClass>STANDARD</StorageClass></Contents>").getBytes(UTF_8));
+               }
+            });
+      ByteSource listing = ByteSource.concat(Iterables.concat(
+            ImmutableList.of(ByteSource.wrap(("<ListBucketResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">"
+                  + "<Name>bucket</Name><Prefix>apps/</Prefix><MaxKeys>1000</MaxKeys>"
+                  + "<IsTruncated>false</IsTruncated>").getBytes(UTF_8))),
+            contents,
+            ImmutableList.of(ByteSource.wrap("</ListBucketResult>".getBytes(UTF_8)))));
+
+      ListBucketHandler handler = injector.getInstance(ListBucketHandler.class);
+      handler.setCallback(new ParseSax.ElementCallback<ObjectMetadata>() {
+         @Override
+         public void onElement(ObjectMetadata element) {
+            if (streamed.getAndIncrement() == 0)
+               generatedAtFirstElement.set(generated.get());
+         }
+      });
+      ListBucketResponse result = factory.create(handler).setContext(
+               HttpRequest.builder().method("GET").endpoint("http://bucket.com").build()).parse(listing.openStream());
+
+      assertEquals(streamed.get(), count);
+      assertTrue(result.isEmpty());
+      assertEquals(result.getPrefix(), "apps/");
+      // entries are handed over while the rest of the document is still unread
+      assertTrue(generatedAtFirstElement.get() < count / 100, "read before first element: " + generatedAtFirstElement);
+   }
+
    ParseSax<ListBucketResponse> createParser() {
       return factory.create(injector.getInstance(ListBucketHandler.class)).setContext(
                HttpRequest.builder().method("GET").endpoint("http://bucket.com").build());
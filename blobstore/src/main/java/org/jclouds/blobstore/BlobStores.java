@@ -33,6 +33,16 @@ import com.google.common.collect.AbstractIterator;
  */
 public class BlobStores {
 
+   /**
+    * @return the number of blobs {@link BlobStore#removeBlobs} deletes with a single request, or 1 if the blob store
+    *         does not implement {@link BatchDeleteSupport}
+    */
+   @Beta
+   public static int getMaximumBatchDeleteSize(BlobStore blobStore) {
+      return blobStore instanceof BatchDeleteSupport ? ((BatchDeleteSupport) blobStore).getMaximumBatchDeleteSize()
+            : 1;
+   }
+
    /**
     * @see listAll(BlobStore, String, ListContainerOptions, ListAllOptions)
     */
@@ -18,6 +18,7 @@ package org.jclouds.blobstore;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
 
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobAccess;
@@ -100,6 +101,17 @@ public interface LocalStorageStrategy {
      */
     Iterable<String> getBlobKeysInsideContainer(String container, String prefix) throws IOException;
 
+    /**
+     * Returns the keys inside a container that start with prefix and sort after marker, in lexicographic order. Keys
+     * are found lazily, so a caller that stops iterating early does not pay for the rest of the container.
+     * @param container
+     * @param prefix only return keys starting with this, or null for all keys
+     * @param marker only return keys sorting strictly after this, or null to start at the first key
+     * @return
+     * @throws IOException
+     */
+    Iterable<String> getBlobKeysInsideContainer(String container, String prefix, String marker) throws IOException;
+
     /**
      * Load the blob with the given key belonging to the container with the given
      * name. There must exist a resource on the file system whose complete name
@@ -123,6 +135,28 @@ public interface LocalStorageStrategy {
      */
     String putBlob(String containerName, Blob blob) throws IOException;
 
+    /**
+     * Copy a stored blob without passing its content through the caller
+     * @param fromContainer
+     * @param fromName
+     * @param toContainer
+     * @param blob name and metadata of the copy; only the content metadata of its payload is used
+     * @return etag of the copy
+     * @throws IOException
+     */
+    String copyBlob(String fromContainer, String fromName, String toContainer, Blob blob) throws IOException;
+
+    /**
+     * Write the content of stored blobs, in order, into a new blob without passing it through the caller. The
+     * source blobs are left in place.
+     * @param containerName
+     * @param sourceNames
+     * @param blob name and metadata of the new blob; only the content metadata of its payload is used
+     * @return etag of blob
+     * @throws IOException
+     */
+    String concatenateBlobs(String containerName, List<String> sourceNames, Blob blob) throws IOException;
+
     /**
      * Remove blob named by the given key
      * @param container
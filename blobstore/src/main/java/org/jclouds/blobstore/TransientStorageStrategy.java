@@ -17,17 +17,29 @@
 package org.jclouds.blobstore;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Maps.immutableEntry;
 import static com.google.common.io.BaseEncoding.base16;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_TRANSIENT_OFF_HEAP_CAPACITY;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_TRANSIENT_OFF_HEAP_SLAB_SIZE;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobAccess;
@@ -43,14 +55,17 @@ import org.jclouds.blobstore.util.BlobStoreUtils;
 import org.jclouds.date.DateService;
 import org.jclouds.domain.Location;
 import org.jclouds.http.HttpUtils;
+import org.jclouds.io.ByteSources;
 import org.jclouds.io.ContentMetadataCodec;
 import org.jclouds.io.MutableContentMetadata;
 import org.jclouds.io.Payload;
 import org.jclouds.io.Payloads;
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.util.Closeables2;
 
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimaps;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.Hashing;
@@ -69,6 +84,20 @@ public class TransientStorageStrategy implements LocalStorageStrategy {
    private final Factory blobFactory;
    private final ContentMetadataCodec contentMetadataCodec;
 
+   /** blobs stored off-heap, least recently used first; guarded by itself */
+   private final LinkedHashMap<Map.Entry<String, String>, Blob> offHeapBlobs =
+         new LinkedHashMap<Map.Entry<String, String>, Blob>(16, 0.75f, true);
+   /** bytes of the blobs in {@link #offHeapBlobs}; guarded by {@link #offHeapBlobs} */
+   private long offHeapSize;
+
+   @com.google.inject.Inject(optional = true)
+   @Named(PROPERTY_TRANSIENT_OFF_HEAP_CAPACITY)
+   long offHeapCapacity = 0;
+
+   @com.google.inject.Inject(optional = true)
+   @Named(PROPERTY_TRANSIENT_OFF_HEAP_SLAB_SIZE)
+   int offHeapSlabSize = 1024 * 1024;
+
    @Inject
    TransientStorageStrategy(Supplier<Location> defaultLocation, DateService dateService, Factory blobFactory,
          ContentMetadataCodec contentMetadataCodec) {
@@ -124,6 +153,7 @@ public class TransientStorageStrategy implements LocalStorageStrategy {
    public void deleteContainer(final String containerName) {
       containerToBlobs.remove(containerName);
       containerToBlobAccess.remove(containerName);
+      forgetOffHeap(containerName);
    }
 
    @Override
@@ -135,6 +165,7 @@ public class TransientStorageStrategy implements LocalStorageStrategy {
    public void clearContainer(String containerName, ListContainerOptions options) {
       // TODO implement options
       containerToBlobs.get(containerName).clear();
+      forgetOffHeap(containerName);
    }
 
    @Override
@@ -158,21 +189,50 @@ public class TransientStorageStrategy implements LocalStorageStrategy {
       return blobs.subMap(prefix, /*fromInclusive=*/ true, lastPrefix, /*toInclusive=*/ false).keySet();
    }
 
+   @Override
+   public Iterable<String> getBlobKeysInsideContainer(final String containerName, String prefix, String marker) {
+      ConcurrentSkipListMap<String, Blob> blobs = containerToBlobs.get(containerName);
+      String from = prefix;
+      boolean fromInclusive = true;
+      if (marker != null && (from == null || marker.compareTo(from) >= 0)) {
+         from = marker;
+         fromInclusive = false;
+      }
+      if (prefix == null) {
+         return from == null ? blobs.keySet() : blobs.tailMap(from, fromInclusive).keySet();
+      }
+      String lastPrefix = prefix + (char) 65535;
+      if (from.compareTo(lastPrefix) > 0) {
+         return ImmutableSet.of();
+      }
+      return blobs.subMap(from, fromInclusive, lastPrefix, /*toInclusive=*/ false).keySet();
+   }
+
    @Override
    public Blob getBlob(final String containerName, final String blobName) {
       Map<String, Blob> map = containerToBlobs.get(containerName);
-      return map == null ? null : map.get(blobName);
+      if (map == null) {
+         return null;
+      }
+      if (offHeapCapacity > 0) {
+         synchronized (offHeapBlobs) {
+            offHeapBlobs.get(immutableEntry(containerName, blobName));
+         }
+      }
+      return map.get(blobName);
    }
 
    @Override
    public String putBlob(final String containerName, final Blob blob) throws IOException {
-      byte[] payload;
+      ByteSource payload;
       HashCode actualHashCode;
       HashingInputStream input = new HashingInputStream(Hashing.md5(), blob.getPayload().openStream());
       try {
-         payload = ByteStreams.toByteArray(input);
-         long actualSize = payload.length;
          Long expectedSize = blob.getMetadata().getContentMetadata().getContentLength();
+         payload = offHeapCapacity > 0 ? readOffHeap(input, expectedSize)
+               : ByteSource.wrap(ByteStreams.toByteArray(input));
+         // off-heap reads stop at the expected size, so count the rest to report the mismatch
+         long actualSize = payload.size() + ByteStreams.copy(input, ByteStreams.nullOutputStream());
          if (expectedSize != null && actualSize != expectedSize) {
             throw new IOException("Content-Length mismatch, actual: " + actualSize +
                   " expected: " + expectedSize);
@@ -188,15 +248,67 @@ public class TransientStorageStrategy implements LocalStorageStrategy {
       }
 
       Blob newBlob = createUpdatedCopyOfBlobInContainer(containerName, blob, payload, actualHashCode);
-      Map<String, Blob> map = containerToBlobs.get(containerName);
       String blobName = newBlob.getMetadata().getName();
-      map.put(blobName, newBlob);
-      containerToBlobAccess.get(containerName).put(blobName, BlobAccess.PRIVATE);
+      if (offHeapCapacity > 0) {
+         // stored and evicted under one lock, so that a concurrent put cannot be evicted by stale bookkeeping
+         synchronized (offHeapBlobs) {
+            storeBlob(containerName, blobName, newBlob);
+            rememberOffHeap(containerName, blobName, newBlob);
+         }
+      } else {
+         storeBlob(containerName, blobName, newBlob);
+      }
       return base16().lowerCase().encode(actualHashCode.asBytes());
    }
 
+   @Override
+   public String copyBlob(String fromContainer, String fromName, String toContainer, Blob blob) throws IOException {
+      return putStoredContent(toContainer, blob, fromContainer, ImmutableList.of(fromName));
+   }
+
+   @Override
+   public String concatenateBlobs(String containerName, List<String> sourceNames, Blob blob) throws IOException {
+      return putStoredContent(containerName, blob, containerName, sourceNames);
+   }
+
+   /** stored content is never modified, so it is read in place rather than through a stream opened by the caller */
+   private String putStoredContent(String containerName, Blob blob, String sourceContainer,
+         List<String> sourceNames) throws IOException {
+      ImmutableList.Builder<ByteSource> sources = ImmutableList.builder();
+      for (String sourceName : sourceNames) {
+         Blob source = getBlob(sourceContainer, sourceName);
+         if (source == null) {
+            throw new KeyNotFoundException(sourceContainer, sourceName, "while copying");
+         }
+         sources.add((ByteSource) source.getPayload().getRawContent());
+      }
+      MutableContentMetadata contentMetadata = blob.getPayload().getContentMetadata();
+      blob.setPayload(Payloads.newByteSourcePayload(ByteSource.concat(sources.build())));
+      HttpUtils.copy(contentMetadata, blob.getPayload().getContentMetadata());
+      return putBlob(containerName, blob);
+   }
+
+   private void storeBlob(String containerName, String blobName, Blob blob) {
+      containerToBlobs.get(containerName).put(blobName, blob);
+      containerToBlobAccess.get(containerName).put(blobName, BlobAccess.PRIVATE);
+   }
+
    @Override
    public void removeBlob(final String containerName, final String blobName) {
+      if (offHeapCapacity > 0) {
+         synchronized (offHeapBlobs) {
+            removeBlobFromMap(containerName, blobName);
+            Blob removed = offHeapBlobs.remove(immutableEntry(containerName, blobName));
+            if (removed != null) {
+               offHeapSize -= removed.getMetadata().getSize();
+            }
+         }
+      } else {
+         removeBlobFromMap(containerName, blobName);
+      }
+   }
+
+   private void removeBlobFromMap(String containerName, String blobName) {
       Map<String, Blob> map = containerToBlobs.get(containerName);
       if (map != null)
          map.remove(blobName);
@@ -234,21 +346,109 @@ public class TransientStorageStrategy implements LocalStorageStrategy {
       return "/";
    }
 
-   private Blob createUpdatedCopyOfBlobInContainer(String containerName, Blob in, byte[] input, HashCode contentMd5) {
+   /**
+    * Reads the payload into direct buffers of at most {@link #offHeapSlabSize} bytes. When the size is known the
+    * buffers are sized to fit, otherwise the last one is trimmed to its content.
+    */
+   private ByteSource readOffHeap(InputStream input, @Nullable Long expectedSize) throws IOException {
+      if (expectedSize != null && expectedSize > offHeapCapacity) {
+         throw new IOException("Blob of " + expectedSize + " bytes exceeds off-heap capacity of " + offHeapCapacity);
+      }
+      ReadableByteChannel channel = Channels.newChannel(input);
+      List<ByteBuffer> slabs = new ArrayList<ByteBuffer>();
+      long size = 0;
+      ByteBuffer slab = null;
+      while (true) {
+         if (slab == null || !slab.hasRemaining()) {
+            if (slab != null) {
+               slab.flip();
+               slabs.add(slab);
+            }
+            long remaining = expectedSize != null ? expectedSize - size : offHeapSlabSize;
+            if (remaining <= 0) {
+               slab = null;
+               break;
+            }
+            slab = ByteBuffer.allocateDirect((int) Math.min(offHeapSlabSize, remaining));
+         }
+         int read = channel.read(slab);
+         if (read < 0) {
+            break;
+         }
+         size += read;
+         if (size > offHeapCapacity) {
+            throw new IOException("Blob exceeds off-heap capacity of " + offHeapCapacity + " bytes");
+         }
+      }
+      if (slab != null) {
+         slab.flip();
+         if (slab.remaining() < slab.capacity()) {
+            slab = ByteBuffer.allocateDirect(slab.remaining()).put(slab);
+            slab.flip();
+         }
+         slabs.add(slab);
+      }
+      return ByteSources.wrap(slabs);
+   }
+
+   /** evicts the least recently used blobs, with their access, until the off-heap blobs fit; call holding the lock */
+   private void rememberOffHeap(String containerName, String blobName, Blob blob) {
+      Blob replaced = offHeapBlobs.put(immutableEntry(containerName, blobName), blob);
+      if (replaced != null) {
+         offHeapSize -= replaced.getMetadata().getSize();
+      }
+      offHeapSize += blob.getMetadata().getSize();
+      for (Iterator<Map.Entry<Map.Entry<String, String>, Blob>> it = offHeapBlobs.entrySet().iterator();
+            offHeapSize > offHeapCapacity && it.hasNext();) {
+         Map.Entry<Map.Entry<String, String>, Blob> eldest = it.next();
+         if (eldest.getValue() != blob) {
+            it.remove();
+            offHeapSize -= eldest.getValue().getMetadata().getSize();
+            String evictedContainer = eldest.getKey().getKey();
+            String evictedName = eldest.getKey().getValue();
+            ConcurrentMap<String, Blob> map = containerToBlobs.get(evictedContainer);
+            if (map != null && map.remove(evictedName, eldest.getValue())) {
+               Map<String, BlobAccess> access = containerToBlobAccess.get(evictedContainer);
+               if (access != null) {
+                  access.remove(evictedName);
+               }
+            }
+         }
+      }
+   }
+
+   private void forgetOffHeap(String containerName) {
+      if (offHeapCapacity <= 0) {
+         return;
+      }
+      synchronized (offHeapBlobs) {
+         for (Iterator<Map.Entry<Map.Entry<String, String>, Blob>> it = offHeapBlobs.entrySet().iterator();
+               it.hasNext();) {
+            Map.Entry<Map.Entry<String, String>, Blob> entry = it.next();
+            if (entry.getKey().getKey().equals(containerName)) {
+               it.remove();
+               offHeapSize -= entry.getValue().getMetadata().getSize();
+            }
+         }
+      }
+   }
+
+   private Blob createUpdatedCopyOfBlobInContainer(String containerName, Blob in, ByteSource input,
+         HashCode contentMd5) throws IOException {
       checkNotNull(containerName, "containerName");
       checkNotNull(in, "blob");
       checkNotNull(input, "input");
       checkNotNull(contentMd5, "contentMd5");
-      Payload payload = Payloads.newByteSourcePayload(ByteSource.wrap(input));
+      Payload payload = Payloads.newByteSourcePayload(input);
       MutableContentMetadata oldMd = in.getPayload().getContentMetadata();
       HttpUtils.copy(oldMd, payload.getContentMetadata());
       payload.getContentMetadata().setContentMD5(contentMd5);
-      payload.getContentMetadata().setContentLength((long) input.length);
+      payload.getContentMetadata().setContentLength(input.size());
       Blob blob = blobFactory.create(BlobStoreUtils.copy(in.getMetadata()));
       blob.setPayload(payload);
       blob.getMetadata().setContainer(containerName);
       blob.getMetadata().setLastModified(new Date());
-      blob.getMetadata().setSize((long) input.length);
+      blob.getMetadata().setSize(input.size());
       String eTag = base16().lowerCase().encode(contentMd5.asBytes());
       blob.getMetadata().setETag(eTag);
       // Set HTTP headers to match metadata
@@ -21,9 +21,6 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Throwables.getCausalChain;
 import static com.google.common.base.Throwables.propagate;
 import static com.google.common.collect.Iterables.size;
-import static com.google.common.collect.Iterables.transform;
-import static com.google.common.collect.Iterables.tryFind;
-import static com.google.common.collect.Sets.filter;
 import static com.google.common.collect.Sets.newTreeSet;
 import static org.jclouds.blobstore.options.ListContainerOptions.Builder.recursive;
 
@@ -92,8 +89,6 @@ import org.jclouds.logging.Logger;
 import org.jclouds.util.Closeables2;
 
 import com.google.common.base.Function;
-import com.google.common.base.Optional;
-import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 import com.google.common.base.Strings;
 import com.google.common.base.Supplier;
@@ -235,147 +230,100 @@ public final class LocalBlobStore implements BlobStore {
       if (!storageStrategy.containerExists(containerName))
          throw cnfe(containerName);
 
-      // Loading blobs from container
-      Iterable<String> blobBelongingToContainer = null;
-      try {
-         blobBelongingToContainer = storageStrategy.getBlobKeysInsideContainer(containerName, options.getPrefix());
-      } catch (IOException e) {
-         logger.error(e, "An error occurred loading blobs contained into container %s", containerName);
-         propagate(e);
-      }
-
-      blobBelongingToContainer = Iterables.filter(blobBelongingToContainer,
-            new Predicate<String>() {
-               @Override
-               public boolean apply(String key) {
-                  // ignore folders
-                  return storageStrategy.blobExists(containerName, key);
-               }
-            });
-      SortedSet<StorageMetadata> contents = newTreeSet(FluentIterable.from(blobBelongingToContainer)
-            .transform(new Function<String, StorageMetadata>() {
-               @Override
-               public StorageMetadata apply(String key) {
-                  Blob oldBlob = loadBlob(containerName, key);
-                  if (oldBlob == null) {
-                     return null;
-                  }
-                  checkState(oldBlob.getMetadata() != null, "blob " + containerName + "/" + key + " has no metadata");
-                  MutableBlobMetadata md = BlobStoreUtils.copy(oldBlob.getMetadata());
-                  md.setSize(oldBlob.getMetadata().getSize());
-                  return md;
-               }
-            })
-            .filter(Predicates.<StorageMetadata>notNull()));
-
-      String marker = null;
-      if (options != null) {
-         if (options.getDir() != null && !options.getDir().isEmpty()) {
-            contents = filterDirectory(contents, options);
-         } else if (!Strings.isNullOrEmpty(options.getPrefix())) {
-            contents = filterPrefix(contents, options);
-         } else if (!options.isRecursive() || (options.getDelimiter() != null)) {
-            String delimiter = options.getDelimiter() == null ? storageStrategy.getSeparator() : options.getDelimiter();
-            contents = extractCommonPrefixes(contents, delimiter, null);
+      // keys outside of prefix are not listed; keys containing delimiter after prefix are rolled up
+      String prefix = null;
+      String delimiter = null;
+      boolean excludePrefix = false;
+      if (options.getDir() != null && !options.getDir().isEmpty()) {
+         prefix = options.getDir().endsWith("/") ? options.getDir() : options.getDir() + "/";
+         excludePrefix = true;
+         if (!options.isRecursive())
+            delimiter = storageStrategy.getSeparator();
+      } else {
+         if (!Strings.isNullOrEmpty(options.getPrefix()))
+            prefix = options.getPrefix();
+         if (!options.isRecursive() || options.getDelimiter() != null)
+            delimiter = options.getDelimiter() == null ? storageStrategy.getSeparator() : options.getDelimiter();
+      }
+      if (Strings.isNullOrEmpty(delimiter))
+         delimiter = null;
+
+      String marker = options.getMarker();
+      int maxResults = options.getMaxResults() != null ? options.getMaxResults() : 1000;
+      SortedSet<StorageMetadata> contents = newTreeSet();
+      String nextMarker = null;
+      String lastCommonPrefix = null;
+      Iterator<String> keys = blobKeysAfter(containerName, prefix, marker);
+      while (keys.hasNext()) {
+         String key = keys.next();
+         String name = key.replace(File.separatorChar, '/');
+         if (prefix != null && (!name.startsWith(prefix) || (excludePrefix && name.equals(prefix))))
+            continue;
+         // ignore folders
+         if (!storageStrategy.blobExists(containerName, key))
+            continue;
+
+         String commonPrefix = delimiter == null ? null : commonPrefix(key, prefix, delimiter);
+         if (commonPrefix != null) {
+            if (commonPrefix.equals(lastCommonPrefix))
+               continue;
+            lastCommonPrefix = commonPrefix;
+            // all other keys rolled up into this prefix sort directly after it, so skip past them
+            keys = blobKeysAfter(containerName, prefix, commonPrefix + LAST_CHAR);
+            if (marker != null && commonPrefix.compareTo(marker) <= 0)
+               continue;
          }
 
-         if (options.getMarker() != null) {
-            final String finalMarker = options.getMarker();
-            String delimiter = storageStrategy.getSeparator();
-            Optional<StorageMetadata> lastMarkerMetadata = tryFind(contents, new Predicate<StorageMetadata>() {
-               public boolean apply(StorageMetadata metadata) {
-                  return metadata.getName().compareTo(finalMarker) > 0;
-               }
-            });
-            if (lastMarkerMetadata.isPresent()) {
-               contents = contents.tailSet(lastMarkerMetadata.get());
-            } else {
-               // marker is after last key or container is empty
-               contents.clear();
-            }
+         if (contents.size() == maxResults) {
+            // Partial listing
+            if (maxResults != 0)
+               nextMarker = contents.last().getName();
+            break;
          }
 
-         int maxResults = options.getMaxResults() != null ? options.getMaxResults() : 1000;
-         if (!contents.isEmpty()) {
-            StorageMetadata lastElement = contents.last();
-            contents = newTreeSet(Iterables.limit(contents, maxResults));
-            if (maxResults != 0 && !contents.contains(lastElement)) {
-               // Partial listing
-               lastElement = contents.last();
-               marker = lastElement.getName();
-            }
+         if (commonPrefix != null) {
+            MutableStorageMetadata md = new MutableStorageMetadataImpl();
+            md.setType(StorageType.RELATIVE_PATH);
+            md.setName(commonPrefix);
+            contents.add(md);
+            continue;
          }
 
+         Blob oldBlob = loadBlob(containerName, key);
+         if (oldBlob == null)
+            continue;
+         checkState(oldBlob.getMetadata() != null, "blob " + containerName + "/" + key + " has no metadata");
+         MutableBlobMetadata md = BlobStoreUtils.copy(oldBlob.getMetadata());
+         md.setSize(oldBlob.getMetadata().getSize());
          // trim metadata, if the response isn't supposed to be detailed.
-         if (!options.isDetailed()) {
-            for (StorageMetadata md : contents) {
-               md.getUserMetadata().clear();
-            }
-         }
-      }
-
-      return new PageSetImpl<StorageMetadata>(contents, marker);
-   }
-
-   private SortedSet<StorageMetadata> filterDirectory(SortedSet<StorageMetadata> contents, ListContainerOptions
-           options) {
-      String prefix = options.getDir();
-      final String dirPrefix = prefix.endsWith("/") ?
-              prefix :
-              prefix + "/";
-      contents = newTreeSet(filter(contents, new Predicate<StorageMetadata>() {
-         public boolean apply(StorageMetadata o) {
-            return o != null
-                    && o.getName().replace(File.separatorChar, '/').startsWith(dirPrefix)
-                    && !o.getName().replace(File.separatorChar, '/').equals(dirPrefix);
-         }
-      }));
-
-      if (!options.isRecursive()) {
-         return extractCommonPrefixes(contents, storageStrategy.getSeparator(), dirPrefix);
+         if (!options.isDetailed())
+            md.getUserMetadata().clear();
+         contents.add(md);
       }
 
-      return contents;
+      return new PageSetImpl<StorageMetadata>(contents, nextMarker);
    }
 
-   private SortedSet<StorageMetadata> filterPrefix(SortedSet<StorageMetadata> contents, final ListContainerOptions
-                                                   options) {
-      contents = newTreeSet(filter(contents, new Predicate<StorageMetadata>() {
-         public boolean apply(StorageMetadata o) {
-            return o != null && o.getName().replace(File.separatorChar, '/').startsWith(options.getPrefix());
-         }
-      }));
+   /** sorts after any key that starts with the string it is appended to */
+   private static final char LAST_CHAR = (char) 65535;
 
-      if (options.getDelimiter() != null || !options.isRecursive()) {
-          String delimiter = options.getDelimiter() == null ? storageStrategy.getSeparator() : options.getDelimiter();
-          return extractCommonPrefixes(contents, delimiter, options.getPrefix());
+   private Iterator<String> blobKeysAfter(String containerName, String prefix, String marker) {
+      try {
+         return storageStrategy.getBlobKeysInsideContainer(containerName, prefix, marker).iterator();
+      } catch (IOException e) {
+         logger.error(e, "An error occurred loading blobs contained into container %s", containerName);
+         throw propagate(e);
       }
-
-      return contents;
    }
 
-   private SortedSet<StorageMetadata> extractCommonPrefixes(SortedSet<StorageMetadata> contents, String delimiter,
-                                                            String prefix) {
-      if (Strings.isNullOrEmpty(delimiter)) {
-         return contents;
-      }
-      SortedSet<String> commonPrefixes = newTreeSet(
-              transform(contents, new CommonPrefixes(prefix, delimiter)));
-      commonPrefixes.remove(CommonPrefixes.NO_PREFIX);
-
-      contents = newTreeSet(filter(contents, new DelimiterFilter(prefix, delimiter)));
-
-      for (String o : commonPrefixes) {
-         MutableStorageMetadata md = new MutableStorageMetadataImpl();
-         md.setType(StorageType.RELATIVE_PATH);
-
-         if (prefix != null) {
-            o = prefix + o;
-         }
-         md.setName(o + delimiter);
-         contents.add(md);
-      }
-      return contents;
+   /**
+    * @return the part of {@code name} up to and including the first {@code delimiter} after {@code prefix}, or null
+    *         if there is none
+    */
+   private static String commonPrefix(String name, String prefix, String delimiter) {
+      int start = prefix == null ? 0 : prefix.length();
+      int index = name.indexOf(delimiter, start);
+      return index == -1 ? null : name.substring(0, index + delimiter.length());
    }
 
    private ContainerNotFoundException cnfe(final String name) {
@@ -468,60 +416,6 @@ public final class LocalBlobStore implements BlobStore {
       return storageStrategy.getBlob(container, key);
    }
 
-   private static class DelimiterFilter implements Predicate<StorageMetadata> {
-      private final String prefix;
-      private final String delimiter;
-
-      public DelimiterFilter(String prefix, String delimiter) {
-         this.prefix = prefix;
-         this.delimiter = delimiter;
-      }
-
-      public boolean apply(StorageMetadata metadata) {
-         String name = metadata.getName();
-         if (prefix == null || prefix.isEmpty()) {
-            return name.indexOf(delimiter) == -1;
-         }
-         if (name.startsWith(prefix)) {
-            String unprefixedName = name.substring(prefix.length());
-            if (unprefixedName.equals("")) {
-               // a blob that matches the prefix should also be returned
-               return true;
-            }
-            return unprefixedName.indexOf(delimiter) == -1;
-         }
-         return false;
-      }
-   }
-
-   private static class CommonPrefixes implements Function<StorageMetadata, String> {
-      private final String prefix;
-      private final String delimiter;
-      public static final String NO_PREFIX = "NO_PREFIX";
-
-      public CommonPrefixes(String prefix, String delimiter) {
-         this.prefix = prefix;
-         this.delimiter = delimiter;
-      }
-
-      public String apply(StorageMetadata metadata) {
-         String working = metadata.getName();
-         if (prefix != null) {
-            if (working.startsWith(prefix)) {
-               working = working.substring(prefix.length());
-            } else {
-               return NO_PREFIX;
-            }
-         }
-         if (working.indexOf(delimiter) >= 0) {
-            // include the delimiter in the result
-            return working.substring(0, working.indexOf(delimiter));
-         } else {
-            return NO_PREFIX;
-         }
-      }
-   }
-
    private static HttpResponseException returnResponseException(int code) {
       HttpResponse response = HttpResponse.builder().statusCode(code).build();
       return new HttpResponseException(new HttpCommand(HttpRequest.builder().method("GET").endpoint("http://stub")
@@ -536,7 +430,11 @@ public final class LocalBlobStore implements BlobStore {
    @Override
    public String copyBlob(String fromContainer, String fromName, String toContainer, String toName,
          CopyOptions options) {
-      Blob blob = getBlob(fromContainer, fromName);
+      if (!storageStrategy.containerExists(fromContainer)) {
+         throw cnfe(fromContainer);
+      }
+      // only the metadata is needed here, the content is copied by the storage strategy
+      Blob blob = loadBlob(fromContainer, fromName);
       if (blob == null) {
          throw new KeyNotFoundException(fromContainer, fromName, "while copying");
       }
@@ -562,12 +460,13 @@ public final class LocalBlobStore implements BlobStore {
          }
       }
 
-      InputStream is = null;
+      if (!storageStrategy.containerExists(toContainer)) {
+         throw cnfe(toContainer);
+      }
       try {
-         is = blob.getPayload().openStream();
          ContentMetadata metadata = blob.getMetadata().getContentMetadata();
          BlobBuilder.PayloadBlobBuilder builder = blobBuilder(toName)
-               .payload(is);
+               .payload(ByteSource.empty());
          Long contentLength = metadata.getContentLength();
          if (contentLength != null) {
             builder.contentLength(contentLength);
@@ -609,11 +508,11 @@ public final class LocalBlobStore implements BlobStore {
          } else {
             builder.userMetadata(blob.getMetadata().getUserMetadata());
          }
-         return putBlob(toContainer, builder.build());
+         String copyETag = storageStrategy.copyBlob(fromContainer, fromName, toContainer, builder.build());
+         setBlobAccess(toContainer, toName, BlobAccess.PRIVATE);
+         return copyETag;
       } catch (IOException ioe) {
          throw Throwables.propagate(ioe);
-      } finally {
-         Closeables2.closeQuietly(is);
       }
    }
 
@@ -674,17 +573,23 @@ public final class LocalBlobStore implements BlobStore {
                      .getMetadata().getLastModified(), unmodifiedSince), null, response);
             }
          }
+         // the stored payload, before copyBlob replaces it with a stream
+         Object rawContent = blob.getPayload().getRawContent();
          blob = copyBlob(blob);
 
          if (options.getRanges() != null && !options.getRanges().isEmpty()) {
             long size = 0;
             ImmutableList.Builder<ByteSource> streams = ImmutableList.builder();
 
-            // Try to convert payload to ByteSource, otherwise wrap it.
+            // Slice the stored ByteSource when there is one, otherwise read the payload.
             ByteSource byteSource;
-            try {
-               byteSource = (ByteSource) blob.getPayload().getRawContent();
-            } catch (ClassCastException cce) {
+            if (rawContent instanceof ByteSource) {
+               byteSource = (ByteSource) rawContent;
+               if (blob.getPayload().getRawContent() != rawContent) {
+                  // close the stream copyBlob opened
+                  blob.getPayload().release();
+               }
+            } else {
                try {
                   byteSource = ByteSource.wrap(ByteStreams2.toByteArrayAndClose(blob.getPayload().openStream()));
                } catch (IOException e) {
@@ -832,14 +737,18 @@ public final class LocalBlobStore implements BlobStore {
 
    @Override
    public String completeMultipartUpload(MultipartUpload mpu, List<MultipartPart> parts) {
-      ImmutableList.Builder<Blob> blobs = ImmutableList.builder();
+      ImmutableList.Builder<String> partNames = ImmutableList.builder();
       long contentLength = 0;
       Hasher md5Hasher = Hashing.md5().newHasher();
 
       for (MultipartPart part : parts) {
-         Blob blobPart = getBlob(mpu.containerName(), MULTIPART_PREFIX + mpu.id() + "-" + mpu.blobName() + "-" + part.partNumber());
+         String partName = MULTIPART_PREFIX + mpu.id() + "-" + mpu.blobName() + "-" + part.partNumber();
+         Blob blobPart = loadBlob(mpu.containerName(), partName);
+         if (blobPart == null) {
+            throw new KeyNotFoundException(mpu.containerName(), partName, "while completing multipart upload");
+         }
          contentLength += blobPart.getMetadata().getContentMetadata().getContentLength();
-         blobs.add(blobPart);
+         partNames.add(partName);
          if (blobPart.getMetadata().getETag() != null) {
             md5Hasher.putBytes(BaseEncoding.base16().lowerCase().decode(blobPart.getMetadata().getETag()));
          }
@@ -852,7 +761,7 @@ public final class LocalBlobStore implements BlobStore {
          .toString();
       PayloadBlobBuilder blobBuilder = blobBuilder(mpu.blobName())
             .userMetadata(mpu.blobMetadata().getUserMetadata())
-            .payload(new MultiBlobInputStream(blobs.build()))
+            .payload(ByteSource.empty())
             .contentLength(contentLength)
             .eTag(mpuETag);
       String cacheControl = mpu.blobMetadata().getContentMetadata().getCacheControl();
@@ -885,7 +794,12 @@ public final class LocalBlobStore implements BlobStore {
           blobBuilder.tier(tier);
       }
 
-      putBlob(mpu.containerName(), blobBuilder.build());
+      // the parts are concatenated by the storage strategy rather than streamed through putBlob
+      try {
+         storageStrategy.concatenateBlobs(mpu.containerName(), partNames.build(), blobBuilder.build());
+      } catch (IOException ioe) {
+         throw Throwables.propagate(ioe);
+      }
 
       for (MultipartPart part : parts) {
          removeBlob(mpu.containerName(), MULTIPART_PREFIX + mpu.id() + "-" + mpu.blobName() + "-" + part.partNumber());
@@ -976,22 +890,43 @@ public final class LocalBlobStore implements BlobStore {
 
    @Override
    public void downloadBlob(String container, String name, File destination) {
-      throw new UnsupportedOperationException();
+      InputStream is = streamBlob(container, name);
+      try {
+         com.google.common.io.Files.asByteSink(destination).writeFrom(is);
+      } catch (IOException ioe) {
+         throw propagate(ioe);
+      } finally {
+         Closeables2.closeQuietly(is);
+      }
    }
 
+   /**
+    * The blob is already local, so this copies it on the calling thread rather than in concurrent ranges.
+    */
    @Override
    public void downloadBlob(String container, String name, File destination, ExecutorService executor) {
-      throw new UnsupportedOperationException();
+      downloadBlob(container, name, destination);
    }
 
    @Override
    public InputStream streamBlob(String container, String name) {
-      throw new UnsupportedOperationException();
+      Blob blob = getBlob(container, name);
+      if (blob == null) {
+         throw new KeyNotFoundException(container, name, "while streaming");
+      }
+      try {
+         return blob.getPayload().openStream();
+      } catch (IOException ioe) {
+         throw propagate(ioe);
+      }
    }
 
+   /**
+    * The blob is already local, so this streams it directly rather than in concurrent ranges.
+    */
    @Override
    public InputStream streamBlob(String container, String name, ExecutorService executor) {
-      throw new UnsupportedOperationException();
+      return streamBlob(container, name);
    }
 
    private static String maybeQuoteETag(String eTag) {
@@ -1000,42 +935,4 @@ public final class LocalBlobStore implements BlobStore {
       }
       return eTag;
    }
-
-   private static final class MultiBlobInputStream extends InputStream {
-      private final Iterator<Blob> blobs;
-      private InputStream current;
-
-      MultiBlobInputStream(List<Blob> blobs) {
-         this.blobs = blobs.iterator();
-      }
-
-      @Override
-      public int read() throws IOException {
-         byte[] b = new byte[1];
-         int result = read(b, 0, b.length);
-         if (result == -1) {
-            return -1;
-         }
-         return b[0] & 0x000000FF;
-      }
-
-      @Override
-      public int read(byte[] b, int off, int len) throws IOException {
-         while (true) {
-            if (current == null) {
-               if (!blobs.hasNext()) {
-                  return -1;
-               }
-               current = blobs.next().getPayload().openStream();
-            }
-            int result = current.read(b, off, len);
-            if (result == -1) {
-               current.close();
-               current = null;
-               continue;
-            }
-            return result;
-         }
-      }
-   }
 }
@@ -19,33 +19,50 @@ package org.jclouds.blobstore.internal;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_MULTIPART_UPLOAD_BUFFERS;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_MULTIPART_UPLOAD_DIRECT_BUFFERS;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_MULTIPART_UPLOAD_PART_RETRIES;
 import static org.jclouds.blobstore.options.ListContainerOptions.Builder.recursive;
 import static org.jclouds.util.Predicates2.retry;
+import static org.jclouds.util.Throwables2.getFirstThrowableOfType;
 
 import java.io.File;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.inject.Named;
 
+import org.jclouds.blobstore.BatchDeleteSupport;
 import org.jclouds.blobstore.BlobStore;
 import org.jclouds.blobstore.BlobStoreContext;
 import org.jclouds.blobstore.ContainerNotFoundException;
 import org.jclouds.blobstore.KeyNotFoundException;
 import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobMetadata;
 import org.jclouds.blobstore.domain.BlobBuilder;
 import org.jclouds.blobstore.domain.MultipartPart;
 import org.jclouds.blobstore.domain.MultipartUpload;
 import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.options.CopyOptions;
+import org.jclouds.blobstore.options.GetOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.blobstore.options.PutOptions;
 import org.jclouds.blobstore.strategy.internal.MultipartUploadSlicingAlgorithm;
@@ -56,10 +73,15 @@ import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.http.HttpResponseException;
+import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
+import org.jclouds.io.ByteSources;
 import org.jclouds.io.ContentMetadata;
 import org.jclouds.io.Payload;
 import org.jclouds.io.Payloads;
 import org.jclouds.io.PayloadSlicer;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.rest.AuthorizationException;
+import org.jclouds.rest.ResourceNotFoundException;
 import org.jclouds.util.Closeables2;
 
 import com.google.common.annotations.Beta;
@@ -67,11 +89,13 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
 import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 
-public abstract class BaseBlobStore implements BlobStore {
+public abstract class BaseBlobStore implements BlobStore, BatchDeleteSupport {
 
    protected final BlobStoreContext context;
    protected final BlobUtils blobUtils;
@@ -146,6 +170,11 @@ public abstract class BaseBlobStore implements BlobStore {
       }
    }
 
+   @Override
+   public int getMaximumBatchDeleteSize() {
+      return 1;
+   }
+
    /**
     * This implementation invokes {@link #countBlobs} with the
     * {@link ListContainerOptions#recursive} option.
@@ -333,6 +362,21 @@ public abstract class BaseBlobStore implements BlobStore {
    @VisibleForTesting
    ListeningExecutorService userExecutor;
 
+   @com.google.inject.Inject(optional = true)
+   @Named(PROPERTY_MULTIPART_UPLOAD_BUFFERS)
+   protected int multipartUploadBuffers = 0;
+
+   @com.google.inject.Inject(optional = true)
+   @Named(PROPERTY_MULTIPART_UPLOAD_DIRECT_BUFFERS)
+   protected boolean multipartUploadDirectBuffers = false;
+
+   @com.google.inject.Inject(optional = true)
+   @Named(PROPERTY_MULTIPART_UPLOAD_PART_RETRIES)
+   protected int multipartUploadPartRetries = 2;
+
+   @com.google.inject.Inject(optional = true)
+   protected BackoffLimitedRetryHandler backoffHandler = BackoffLimitedRetryHandler.INSTANCE;
+
    /**
     * Upload using a user-provided executor, or the jclouds userExecutor
     *
@@ -380,6 +424,11 @@ public abstract class BaseBlobStore implements BlobStore {
          MultipartUploadSlicingAlgorithm algorithm = new MultipartUploadSlicingAlgorithm(
                getMinimumMultipartPartSize(), getMaximumMultipartPartSize(), getMaximumNumberOfParts());
          long partSize = algorithm.calculateChunkSize(contentLength);
+         long bufferSize = Math.max(partSize, algorithm.getRemaining());
+         if (!repeatable && multipartUploadBuffers > 1 && bufferSize <= Integer.MAX_VALUE) {
+            return completeMultipartUpload(mpu, uploadBufferedParts(mpu, blob.getPayload(), algorithm,
+                  partSize, (int) bufferSize, executor));
+         }
          int partNumber = 1;
          while (partNumber <= algorithm.getParts()) {
             Payload slice = slicer.slice(payload, algorithm.getCopied(), partSize);
@@ -416,6 +465,121 @@ public abstract class BaseBlobStore implements BlobStore {
       }
    }
 
+   /**
+    * Reads a non-repeatable payload into a bounded pool of part buffers and uploads each buffer concurrently, so
+    * that the payload is read while earlier parts are in flight. Reading blocks while every buffer holds a part that
+    * is not yet uploaded, and a part that failed {@link #isRetryable retryably} is retried from its buffer.
+    */
+   private List<MultipartPart> uploadBufferedParts(MultipartUpload mpu, Payload payload,
+         MultipartUploadSlicingAlgorithm algorithm, long partSize, int bufferSize,
+         ListeningExecutorService executor) {
+      final BlockingQueue<ByteBuffer> idleBuffers = new ArrayBlockingQueue<ByteBuffer>(multipartUploadBuffers);
+      final AtomicBoolean failed = new AtomicBoolean();
+      List<ListenableFuture<MultipartPart>> parts = new ArrayList<ListenableFuture<MultipartPart>>();
+      int allocated = 0;
+      try {
+         ReadableByteChannel source = Channels.newChannel(payload.openStream());
+         int lastPartNumber = algorithm.getParts() + (algorithm.getRemaining() != 0 ? 1 : 0);
+         for (int partNumber = 1; partNumber <= lastPartNumber && !failed.get(); partNumber++) {
+            long size = partNumber <= algorithm.getParts() ? partSize : algorithm.getRemaining();
+            final ByteBuffer buffer;
+            if (!idleBuffers.isEmpty() || allocated == multipartUploadBuffers) {
+               // backpressure: wait for a part upload to return its buffer
+               buffer = idleBuffers.take();
+            } else {
+               buffer = multipartUploadDirectBuffers ? ByteBuffer.allocateDirect(bufferSize)
+                     : ByteBuffer.allocate(bufferSize);
+               allocated++;
+            }
+            buffer.clear().limit((int) size);
+            while (buffer.hasRemaining()) {
+               if (source.read(buffer) < 0) {
+                  idleBuffers.add(buffer);
+                  throw new IOException("Payload ended before part " + partNumber + " of " + mpu.blobName()
+                        + " was complete");
+               }
+            }
+            buffer.flip();
+            ListenableFuture<MultipartPart> part = executor.submit(new BufferedPartUploader(mpu, partNumber,
+                  buffer));
+            Futures.addCallback(part, new FutureCallback<MultipartPart>() {
+               @Override
+               public void onSuccess(MultipartPart result) {
+                  idleBuffers.add(buffer);
+               }
+
+               @Override
+               public void onFailure(Throwable t) {
+                  failed.set(true);
+                  idleBuffers.add(buffer);
+               }
+            }, MoreExecutors.directExecutor());
+            parts.add(part);
+         }
+         return Futures.getUnchecked(Futures.allAsList(parts));
+      } catch (IOException ioe) {
+         throw Throwables.propagate(ioe);
+      } catch (InterruptedException ie) {
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(ie);
+      } finally {
+         for (ListenableFuture<MultipartPart> part : parts) {
+            part.cancel(true);
+         }
+      }
+   }
+
+   private final class BufferedPartUploader implements Callable<MultipartPart> {
+      private final MultipartUpload mpu;
+      private final int partNumber;
+      private final ByteBuffer buffer;
+
+      BufferedPartUploader(MultipartUpload mpu, int partNumber, ByteBuffer buffer) {
+         this.mpu = mpu;
+         this.partNumber = partNumber;
+         this.buffer = buffer;
+      }
+
+      @Override
+      public MultipartPart call() {
+         for (int failures = 0;; failures++) {
+            if (failures > 0) {
+               // the HTTP layer has already retried without success, so give the service time to recover
+               backoffHandler.imposeBackoffExponentialDelay(failures, "upload of part " + partNumber + " of "
+                     + mpu.containerName() + "/" + mpu.blobName());
+            }
+            Payload payload = Payloads.newByteSourcePayload(ByteSources.wrap(buffer));
+            payload.getContentMetadata().setContentLength((long) buffer.remaining());
+            try {
+               return uploadMultipartPart(mpu, partNumber, payload);
+            } catch (RuntimeException re) {
+               if (!isRetryable(re) || failures >= multipartUploadPartRetries) {
+                  throw re;
+               }
+            }
+         }
+      }
+   }
+
+   /**
+    * Whether uploading a part again may succeed after {@code e}: an I/O error, or a server error, throttling or
+    * timeout response that outlasted the retries of the HTTP layer. Client errors such as authorization failures
+    * fail the same way each time.
+    */
+   @VisibleForTesting
+   static boolean isRetryable(RuntimeException e) {
+      if (getFirstThrowableOfType(e, AuthorizationException.class) != null
+            || getFirstThrowableOfType(e, ResourceNotFoundException.class) != null) {
+         return false;
+      }
+      HttpResponseException hre = getFirstThrowableOfType(e, HttpResponseException.class);
+      if (hre != null && hre.getResponse() != null) {
+         int statusCode = hre.getResponse().getStatusCode();
+         return statusCode >= 500 || statusCode == 408 || statusCode == 429;
+      }
+      return getFirstThrowableOfType(e, IOException.class) != null;
+   }
+
    private static HttpResponseException returnResponseException(int code) {
       HttpResponse response = HttpResponse.builder().statusCode(code).build();
       // TODO: bogus endpoint
@@ -430,23 +594,151 @@ public abstract class BaseBlobStore implements BlobStore {
       return eTag;
    }
 
+   /** ranges of a streamed blob that are requested ahead of the reader */
+   private static final int STREAM_WINDOW_PARTS = 4;
+
+   /**
+    * This implementation invokes {@link #downloadBlob(String, String, File, ExecutorService)} with the jclouds
+    * userExecutor
+    */
+   @Beta
    @Override
    public void downloadBlob(String container, String name, File destination) {
-      throw new UnsupportedOperationException("Operation not supported yet");
+      downloadBlob(container, name, destination, userExecutor);
    }
 
+   /**
+    * This implementation fetches ranges of {@link #getMinimumMultipartPartSize} bytes concurrently, each written at
+    * its offset in a temporary file that replaces {@code destination} once all ranges have arrived. Each range is
+    * conditional on the ETag the blob had when the download started, so that a blob replaced during the download
+    * fails it instead of mixing two versions.
+    */
+   @Beta
    @Override
    public void downloadBlob(String container, String name, File destination, ExecutorService executor) {
-      throw new UnsupportedOperationException("Operation not supported yet");
+      ListeningExecutorService listeningExecutor = MoreExecutors.listeningDecorator(executor);
+      BlobMetadata metadata = getMetadata(container, name);
+      long contentLength = getContentLength(metadata);
+      String eTag = metadata.getETag();
+      long partSize = getMinimumMultipartPartSize();
+      File tempFile = new File(destination + "." + UUID.randomUUID());
+      RandomAccessFile raf = null;
+      List<ListenableFuture<Void>> results = new ArrayList<ListenableFuture<Void>>();
+      try {
+         raf = new RandomAccessFile(tempFile, "rw");
+         // reserve space up front rather than extending the file range by range
+         raf.setLength(contentLength);
+         FileChannel channel = raf.getChannel();
+         for (long from = 0; from < contentLength; from += partSize) {
+            long to = Math.min(from + partSize, contentLength) - 1;
+            results.add(listeningExecutor.submit(new RangeDownloader(container, name, eTag, channel, from, to)));
+         }
+         Futures.getUnchecked(Futures.allAsList(results));
+         channel.force(true);
+         raf.close();
+         raf = null;
+
+         if (destination.exists() && !destination.delete()) {
+            throw new IOException("Could not delete " + destination);
+         }
+         if (!tempFile.renameTo(destination)) {
+            throw new IOException("Could not rename file " + tempFile + " to " + destination);
+         }
+         tempFile = null;
+      } catch (IOException ioe) {
+         throw Throwables.propagate(ioe);
+      } finally {
+         for (ListenableFuture<Void> result : results) {
+            result.cancel(true);
+         }
+         Closeables2.closeQuietly(raf);
+         if (tempFile != null) {
+            tempFile.delete();
+         }
+      }
+   }
+
+   private final class RangeDownloader implements Callable<Void> {
+      private final String container;
+      private final String name;
+      @Nullable
+      private final String eTag;
+      private final FileChannel channel;
+      private final long begin;
+      private final long end;
+
+      RangeDownloader(String container, String name, @Nullable String eTag, FileChannel channel, long begin,
+            long end) {
+         this.container = container;
+         this.name = name;
+         this.eTag = eTag;
+         this.channel = channel;
+         this.begin = begin;
+         this.end = end;
+      }
+
+      @Override
+      public Void call() throws IOException {
+         GetOptions options = GetOptions.Builder.range(begin, end);
+         if (eTag != null) {
+            options.ifETagMatches(eTag);
+         }
+         Blob blob = getBlob(container, name, options);
+         if (blob == null) {
+            throw new KeyNotFoundException(container, name, "while downloading");
+         }
+         InputStream is = blob.getPayload().openStream();
+         try {
+            ReadableByteChannel in = Channels.newChannel(is);
+            // positional writes, so ranges can be written concurrently
+            for (long position = begin; position <= end;) {
+               long transferred = channel.transferFrom(in, position, end - position + 1);
+               if (transferred <= 0) {
+                  throw new IOException("Premature end of range " + begin + "-" + end + " of " + container + "/"
+                        + name + " at " + position);
+               }
+               position += transferred;
+            }
+         } finally {
+            Closeables2.closeQuietly(is);
+         }
+         return null;
+      }
    }
 
+   /**
+    * This implementation invokes {@link #streamBlob(String, String, ExecutorService)} with the jclouds userExecutor
+    */
+   @Beta
    @Override
    public InputStream streamBlob(String container, String name) {
-      throw new UnsupportedOperationException("Operation not supported yet");
+      return streamBlob(container, name, userExecutor);
    }
 
+   /**
+    * This implementation returns a stream that fetches ranges of {@link #getMinimumMultipartPartSize} bytes
+    * concurrently, keeping a few ranges in flight ahead of the reader.
+    */
+   @Beta
    @Override
    public InputStream streamBlob(String container, String name, ExecutorService executor) {
-      throw new UnsupportedOperationException("Operation not supported yet");
+      return new RangedBlobInputStream(this, container, name, MoreExecutors.listeningDecorator(executor),
+            getContentLength(getMetadata(container, name)), getMinimumMultipartPartSize(), STREAM_WINDOW_PARTS);
+   }
+
+   private BlobMetadata getMetadata(String container, String name) {
+      BlobMetadata metadata = blobMetadata(container, name);
+      if (metadata == null) {
+         throw new KeyNotFoundException(container, name, "while downloading");
+      }
+      return metadata;
+   }
+
+   private static long getContentLength(BlobMetadata metadata) {
+      Long contentLength = metadata.getSize();
+      if (contentLength == null) {
+         contentLength = metadata.getContentMetadata().getContentLength();
+      }
+      return checkNotNull(contentLength, "content length of %s/%s", metadata.getContainer(), metadata.getName());
    }
 }
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.KeyNotFoundException;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.options.GetOptions;
+import org.jclouds.util.Closeables2;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Reads a blob in order while fetching the ranges ahead of the reader concurrently.
+ * <p>
+ * At most {@code window} ranges are requested or buffered at any time, so memory use is bounded by
+ * {@code window * partSize} regardless of the blob size. Closing the stream cancels the outstanding requests.
+ */
+final class RangedBlobInputStream extends InputStream {
+
+   private final BlobStore blobStore;
+   private final String container;
+   private final String name;
+   private final ListeningExecutorService executor;
+   private final long contentLength;
+   private final long partSize;
+   private final int window;
+   private final Deque<Future<byte[]>> inFlight = new ArrayDeque<Future<byte[]>>();
+   private long nextRange;
+   private byte[] part = new byte[0];
+   private int position;
+   private boolean closed;
+
+   RangedBlobInputStream(BlobStore blobStore, String container, String name, ListeningExecutorService executor,
+         long contentLength, long partSize, int window) {
+      checkArgument(partSize > 0 && partSize <= Integer.MAX_VALUE, "partSize must be between 1 and %s",
+            Integer.MAX_VALUE);
+      checkArgument(window > 0, "window must be positive");
+      this.blobStore = checkNotNull(blobStore, "blobStore");
+      this.container = checkNotNull(container, "container");
+      this.name = checkNotNull(name, "name");
+      this.executor = checkNotNull(executor, "executor");
+      this.contentLength = contentLength;
+      this.partSize = partSize;
+      this.window = window;
+      fill();
+   }
+
+   @Override
+   public int read() throws IOException {
+      if (!nextPart()) {
+         return -1;
+      }
+      return part[position++] & 0xff;
+   }
+
+   @Override
+   public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+         return 0;
+      }
+      if (!nextPart()) {
+         return -1;
+      }
+      int n = Math.min(len, part.length - position);
+      System.arraycopy(part, position, b, off, n);
+      position += n;
+      return n;
+   }
+
+   @Override
+   public int available() {
+      return part.length - position;
+   }
+
+   @Override
+   public void close() {
+      closed = true;
+      part = new byte[0];
+      position = 0;
+      for (Future<byte[]> future : inFlight) {
+         future.cancel(true);
+      }
+      inFlight.clear();
+   }
+
+   /** @return false at the end of the blob */
+   private boolean nextPart() throws IOException {
+      if (closed) {
+         throw new IOException("Stream closed");
+      }
+      while (position == part.length) {
+         Future<byte[]> next = inFlight.poll();
+         if (next == null) {
+            return false;
+         }
+         try {
+            part = next.get();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new InterruptedIOException("Interrupted while downloading " + container + "/" + name);
+         } catch (ExecutionException e) {
+            close();
+            throw new IOException("Could not download " + container + "/" + name, e.getCause());
+         }
+         position = 0;
+         fill();
+      }
+      return true;
+   }
+
+   private void fill() {
+      while (inFlight.size() < window && nextRange < contentLength) {
+         final long from = nextRange;
+         final long to = Math.min(from + partSize, contentLength) - 1;
+         inFlight.add(executor.submit(new Callable<byte[]>() {
+            @Override
+            public byte[] call() throws IOException {
+               Blob blob = blobStore.getBlob(container, name, GetOptions.Builder.range(from, to));
+               if (blob == null) {
+                  throw new KeyNotFoundException(container, name, "while streaming");
+               }
+               InputStream is = blob.getPayload().openStream();
+               try {
+                  byte[] bytes = new byte[(int) (to - from + 1)];
+                  ByteStreams.readFully(is, bytes);
+                  return bytes;
+               } finally {
+                  Closeables2.closeQuietly(is);
+               }
+            }
+         }));
+         nextRange = to + 1;
+      }
+   }
+}
@@ -53,6 +53,40 @@ public final class BlobStoreConstants {
     */
    public static final String PROPERTY_USER_METADATA_PREFIX = "jclouds.blobstore.metaprefix";
 
+   /**
+    * Number of part buffers a multipart upload of a non-repeatable payload may fill ahead of the parts being
+    * uploaded, so that parts are uploaded concurrently while the payload is read. Memory use is this many times the
+    * part size. Values below 2 upload such payloads one part at a time, straight from the stream.
+    */
+   public static final String PROPERTY_MULTIPART_UPLOAD_BUFFERS = "jclouds.blobstore.multipart.upload-buffers";
+
+   /**
+    * Whether the buffers of {@link #PROPERTY_MULTIPART_UPLOAD_BUFFERS} are allocated outside the java heap.
+    */
+   public static final String PROPERTY_MULTIPART_UPLOAD_DIRECT_BUFFERS =
+         "jclouds.blobstore.multipart.upload-direct-buffers";
+
+   /**
+    * Number of times a part of {@link #PROPERTY_MULTIPART_UPLOAD_BUFFERS} is uploaded again from its buffer after an
+    * I/O error, server error, throttling or timeout that outlasted the retries of the HTTP layer. Attempts are spaced
+    * by the exponential delay of {@link org.jclouds.http.handlers.BackoffLimitedRetryHandler}. Defaults to 2.
+    */
+   public static final String PROPERTY_MULTIPART_UPLOAD_PART_RETRIES =
+         "jclouds.blobstore.multipart.upload-part-retries";
+
+   /**
+    * Number of bytes of blob content the transient blobstore may keep outside the java heap. When storing a blob would
+    * exceed it, the least recently used blobs are evicted. The default of 0 keeps blob content on the heap, without a
+    * limit.
+    */
+   public static final String PROPERTY_TRANSIENT_OFF_HEAP_CAPACITY = "jclouds.transient.off-heap.capacity";
+
+   /**
+    * Size of the direct buffers the transient blobstore stores blob content in when
+    * {@link #PROPERTY_TRANSIENT_OFF_HEAP_CAPACITY} is set. Defaults to 1 MiB.
+    */
+   public static final String PROPERTY_TRANSIENT_OFF_HEAP_SLAB_SIZE = "jclouds.transient.off-heap.slab-size";
+
    public static final String BLOBSTORE_LOGGER = "jclouds.blobstore";
    public static final String DIRECTORY_BLOB_SUFFIX = "/";
 
@@ -18,8 +18,10 @@ package org.jclouds.blobstore.strategy.internal;
 
 import static org.jclouds.blobstore.options.ListContainerOptions.Builder.recursive;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Semaphore;
@@ -33,9 +35,11 @@ import javax.inject.Singleton;
 
 import org.jclouds.Constants;
 import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStores;
 import org.jclouds.blobstore.ContainerNotFoundException;
 import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.blobstore.domain.StorageType;
 import org.jclouds.blobstore.internal.BlobRuntimeException;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.blobstore.reference.BlobStoreConstants;
@@ -196,6 +200,10 @@ public class DeleteAllKeysInList implements ClearListStrategy, ClearContainerStr
    /**
     * Delete the blobs from a given PageSet. The PageSet may contain blobs or
     * directories. If there are directories, they are expected to be empty.
+    * When the blobstore deletes several blobs per request, the blobs of the
+    * page are deleted in batches of
+    * {@link BlobStores#getMaximumBatchDeleteSize(BlobStore)} through
+    * {@link BlobStore#removeBlobs}.
     *
     * The logic of acquiring a semaphore, submitting a callable to the
     * executorService and releasing the semaphore resides here.
@@ -223,22 +231,24 @@ public class DeleteAllKeysInList implements ClearListStrategy, ClearContainerStr
          final AtomicBoolean deleteFailure,
          final Set<ListenableFuture<Void>> outstandingFutures)
          throws TimeoutException {
+      int batchSize = BlobStores.getMaximumBatchDeleteSize(blobStore);
+      List<String> batch = new ArrayList<String>();
       for (final StorageMetadata md : listing) {
          final String fullPath = parentIsFolder(options, md) ? options.getDir()
                + "/" + md.getName() : md.getName();
 
-         // Attempt to acquire a semaphore within the time limit. At least
-         // one outstanding future should complete within this period for the
-         // semaphore to be acquired.
-         try {
-            if (!semaphore.tryAcquire(maxTime, TimeUnit.MILLISECONDS)) {
-               throw new TimeoutException("Timeout waiting for semaphore");
+         if (batchSize > 1 && md.getType() == StorageType.BLOB) {
+            batch.add(fullPath);
+            if (batch.size() == batchSize) {
+               deleteBatch(containerName, batch, semaphore, deleteFailure,
+                     outstandingFutures);
+               batch = new ArrayList<String>();
             }
-         } catch (InterruptedException ie) {
-            logger.debug("Interrupted while deleting blobs");
-            Thread.currentThread().interrupt();
+            continue;
          }
 
+         acquire(semaphore);
+
          final ListenableFuture<Void> blobDelFuture;
          switch (md.getType()) {
          case FOLDER:
@@ -261,41 +271,80 @@ public class DeleteAllKeysInList implements ClearListStrategy, ClearContainerStr
             blobDelFuture = null;
          }
 
-         // If a future to delete a blob/directory actually got created above,
-         // keep a reference of that in the outstandingFutures list. This is
-         // useful in case of a timeout exception. All outstanding futures can
-         // then be cancelled.
-         if (blobDelFuture != null) {
-            outstandingFutures.add(blobDelFuture);
-
-            // Add a callback to release the semaphore. This is required for
-            // other threads waiting to acquire a semaphore above to make
-            // progress.
-            Futures.addCallback(blobDelFuture, new FutureCallback<Object>() {
-               @Override
-               public void onSuccess(final Object o) {
-                  outstandingFutures.remove(blobDelFuture);
-                  semaphore.release();
-               }
+         track(blobDelFuture, semaphore, deleteFailure, outstandingFutures);
+      }
+      if (!batch.isEmpty()) {
+         deleteBatch(containerName, batch, semaphore, deleteFailure,
+               outstandingFutures);
+      }
+   }
 
-               @Override
-               public void onFailure(final Throwable t) {
-                  // Make a note the fact that some blob/directory could not be
-                  // deleted successfully. This is used for retrying later.
-                  deleteFailure.set(true);
-                  outstandingFutures.remove(blobDelFuture);
-                  semaphore.release();
-               }
-            });
-         } else {
-            // It is possible above to acquire a semaphore but not submit any
-            // task to the executorService. For e.g. if the listing contains
-            // an object of type 'FOLDER' and the ListContianerOptions are *not*
-            // recursive. In this case, there is no blobDelFuture and therefore
-            // no FutureCallback to release the semaphore. This semaphore is
-            // released here.
-            semaphore.release();
+   private void deleteBatch(final String containerName,
+         final List<String> names, final Semaphore semaphore,
+         final AtomicBoolean deleteFailure,
+         final Set<ListenableFuture<Void>> outstandingFutures)
+         throws TimeoutException {
+      acquire(semaphore);
+      track(executorService.submit(new Callable<Void>() {
+         @Override
+         public Void call() {
+            blobStore.removeBlobs(containerName, names);
+            return null;
+         }
+      }), semaphore, deleteFailure, outstandingFutures);
+   }
+
+   private void acquire(final Semaphore semaphore) throws TimeoutException {
+      // Attempt to acquire a semaphore within the time limit. At least
+      // one outstanding future should complete within this period for the
+      // semaphore to be acquired.
+      try {
+         if (!semaphore.tryAcquire(maxTime, TimeUnit.MILLISECONDS)) {
+            throw new TimeoutException("Timeout waiting for semaphore");
          }
+      } catch (InterruptedException ie) {
+         logger.debug("Interrupted while deleting blobs");
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   private void track(final ListenableFuture<Void> blobDelFuture,
+         final Semaphore semaphore, final AtomicBoolean deleteFailure,
+         final Set<ListenableFuture<Void>> outstandingFutures) {
+      // If a future to delete a blob/directory actually got created above,
+      // keep a reference of that in the outstandingFutures list. This is
+      // useful in case of a timeout exception. All outstanding futures can
+      // then be cancelled.
+      if (blobDelFuture != null) {
+         outstandingFutures.add(blobDelFuture);
+
+         // Add a callback to release the semaphore. This is required for
+         // other threads waiting to acquire a semaphore above to make
+         // progress.
+         Futures.addCallback(blobDelFuture, new FutureCallback<Object>() {
+            @Override
+            public void onSuccess(final Object o) {
+               outstandingFutures.remove(blobDelFuture);
+               semaphore.release();
+            }
+
+            @Override
+            public void onFailure(final Throwable t) {
+               // Make a note the fact that some blob/directory could not be
+               // deleted successfully. This is used for retrying later.
+               deleteFailure.set(true);
+               outstandingFutures.remove(blobDelFuture);
+               semaphore.release();
+            }
+         });
+      } else {
+         // It is possible above to acquire a semaphore but not submit any
+         // task to the executorService. For e.g. if the listing contains
+         // an object of type 'FOLDER' and the ListContianerOptions are *not*
+         // recursive. In this case, there is no blobDelFuture and therefore
+         // no FutureCallback to release the semaphore. This semaphore is
+         // released here.
+         semaphore.release();
       }
    }
 
@@ -26,7 +26,7 @@ import java.util.regex.Pattern;
 import org.jclouds.blobstore.domain.MutableBlobMetadata;
 import org.jclouds.blobstore.domain.internal.MutableBlobMetadataImpl;
 import org.jclouds.http.HttpRequest;
-import org.jclouds.http.HttpRequestFilter;
+import org.jclouds.http.HttpRequestBuilderFilter;
 import org.jclouds.rest.internal.GeneratedHttpRequest;
 
 import com.google.common.collect.Maps;
@@ -34,8 +34,7 @@ import com.google.common.collect.Maps;
 public class BlobStoreUtils {
    public static <T> HttpRequest cleanRequest(HttpRequest returnVal) {
       checkNotNull(returnVal, "http request");
-      for (HttpRequestFilter filter : returnVal.getFilters())
-         returnVal = filter.filter(returnVal);
+      returnVal = HttpRequestBuilderFilter.filterAll(returnVal);
       return HttpRequest.builder().method(returnVal.getMethod()).endpoint(returnVal.getEndpoint())
                .headers(returnVal.getHeaders()).payload(returnVal.getPayload()).build();
    }
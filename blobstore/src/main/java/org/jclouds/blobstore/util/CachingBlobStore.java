@@ -0,0 +1,556 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.util;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Maps.immutableEntry;
+import static org.jclouds.blobstore.options.GetOptions.Builder.ifETagDoesntMatch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.blobstore.domain.MutableBlobMetadata;
+import org.jclouds.blobstore.domain.internal.BlobImpl;
+import org.jclouds.blobstore.domain.internal.MutableBlobMetadataImpl;
+import org.jclouds.blobstore.options.CopyOptions;
+import org.jclouds.blobstore.options.GetOptions;
+import org.jclouds.blobstore.options.ListContainerOptions;
+import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.http.HttpUtils;
+import org.jclouds.io.ByteSources;
+import org.jclouds.io.ByteStreams2;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.util.Closeables2;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Throwables;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.Multimap;
+import com.google.common.io.ByteSource;
+
+/**
+ * Caches the blobs and blob metadata read through {@link #getBlob} and {@link #blobMetadata}, including lookups of
+ * blobs that do not exist, in front of another {@link BlobStore}. Entries are bounded by their total size in bytes and
+ * the least recently used are evicted first.
+ * <p/>
+ * An entry is served without contacting the delegate for {@link Builder#revalidateAfter} after it was fetched. After
+ * that, a cached blob is revalidated with a conditional {@code GET} that only transfers the content if its etag
+ * changed, while metadata and missing blobs are looked up again.
+ * <p/>
+ * Writes and deletes made through this instance invalidate the blobs they touch, and a lookup that overlaps them does
+ * not cache what it read. Changes made by other clients are only seen after the entry is revalidated. Gets with
+ * {@link GetOptions} other than {@link GetOptions#NONE} are not cached.
+ *
+ * <pre>
+ * CachingBlobStore blobStore = CachingBlobStore.builder(context.getBlobStore())
+ *                                              .maximumBytes(256 * 1024 * 1024)
+ *                                              .revalidateAfter(30, TimeUnit.SECONDS)
+ *                                              .build();
+ * </pre>
+ */
+@Beta
+public final class CachingBlobStore extends ForwardingBlobStore {
+
+   /** approximate heap taken by the key, metadata and headers of an entry */
+   private static final int ENTRY_OVERHEAD = 1024;
+   /** number of invalidation counters keys are spread over */
+   private static final int GENERATION_STRIPES = 256;
+
+   public static Builder builder(BlobStore blobStore) {
+      return new Builder(blobStore);
+   }
+
+   public static final class Builder {
+      private final BlobStore blobStore;
+      private long maximumBytes = 64 * 1024 * 1024;
+      private long maximumBlobSize = 1024 * 1024;
+      private long revalidateAfterNanos = TimeUnit.MINUTES.toNanos(1);
+      private boolean offHeap;
+      private Ticker ticker = Ticker.systemTicker();
+
+      private Builder(BlobStore blobStore) {
+         this.blobStore = checkNotNull(blobStore, "blobStore");
+      }
+
+      /** total size of the cached content and metadata, 64 MiB by default */
+      public Builder maximumBytes(long maximumBytes) {
+         checkArgument(maximumBytes >= 0, "maximumBytes must be non-negative");
+         this.maximumBytes = maximumBytes;
+         return this;
+      }
+
+      /** larger blobs are passed through and only their metadata is cached, 1 MiB by default */
+      public Builder maximumBlobSize(long maximumBlobSize) {
+         checkArgument(maximumBlobSize >= 0 && maximumBlobSize <= Integer.MAX_VALUE - ENTRY_OVERHEAD,
+               "maximumBlobSize must be between 0 and %s", Integer.MAX_VALUE - ENTRY_OVERHEAD);
+         this.maximumBlobSize = maximumBlobSize;
+         return this;
+      }
+
+      /** how long entries are served without contacting the delegate, one minute by default */
+      public Builder revalidateAfter(long duration, TimeUnit unit) {
+         checkArgument(duration >= 0, "duration must be non-negative");
+         this.revalidateAfterNanos = unit.toNanos(duration);
+         return this;
+      }
+
+      /** keep cached content in direct buffers rather than on the heap */
+      public Builder offHeap(boolean offHeap) {
+         this.offHeap = offHeap;
+         return this;
+      }
+
+      /** source of time for revalidation, for testing */
+      public Builder ticker(Ticker ticker) {
+         this.ticker = checkNotNull(ticker, "ticker");
+         return this;
+      }
+
+      public CachingBlobStore build() {
+         return new CachingBlobStore(this);
+      }
+   }
+
+   /**
+    * Counts of lookups made through a {@link CachingBlobStore}.
+    */
+   public static final class Stats {
+      private final long hitCount;
+      private final long missCount;
+      private final long notModifiedCount;
+      private final long evictionCount;
+
+      private Stats(long hitCount, long missCount, long notModifiedCount, long evictionCount) {
+         this.hitCount = hitCount;
+         this.missCount = missCount;
+         this.notModifiedCount = notModifiedCount;
+         this.evictionCount = evictionCount;
+      }
+
+      /** @return lookups answered without contacting the delegate */
+      public long hitCount() {
+         return hitCount;
+      }
+
+      /** @return lookups that contacted the delegate, including revalidations */
+      public long missCount() {
+         return missCount;
+      }
+
+      /** @return revalidations that found the cached content unchanged and did not transfer it */
+      public long notModifiedCount() {
+         return notModifiedCount;
+      }
+
+      /** @return entries evicted to stay within the maximum size */
+      public long evictionCount() {
+         return evictionCount;
+      }
+
+      @Override
+      public String toString() {
+         return toStringHelper(this).add("hitCount", hitCount).add("missCount", missCount)
+               .add("notModifiedCount", notModifiedCount).add("evictionCount", evictionCount).toString();
+      }
+   }
+
+   /** what is known about a blob; immutable, replaced when the blob is fetched or revalidated */
+   private static final class Entry {
+      /** null if the blob does not exist */
+      @Nullable private final BlobMetadata metadata;
+      /** null if only the metadata is cached */
+      @Nullable private final ByteSource content;
+      private final Multimap<String, String> headers;
+      private final long fetchedNanos;
+
+      Entry(@Nullable BlobMetadata metadata, @Nullable ByteSource content, Multimap<String, String> headers,
+            long fetchedNanos) {
+         this.metadata = metadata;
+         this.content = content;
+         this.headers = headers;
+         this.fetchedNanos = fetchedNanos;
+      }
+
+      int weight() {
+         // content is only cached when its length is known and matches
+         return ENTRY_OVERHEAD + (content == null ? 0 : metadata.getContentMetadata().getContentLength().intValue());
+      }
+   }
+
+   private final Cache<Map.Entry<String, String>, Entry> cache;
+   private final long maximumBlobSize;
+   private final long revalidateAfterNanos;
+   private final boolean offHeap;
+   private final Ticker ticker;
+   private final AtomicLong hitCount = new AtomicLong();
+   private final AtomicLong missCount = new AtomicLong();
+   private final AtomicLong notModifiedCount = new AtomicLong();
+   /**
+    * Bumped when a key is invalidated, so that a load that started before does not cache what it read. Keys share
+    * counters by hash rather than having one each, so that they do not grow with the number of blobs; a shared
+    * counter only makes a concurrent load skip caching. {@link #containerGeneration} is bumped for whole containers,
+    * including keys that are being loaded and are not in the cache yet.
+    */
+   private final AtomicLongArray keyGenerations = new AtomicLongArray(GENERATION_STRIPES);
+   private final AtomicLong containerGeneration = new AtomicLong();
+
+   private CachingBlobStore(Builder builder) {
+      super(builder.blobStore);
+      this.maximumBlobSize = builder.maximumBlobSize;
+      this.revalidateAfterNanos = builder.revalidateAfterNanos;
+      this.offHeap = builder.offHeap;
+      this.ticker = builder.ticker;
+      // a single segment, since each segment is limited to its share of the maximum weight and would evict blobs
+      // larger than that as soon as they are added
+      this.cache = CacheBuilder.newBuilder()
+            .concurrencyLevel(1)
+            .maximumWeight(builder.maximumBytes)
+            .weigher(new Weigher<Map.Entry<String, String>, Entry>() {
+               @Override
+               public int weigh(Map.Entry<String, String> key, Entry entry) {
+                  return entry.weight();
+               }
+            })
+            .recordStats()
+            .build();
+   }
+
+   public Stats stats() {
+      return new Stats(hitCount.get(), missCount.get(), notModifiedCount.get(), cache.stats().evictionCount());
+   }
+
+   /** Drops every cached entry. */
+   public void invalidateAll() {
+      containerGeneration.incrementAndGet();
+      cache.invalidateAll();
+   }
+
+   @Override
+   public Blob getBlob(String container, String name) {
+      return getBlob(container, name, GetOptions.NONE);
+   }
+
+   @Override
+   public Blob getBlob(String container, String name, GetOptions options) {
+      if (options != null && !GetOptions.NONE.equals(options)) {
+         return delegate().getBlob(container, name, options);
+      }
+      Map.Entry<String, String> key = immutableEntry(container, name);
+      Entry entry = cache.getIfPresent(key);
+      if (entry != null && isFresh(entry) && (entry.metadata == null || entry.content != null)) {
+         hitCount.incrementAndGet();
+         return entry.metadata == null ? null : toBlob(entry);
+      }
+      missCount.incrementAndGet();
+      long now = ticker.read();
+      long generation = generation(key);
+      Blob blob;
+      if (entry != null && entry.content != null && entry.metadata.getETag() != null) {
+         try {
+            blob = delegate().getBlob(container, name, ifETagDoesntMatch(entry.metadata.getETag()));
+         } catch (RuntimeException e) {
+            if (!isNotModified(e)) {
+               throw e;
+            }
+            notModifiedCount.incrementAndGet();
+            entry = new Entry(entry.metadata, entry.content, entry.headers, now);
+            putIfNotInvalidated(key, generation, entry);
+            return toBlob(entry);
+         }
+      } else {
+         blob = delegate().getBlob(container, name);
+      }
+      if (blob == null) {
+         putIfNotInvalidated(key, generation, new Entry(null, null, ImmutableMultimap.<String, String> of(), now));
+         return null;
+      }
+      Long size = blob.getMetadata().getContentMetadata().getContentLength();
+      if (size == null || size > maximumBlobSize) {
+         putIfNotInvalidated(key, generation, new Entry(copy(blob.getMetadata()), null,
+               ImmutableMultimap.<String, String> of(), now));
+         return blob;
+      }
+      entry = new Entry(copy(blob.getMetadata()), read(blob.getPayload(), size),
+            ImmutableMultimap.copyOf(blob.getAllHeaders()), now);
+      putIfNotInvalidated(key, generation, entry);
+      return toBlob(entry);
+   }
+
+   @Override
+   public BlobMetadata blobMetadata(String container, String name) {
+      Map.Entry<String, String> key = immutableEntry(container, name);
+      Entry entry = cache.getIfPresent(key);
+      if (entry != null && isFresh(entry)) {
+         hitCount.incrementAndGet();
+         return entry.metadata == null ? null : copy(entry.metadata);
+      }
+      missCount.incrementAndGet();
+      long now = ticker.read();
+      long generation = generation(key);
+      BlobMetadata metadata = delegate().blobMetadata(container, name);
+      if (metadata == null) {
+         putIfNotInvalidated(key, generation, new Entry(null, null, ImmutableMultimap.<String, String> of(), now));
+         return null;
+      }
+      if (entry != null && entry.content != null && entry.metadata.getETag() != null
+            && entry.metadata.getETag().equals(metadata.getETag())) {
+         // the cached content is still current
+         notModifiedCount.incrementAndGet();
+         putIfNotInvalidated(key, generation, new Entry(entry.metadata, entry.content, entry.headers, now));
+      } else {
+         putIfNotInvalidated(key, generation, new Entry(copy(metadata), null,
+               ImmutableMultimap.<String, String> of(), now));
+      }
+      return metadata;
+   }
+
+   @Override
+   public boolean blobExists(String container, String name) {
+      Entry entry = cache.getIfPresent(immutableEntry(container, name));
+      if (entry != null && isFresh(entry)) {
+         hitCount.incrementAndGet();
+         return entry.metadata != null;
+      }
+      missCount.incrementAndGet();
+      return delegate().blobExists(container, name);
+   }
+
+   @Override
+   public String putBlob(String container, Blob blob) {
+      try {
+         return delegate().putBlob(container, blob);
+      } finally {
+         invalidate(container, blob.getMetadata().getName());
+      }
+   }
+
+   @Override
+   public String putBlob(String container, Blob blob, PutOptions options) {
+      try {
+         return delegate().putBlob(container, blob, options);
+      } finally {
+         invalidate(container, blob.getMetadata().getName());
+      }
+   }
+
+   @Override
+   public String copyBlob(String fromContainer, String fromName, String toContainer, String toName,
+         CopyOptions options) {
+      try {
+         return delegate().copyBlob(fromContainer, fromName, toContainer, toName, options);
+      } finally {
+         invalidate(toContainer, toName);
+      }
+   }
+
+   @Override
+   public String completeMultipartUpload(MultipartUpload mpu, List<MultipartPart> parts) {
+      try {
+         return delegate().completeMultipartUpload(mpu, parts);
+      } finally {
+         invalidate(mpu.containerName(), mpu.blobName());
+      }
+   }
+
+   @Override
+   public void removeBlob(String container, String name) {
+      try {
+         delegate().removeBlob(container, name);
+      } finally {
+         invalidate(container, name);
+      }
+   }
+
+   @Override
+   public void removeBlobs(String container, Iterable<String> names) {
+      // names may be single-use or lazily computed, so it is iterated once
+      List<String> copy = ImmutableList.copyOf(names);
+      try {
+         delegate().removeBlobs(container, copy);
+      } finally {
+         for (String name : copy) {
+            invalidate(container, name);
+         }
+      }
+   }
+
+   @Override
+   public void clearContainer(String container) {
+      try {
+         delegate().clearContainer(container);
+      } finally {
+         invalidateContainer(container);
+      }
+   }
+
+   @Override
+   public void clearContainer(String container, ListContainerOptions options) {
+      try {
+         delegate().clearContainer(container, options);
+      } finally {
+         invalidateContainer(container);
+      }
+   }
+
+   @Override
+   public void deleteDirectory(String container, String directory) {
+      try {
+         delegate().deleteDirectory(container, directory);
+      } finally {
+         invalidateContainer(container);
+      }
+   }
+
+   @Override
+   public void deleteContainer(String container) {
+      try {
+         delegate().deleteContainer(container);
+      } finally {
+         invalidateContainer(container);
+      }
+   }
+
+   @Override
+   public boolean deleteContainerIfEmpty(String container) {
+      try {
+         return delegate().deleteContainerIfEmpty(container);
+      } finally {
+         invalidateContainer(container);
+      }
+   }
+
+   private boolean isFresh(Entry entry) {
+      return ticker.read() - entry.fetchedNanos < revalidateAfterNanos;
+   }
+
+   /** the sum of the counters of the key, which only ever grows */
+   private long generation(Map.Entry<String, String> key) {
+      return containerGeneration.get() + keyGenerations.get(stripe(key));
+   }
+
+   private static int stripe(Map.Entry<String, String> key) {
+      return (key.hashCode() & Integer.MAX_VALUE) % GENERATION_STRIPES;
+   }
+
+   /**
+    * Caches what a load read, unless the key was invalidated since the load started at {@code generation}. As
+    * invalidation bumps the counter before dropping the entry, checking again after the put catches an invalidation
+    * that ran in between.
+    */
+   private void putIfNotInvalidated(Map.Entry<String, String> key, long generation, Entry entry) {
+      if (generation(key) != generation) {
+         return;
+      }
+      cache.put(key, entry);
+      if (generation(key) != generation) {
+         cache.asMap().remove(key, entry);
+      }
+   }
+
+   private void invalidate(String container, String name) {
+      Map.Entry<String, String> key = immutableEntry(container, name);
+      keyGenerations.incrementAndGet(stripe(key));
+      cache.invalidate(key);
+   }
+
+   private void invalidateContainer(String container) {
+      containerGeneration.incrementAndGet();
+      for (Map.Entry<String, String> key : cache.asMap().keySet()) {
+         if (key.getKey().equals(container)) {
+            cache.invalidate(key);
+         }
+      }
+   }
+
+   /** reads the whole payload, which is released */
+   private ByteSource read(Payload payload, long size) {
+      InputStream input = null;
+      try {
+         input = payload.openStream();
+         if (!offHeap) {
+            byte[] bytes = ByteStreams2.toByteArrayAndClose(input);
+            if (bytes.length != size) {
+               throw new IOException("Content-Length mismatch, expected: " + size + " actual: " + bytes.length);
+            }
+            return ByteSource.wrap(bytes);
+         }
+         ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+         ReadableByteChannel channel = Channels.newChannel(input);
+         while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+            // keep reading
+         }
+         if (buffer.hasRemaining() || input.read() != -1) {
+            throw new IOException("Content-Length mismatch, expected: " + size);
+         }
+         buffer.flip();
+         return ByteSources.wrap(buffer);
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      } finally {
+         Closeables2.closeQuietly(input);
+         payload.release();
+      }
+   }
+
+   /** a new blob on each call, since callers consume and may modify it */
+   private static Blob toBlob(Entry entry) {
+      MutableBlobMetadata metadata = copy(entry.metadata);
+      Blob blob = new BlobImpl(metadata);
+      Payload payload = Payloads.newByteSourcePayload(entry.content);
+      HttpUtils.copy(metadata.getContentMetadata(), payload.getContentMetadata());
+      blob.setPayload(payload);
+      blob.getAllHeaders().putAll(entry.headers);
+      return blob;
+   }
+
+   private static MutableBlobMetadata copy(BlobMetadata metadata) {
+      return new MutableBlobMetadataImpl(metadata);
+   }
+
+   private static boolean isNotModified(RuntimeException e) {
+      for (Throwable t : Throwables.getCausalChain(e)) {
+         if (t instanceof HttpResponseException) {
+            HttpResponseException hre = (HttpResponseException) t;
+            return hre.getResponse() != null && hre.getResponse().getStatusCode() == 304;
+         }
+      }
+      return false;
+   }
+}
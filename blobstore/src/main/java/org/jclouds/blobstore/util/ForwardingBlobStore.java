@@ -27,8 +27,10 @@ import java.util.concurrent.ExecutorService;
 
 import com.google.common.collect.ForwardingObject;
 
+import org.jclouds.blobstore.BatchDeleteSupport;
 import org.jclouds.blobstore.BlobStore;
 import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.BlobStores;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobAccess;
 import org.jclouds.blobstore.domain.BlobBuilder;
@@ -47,7 +49,7 @@ import org.jclouds.domain.Location;
 import org.jclouds.io.Payload;
 
 public abstract class ForwardingBlobStore extends ForwardingObject
-      implements BlobStore {
+      implements BlobStore, BatchDeleteSupport {
    private final BlobStore blobStore;
 
    public ForwardingBlobStore(BlobStore blobStore) {
@@ -201,6 +203,11 @@ public abstract class ForwardingBlobStore extends ForwardingObject
       delegate().removeBlobs(container, iterable);
    }
 
+   @Override
+   public int getMaximumBatchDeleteSize() {
+      return BlobStores.getMaximumBatchDeleteSize(delegate());
+   }
+
    @Override
    public BlobAccess getBlobAccess(String container, String name) {
       return delegate().getBlobAccess(container, name);
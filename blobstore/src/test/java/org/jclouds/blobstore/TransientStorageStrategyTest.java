@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore;
+
+import static org.jclouds.blobstore.options.GetOptions.Builder.range;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_TRANSIENT_OFF_HEAP_CAPACITY;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_TRANSIENT_OFF_HEAP_SLAB_SIZE;
+import static org.jclouds.utils.TestUtils.randomByteSource;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobAccess;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
+
+@Test(groups = "unit", singleThreaded = true, testName = "TransientStorageStrategyTest")
+public class TransientStorageStrategyTest {
+   private static final String CONTAINER = "container";
+
+   private BlobStoreContext context;
+   private BlobStore blobStore;
+
+   @BeforeMethod
+   protected void setUp() {
+      Properties overrides = new Properties();
+      overrides.setProperty(PROPERTY_TRANSIENT_OFF_HEAP_CAPACITY, "100");
+      overrides.setProperty(PROPERTY_TRANSIENT_OFF_HEAP_SLAB_SIZE, "16");
+      context = ContextBuilder.newBuilder("transient").overrides(overrides).build(BlobStoreContext.class);
+      blobStore = context.getBlobStore();
+      blobStore.createContainerInLocation(null, CONTAINER);
+   }
+
+   @AfterMethod(alwaysRun = true)
+   protected void tearDown() {
+      context.close();
+   }
+
+   public void testOffHeapBlobAndRange() throws IOException {
+      ByteSource content = randomByteSource().slice(0, 40);
+      put("blob", content);
+
+      assertEquals(read(blobStore.getBlob(CONTAINER, "blob")), content.read());
+      Blob ranged = blobStore.getBlob(CONTAINER, "blob", range(10, 29));
+      assertEquals(read(ranged), content.slice(10, 20).read());
+      assertEquals(ranged.getMetadata().getSize(), Long.valueOf(20));
+   }
+
+   public void testEvictsLeastRecentlyUsed() throws IOException {
+      put("a", randomByteSource().slice(0, 40));
+      put("b", randomByteSource().slice(0, 40));
+      blobStore.getBlob(CONTAINER, "a");
+      put("c", randomByteSource().slice(0, 40));
+
+      assertTrue(blobStore.blobExists(CONTAINER, "a"));
+      assertFalse(blobStore.blobExists(CONTAINER, "b"));
+      assertTrue(blobStore.blobExists(CONTAINER, "c"));
+   }
+
+   public void testEvictedBlobsLoseTheirAccess() throws IOException {
+      put("a", randomByteSource().slice(0, 40));
+      put("b", randomByteSource().slice(0, 40));
+      put("c", randomByteSource().slice(0, 40));
+
+      assertFalse(blobStore.blobExists(CONTAINER, "a"));
+      try {
+         blobStore.getBlobAccess(CONTAINER, "a");
+         fail("expected the access of an evicted blob to be gone");
+      } catch (KeyNotFoundException expected) {
+      }
+      assertEquals(blobStore.getBlobAccess(CONTAINER, "c"), BlobAccess.PRIVATE);
+   }
+
+   public void testRemovedBlobsFreeCapacity() throws IOException {
+      put("a", randomByteSource().slice(0, 60));
+      blobStore.removeBlob(CONTAINER, "a");
+      put("b", randomByteSource().slice(0, 60));
+      put("c", randomByteSource().slice(0, 40));
+
+      assertTrue(blobStore.blobExists(CONTAINER, "b"));
+      assertTrue(blobStore.blobExists(CONTAINER, "c"));
+   }
+
+   @Test(expectedExceptions = RuntimeException.class)
+   public void testRejectsBlobLargerThanCapacity() throws IOException {
+      put("blob", randomByteSource().slice(0, 101));
+   }
+
+   private void put(String name, ByteSource content) throws IOException {
+      blobStore.putBlob(CONTAINER, blobStore.blobBuilder(name).payload(content).contentLength(content.size()).build());
+   }
+
+   private static byte[] read(Blob blob) throws IOException {
+      InputStream is = blob.getPayload().openStream();
+      try {
+         return ByteStreams.toByteArray(is);
+      } finally {
+         is.close();
+      }
+   }
+}
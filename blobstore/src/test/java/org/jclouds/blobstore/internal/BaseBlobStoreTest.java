@@ -0,0 +1,496 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.internal;
+
+import static org.easymock.EasyMock.createMock;
+import static org.jclouds.utils.TestUtils.randomByteSource;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobAccess;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.ContainerAccess;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.blobstore.domain.PageSet;
+import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.blobstore.domain.internal.BlobBuilderImpl;
+import org.jclouds.blobstore.options.CreateContainerOptions;
+import org.jclouds.blobstore.options.GetOptions;
+import org.jclouds.blobstore.options.ListContainerOptions;
+import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.blobstore.util.BlobUtils;
+import org.jclouds.domain.Location;
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
+import org.jclouds.io.ByteStreams2;
+import org.jclouds.io.Payload;
+import org.jclouds.io.internal.BasePayloadSlicer;
+import org.jclouds.rest.AuthorizationException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteSource;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Tests the buffered multipart upload of non-repeatable payloads and the ranged download in {@link BaseBlobStore}.
+ */
+@Test(groups = "unit", testName = "BaseBlobStoreTest", singleThreaded = true)
+public class BaseBlobStoreTest {
+   private static final int PART_SIZE = 1024;
+   /** ten full parts and a short last one */
+   private static final int CONTENT_LENGTH = 10 * PART_SIZE + 100;
+   private static final ByteSource CONTENT = randomByteSource().slice(0, CONTENT_LENGTH);
+
+   private ListeningExecutorService executor;
+
+   @BeforeMethod
+   public void setUp() {
+      executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(8));
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      executor.shutdownNow();
+   }
+
+   public void testUploadsPartsInOrderWithETags() throws IOException {
+      MultipartBlobStore blobStore = new MultipartBlobStore(3);
+
+      assertEquals(blobStore.putMultipartBlob("container", newBlob(new CountingInputStream(CONTENT.openStream())),
+            PutOptions.Builder.multipart(), executor), "mpu-etag");
+
+      List<MultipartPart> parts = blobStore.completedParts;
+      assertEquals(parts.size(), 11);
+      ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+      for (int i = 0; i < parts.size(); i++) {
+         MultipartPart part = parts.get(i);
+         assertEquals(part.partNumber(), i + 1);
+         assertEquals(part.partETag(), "etag-" + (i + 1));
+         assertEquals(part.partSize(), i < 10 ? PART_SIZE : 100);
+         uploaded.write(blobStore.uploaded.get(i + 1));
+      }
+      assertEquals(uploaded.toByteArray(), CONTENT.read());
+      assertFalse(blobStore.aborted);
+   }
+
+   public void testReadingWaitsForABuffer() throws Exception {
+      final MultipartBlobStore blobStore = new MultipartBlobStore(3);
+      final CountDownLatch release = new CountDownLatch(1);
+      final Semaphore started = new Semaphore(0);
+      blobStore.beforeUpload = new Callable<Void>() {
+         @Override
+         public Void call() throws Exception {
+            started.release();
+            release.await();
+            return null;
+         }
+      };
+      final CountingInputStream input = new CountingInputStream(CONTENT.openStream());
+      Future<String> eTag = executor.submit(new Callable<String>() {
+         @Override
+         public String call() {
+            return blobStore.putMultipartBlob("container", newBlob(input), PutOptions.Builder.multipart(), executor);
+         }
+      });
+
+      // every buffer holds a part in flight, so the payload is not read further
+      assertTrue(started.tryAcquire(3, 10, TimeUnit.SECONDS));
+      assertFalse(started.tryAcquire(200, TimeUnit.MILLISECONDS));
+      assertEquals(input.count.get(), 3 * PART_SIZE);
+
+      release.countDown();
+      assertEquals(eTag.get(10, TimeUnit.SECONDS), "mpu-etag");
+      assertEquals(input.count.get(), CONTENT_LENGTH);
+   }
+
+   public void testRetriesPartAfterRetryableFailure() throws IOException {
+      MultipartBlobStore blobStore = new MultipartBlobStore(3);
+      blobStore.failures.put(2, new HttpResponseException("connection reset", command(), null,
+            new IOException("connection reset")));
+      blobStore.failures.put(5, new HttpResponseException(command(), HttpResponse.builder().statusCode(503).build()));
+
+      assertEquals(blobStore.putMultipartBlob("container", newBlob(CONTENT.openStream()),
+            PutOptions.Builder.multipart(), executor), "mpu-etag");
+      assertEquals(blobStore.attempts.get(2).get(), 2);
+      assertEquals(blobStore.attempts.get(5).get(), 2);
+      assertEquals(blobStore.attempts.get(1).get(), 1);
+      assertEquals(blobStore.uploaded.get(2), CONTENT.slice(PART_SIZE, PART_SIZE).read());
+      assertFalse(blobStore.aborted);
+   }
+
+   public void testDoesNotRetryAuthorizationFailure() throws IOException {
+      MultipartBlobStore blobStore = new MultipartBlobStore(3);
+      blobStore.failures.put(2, new AuthorizationException("denied", new HttpResponseException(command(),
+            HttpResponse.builder().statusCode(403).build())));
+
+      try {
+         blobStore.putMultipartBlob("container", newBlob(CONTENT.openStream()), PutOptions.Builder.multipart(),
+               executor);
+         fail("expected AuthorizationException");
+      } catch (RuntimeException expected) {
+         assertTrue(expected.getCause() instanceof AuthorizationException, expected.toString());
+      }
+      assertEquals(blobStore.attempts.get(2).get(), 1);
+      assertTrue(blobStore.aborted);
+      assertNull(blobStore.completedParts);
+   }
+
+   public void testAbortsAfterRetriesAreExhausted() throws IOException {
+      MultipartBlobStore blobStore = new MultipartBlobStore(3);
+      blobStore.multipartUploadPartRetries = 2;
+      blobStore.failures.put(4, new HttpResponseException(command(), HttpResponse.builder().statusCode(500).build()));
+      blobStore.failuresPerPart = Integer.MAX_VALUE;
+
+      try {
+         blobStore.putMultipartBlob("container", newBlob(CONTENT.openStream()), PutOptions.Builder.multipart(),
+               executor);
+         fail("expected HttpResponseException");
+      } catch (RuntimeException expected) {
+         assertTrue(expected.getCause() instanceof HttpResponseException, expected.toString());
+      }
+      assertEquals(blobStore.attempts.get(4).get(), 3);
+      assertTrue(blobStore.aborted);
+      assertNull(blobStore.completedParts);
+   }
+
+   public void testBacksOffBetweenPartAttempts() throws IOException {
+      MultipartBlobStore blobStore = new MultipartBlobStore(3);
+      final List<Integer> delays = Collections.synchronizedList(Lists.<Integer>newArrayList());
+      blobStore.backoffHandler = new BackoffLimitedRetryHandler() {
+         @Override
+         public void imposeBackoffExponentialDelay(int failureCount, String commandDescription) {
+            delays.add(failureCount);
+         }
+      };
+      blobStore.failures.put(4, new HttpResponseException(command(), HttpResponse.builder().statusCode(503).build()));
+      blobStore.failuresPerPart = 2;
+
+      assertEquals(blobStore.putMultipartBlob("container", newBlob(CONTENT.openStream()),
+            PutOptions.Builder.multipart(), executor), "mpu-etag");
+      assertEquals(blobStore.attempts.get(4).get(), 3);
+      assertEquals(delays, ImmutableList.of(1, 2));
+   }
+
+   public void testDownloadsEveryRangeOfTheSameVersion() throws IOException {
+      MultipartBlobStore blobStore = new MultipartBlobStore(3);
+      blobStore.stored = CONTENT;
+      blobStore.storedETag = "etag-1";
+      File destination = File.createTempFile("download", null);
+      try {
+         blobStore.downloadBlob("container", "blob", destination, executor);
+
+         assertTrue(Files.asByteSource(destination).contentEquals(CONTENT));
+         assertEquals(blobStore.requestedETags.size(), 11);
+         assertEquals(ImmutableSet.copyOf(blobStore.requestedETags), ImmutableSet.of("etag-1"));
+      } finally {
+         destination.delete();
+      }
+   }
+
+   public void testDownloadFailsIfTheBlobIsReplaced() throws IOException {
+      final MultipartBlobStore blobStore = new MultipartBlobStore(3);
+      blobStore.stored = CONTENT;
+      blobStore.storedETag = "etag-1";
+      blobStore.beforeGet = new Callable<Void>() {
+         @Override
+         public Void call() {
+            blobStore.stored = randomByteSource().slice(0, CONTENT_LENGTH);
+            blobStore.storedETag = "etag-2";
+            return null;
+         }
+      };
+      File directory = Files.createTempDir();
+      File destination = new File(directory, "blob");
+      try {
+         blobStore.downloadBlob("container", "blob", destination, executor);
+         fail("expected the download to fail");
+      } catch (UncheckedExecutionException expected) {
+         assertEquals(((HttpResponseException) expected.getCause()).getResponse().getStatusCode(), 412);
+      } finally {
+         assertEquals(directory.list().length, 0);
+         directory.delete();
+      }
+   }
+
+   public void testIsRetryable() {
+      assertTrue(BaseBlobStore.isRetryable(new RuntimeException(new IOException("reset"))));
+      assertTrue(BaseBlobStore.isRetryable(new HttpResponseException(command(),
+            HttpResponse.builder().statusCode(503).build())));
+      assertTrue(BaseBlobStore.isRetryable(new HttpResponseException(command(),
+            HttpResponse.builder().statusCode(429).build())));
+      assertFalse(BaseBlobStore.isRetryable(new HttpResponseException(command(),
+            HttpResponse.builder().statusCode(400).build())));
+      assertFalse(BaseBlobStore.isRetryable(new AuthorizationException("denied", new IOException())));
+      assertFalse(BaseBlobStore.isRetryable(new IllegalArgumentException("bad part")));
+   }
+
+   private static Blob newBlob(InputStream input) {
+      return new BlobBuilderImpl().name("blob").payload(input).contentLength(CONTENT_LENGTH).build();
+   }
+
+   private static HttpCommand command() {
+      return new HttpCommand(HttpRequest.builder().method("PUT").endpoint("http://localhost/container/blob").build());
+   }
+
+   private static final class CountingInputStream extends FilterInputStream {
+      final AtomicLong count = new AtomicLong();
+
+      CountingInputStream(InputStream in) {
+         super(in);
+      }
+
+      @Override
+      public int read() throws IOException {
+         int b = super.read();
+         if (b >= 0) {
+            count.incrementAndGet();
+         }
+         return b;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         int n = super.read(b, off, len);
+         if (n > 0) {
+            count.addAndGet(n);
+         }
+         return n;
+      }
+   }
+
+   /**
+    * Records the parts it is given. Only the multipart methods are implemented.
+    */
+   private static final class MultipartBlobStore extends BaseBlobStore {
+      final ConcurrentMap<Integer, byte[]> uploaded = Maps.newConcurrentMap();
+      final ConcurrentMap<Integer, AtomicInteger> attempts = Maps.newConcurrentMap();
+      final Map<Integer, RuntimeException> failures = Maps.newConcurrentMap();
+      volatile int failuresPerPart = 1;
+      volatile Callable<Void> beforeUpload;
+      volatile List<MultipartPart> completedParts;
+      volatile boolean aborted;
+      volatile ByteSource stored;
+      volatile String storedETag;
+      volatile Callable<Void> beforeGet;
+      final List<String> requestedETags = Collections.synchronizedList(Lists.<String>newArrayList());
+
+      MultipartBlobStore(int buffers) {
+         super(createMock(BlobStoreContext.class), createMock(BlobUtils.class), Suppliers.<Location>ofInstance(null),
+               Suppliers.<Set<? extends Location>>ofInstance(ImmutableSet.<Location>of()), new BasePayloadSlicer());
+         this.multipartUploadBuffers = buffers;
+      }
+
+      @Override
+      public MultipartUpload initiateMultipartUpload(String container, BlobMetadata blob, PutOptions options) {
+         return MultipartUpload.create(container, blob.getName(), "upload-id", blob, options);
+      }
+
+      @Override
+      public MultipartPart uploadMultipartPart(MultipartUpload mpu, int partNumber, Payload payload) {
+         AtomicInteger count = attempts.putIfAbsent(partNumber, new AtomicInteger());
+         int attempt = (count == null ? attempts.get(partNumber) : count).incrementAndGet();
+         try {
+            if (beforeUpload != null) {
+               beforeUpload.call();
+            }
+            byte[] content = ByteStreams2.toByteArrayAndClose(payload.openStream());
+            RuntimeException failure = failures.get(partNumber);
+            if (failure != null && attempt <= failuresPerPart) {
+               throw failure;
+            }
+            uploaded.put(partNumber, content);
+            return MultipartPart.create(partNumber, content.length, "etag-" + partNumber, null);
+         } catch (RuntimeException re) {
+            throw re;
+         } catch (Exception e) {
+            throw new RuntimeException(e);
+         }
+      }
+
+      @Override
+      public String completeMultipartUpload(MultipartUpload mpu, List<MultipartPart> parts) {
+         completedParts = ImmutableList.copyOf(parts);
+         return "mpu-etag";
+      }
+
+      @Override
+      public void abortMultipartUpload(MultipartUpload mpu) {
+         aborted = true;
+      }
+
+      @Override
+      public List<MultipartPart> listMultipartUpload(MultipartUpload mpu) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public List<MultipartUpload> listMultipartUploads(String container) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public long getMinimumMultipartPartSize() {
+         return PART_SIZE;
+      }
+
+      @Override
+      public long getMaximumMultipartPartSize() {
+         return PART_SIZE;
+      }
+
+      @Override
+      public int getMaximumNumberOfParts() {
+         return 10000;
+      }
+
+      @Override
+      protected boolean deleteAndVerifyContainerGone(String container) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public PageSet<? extends StorageMetadata> list() {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public boolean containerExists(String container) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public boolean createContainerInLocation(Location location, String container) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public boolean createContainerInLocation(Location location, String container,
+            CreateContainerOptions options) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public ContainerAccess getContainerAccess(String container) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void setContainerAccess(String container, ContainerAccess access) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public PageSet<? extends StorageMetadata> list(String container, ListContainerOptions options) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public boolean blobExists(String container, String name) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public String putBlob(String container, Blob blob) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public String putBlob(String container, Blob blob, PutOptions options) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public BlobMetadata blobMetadata(String container, String name) {
+         return new BlobBuilderImpl().name(name).payload(new byte[0]).contentLength(CONTENT_LENGTH)
+               .eTag(storedETag).build().getMetadata();
+      }
+
+      @Override
+      public Blob getBlob(String container, String name, GetOptions options) {
+         try {
+            if (beforeGet != null) {
+               beforeGet.call();
+            }
+         } catch (Exception e) {
+            throw new RuntimeException(e);
+         }
+         requestedETags.add(options.getIfMatch());
+         if (options.getIfMatch() != null && !options.getIfMatch().equals(storedETag)) {
+            throw new HttpResponseException(command(), HttpResponse.builder().statusCode(412).build());
+         }
+         String[] range = Iterables.getOnlyElement(options.getRanges()).split("-");
+         long from = Long.parseLong(range[0]);
+         long to = Long.parseLong(range[1]);
+         return new BlobBuilderImpl().name(name).payload(stored.slice(from, to - from + 1))
+               .contentLength(to - from + 1).build();
+      }
+
+      @Override
+      public void removeBlob(String container, String name) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public BlobAccess getBlobAccess(String container, String name) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void setBlobAccess(String container, String name, BlobAccess access) {
+         throw new UnsupportedOperationException();
+      }
+   }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.internal;
+
+import static org.jclouds.utils.TestUtils.randomByteSource;
+import static org.testng.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Executors;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(groups = "unit", testName = "RangedBlobInputStreamTest")
+public class RangedBlobInputStreamTest {
+   private static final String CONTAINER = "container";
+
+   private BlobStoreContext context;
+   private BlobStore blobStore;
+   private ListeningExecutorService executor;
+
+   @BeforeClass
+   protected void setUp() {
+      context = ContextBuilder.newBuilder("transient").build(BlobStoreContext.class);
+      blobStore = context.getBlobStore();
+      blobStore.createContainerInLocation(null, CONTAINER);
+      executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(3));
+   }
+
+   @AfterClass(alwaysRun = true)
+   protected void tearDown() {
+      executor.shutdownNow();
+      context.close();
+   }
+
+   public void testReadsRangesInOrder() throws IOException {
+      ByteSource content = randomByteSource().slice(0, 1000);
+      blobStore.putBlob(CONTAINER, blobStore.blobBuilder("blob").payload(content).build());
+
+      InputStream is = new RangedBlobInputStream(blobStore, CONTAINER, "blob", executor, 1000, 64, 3);
+      try {
+         assertEquals(ByteStreams.toByteArray(is), content.read());
+      } finally {
+         is.close();
+      }
+   }
+
+   public void testEmptyBlob() throws IOException {
+      InputStream is = new RangedBlobInputStream(blobStore, CONTAINER, "empty", executor, 0, 64, 3);
+      assertEquals(is.read(), -1);
+      is.close();
+   }
+
+   @Test(expectedExceptions = IOException.class)
+   public void testMissingBlob() throws IOException {
+      InputStream is = new RangedBlobInputStream(blobStore, CONTAINER, "missing", executor, 100, 64, 3);
+      try {
+         is.read();
+      } finally {
+         is.close();
+      }
+   }
+}
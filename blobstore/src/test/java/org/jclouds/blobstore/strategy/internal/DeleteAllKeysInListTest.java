@@ -16,6 +16,7 @@
  */
 package org.jclouds.blobstore.strategy.internal;
 
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.createMockBuilder;
 import static org.easymock.EasyMock.createControl;
@@ -33,6 +34,7 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.easymock.EasyMock;
 import org.easymock.IMocksControl;
@@ -44,11 +46,13 @@ import org.jclouds.util.Closeables2;
 import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.internal.BlobRuntimeException;
+import org.jclouds.blobstore.util.ForwardingBlobStore;
 import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
@@ -98,6 +102,33 @@ public class DeleteAllKeysInListTest {
       assertEquals(blobstore.countBlobs(containerName), 1111);
    }
 
+   public void testDeletesInBatchesWhenBlobStoreSupportsThem() {
+      final AtomicInteger batches = new AtomicInteger();
+      BlobStore batching = new ForwardingBlobStore(blobstore) {
+         @Override
+         public int getMaximumBatchDeleteSize() {
+            return 100;
+         }
+
+         @Override
+         public void removeBlob(String container, String name) {
+            fail("blobs should be removed in batches");
+         }
+
+         @Override
+         public void removeBlobs(String container, Iterable<String> names) {
+            assertTrue(Iterables.size(names) <= 100);
+            batches.incrementAndGet();
+            super.removeBlobs(container, names);
+         }
+      };
+      DeleteAllKeysInList batchDeleter = new DeleteAllKeysInList(newDirectExecutorService(), batching, retryHandler,
+            maxParallelDeletes);
+      batchDeleter.execute(containerName, ListContainerOptions.Builder.recursive());
+      assertEquals(blobstore.countBlobs(containerName), 0);
+      assertTrue(batches.get() >= 3333 / 100 && batches.get() < 3333 / 10, "batches: " + batches);
+   }
+
    public void testContainerNotFound() {
       IMocksControl mockControl = createControl();
       BlobStore blobStore = mockControl.createMock(BlobStore.class);
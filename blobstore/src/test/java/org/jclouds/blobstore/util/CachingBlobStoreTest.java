@@ -0,0 +1,302 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.options.GetOptions;
+import org.jclouds.io.ByteStreams2;
+import org.jclouds.io.payloads.ByteSourcePayload;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Throwables;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteSource;
+
+@Test(groups = "unit", testName = "CachingBlobStoreTest", singleThreaded = true)
+public class CachingBlobStoreTest {
+   private static final String CONTAINER = "container";
+   private static final ByteSource CONTENT = ByteSource.wrap(new byte[] { 1, 2, 3, 4 });
+
+   private BlobStoreContext context;
+   private BlobStore blobStore;
+   private final AtomicInteger getBlobCount = new AtomicInteger();
+   private final AtomicInteger blobMetadataCount = new AtomicInteger();
+   private final AtomicLong nanos = new AtomicLong();
+   /** run by the delegate once it has read a blob, before the caller gets it */
+   private volatile Runnable afterGetBlob;
+   private final Ticker ticker = new Ticker() {
+      @Override
+      public long read() {
+         return nanos.get();
+      }
+   };
+
+   @BeforeMethod
+   public void setUp() {
+      context = ContextBuilder.newBuilder("transient").build(BlobStoreContext.class);
+      blobStore = new ForwardingBlobStore(context.getBlobStore()) {
+         @Override
+         public Blob getBlob(String container, String name, GetOptions options) {
+            getBlobCount.incrementAndGet();
+            return runAfterGetBlob(super.getBlob(container, name, options));
+         }
+
+         @Override
+         public Blob getBlob(String container, String name) {
+            getBlobCount.incrementAndGet();
+            return runAfterGetBlob(super.getBlob(container, name));
+         }
+
+         @Override
+         public BlobMetadata blobMetadata(String container, String name) {
+            blobMetadataCount.incrementAndGet();
+            return super.blobMetadata(container, name);
+         }
+      };
+      blobStore.createContainerInLocation(null, CONTAINER);
+      getBlobCount.set(0);
+      blobMetadataCount.set(0);
+      nanos.set(0);
+      afterGetBlob = null;
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      if (context != null) {
+         context.close();
+      }
+   }
+
+   public void testGetBlobIsCached() throws IOException {
+      CachingBlobStore cache = CachingBlobStore.builder(blobStore).ticker(ticker).build();
+      putBlob(blobStore, "blob", CONTENT);
+
+      for (int i = 0; i < 3; i++) {
+         Blob blob = cache.getBlob(CONTAINER, "blob");
+         assertEquals(blob.getMetadata().getName(), "blob");
+         assertEquals(blob.getMetadata().getContentMetadata().getContentLength(), Long.valueOf(CONTENT.size()));
+         assertTrue(CONTENT.contentEquals(asByteSource(blob)));
+      }
+      assertEquals(getBlobCount.get(), 1);
+      assertEquals(cache.stats().hitCount(), 2);
+      assertEquals(cache.stats().missCount(), 1);
+
+      assertTrue(cache.blobExists(CONTAINER, "blob"));
+      assertEquals(cache.blobMetadata(CONTAINER, "blob").getETag(), cache.getBlob(CONTAINER, "blob").getMetadata()
+            .getETag());
+      assertEquals(blobMetadataCount.get(), 0);
+   }
+
+   public void testMissingBlobIsCached() {
+      CachingBlobStore cache = CachingBlobStore.builder(blobStore).ticker(ticker).build();
+
+      assertNull(cache.blobMetadata(CONTAINER, "missing"));
+      assertNull(cache.blobMetadata(CONTAINER, "missing"));
+      assertNull(cache.getBlob(CONTAINER, "missing"));
+      assertFalse(cache.blobExists(CONTAINER, "missing"));
+      assertEquals(blobMetadataCount.get(), 1);
+      assertEquals(getBlobCount.get(), 0);
+   }
+
+   public void testMetadataThenGetBlobFetchesContent() throws IOException {
+      CachingBlobStore cache = CachingBlobStore.builder(blobStore).ticker(ticker).build();
+      putBlob(blobStore, "blob", CONTENT);
+
+      assertNotNull(cache.blobMetadata(CONTAINER, "blob"));
+      assertTrue(CONTENT.contentEquals(asByteSource(cache.getBlob(CONTAINER, "blob"))));
+      assertTrue(CONTENT.contentEquals(asByteSource(cache.getBlob(CONTAINER, "blob"))));
+      assertEquals(blobMetadataCount.get(), 1);
+      assertEquals(getBlobCount.get(), 1);
+   }
+
+   public void testWritesThroughCacheInvalidate() throws IOException {
+      CachingBlobStore cache = CachingBlobStore.builder(blobStore).ticker(ticker).build();
+      assertNull(cache.getBlob(CONTAINER, "blob"));
+
+      ByteSource updated = ByteSource.wrap(new byte[] { 5, 6 });
+      putBlob(cache, "blob", updated);
+      assertTrue(updated.contentEquals(asByteSource(cache.getBlob(CONTAINER, "blob"))));
+
+      cache.removeBlob(CONTAINER, "blob");
+      assertNull(cache.getBlob(CONTAINER, "blob"));
+      assertEquals(getBlobCount.get(), 3);
+   }
+
+   public void testRemoveBlobsIteratesNamesOnce() throws IOException {
+      CachingBlobStore cache = CachingBlobStore.builder(blobStore).ticker(ticker).build();
+      putBlob(blobStore, "blob", CONTENT);
+      assertNotNull(cache.getBlob(CONTAINER, "blob"));
+
+      final Iterator<String> names = ImmutableList.of("blob").iterator();
+      cache.removeBlobs(CONTAINER, new Iterable<String>() {
+         private boolean iterated;
+
+         @Override
+         public Iterator<String> iterator() {
+            assertFalse(iterated, "names iterated twice");
+            iterated = true;
+            return names;
+         }
+      });
+      assertNull(cache.getBlob(CONTAINER, "blob"));
+      assertEquals(getBlobCount.get(), 2);
+   }
+
+   public void testClearContainerInvalidates() throws IOException {
+      CachingBlobStore cache = CachingBlobStore.builder(blobStore).ticker(ticker).build();
+      putBlob(blobStore, "blob", CONTENT);
+      assertNotNull(cache.getBlob(CONTAINER, "blob"));
+
+      cache.clearContainer(CONTAINER);
+      assertNull(cache.getBlob(CONTAINER, "blob"));
+   }
+
+   public void testRevalidatesUnchangedBlobWithoutTransfer() throws IOException {
+      CachingBlobStore cache = CachingBlobStore.builder(blobStore).ticker(ticker)
+            .revalidateAfter(1, TimeUnit.SECONDS).build();
+      putBlob(blobStore, "blob", CONTENT);
+      assertNotNull(cache.getBlob(CONTAINER, "blob"));
+
+      nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+      assertTrue(CONTENT.contentEquals(asByteSource(cache.getBlob(CONTAINER, "blob"))));
+      assertEquals(getBlobCount.get(), 2);
+      assertEquals(cache.stats().notModifiedCount(), 1);
+
+      // revalidation restarts the clock
+      assertNotNull(cache.getBlob(CONTAINER, "blob"));
+      assertEquals(getBlobCount.get(), 2);
+   }
+
+   public void testRevalidationSeesChangesFromOtherClients() throws IOException {
+      CachingBlobStore cache = CachingBlobStore.builder(blobStore).ticker(ticker)
+            .revalidateAfter(1, TimeUnit.SECONDS).build();
+      putBlob(blobStore, "blob", CONTENT);
+      assertNotNull(cache.getBlob(CONTAINER, "blob"));
+
+      ByteSource updated = ByteSource.wrap(new byte[] { 5, 6 });
+      putBlob(blobStore, "blob", updated);
+      assertTrue(CONTENT.contentEquals(asByteSource(cache.getBlob(CONTAINER, "blob"))));
+
+      nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+      assertTrue(updated.contentEquals(asByteSource(cache.getBlob(CONTAINER, "blob"))));
+      assertEquals(cache.stats().notModifiedCount(), 0);
+
+      blobStore.removeBlob(CONTAINER, "blob");
+      nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+      assertNull(cache.getBlob(CONTAINER, "blob"));
+   }
+
+   public void testLargeBlobsAreNotCached() throws IOException {
+      CachingBlobStore cache = CachingBlobStore.builder(blobStore).ticker(ticker).maximumBlobSize(2).build();
+      putBlob(blobStore, "blob", CONTENT);
+
+      assertTrue(CONTENT.contentEquals(asByteSource(cache.getBlob(CONTAINER, "blob"))));
+      assertTrue(CONTENT.contentEquals(asByteSource(cache.getBlob(CONTAINER, "blob"))));
+      assertEquals(getBlobCount.get(), 2);
+      assertNotNull(cache.blobMetadata(CONTAINER, "blob"));
+      assertEquals(blobMetadataCount.get(), 0);
+   }
+
+   public void testEvictsToStayWithinMaximumBytes() throws IOException {
+      ByteSource content = ByteSource.wrap(new byte[4096]);
+      CachingBlobStore cache = CachingBlobStore.builder(blobStore).ticker(ticker).maximumBytes(3 * 4096).build();
+      for (int i = 0; i < 8; i++) {
+         putBlob(blobStore, "blob" + i, content);
+         assertNotNull(cache.getBlob(CONTAINER, "blob" + i));
+      }
+      assertTrue(cache.stats().evictionCount() >= 5, cache.stats().toString());
+   }
+
+   public void testOffHeap() throws IOException {
+      CachingBlobStore cache = CachingBlobStore.builder(blobStore).ticker(ticker).offHeap(true).build();
+      putBlob(blobStore, "blob", CONTENT);
+
+      assertTrue(CONTENT.contentEquals(asByteSource(cache.getBlob(CONTAINER, "blob"))));
+      assertTrue(CONTENT.contentEquals(asByteSource(cache.getBlob(CONTAINER, "blob"))));
+      assertEquals(getBlobCount.get(), 1);
+   }
+
+   public void testGetOptionsBypassCache() throws IOException {
+      CachingBlobStore cache = CachingBlobStore.builder(blobStore).ticker(ticker).build();
+      putBlob(blobStore, "blob", CONTENT);
+      assertNotNull(cache.getBlob(CONTAINER, "blob"));
+
+      Blob range = cache.getBlob(CONTAINER, "blob", GetOptions.Builder.range(1, 2));
+      assertTrue(CONTENT.slice(1, 2).contentEquals(asByteSource(range)));
+      assertEquals(getBlobCount.get(), 2);
+   }
+
+   public void testWriteDuringLoadIsNotCached() throws IOException {
+      final CachingBlobStore cache = CachingBlobStore.builder(blobStore).ticker(ticker).build();
+      putBlob(blobStore, "blob", CONTENT);
+      final ByteSource updated = ByteSource.wrap(new byte[] { 5, 6 });
+      afterGetBlob = new Runnable() {
+         @Override
+         public void run() {
+            afterGetBlob = null;
+            try {
+               putBlob(cache, "blob", updated);
+            } catch (IOException e) {
+               throw Throwables.propagate(e);
+            }
+         }
+      };
+
+      // the load returns what it read before the write, but must not cache it
+      assertTrue(CONTENT.contentEquals(asByteSource(cache.getBlob(CONTAINER, "blob"))));
+      assertTrue(updated.contentEquals(asByteSource(cache.getBlob(CONTAINER, "blob"))));
+      assertTrue(updated.contentEquals(asByteSource(cache.getBlob(CONTAINER, "blob"))));
+      assertEquals(getBlobCount.get(), 2);
+   }
+
+   private Blob runAfterGetBlob(Blob blob) {
+      Runnable hook = afterGetBlob;
+      if (hook != null) {
+         hook.run();
+      }
+      return blob;
+   }
+
+   private static void putBlob(BlobStore blobStore, String name, ByteSource content) throws IOException {
+      Blob blob = blobStore.blobBuilder(name).payload(new ByteSourcePayload(content))
+            .contentLength(content.size()).build();
+      blobStore.putBlob(CONTAINER, blob);
+   }
+
+   private static ByteSource asByteSource(Blob blob) throws IOException {
+      return ByteSource.wrap(ByteStreams2.toByteArrayAndClose(blob.getPayload().openStream()));
+   }
+}
@@ -18,7 +18,9 @@ package org.jclouds.compute.suppliers;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -28,6 +30,7 @@ import javax.inject.Named;
 import org.jclouds.compute.domain.Image;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.compute.strategy.GetImageStrategy;
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.logging.Logger;
 import org.jclouds.rest.AuthorizationException;
 import org.jclouds.rest.suppliers.MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier;
@@ -81,16 +84,31 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
 
    public ImageCacheSupplier(Supplier<Set<? extends Image>> imageSupplier, long sessionIntervalSeconds,
          AtomicReference<AuthorizationException> authException, final Provider<GetImageStrategy> imageLoader) {
+      this(imageSupplier, sessionIntervalSeconds, authException, imageLoader, null);
+   }
+
+   /**
+    * @param refreshExecutor
+    *           reloads the images once they are older than the session interval, while the old ones are still
+    *           returned, or null to expire them instead
+    */
+   public ImageCacheSupplier(Supplier<Set<? extends Image>> imageSupplier, long sessionIntervalSeconds,
+         AtomicReference<AuthorizationException> authException, final Provider<GetImageStrategy> imageLoader,
+         @Nullable Executor refreshExecutor) {
       liveImageSupplier = imageSupplier;
       memoizedImageSupplier = MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier.create(authException,
-            imageSupplier, sessionIntervalSeconds, TimeUnit.SECONDS, this);
-      imageCache = CacheBuilder.newBuilder().expireAfterWrite(sessionIntervalSeconds, TimeUnit.SECONDS)
-            .build(new CacheLoader<String, Image>() {
-               @Override
-               public Image load(String key) throws Exception {
-                  return imageLoader.get().getImage(key);
-               }
-            });
+            imageSupplier, sessionIntervalSeconds, TimeUnit.SECONDS, this, refreshExecutor);
+      CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder();
+      if (refreshExecutor == null) {
+         // when refreshing ahead, the images are only replaced once reloaded
+         builder.expireAfterWrite(sessionIntervalSeconds, TimeUnit.SECONDS);
+      }
+      imageCache = builder.build(new CacheLoader<String, Image>() {
+         @Override
+         public Image load(String key) throws Exception {
+            return imageLoader.get().getImage(key);
+         }
+      });
    }
    
    @Override
@@ -130,13 +148,15 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
     * is invoked forcing a fresh image lookup.
     */
    public void reset(Set<? extends Image> images) {
-      imageCache.invalidateAll();
-      imageCache.putAll(Maps.uniqueIndex(images, new Function<Image, String>() {
+      Map<String, ? extends Image> byId = Maps.uniqueIndex(images, new Function<Image, String>() {
          @Override
          public String apply(Image input) {
             return input.getId();
          }
-      }));
+      });
+      // add the new images before removing the old ones, so that readers never see an empty cache
+      imageCache.putAll(byId);
+      imageCache.asMap().keySet().retainAll(byId.keySet());
    }
    
    /**
@@ -30,6 +30,24 @@ public final class Constants {
     */
    public static final String PROPERTY_USER_THREADS = "jclouds.user-threads";
 
+   /**
+    * Boolean property. default (false)
+    * <p/>
+    * Runs user requests and transformations on virtual threads, one per task, instead of a pool of platform threads.
+    * {@link #PROPERTY_USER_THREADS} then limits how many of those tasks may run at the same time (0 means no limit).
+    * Requires Java 21 or later.
+    */
+   public static final String PROPERTY_USER_THREADS_VIRTUAL = "jclouds.user-threads.virtual";
+
+   /**
+    * Integer property. default (0)
+    * <p/>
+    * How many pages of a paged listing to fetch on the user threads ahead of the page being iterated. 0 fetches each
+    * page only when the one before it has been iterated. Iterating from a user thread requires enough
+    * {@link #PROPERTY_USER_THREADS} to also run the fetches.
+    */
+   public static final String PROPERTY_PAGE_PREFETCH = "jclouds.page-prefetch";
+
    /**
     * Integer property. default (20)
     * <p/>
@@ -97,6 +115,15 @@ public final class Constants {
     */
    public static final String PROPERTY_SESSION_INTERVAL = "jclouds.session-interval";
 
+   /**
+    * Boolean property. default (false)
+    * <p/>
+    * When true, values memoized for {@link #PROPERTY_SESSION_INTERVAL}, such as the images, hardware and locations of
+    * a provider, are reloaded on the user threads once they are older than the interval, and the old value is
+    * returned until the reload completes. Otherwise the value expires and the next caller waits for it to be loaded.
+    */
+   public static final String PROPERTY_SESSION_REFRESH_AHEAD = "jclouds.session-interval.refresh-ahead";
+
    /**
     * Boolean property.
     * <p/>
@@ -198,6 +225,18 @@ public final class Constants {
     * backoff algorithm. Default value for this property is 50 milliseconds.
     */
    public static final String PROPERTY_RETRY_DELAY_START = "jclouds.retries-delay-start";
+   /**
+    * String property.
+    * <p/>
+    * How the exponential backoff delay is randomized, to keep clients that failed together from
+    * retrying together: {@code PROPORTIONAL} adds up to 10% to the delay, {@code FULL} picks a delay
+    * between zero and the exponential one, and {@code DECORRELATED} picks one between the start delay
+    * and three times the previous exponential one. Default value for this property is
+    * {@code PROPORTIONAL}.
+    *
+    * @see org.jclouds.http.handlers.BackoffLimitedRetryHandler.Jitter
+    */
+   public static final String PROPERTY_RETRY_JITTER = "jclouds.retries-jitter";
    /**
     * Integer property.
     * <p/>
@@ -230,6 +269,19 @@ public final class Constants {
     * default value is false
     */
    public static final String PROPERTY_LOGGER_WIRE_LOG_SENSITIVE_INFO = "jclouds.wire.log.sensitive";
+   /**
+    * Integer property.
+    * <p/>
+    * when set, the wire log records at most this many bytes of each payload, and does so without buffering the
+    * payload. Payloads are then logged asynchronously on the user executor. By default, payloads are logged in full.
+    */
+   public static final String PROPERTY_LOGGER_WIRE_LOG_MAX_BYTES = "jclouds.wire.log.max-bytes";
+   /**
+    * Double property.
+    * <p/>
+    * the fraction of payloads the wire log records, between 0 and 1. default value is 1
+    */
+   public static final String PROPERTY_LOGGER_WIRE_LOG_SAMPLE_RATE = "jclouds.wire.log.sample-rate";
    /**
     * Name of the logger that records all http headers from the client and the server.
     */
@@ -376,6 +428,17 @@ public final class Constants {
     */
    public static final String PROPERTY_MAX_RATE_LIMIT_WAIT = "jclouds.max-ratelimit-wait";
 
+   /**
+    * Boolean property. Default (false).
+    * <p/>
+    * When true, requests to each endpoint are paced and their concurrency bounded, both halved
+    * when the endpoint answers 429 or 503 and grown back on success, up to
+    * {@link #PROPERTY_MAX_CONNECTIONS_PER_CONTEXT} concurrent requests.
+    *
+    * @see org.jclouds.http.internal.AdaptiveRateLimiter
+    */
+   public static final String PROPERTY_ADAPTIVE_RATE_LIMIT = "jclouds.adaptive-rate-limit";
+
    private Constants() {
       throw new AssertionError("intentionally unimplemented");
    }
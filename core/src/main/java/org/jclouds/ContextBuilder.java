@@ -84,6 +84,7 @@ import org.jclouds.rest.config.RestModule;
 import org.jclouds.rest.internal.InvokeHttpMethod;
 import org.jclouds.util.TypeTokenUtils;
 
+import com.google.common.annotations.Beta;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
@@ -150,7 +151,10 @@ import com.google.inject.TypeLiteral;
  */
 public class ContextBuilder {
 
-   private static final Stage GUICE_STAGE = Stage.PRODUCTION;
+   static final Stage GUICE_STAGE = Stage.PRODUCTION;
+
+   private static final Set<String> KEYS_TO_RESOLVE = ImmutableSet.of(PROPERTY_IDENTITY, PROPERTY_CREDENTIAL,
+         PROPERTY_ENDPOINT, PROPERTY_API, PROPERTY_API_VERSION, PROPERTY_BUILD_VERSION);
 
    /**
     * looks up a provider or api with the given id
@@ -302,9 +306,6 @@ public class ContextBuilder {
 
       Properties unexpanded = currentStateToUnexpandedProperties();
 
-      Set<String> keysToResolve = ImmutableSet.of(PROPERTY_IDENTITY, PROPERTY_CREDENTIAL, PROPERTY_ENDPOINT,
-            PROPERTY_API, PROPERTY_API_VERSION, PROPERTY_BUILD_VERSION);
-
       Set<String> optionalKeys;
       if (credentialsSupplierOption.isPresent()) {
          optionalKeys = ImmutableSet.of(PROPERTY_IDENTITY, PROPERTY_CREDENTIAL);
@@ -314,7 +315,7 @@ public class ContextBuilder {
          optionalKeys = ImmutableSet.of();
       }
 
-      Properties resolved = resolveProperties(unexpanded, providerId, keysToResolve, optionalKeys);
+      Properties resolved = resolveProperties(unexpanded, providerId, KEYS_TO_RESOLVE, optionalKeys);
 
       Properties expanded = new ExpandProperties().apply(resolved);
 
@@ -330,6 +331,27 @@ public class ContextBuilder {
             providerMetadata, credentialsSupplier, modules);
    }
 
+   /**
+    * Resolves the properties, endpoint and provider metadata of this builder once, so that contexts which differ only
+    * in their credentials can be created from the returned template without repeating that work. Credentials set on
+    * this builder are not part of the template.
+    * 
+    * @see ContextTemplate
+    */
+   @Beta
+   public ContextTemplate template() {
+      Properties resolved = resolveProperties(currentStateToUnexpandedProperties(), providerId, KEYS_TO_RESOLVE,
+            ImmutableSet.of(PROPERTY_IDENTITY, PROPERTY_CREDENTIAL));
+
+      Properties expanded = new ExpandProperties().apply(resolved);
+      expanded.remove(PROPERTY_IDENTITY);
+      expanded.remove(PROPERTY_CREDENTIAL);
+
+      ProviderMetadata providerMetadata = new UpdateProviderMetadataFromProperties(apiMetadata, this.providerMetadata)
+            .apply(expanded);
+      return new ContextTemplate(name, providerMetadata, modules);
+   }
+
    protected Supplier<Credentials> buildCredentialsSupplier(Properties expanded) {
       Credentials creds = new Credentials(getAndRemove(expanded, PROPERTY_IDENTITY), getAndRemove(expanded,
             PROPERTY_CREDENTIAL));
@@ -386,6 +408,20 @@ public class ContextBuilder {
    }
 
    public static Injector buildInjector(String name, ProviderMetadata providerMetadata, Supplier<Credentials> creds, List<Module> inputModules) {
+      List<Module> modules = contextModules(providerMetadata, inputModules);
+      addLoggingModuleIfNotPresent(modules);
+      modules.add(new BindProviderMetadataContextAndCredentials(providerMetadata, creds));
+      modules.add(new BindNameToContext(name));
+      Injector returnVal = Guice.createInjector(GUICE_STAGE, modules);
+      returnVal.getInstance(ExecutionList.class).execute();
+      return returnVal;
+   }
+
+   /**
+    * @return {@code inputModules} and the default modules they do not replace, other than logging and the bindings
+    *         of the provider metadata, credentials and name
+    */
+   static List<Module> contextModules(ProviderMetadata providerMetadata, List<Module> inputModules) {
       List<Module> modules = newArrayList();
       modules.addAll(inputModules);
       boolean apiModuleSpecifiedByUser = apiModulePresent(inputModules);
@@ -394,17 +430,12 @@ public class ContextBuilder {
       addAll(modules, defaultModules);
       addClientModuleIfNotPresent(providerMetadata.getApiMetadata(), modules);
       addRestContextBinding(providerMetadata.getApiMetadata(), modules);
-      addLoggingModuleIfNotPresent(modules);
       addHttpModuleIfNeededAndNotPresent(modules);
       addExecutorServiceIfNotPresent(modules);
       addEventBusIfNotPresent(modules);
       addCredentialStoreIfNotPresent(modules);
       modules.add(new LifeCycleModule());
-      modules.add(new BindProviderMetadataContextAndCredentials(providerMetadata, creds));
-      modules.add(new BindNameToContext(name));
-      Injector returnVal = Guice.createInjector(GUICE_STAGE, modules);
-      returnVal.getInstance(ExecutionList.class).execute();
-      return returnVal;
+      return modules;
    }
 
    static Properties resolveProperties(Properties mutable, String providerId, Set<String> keys, Set<String> optionalKeys) throws NoSuchElementException {
@@ -604,15 +635,19 @@ public class ContextBuilder {
     */
    @SuppressWarnings("unchecked")
    public <V extends View> V buildView(TypeToken<V> viewType) {
-      TypeToken<V> returnType;
+      return (V) buildInjector().getInstance(viewKey(apiMetadata, viewType));
+   }
+
+   static Key<?> viewKey(ApiMetadata apiMetadata, TypeToken<? extends View> viewType) {
+      TypeToken<?> returnType;
       try {
-         returnType = (TypeToken<V>) Apis.findView(apiMetadata, checkNotNull(viewType, "viewType"));
+         returnType = Apis.findView(apiMetadata, checkNotNull(viewType, "viewType"));
       } catch (NoSuchElementException e) {
          throw new IllegalArgumentException(String.format(
                   "api %s not wrappable as %s; context: %s, views: %s", apiMetadata,
                   viewType, apiMetadata.getContext(), apiMetadata.getViews()));
       }
-      return (V) buildInjector().getInstance(Key.get(TypeLiteral.get(returnType.getType())));
+      return Key.get(TypeLiteral.get(returnType.getType()));
    }
 
    /**
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Predicates.instanceOf;
+import static com.google.common.base.Predicates.not;
+import static com.google.common.collect.Iterables.filter;
+import static com.google.common.collect.Lists.newArrayList;
+import static org.jclouds.reflect.Reflection2.typeToken;
+
+import java.io.Closeable;
+import java.util.List;
+
+import javax.inject.Singleton;
+
+import org.jclouds.config.BindNameToContext;
+import org.jclouds.domain.Credentials;
+import org.jclouds.http.internal.AdaptiveRateLimiter;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.location.Provider;
+import org.jclouds.logging.config.LoggingModule;
+import org.jclouds.providers.ProviderMetadata;
+import org.jclouds.providers.config.BindProviderMetadata;
+import org.jclouds.providers.config.BindProviderMetadataContextAndCredentials;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.ExecutionList;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Module;
+import com.google.inject.Provides;
+import com.google.inject.Stage;
+import com.google.inject.TypeLiteral;
+
+/**
+ * Creates contexts to the same api or provider that differ only in their credentials, for example one per tenant.
+ * <p/>
+ * The properties and {@link ProviderMetadata} are resolved once by {@link ContextBuilder#template()}, and bound
+ * together with logging in a parent injector shared by every context of the template. Each context is a child
+ * injector holding its credentials, name and fresh instances of the default modules, so that credential stores,
+ * closers, executors and rate limits are not shared between contexts unless they are shared by the modules passed to
+ * the builder. Singletons whose dependencies are all bound by the parent, and which therefore only depend on the
+ * configuration, are created once for the template. Like {@link ContextBuilder}, injectors are built in
+ * {@link Stage#PRODUCTION}.
+ *
+ * <pre>
+ * ContextTemplate template = ContextBuilder.newBuilder("aws-s3")
+ *                                          .modules(ImmutableSet.of(new ExecutorServiceModule(sharedExecutor)))
+ *                                          .template();
+ * BlobStoreContext context = template.buildView(BlobStoreContext.class, apikey, secret);
+ * </pre>
+ */
+@Beta
+public final class ContextTemplate {
+
+   private final Optional<String> name;
+   private final ProviderMetadata providerMetadata;
+   private final List<Module> modules;
+   private final Injector parent;
+
+   ContextTemplate(Optional<String> name, ProviderMetadata providerMetadata, List<Module> modules) {
+      this.name = checkNotNull(name, "name");
+      this.providerMetadata = checkNotNull(providerMetadata, "providerMetadata");
+      checkNotNull(modules, "modules");
+      List<Module> parentModules = newArrayList(filter(modules, instanceOf(LoggingModule.class)));
+      ContextBuilder.addLoggingModuleIfNotPresent(parentModules);
+      parentModules.add(new BindProviderMetadata(providerMetadata));
+      this.parent = Guice.createInjector(ContextBuilder.GUICE_STAGE, parentModules);
+      this.modules = ImmutableList.copyOf(filter(modules, not(instanceOf(LoggingModule.class))));
+   }
+
+   /**
+    * @return the provider metadata, including the resolved properties, shared by every context of this template
+    */
+   public ProviderMetadata getProviderMetadata() {
+      return providerMetadata;
+   }
+
+   /**
+    * @param credentialsSupplier
+    *           returns the current login credentials of this context. jclouds will not cache this value.
+    */
+   public Injector buildInjector(Supplier<Credentials> credentialsSupplier) {
+      checkNotNull(credentialsSupplier, "credentialsSupplier");
+      List<Module> contextModules = ContextBuilder.contextModules(providerMetadata, modules);
+      contextModules.add(new BindCredentialsAndContext(credentialsSupplier));
+      contextModules.add(new BindNameToContext(name.or(String.valueOf(Objects.hashCode(providerMetadata.getId(),
+            providerMetadata.getEndpoint(), providerMetadata.getApiMetadata().getVersion(), credentialsSupplier)))));
+      Injector injector = parent.createChildInjector(contextModules);
+      injector.getInstance(ExecutionList.class).execute();
+      return injector;
+   }
+
+   /**
+    * @see #buildInjector(Supplier)
+    */
+   public Injector buildInjector(String identity, @Nullable String credential) {
+      return buildInjector(Suppliers.ofInstance(new Credentials(checkNotNull(identity, "identity"), credential)));
+   }
+
+   /**
+    * @see ContextBuilder#buildView(TypeToken)
+    */
+   @SuppressWarnings("unchecked")
+   public <V extends View> V buildView(TypeToken<V> viewType, Supplier<Credentials> credentialsSupplier) {
+      Key<?> key = ContextBuilder.viewKey(providerMetadata.getApiMetadata(), viewType);
+      return (V) buildInjector(credentialsSupplier).getInstance(key);
+   }
+
+   /**
+    * @see ContextBuilder#buildView(Class)
+    */
+   public <V extends View> V buildView(Class<V> viewType, String identity, @Nullable String credential) {
+      return buildView(typeToken(viewType),
+            Suppliers.ofInstance(new Credentials(checkNotNull(identity, "identity"), credential)));
+   }
+
+   /**
+    * @see ContextBuilder#buildApi(TypeToken)
+    */
+   @SuppressWarnings("unchecked")
+   public <A extends Closeable> A buildApi(TypeToken<A> apiType, Supplier<Credentials> credentialsSupplier) {
+      return (A) buildInjector(credentialsSupplier).getInstance(Key.get(TypeLiteral.get(apiType.getType())));
+   }
+
+   /**
+    * @see ContextBuilder#buildApi(Class)
+    */
+   public <A extends Closeable> A buildApi(Class<A> api, String identity, @Nullable String credential) {
+      return buildApi(typeToken(api),
+            Suppliers.ofInstance(new Credentials(checkNotNull(identity, "identity"), credential)));
+   }
+
+   @Override
+   public String toString() {
+      return toStringHelper("").add("providerMetadata", providerMetadata).toString();
+   }
+
+   /**
+    * The part of {@link BindProviderMetadataContextAndCredentials} that differs between contexts, together with the
+    * state that must not be shared between them even though it only depends on the configuration.
+    */
+   private static class BindCredentialsAndContext extends AbstractModule {
+      private final Supplier<Credentials> creds;
+
+      BindCredentialsAndContext(Supplier<Credentials> creds) {
+         this.creds = creds;
+      }
+
+      @Override
+      protected void configure() {
+         bind(new TypeLiteral<Supplier<Credentials>>() {
+         }).annotatedWith(Provider.class).toInstance(creds);
+         // limits are per context; left to just-in-time binding it would be created once, by the parent
+         bind(AdaptiveRateLimiter.class);
+      }
+
+      @Provides
+      @Provider
+      @Singleton
+      protected Context backend(Injector i, @Provider TypeToken<? extends Context> backendType) {
+         return Context.class.cast(i.getInstance(Key.get(TypeLiteral.get(backendType.getType()))));
+      }
+   }
+}
@@ -34,6 +34,7 @@ import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
 import static org.jclouds.Constants.PROPERTY_SO_TIMEOUT;
 import static org.jclouds.Constants.PROPERTY_STRIP_EXPECT_HEADER;
 import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS_VIRTUAL;
 import static org.jclouds.Constants.PROPERTY_USER_AGENT;
 import static org.jclouds.reflect.Reflection2.typeToken;
 
@@ -73,6 +74,7 @@ public abstract class BaseApiMetadata implements ApiMetadata {
       props.setProperty(PROPERTY_CONNECTION_TIMEOUT, 60000 + "");
       // Successfully tested 50 user threads with BlobStore.clearContainer.
       props.setProperty(PROPERTY_USER_THREADS, numUserThreads + "");
+      props.setProperty(PROPERTY_USER_THREADS_VIRTUAL, "false");
       props.setProperty(PROPERTY_SCHEDULER_THREADS, 10 + "");
       props.setProperty(PROPERTY_MAX_CONNECTION_REUSE, 75 + "");
       props.setProperty(PROPERTY_MAX_SESSION_FAILURES, 2 + "");
@@ -16,9 +16,17 @@
  */
 package org.jclouds.collect;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.propagate;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
@@ -26,6 +34,11 @@ import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
 
 /**
  * Utilities for using {@link PagedIterable}s.
@@ -120,6 +133,167 @@ public class PagedIterables {
       }
    }
 
+   /**
+    * Like {@link #advance}, but fetches up to {@code lookahead} pages ahead of the consumer on {@code executor}, each
+    * as soon as the marker of the page before it is known.
+    * <p>
+    * Pages are only prefetched while the iterator is reachable, so an abandoned iteration stops fetching once its
+    * iterator has been garbage collected. The outstanding fetches are cancelled when a fetch fails.
+    * 
+    * @param initial
+    *           the initial set current data
+    * @param markerToNext
+    *           produces the next set based on the marker
+    * @param executor
+    *           fetches the pages ahead of the consumer
+    * @param lookahead
+    *           how many pages to fetch ahead of the consumer
+    * 
+    * @return iterable current data which continues if the user iterates beyond
+    *         the first page
+    */
+   public static <T> PagedIterable<T> prefetch(final IterableWithMarker<T> initial,
+         final Function<Object, IterableWithMarker<T>> markerToNext, final ListeningExecutorService executor,
+         final int lookahead) {
+      checkNotNull(initial, "initial iterable");
+      checkNotNull(markerToNext, "marker to next iterable");
+      checkNotNull(executor, "executor");
+      checkArgument(lookahead > 0, "lookahead must be positive");
+      return new PagedIterable<T>() {
+         public Iterator<IterableWithMarker<T>> iterator() {
+            if (!initial.nextMarker().isPresent()) {
+               return ImmutableSet.of(initial).iterator();
+            }
+            return new PrefetchingIterator<T>(initial, markerToNext, executor, lookahead);
+         }
+      };
+   }
+
+   private static class PrefetchingIterator<T> extends AbstractIterator<IterableWithMarker<T>> {
+
+      private final Function<Object, IterableWithMarker<T>> markerToNext;
+      private final ListeningExecutorService executor;
+      private final int lookahead;
+      private final Deque<ListenableFuture<IterableWithMarker<T>>> ahead;
+      private IterableWithMarker<T> initial;
+
+      private PrefetchingIterator(IterableWithMarker<T> initial, Function<Object, IterableWithMarker<T>> markerToNext,
+            ListeningExecutorService executor, int lookahead) {
+         this.initial = initial;
+         this.markerToNext = markerToNext;
+         this.executor = executor;
+         this.lookahead = lookahead;
+         this.ahead = new ArrayDeque<ListenableFuture<IterableWithMarker<T>>>(lookahead);
+      }
+
+      @Override
+      protected IterableWithMarker<T> computeNext() {
+         IterableWithMarker<T> page;
+         if (initial != null) {
+            page = initial;
+            initial = null;
+         } else {
+            ListenableFuture<IterableWithMarker<T>> next = ahead.poll();
+            page = next != null ? getPage(next) : null;
+            if (page == null) {
+               ahead.clear();
+               return endOfData();
+            }
+         }
+         ListenableFuture<IterableWithMarker<T>> last = ahead.isEmpty() ? Futures.immediateFuture(page) : ahead
+               .getLast();
+         WeakReference<PrefetchingIterator<T>> owner = new WeakReference<PrefetchingIterator<T>>(this);
+         while (ahead.size() < lookahead) {
+            last = fetchAfter(last, markerToNext, executor, owner);
+            ahead.add(last);
+         }
+         return page;
+      }
+
+      private IterableWithMarker<T> getPage(ListenableFuture<IterableWithMarker<T>> future) {
+         try {
+            return future.get();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelAhead();
+            throw propagate(e);
+         } catch (ExecutionException e) {
+            cancelAhead();
+            throw propagate(e.getCause());
+         }
+      }
+
+      private void cancelAhead() {
+         for (ListenableFuture<IterableWithMarker<T>> future : ahead) {
+            future.cancel(true);
+         }
+         ahead.clear();
+      }
+   }
+
+   /**
+    * Fetches the page after {@code previous} once it is available, unless {@code owner} has been collected. The future
+    * is of null when {@code previous} is the last page.
+    */
+   private static <T> ListenableFuture<IterableWithMarker<T>> fetchAfter(
+         ListenableFuture<IterableWithMarker<T>> previous, final Function<Object, IterableWithMarker<T>> markerToNext,
+         final ListeningExecutorService executor, final WeakReference<?> owner) {
+      final SettableFuture<IterableWithMarker<T>> next = SettableFuture.create();
+      Futures.addCallback(previous, new FutureCallback<IterableWithMarker<T>>() {
+         @Override
+         public void onSuccess(IterableWithMarker<T> page) {
+            if (page == null || !page.nextMarker().isPresent()) {
+               next.set(null);
+            } else if (owner.get() == null || next.isCancelled()) {
+               next.cancel(false);
+            } else {
+               final Object marker = page.nextMarker().get();
+               final ListenableFuture<IterableWithMarker<T>> fetch;
+               try {
+                  fetch = executor.submit(new Callable<IterableWithMarker<T>>() {
+                     @Override
+                     public IterableWithMarker<T> call() {
+                        return markerToNext.apply(marker);
+                     }
+                  });
+               } catch (RuntimeException e) {
+                  next.setException(e);
+                  return;
+               }
+               Futures.addCallback(fetch, new FutureCallback<IterableWithMarker<T>>() {
+                  @Override
+                  public void onSuccess(IterableWithMarker<T> result) {
+                     if (result != null) {
+                        next.set(result);
+                     } else {
+                        next.setException(new NullPointerException("no page after marker " + marker));
+                     }
+                  }
+
+                  @Override
+                  public void onFailure(Throwable t) {
+                     next.setException(t);
+                  }
+               }, directExecutor());
+               next.addListener(new Runnable() {
+                  @Override
+                  public void run() {
+                     if (next.isCancelled()) {
+                        fetch.cancel(true);
+                     }
+                  }
+               }, directExecutor());
+            }
+         }
+
+         @Override
+         public void onFailure(Throwable t) {
+            next.setException(t);
+         }
+      }, directExecutor());
+      return next;
+   }
+
    /**
     * 
     * @param initial
@@ -19,9 +19,13 @@ package org.jclouds.collect.internal;
 import static com.google.common.base.Preconditions.checkArgument;
 import static org.jclouds.collect.PagedIterables.advance;
 import static org.jclouds.collect.PagedIterables.onlyPage;
+import static org.jclouds.collect.PagedIterables.prefetch;
 
 import java.util.List;
 
+import javax.inject.Named;
+
+import org.jclouds.Constants;
 import org.jclouds.collect.IterableWithMarker;
 import org.jclouds.collect.PagedIterable;
 import org.jclouds.http.HttpRequest;
@@ -30,6 +34,8 @@ import org.jclouds.rest.internal.GeneratedHttpRequest;
 
 import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Inject;
 
 /**
  * Used to propagate the invoked method arguments during an advance in a
@@ -46,9 +52,24 @@ public abstract class ArgsToPagedIterable<T, I extends ArgsToPagedIterable<T, I>
 
    protected GeneratedHttpRequest request;
 
+   @Inject(optional = true)
+   @Named(Constants.PROPERTY_PAGE_PREFETCH)
+   private int pagePrefetch;
+
+   @Inject(optional = true)
+   @Named(Constants.PROPERTY_USER_THREADS)
+   private ListeningExecutorService userExecutor;
+
    @Override
    public PagedIterable<T> apply(IterableWithMarker<T> input) {
-      return input.nextMarker().isPresent() ? advance(input, markerToNextForArgs(getArgs(request))) : onlyPage(input);
+      if (!input.nextMarker().isPresent()) {
+         return onlyPage(input);
+      }
+      Function<Object, IterableWithMarker<T>> markerToNext = markerToNextForArgs(getArgs(request));
+      if (pagePrefetch > 0 && userExecutor != null) {
+         return prefetch(input, markerToNext, userExecutor, pagePrefetch);
+      }
+      return advance(input, markerToNext);
    }
 
    protected List<Object> getArgs(GeneratedHttpRequest request) {
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.concurrent;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * Factory methods for executors that run each task on its own virtual thread.
+ * <p>
+ * Virtual threads are only available on JDK 21 and later, so they are looked up reflectively. Use
+ * {@link #isSupported()} to check whether the running JVM provides them.
+ */
+@Beta
+public class VirtualThreadExecutors {
+
+   private static final Method OF_VIRTUAL;
+   private static final Method NAME;
+   private static final Method FACTORY;
+   private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+   static {
+      Method ofVirtual = null;
+      Method name = null;
+      Method factory = null;
+      Method newThreadPerTaskExecutor = null;
+      try {
+         Class<?> builder = Class.forName("java.lang.Thread$Builder");
+         ofVirtual = Thread.class.getMethod("ofVirtual");
+         name = builder.getMethod("name", String.class, long.class);
+         factory = builder.getMethod("factory");
+         newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      } catch (ClassNotFoundException cnfe) {
+         ofVirtual = null;
+      } catch (NoSuchMethodException nsme) {
+         ofVirtual = null;
+      }
+      OF_VIRTUAL = ofVirtual;
+      NAME = name;
+      FACTORY = factory;
+      NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+   }
+
+   /**
+    * @return true if the running JVM can create virtual threads
+    */
+   public static boolean isSupported() {
+      return OF_VIRTUAL != null;
+   }
+
+   /**
+    * Creates an executor that starts a new virtual thread for each task.
+    *
+    * @param namePrefix
+    *           prefix of the thread names; a counter starting at zero is appended to it.
+    * @param maxConcurrency
+    *           the maximum number of tasks allowed to run at the same time, or 0 for no limit. Tasks over the limit
+    *           wait on their own virtual thread, so submitters are never blocked.
+    * @return the newly created executor
+    * @throws UnsupportedOperationException
+    *            if the running JVM does not support virtual threads
+    */
+   public static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix, int maxConcurrency) {
+      checkNotNull(namePrefix, "namePrefix");
+      checkArgument(maxConcurrency >= 0, "maxConcurrency must be non-negative");
+      if (!isSupported())
+         throw new UnsupportedOperationException("Virtual threads require Java 21 or later; running on "
+               + System.getProperty("java.version"));
+      ExecutorService executor;
+      try {
+         Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), namePrefix, 0L);
+         ThreadFactory threadFactory = (ThreadFactory) FACTORY.invoke(builder);
+         executor = (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, threadFactory);
+      } catch (IllegalAccessException iae) {
+         throw new UnsupportedOperationException("Can't access virtual thread factory methods", iae);
+      } catch (InvocationTargetException ite) {
+         throw new UnsupportedOperationException("Can't create virtual thread executor", ite.getCause());
+      }
+      return maxConcurrency == 0 ? executor : limitConcurrency(executor, maxConcurrency);
+   }
+
+   /**
+    * Limits the number of tasks of {@code delegate} that may run at the same time. Each task acquires a permit on the
+    * thread it was given before running, so the delegate must not have a bounded number of threads.
+    */
+   static ExecutorService limitConcurrency(ExecutorService delegate, int maxConcurrency) {
+      return new ConcurrencyLimitedExecutorService(delegate, maxConcurrency);
+   }
+
+   private static final class ConcurrencyLimitedExecutorService extends AbstractExecutorService {
+      private final ExecutorService delegate;
+      private final Semaphore permits;
+
+      private ConcurrencyLimitedExecutorService(ExecutorService delegate, int maxConcurrency) {
+         this.delegate = checkNotNull(delegate, "delegate");
+         this.permits = new Semaphore(maxConcurrency);
+      }
+
+      @Override
+      public void execute(final Runnable command) {
+         checkNotNull(command, "command");
+         delegate.execute(new Runnable() {
+            @Override
+            public void run() {
+               try {
+                  permits.acquire();
+               } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                  // the task never ran; make sure anyone waiting on it is released
+                  if (command instanceof Future)
+                     Future.class.cast(command).cancel(false);
+                  return;
+               }
+               try {
+                  command.run();
+               } finally {
+                  permits.release();
+               }
+            }
+
+            @Override
+            public String toString() {
+               return command.toString();
+            }
+         });
+      }
+
+      @Override
+      public void shutdown() {
+         delegate.shutdown();
+      }
+
+      @Override
+      public List<Runnable> shutdownNow() {
+         return delegate.shutdownNow();
+      }
+
+      @Override
+      public boolean isShutdown() {
+         return delegate.isShutdown();
+      }
+
+      @Override
+      public boolean isTerminated() {
+         return delegate.isTerminated();
+      }
+
+      @Override
+      public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+         return delegate.awaitTermination(timeout, unit);
+      }
+
+      @Override
+      public String toString() {
+         return delegate + "[availablePermits=" + permits.availablePermits() + "]";
+      }
+   }
+
+   /**
+    * Cannot instantiate.
+    */
+   private VirtualThreadExecutors() {
+   }
+}
@@ -18,7 +18,9 @@ package org.jclouds.concurrent.config;
 
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS_VIRTUAL;
 import static org.jclouds.concurrent.DynamicExecutors.newScalingThreadPool;
+import static org.jclouds.concurrent.VirtualThreadExecutors.newVirtualThreadPerTaskExecutor;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
@@ -42,6 +44,7 @@ import com.google.common.util.concurrent.SimpleTimeLimiter;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.common.util.concurrent.TimeLimiter;
 import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
 import com.google.inject.Provides;
 
 /**
@@ -53,6 +56,10 @@ import com.google.inject.Provides;
  * This extends the underlying Future to expose a description (the task's toString) and the submission context (stack
  * trace). The submission stack trace is appended to relevant stack traces on exceptions that are returned, so the user
  * can see the logical chain of execution (in the executor, and where it was passed to the executor).
+ *
+ * <p>
+ * When {@link org.jclouds.Constants#PROPERTY_USER_THREADS_VIRTUAL} is set, each user task runs on its own virtual
+ * thread and {@link org.jclouds.Constants#PROPERTY_USER_THREADS} caps how many run at once.
  */
 @ConfiguresExecutorService
 public class ExecutorServiceModule extends AbstractModule {
@@ -129,6 +136,12 @@ public class ExecutorServiceModule extends AbstractModule {
       }
    }
 
+   static final class UserThreadsOptions {
+      @Inject(optional = true)
+      @Named(PROPERTY_USER_THREADS_VIRTUAL)
+      boolean virtual = false;
+   }
+
    final ListeningExecutorService userExecutorFromConstructor;
 
    public ExecutorServiceModule() {
@@ -176,9 +189,12 @@ public class ExecutorServiceModule extends AbstractModule {
    @Provides
    @Singleton
    @Named(PROPERTY_USER_THREADS)
-   final ListeningExecutorService provideListeningUserExecutorService(@Named(PROPERTY_USER_THREADS) int count, Closer closer) { // NO_UCD
+   final ListeningExecutorService provideListeningUserExecutorService(@Named(PROPERTY_USER_THREADS) int count,
+         UserThreadsOptions options, Closer closer) { // NO_UCD
       if (userExecutorFromConstructor != null)
          return userExecutorFromConstructor;
+      if (options.virtual)
+         return shutdownOnClose(WithSubmissionTrace.wrap(newVirtualThreadPoolNamed("user thread ", count)), closer);
       return shutdownOnClose(WithSubmissionTrace.wrap(newThreadPoolNamed("user thread %d", count)), closer);
    }
 
@@ -202,6 +218,10 @@ public class ExecutorServiceModule extends AbstractModule {
       return maxCount == 0 ? newCachedThreadPoolNamed(name) : newScalingThreadPoolNamed(name, maxCount);
    }
 
+   private ListeningExecutorService newVirtualThreadPoolNamed(String namePrefix, int maxConcurrency) {
+      return listeningDecorator(newVirtualThreadPerTaskExecutor(namePrefix, maxConcurrency));
+   }
+
    private ListeningExecutorService newScalingThreadPoolNamed(String name, int maxCount) {
       return listeningDecorator(newScalingThreadPool(1, maxCount, 60L * 1000, namedThreadFactory(name)));
    }
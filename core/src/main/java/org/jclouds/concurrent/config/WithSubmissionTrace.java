@@ -30,6 +30,8 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import org.jclouds.tracing.TraceContext;
+
 import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ForwardingFuture;
@@ -60,18 +62,23 @@ public class WithSubmissionTrace {
 
       @Override
       public <T> com.google.common.util.concurrent.ListenableFuture<T> submit(Callable<T> task) {
-         return new ListenableFuture<T>(delegate().submit(task));
+         return new ListenableFuture<T>(delegate().submit(TraceContext.wrap(task)));
       }
 
       @SuppressWarnings({ "unchecked", "rawtypes" })
       @Override
       public com.google.common.util.concurrent.ListenableFuture<?> submit(Runnable task) {
-         return new ListenableFuture(delegate().submit(task));
+         return new ListenableFuture(delegate().submit(TraceContext.wrap(task)));
       }
 
       @Override
       public <T> com.google.common.util.concurrent.ListenableFuture<T> submit(Runnable task, T result) {
-         return new ListenableFuture<T>(delegate().submit(task, result));
+         return new ListenableFuture<T>(delegate().submit(TraceContext.wrap(task), result));
+      }
+
+      @Override
+      public void execute(Runnable command) {
+         delegate().execute(TraceContext.wrap(command));
       }
    }
 
@@ -164,41 +171,41 @@ public class WithSubmissionTrace {
 
       @Override
       public <T> ListenableFuture<T> submit(Callable<T> task) {
-         return new ListenableFuture<T>(delegate().submit(task));
+         return new ListenableFuture<T>(delegate().submit(TraceContext.wrap(task)));
       }
 
       @SuppressWarnings({ "unchecked", "rawtypes" })
       @Override
       public ListenableFuture<?> submit(Runnable task) {
-         return new ListenableFuture(delegate().submit(task));
+         return new ListenableFuture(delegate().submit(TraceContext.wrap(task)));
       }
 
       @Override
       public <T> ListenableFuture<T> submit(Runnable task, T result) {
-         return new ListenableFuture<T>(delegate().submit(task, result));
+         return new ListenableFuture<T>(delegate().submit(TraceContext.wrap(task), result));
       }
 
       @SuppressWarnings({ "rawtypes", "unchecked" })
       @Override
       public ListenableScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
-         return new ListenableScheduledFuture(delegate().schedule(command, delay, unit));
+         return new ListenableScheduledFuture(delegate().schedule(TraceContext.wrap(command), delay, unit));
       }
 
       @Override
       public <V> ListenableScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
-         return new ListenableScheduledFuture(delegate().schedule(callable, delay, unit));
+         return new ListenableScheduledFuture(delegate().schedule(TraceContext.wrap(callable), delay, unit));
       }
 
       @SuppressWarnings({ "rawtypes", "unchecked" })
       @Override
       public ListenableScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
-         return new ListenableScheduledFuture(delegate().scheduleAtFixedRate(command, initialDelay, period, unit));
+         return new ListenableScheduledFuture(delegate().scheduleAtFixedRate(TraceContext.wrap(command), initialDelay, period, unit));
       }
 
       @SuppressWarnings({ "rawtypes", "unchecked" })
       @Override
       public ListenableScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
-         return new ListenableScheduledFuture(delegate().scheduleWithFixedDelay(command, initialDelay, delay, unit));
+         return new ListenableScheduledFuture(delegate().scheduleWithFixedDelay(TraceContext.wrap(command), initialDelay, delay, unit));
       }
 
    }
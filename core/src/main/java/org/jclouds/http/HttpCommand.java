@@ -18,7 +18,10 @@ package org.jclouds.http;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import org.jclouds.http.metrics.InvocationMetrics;
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.rest.internal.GeneratedHttpRequest;
+import org.jclouds.tracing.Span;
 
 import com.google.common.base.Objects;
 
@@ -32,6 +35,9 @@ public class HttpCommand {
    private volatile int failureCount;
    private volatile int redirectCount;
    private volatile Exception exception;
+   private volatile InvocationMetrics metrics;
+   private volatile Span span;
+   private volatile Boolean wireSampled;
 
    public HttpCommand(HttpRequest request) {
       this.request = checkNotNull(request, "request");
@@ -89,6 +95,58 @@ public class HttpCommand {
       return redirectCount;
    }
 
+   /**
+    * The measurements of the invocation this command was created for, or null if it is not measured.
+    *
+    * @see org.jclouds.http.metrics.HttpMetrics
+    */
+   @Nullable
+   public InvocationMetrics getMetrics() {
+      return metrics;
+   }
+
+   /**
+    * @see #getMetrics
+    */
+   public void setMetrics(@Nullable InvocationMetrics metrics) {
+      this.metrics = metrics;
+   }
+
+   /**
+    * The span of the invocation this command was created for, or null if it is not traced.
+    *
+    * @see org.jclouds.tracing.Tracer
+    */
+   @Nullable
+   public Span getSpan() {
+      return span;
+   }
+
+   /**
+    * @see #getSpan
+    */
+   public void setSpan(@Nullable Span span) {
+      this.span = span;
+   }
+
+   /**
+    * Whether the payloads of this command were sampled for the wire log, or null if that is not
+    * decided yet.
+    *
+    * @see org.jclouds.http.internal.HttpWire#enabled(HttpCommand)
+    */
+   @Nullable
+   public Boolean getWireSampled() {
+      return wireSampled;
+   }
+
+   /**
+    * @see #getWireSampled
+    */
+   public void setWireSampled(@Nullable Boolean wireSampled) {
+      this.wireSampled = wireSampled;
+   }
+
    /**
     * Commands need to be replayed, if redirected or on a retryable error. Typically, this implies
     * the payload carried is not a streaming type.
@@ -123,7 +123,7 @@ public class HttpMessage extends PayloadEnclosingImpl {
          checkNotNull(headers, "headers");
          Multimap<String, String> oldHeaders = this.headers.build();
          this.headers = ImmutableMultimap.<String, String> builder();
-         this.headers.putAll(Multimaps2.replaceEntries(oldHeaders, headers));
+         this.headers.putAll(Multimaps2.withoutKeys(oldHeaders, headers.keySet())).putAll(headers);
          return self();
       }
 
@@ -159,7 +159,10 @@ public class HttpMessage extends PayloadEnclosingImpl {
       public T replaceHeader(String name, String ... values) {
          checkNotNull(name, "name");
          checkNotNull(values, "values of %s", name);
-         return replaceHeaders(ImmutableMultimap.<String, String> builder().putAll(name, values).build());
+         Multimap<String, String> oldHeaders = this.headers.build();
+         this.headers = ImmutableMultimap.<String, String> builder();
+         this.headers.putAll(Multimaps2.withoutKey(oldHeaders, name)).putAll(name, values);
+         return self();
       }
 
       public HttpMessage build() {
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * A filter that edits the request builder in place instead of returning a new request.
+ * <p>
+ * When consecutive filters of a request are of this type, the executor runs them against a single builder and builds
+ * the request once, rather than copying the request and its headers for every filter.
+ */
+@Beta
+public abstract class HttpRequestBuilderFilter implements HttpRequestFilter {
+
+   /**
+    * Edits {@code request}, which the caller will build once it has run the remaining filters.
+    */
+   public abstract void filter(HttpRequest.Builder<?> request) throws HttpException;
+
+   @Override
+   public final HttpRequest filter(HttpRequest request) throws HttpException {
+      HttpRequest.Builder<?> builder = request.toBuilder();
+      filter(builder);
+      return builder.build();
+   }
+
+   /**
+    * Runs the filters of {@code request} in order, building the request only before a filter that needs an immutable
+    * request and after the last filter.
+    */
+   public static HttpRequest filterAll(HttpRequest request) throws HttpException {
+      HttpRequest.Builder<?> builder = null;
+      for (HttpRequestFilter filter : request.getFilters()) {
+         if (filter instanceof HttpRequestBuilderFilter) {
+            if (builder == null) {
+               builder = request.toBuilder();
+            }
+            ((HttpRequestBuilderFilter) filter).filter(builder);
+         } else {
+            if (builder != null) {
+               request = builder.build();
+               builder = null;
+            }
+            request = filter.filter(request);
+         }
+      }
+      return builder != null ? builder.build() : request;
+   }
+}
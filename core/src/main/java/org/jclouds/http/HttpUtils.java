@@ -51,6 +51,7 @@ import javax.inject.Singleton;
 import javax.ws.rs.HttpMethod;
 
 import org.jclouds.Constants;
+import org.jclouds.http.internal.HttpWire;
 import org.jclouds.io.ContentMetadata;
 import org.jclouds.io.MutableContentMetadata;
 import org.jclouds.io.Payload;
@@ -292,11 +293,23 @@ public class HttpUtils {
    }
 
    public static void wirePayloadIfEnabled(Wire wire, HttpMessage request) {
-      if (request.getPayload() != null && wire.enabled()) {
-         wire.output(request);
-         checkRequestHasContentLengthOrChunkedEncoding(request,
-               "After wiring, the request has neither chunked encoding nor content length: " + request);
-      }
+      if (request.getPayload() != null && wire.enabled())
+         wirePayload(wire, request);
+   }
+
+   /**
+    * Like {@link #wirePayloadIfEnabled(Wire, HttpMessage)}, but uses the wire log sample of
+    * {@code command}.
+    */
+   public static void wirePayloadIfEnabled(HttpWire wire, HttpCommand command, HttpMessage request) {
+      if (request.getPayload() != null && wire.enabled(command))
+         wirePayload(wire, request);
+   }
+
+   private static void wirePayload(Wire wire, HttpMessage request) {
+      wire.output(request);
+      checkRequestHasContentLengthOrChunkedEncoding(request,
+            "After wiring, the request has neither chunked encoding nor content length: " + request);
    }
 
    public static <T> T returnValueOnCodeOrNull(Throwable from, T value, Predicate<Integer> codePredicate) {
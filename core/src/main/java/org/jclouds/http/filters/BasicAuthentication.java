@@ -21,16 +21,19 @@ import static com.google.common.io.BaseEncoding.base64;
 import static com.google.common.net.HttpHeaders.AUTHORIZATION;
 import static java.lang.String.format;
 
+import java.util.Map;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import org.jclouds.domain.Credentials;
 import org.jclouds.http.HttpException;
 import org.jclouds.http.HttpRequest;
-import org.jclouds.http.HttpRequestFilter;
+import org.jclouds.http.HttpRequestBuilderFilter;
 import org.jclouds.location.Provider;
 
 import com.google.common.base.Supplier;
+import com.google.common.collect.Maps;
 
 /**
  * Uses Basic Authentication to sign the request.
@@ -38,9 +41,11 @@ import com.google.common.base.Supplier;
  * @see <a href= "http://en.wikipedia.org/wiki/Basic_access_authentication" />
  */
 @Singleton
-public class BasicAuthentication implements HttpRequestFilter {
+public class BasicAuthentication extends HttpRequestBuilderFilter {
 
    private final Supplier<Credentials> creds;
+   // the header of the last credentials seen, as they are only rotated occasionally
+   private volatile Map.Entry<Credentials, String> lastHeader;
 
    @Inject
    public BasicAuthentication(@Provider Supplier<Credentials> creds) {
@@ -55,9 +60,13 @@ public class BasicAuthentication implements HttpRequestFilter {
    }
 
    @Override
-   public HttpRequest filter(HttpRequest request) throws HttpException {
+   public void filter(HttpRequest.Builder<?> request) throws HttpException {
       Credentials currentCreds = checkNotNull(creds.get(), "credential supplier returned null");
-      return request.toBuilder().replaceHeader(AUTHORIZATION, basic(currentCreds.identity, currentCreds.credential))
-            .build();
+      Map.Entry<Credentials, String> header = lastHeader;
+      if (header == null || header.getKey() != currentCreds) {
+         header = Maps.immutableEntry(currentCreds, basic(currentCreds.identity, currentCreds.credential));
+         lastHeader = header;
+      }
+      request.replaceHeader(AUTHORIZATION, header.getValue());
    }
 }
@@ -19,15 +19,15 @@ package org.jclouds.http.filters;
 
 import org.jclouds.http.HttpException;
 import org.jclouds.http.HttpRequest;
-import org.jclouds.http.HttpRequestFilter;
+import org.jclouds.http.HttpRequestBuilderFilter;
 
 import com.google.common.net.HttpHeaders;
 import com.google.inject.Singleton;
 
 @Singleton
-public class StripExpectHeader implements HttpRequestFilter {
+public class StripExpectHeader extends HttpRequestBuilderFilter {
    @Override
-   public HttpRequest filter(HttpRequest request) throws HttpException {
-      return request.toBuilder().removeHeader(HttpHeaders.EXPECT).build();
+   public void filter(HttpRequest.Builder<?> request) throws HttpException {
+      request.removeHeader(HttpHeaders.EXPECT);
    }
 }
@@ -18,9 +18,11 @@ package org.jclouds.http.functions;
 
 import static org.jclouds.http.HttpUtils.releasePayload;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Type;
+import java.util.Iterator;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
@@ -28,9 +30,11 @@ import javax.inject.Singleton;
 
 import org.jclouds.http.HttpResponse;
 import org.jclouds.http.HttpResponseException;
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.json.Json;
 import org.jclouds.logging.Logger;
 
+import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
 import com.google.inject.TypeLiteral;
 
@@ -71,6 +75,37 @@ public class ParseJson<T> implements Function<HttpResponse, T> {
 
    }
 
+   /**
+    * lazily parses the elements of a json array in the http response body, so that the first element is available
+    * before the rest of the body has arrived. The payload is released when iteration ends, or when the returned
+    * iterator, which is {@link java.io.Closeable}, is closed.
+    *
+    * @see Json#fromJsonArray
+    */
+   @Beta
+   public <V> Iterator<V> iterate(final HttpResponse from, Type elementType, @Nullable String arrayName) {
+      try {
+         InputStream stream = new FilterInputStream(from.getPayload().openStream()) {
+            @Override
+            public void close() throws IOException {
+               try {
+                  super.close();
+               } finally {
+                  releasePayload(from);
+               }
+            }
+         };
+         return json.fromJsonArray(stream, elementType, arrayName);
+      } catch (Exception e) {
+         releasePayload(from);
+         StringBuilder message = new StringBuilder();
+         message.append("Error parsing input: ");
+         message.append(e.getMessage());
+         logger.error(e, message.toString());
+         throw new HttpResponseException(message.toString() + "\n" + from, null, from, e);
+      }
+   }
+
    @SuppressWarnings("unchecked")
    public T apply(InputStream stream) throws IOException {
       return (T) apply(stream, type.getType());
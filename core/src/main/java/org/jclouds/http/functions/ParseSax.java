@@ -55,6 +55,7 @@ public class ParseSax<T> implements Function<HttpResponse, T>, InvocationContext
    private Logger logger = Logger.NULL;
 
    private final XMLReader parser;
+   private final XMLReaderPool pool;
    private final HandlerWithResult<T> handler;
    private HttpRequest request;
 
@@ -64,6 +65,16 @@ public class ParseSax<T> implements Function<HttpResponse, T>, InvocationContext
 
    public ParseSax(XMLReader parser, HandlerWithResult<T> handler) {
       this.parser = checkNotNull(parser, "parser");
+      this.pool = null;
+      this.handler = checkNotNull(handler, "handler");
+   }
+
+   /**
+    * borrows a reader from {@code pool} for each document parsed.
+    */
+   public ParseSax(XMLReaderPool pool, HandlerWithResult<T> handler) {
+      this.parser = null;
+      this.pool = checkNotNull(pool, "pool");
       this.handler = checkNotNull(handler, "handler");
    }
 
@@ -136,9 +147,18 @@ public class ParseSax<T> implements Function<HttpResponse, T>, InvocationContext
    protected T doParse(InputSource from) throws IOException, SAXException {
       checkNotNull(from, "xml inputsource");
       from.setEncoding(StandardCharsets.UTF_8.name());
-      parser.setContentHandler(getHandler());
+      if (pool == null)
+         return doParse(parser, from);
+      XMLReader reader = pool.acquire();
+      T result = doParse(reader, from);
+      pool.release(reader);
+      return result;
+   }
+
+   private T doParse(XMLReader reader, InputSource from) throws IOException, SAXException {
+      reader.setContentHandler(getHandler());
       // This method should accept documents with a BOM (Byte-order mark)
-      parser.parse(from);
+      reader.parse(from);
       return getHandler().getResult();
    }
 
@@ -203,6 +223,44 @@ public class ParseSax<T> implements Function<HttpResponse, T>, InvocationContext
       }
    }
 
+   /**
+    * Receives elements from a {@link StreamingHandlerWithResult} as soon as each one is parsed.
+    */
+   public interface ElementCallback<E> {
+      void onElement(E element);
+   }
+
+   /**
+    * Handler for documents that hold a long list of elements of type {@code E}.
+    * <p>
+    * By default each element is {@link #accumulate accumulated} into the result. When an {@link ElementCallback} is
+    * set, elements are handed to it as they are parsed instead, and the result only carries the remaining fields of
+    * the document.
+    */
+   public abstract static class StreamingHandlerWithResult<E, T> extends HandlerWithResult<T> {
+      private ElementCallback<? super E> callback;
+
+      public StreamingHandlerWithResult<E, T> setCallback(@Nullable ElementCallback<? super E> callback) {
+         this.callback = callback;
+         return this;
+      }
+
+      /**
+       * called by subclasses once an element is complete.
+       */
+      protected final void emit(E element) {
+         if (callback != null)
+            callback.onElement(element);
+         else
+            accumulate(element);
+      }
+
+      /**
+       * keeps {@code element} for {@link #getResult()}, when no callback is set.
+       */
+      protected abstract void accumulate(E element);
+   }
+
    public abstract static class HandlerForGeneratedRequestWithResult<T> extends HandlerWithResult<T> {
 
       @Override
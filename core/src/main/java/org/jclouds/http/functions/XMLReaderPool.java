@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.functions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.google.common.base.Throwables;
+
+/**
+ * Thread-safe pool of {@link XMLReader}s created from the configured {@link SAXParserFactory}.
+ * <p>
+ * Creating a parser costs more than parsing a typical response, so readers are borrowed for the duration of one
+ * document and then returned. A reader that failed while parsing is not returned, as its state is unknown.
+ */
+@Singleton
+public class XMLReaderPool {
+
+   /** idle readers kept beyond this are left for the garbage collector */
+   static final int MAX_IDLE = 32;
+
+   private static final DefaultHandler NO_HANDLER = new DefaultHandler();
+
+   private final SAXParserFactory factory;
+   private final Queue<XMLReader> idle = new ArrayBlockingQueue<XMLReader>(MAX_IDLE);
+
+   @Inject
+   public XMLReaderPool(SAXParserFactory factory) {
+      this.factory = checkNotNull(factory, "factory");
+   }
+
+   /**
+    * @return an idle reader, or a new one if none is available
+    */
+   public XMLReader acquire() {
+      XMLReader reader = idle.poll();
+      if (reader != null)
+         return reader;
+      try {
+         return factory.newSAXParser().getXMLReader();
+      } catch (Exception e) {
+         throw Throwables.propagate(e);
+      }
+   }
+
+   /**
+    * Resets the content handler of a reader that completed a parse and makes it available again.
+    */
+   public void release(XMLReader reader) {
+      // drop references to the last document's handler and result
+      reader.setContentHandler(NO_HANDLER);
+      idle.offer(reader);
+   }
+}
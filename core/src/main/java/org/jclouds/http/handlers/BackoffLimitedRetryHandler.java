@@ -17,22 +17,29 @@
 package org.jclouds.http.handlers;
 
 import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 import java.io.IOException;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 import javax.annotation.Resource;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.jclouds.Constants;
+import org.jclouds.date.DateService;
+import org.jclouds.date.internal.SimpleDateFormatDateService;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.http.HttpRetryHandler;
 import org.jclouds.http.IOExceptionRetryHandler;
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.logging.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
+import com.google.common.net.HttpHeaders;
 import com.google.inject.Inject;
 
 /**
@@ -68,6 +75,10 @@ import com.google.inject.Inject;
  * </tr>
  * </table>
  * <p>
+ * The delay is randomized according to {@link org.jclouds.Constants#PROPERTY_RETRY_JITTER}, and replaced by the
+ * wait a server asks for in a <code>Retry-After</code> header. When the retry handler runs within a
+ * {@linkplain RetryDelays#defer() deferring scope}, the delay is left to the caller rather than slept.
+ * <p>
  * This implementation has two side-effects. It increments the command's failure count with
  * {@link TransformingHttpCommand#incrementFailureCount()}, because this failure count value is used
  * to determine how many times the command has already been tried. It also closes the response's
@@ -78,6 +89,8 @@ public class BackoffLimitedRetryHandler implements HttpRetryHandler, IOException
 
    public static final BackoffLimitedRetryHandler INSTANCE = new BackoffLimitedRetryHandler();
 
+   private static final DateService DATE_SERVICE = new SimpleDateFormatDateService();
+
    @Inject(optional = true)
    @Named(Constants.PROPERTY_MAX_RETRIES)
    private int retryCountLimit = 5;
@@ -86,18 +99,46 @@ public class BackoffLimitedRetryHandler implements HttpRetryHandler, IOException
    @Named(Constants.PROPERTY_RETRY_DELAY_START)
    private long delayStart = 50L;
 
+   @Inject(optional = true)
+   @Named(Constants.PROPERTY_RETRY_JITTER)
+   private Jitter jitter = Jitter.PROPORTIONAL;
+
+   @Inject(optional = true)
+   @Named(Constants.PROPERTY_MAX_RATE_LIMIT_WAIT)
+   private long maxRetryAfter = 2 * 60 * 1000L;
+
    @Resource
    protected Logger logger = Logger.NULL;
 
+   /**
+    * How the exponential delay is randomized, so that requests that failed together do not all retry together.
+    *
+    * @see Constants#PROPERTY_RETRY_JITTER
+    */
+   public enum Jitter {
+      /**
+       * Adds up to 10% of the exponential delay.
+       */
+      PROPORTIONAL,
+      /**
+       * Picks a delay between zero and the exponential delay.
+       */
+      FULL,
+      /**
+       * Picks a delay between the start delay and three times the exponential delay of the previous attempt.
+       */
+      DECORRELATED
+   }
+
    public boolean shouldRetryRequest(HttpCommand command, IOException error) {
-      return ifReplayableBackoffAndReturnTrue(command);
+      return ifReplayableBackoffAndReturnTrue(command, null);
    }
 
    public boolean shouldRetryRequest(HttpCommand command, HttpResponse response) {
-      return ifReplayableBackoffAndReturnTrue(command);
+      return ifReplayableBackoffAndReturnTrue(command, response.getFirstHeaderOrNull(HttpHeaders.RETRY_AFTER));
    }
 
-   private boolean ifReplayableBackoffAndReturnTrue(HttpCommand command) {
+   private boolean ifReplayableBackoffAndReturnTrue(HttpCommand command, @Nullable String retryAfter) {
       command.incrementFailureCount();
 
       if (!command.isReplayable()) {
@@ -107,9 +148,38 @@ public class BackoffLimitedRetryHandler implements HttpRetryHandler, IOException
          logger.error("Cannot retry after server error, command has exceeded retry limit %1$d: %2$s", retryCountLimit,
                   command);
          return false;
-      } else {
+      }
+      Long retryAfterMillis = retryAfter == null ? null : parseRetryAfter(retryAfter);
+      if (retryAfterMillis == null) {
          imposeBackoffExponentialDelay(command.getFailureCount(), "server error: " + command.toString());
          return true;
+      } else if (retryAfterMillis > maxRetryAfter) {
+         logger.error("Cannot retry after server error, max wait is %sms but Retry-After asks for %sms: %s",
+               maxRetryAfter, retryAfterMillis, command);
+         return false;
+      }
+      logger.debug("Retry %d/%d: delaying for %d ms as defined by Retry-After: %s", command.getFailureCount(),
+            retryCountLimit, retryAfterMillis, command);
+      sleep(retryAfterMillis);
+      return true;
+   }
+
+   /**
+    * Parses a <a href="https://tools.ietf.org/html/rfc7231#section-7.1.3">Retry-After</a> header, which holds either
+    * a number of seconds or an HTTP date.
+    *
+    * @return the milliseconds to wait, or null if the value is not understood
+    */
+   @Nullable
+   @VisibleForTesting
+   static Long parseRetryAfter(String retryAfter) {
+      retryAfter = retryAfter.trim();
+      if (retryAfter.matches("^[0-9]{1,9}$"))
+         return SECONDS.toMillis(Long.parseLong(retryAfter));
+      try {
+         return max(0L, DATE_SERVICE.rfc822DateParse(retryAfter).getTime() - System.currentTimeMillis());
+      } catch (IllegalArgumentException e) {
+         return null;
       }
    }
 
@@ -121,23 +191,54 @@ public class BackoffLimitedRetryHandler implements HttpRetryHandler, IOException
       imposeBackoffExponentialDelay(period, period * 10L, pow, failureCount, max, commandDescription);
    }
 
+   /**
+    * Waits for the exponential delay of the given attempt. Within a {@linkplain RetryDelays#defer() deferring
+    * scope} the wait is left to the caller instead.
+    */
    public void imposeBackoffExponentialDelay(long period, long maxPeriod, int pow, int failureCount, int max,
             String commandDescription) {
+      long delayMs = calculateBackoffExponentialDelay(period, maxPeriod, pow, failureCount);
+      logger.debug("Retry %d/%d: delaying for %d ms: %s", failureCount, max, delayMs, commandDescription);
+      if (delayMs > 0) {
+         sleep(delayMs);
+      }
+   }
+
+   /**
+    * Computes <code>period * failureCount ^ pow</code>, randomized according to the configured {@link Jitter} and
+    * bounded by {@code maxPeriod}. A {@code period} of zero disables the delay.
+    */
+   public long calculateBackoffExponentialDelay(long period, long maxPeriod, int pow, int failureCount) {
       if (period == 0) {
          // Essentially disables the exponential backoff
-         logger.debug("Retry %d/%d: delaying for %d ms: %s", failureCount, max, 0, commandDescription);
-         return;
+         return 0;
       }
       long delayMs = (long) (period * Math.pow(failureCount, pow));
-      // Add random delay to avoid thundering herd problem when multiple
+      // Randomize the delay to avoid thundering herd problem when multiple
       // simultaneous failed requests retry after sleeping for the same delay.
-      // Throws an exception for a value of 0
-      delayMs += new Random().nextInt((int) (max(delayMs / 10, 1) ));
-      delayMs = delayMs > maxPeriod ? maxPeriod : delayMs;
-      logger.debug("Retry %d/%d: delaying for %d ms: %s", failureCount, max, delayMs, commandDescription);
+      switch (jitter) {
+      case FULL:
+         delayMs = nextLong(min(delayMs, maxPeriod) + 1);
+         break;
+      case DECORRELATED:
+         long previous = max(period, (long) (period * Math.pow(failureCount - 1, pow)));
+         delayMs = period + nextLong(max(3 * previous - period, 0) + 1);
+         break;
+      default:
+         delayMs += nextLong(max(delayMs / 10, 1));
+      }
+      return delayMs > maxPeriod ? maxPeriod : delayMs;
+   }
+
+   private static long nextLong(long bound) {
+      return (long) (ThreadLocalRandom.current().nextDouble() * bound);
+   }
+
+   private static void sleep(long millis) {
       try {
-         Thread.sleep(delayMs);
+         RetryDelays.sleep(millis);
       } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
          Throwables.propagate(e);
       }
    }
@@ -105,8 +105,9 @@ public abstract class RateLimitRetryHandler implements HttpRetryHandler {
          try {
             logger.debug("Waiting %sms before retrying, as defined by the rate limit", waitPeriod);
             // Do not use Uninterrumpibles or similar, to let the jclouds
-            // tiemout configuration interrupt this thread
-            Thread.sleep(waitPeriod);
+            // tiemout configuration interrupt this thread. Within a deferring
+            // scope this returns at once and the caller schedules the retry.
+            RetryDelays.sleep(waitPeriod);
          } catch (InterruptedException ex) {
             // If the request is being executed and has a timeout configured,
             // the thread may be interrupted when the timeout is reached.
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.handlers;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * Waits imposed by retry handlers before a request is sent again.
+ * <p>
+ * By default {@link #sleep(long)} blocks the calling thread. Callers that can resume the request later, such as the
+ * asynchronous path of {@link org.jclouds.http.internal.BaseHttpCommandExecutorService}, run the retry handler within
+ * a {@linkplain #defer() deferring scope} instead: the waits requested in it are only added up, and the caller
+ * schedules the retry once they have elapsed, so that no thread is parked during back-off.
+ */
+@Beta
+public final class RetryDelays {
+
+   private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<Scope>();
+
+   /**
+    * The waits requested on a thread between {@link RetryDelays#defer()} or {@link RetryDelays#block()} and
+    * {@link #close()}.
+    */
+   public static final class Scope {
+      private final Scope previous;
+      private final boolean deferring;
+      private long delayMillis;
+
+      private Scope(Scope previous, boolean deferring) {
+         this.previous = previous;
+         this.deferring = deferring;
+      }
+
+      /**
+       * Restores the enclosing scope.
+       *
+       * @return the milliseconds to wait before retrying, always zero for a blocking scope
+       */
+      public long close() {
+         if (previous == null) {
+            CURRENT.remove();
+         } else {
+            CURRENT.set(previous);
+         }
+         return delayMillis;
+      }
+   }
+
+   /**
+    * Opens a scope in which {@link #sleep(long)} returns immediately, leaving the wait to the caller.
+    */
+   public static Scope defer() {
+      return open(true);
+   }
+
+   /**
+    * Opens a scope in which {@link #sleep(long)} blocks, even when an enclosing scope defers. This is used for
+    * synchronous requests issued from within a retry handler.
+    */
+   public static Scope block() {
+      return open(false);
+   }
+
+   private static Scope open(boolean deferring) {
+      Scope scope = new Scope(CURRENT.get(), deferring);
+      CURRENT.set(scope);
+      return scope;
+   }
+
+   /**
+    * Waits for {@code millis} before a retry, or records the wait if the current scope defers it.
+    */
+   public static void sleep(long millis) throws InterruptedException {
+      Scope scope = CURRENT.get();
+      if (scope != null && scope.deferring) {
+         scope.delayMillis += millis;
+      } else {
+         Thread.sleep(millis);
+      }
+   }
+
+   private RetryDelays() {
+      throw new AssertionError("intentionally unimplemented");
+   }
+}
@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.internal;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.jclouds.Constants.PROPERTY_ADAPTIVE_RATE_LIMIT;
+import static org.jclouds.Constants.PROPERTY_MAX_CONNECTIONS_PER_CONTEXT;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.inject.Inject;
+
+/**
+ * Paces the requests sent to each endpoint and bounds how many are in flight, converging on the capacity the
+ * provider actually grants instead of learning about it from retried errors.
+ * <p>
+ * Both limits follow an additive-increase/multiplicative-decrease scheme: a 429 or 503 response halves them, at most
+ * once per second so that a burst of rejected requests counts as one signal, and each successful response grows them
+ * back by about one request (per second, for the rate) per round trip. Requests are unpaced until an endpoint first
+ * throttles, and never more than {@link org.jclouds.Constants#PROPERTY_MAX_CONNECTIONS_PER_CONTEXT} are in flight.
+ * <p>
+ * Endpoints are keyed by host and port; as there is one instance per context, limits are not shared between apis
+ * that talk to the same host.
+ *
+ * @see org.jclouds.Constants#PROPERTY_ADAPTIVE_RATE_LIMIT
+ */
+@Beta
+@Singleton
+public class AdaptiveRateLimiter {
+
+   /**
+    * Marks the end of a request admitted by {@link AdaptiveRateLimiter#acquire(URI)}.
+    */
+   public interface Permit {
+      /**
+       * Called once the response status is known.
+       */
+      void release(int statusCode);
+
+      /**
+       * Called when no response was received.
+       */
+      void release();
+   }
+
+   private static final Permit UNLIMITED = new Permit() {
+      @Override
+      public void release(int statusCode) {
+      }
+
+      @Override
+      public void release() {
+      }
+   };
+
+   private static final long DECREASE_INTERVAL_NANOS = SECONDS.toNanos(1);
+   /** how often non-blocking callers check for a free slot, as they are not woken by releases */
+   private static final long SLOT_POLL_NANOS = MILLISECONDS.toNanos(10);
+   private static final double MIN_RATE = 1;
+
+   @Inject(optional = true)
+   @Named(PROPERTY_ADAPTIVE_RATE_LIMIT)
+   private boolean enabled = false;
+
+   @Inject(optional = true)
+   @Named(PROPERTY_MAX_CONNECTIONS_PER_CONTEXT)
+   private int maxConcurrency = 20;
+
+   private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<String, Endpoint>();
+
+   /**
+    * Blocks until a request to {@code endpoint} may be sent.
+    *
+    * @return the permit to release when the request completes
+    */
+   public Permit acquire(URI endpoint) throws InterruptedException {
+      if (!enabled) {
+         return UNLIMITED;
+      }
+      Endpoint limiter = endpoint(endpoint);
+      long delayNanos = limiter.reserve();
+      if (delayNanos > 0) {
+         try {
+            NANOSECONDS.sleep(delayNanos);
+         } catch (InterruptedException e) {
+            limiter.release();
+            throw e;
+         }
+      }
+      return limiter;
+   }
+
+   /**
+    * Admits a request to {@code endpoint} only if it may be sent now, for callers that must not block.
+    *
+    * @return the permit to release when the request completes, or null if the caller should try again after
+    *         {@link #retryDelayNanos(URI)}
+    */
+   @Nullable
+   public Permit tryAcquire(URI endpoint) {
+      if (!enabled) {
+         return UNLIMITED;
+      }
+      Endpoint limiter = endpoint(endpoint);
+      return limiter.tryReserve() ? limiter : null;
+   }
+
+   /**
+    * @return how long a caller turned away by {@link #tryAcquire(URI)} should wait before trying again
+    */
+   public long retryDelayNanos(URI endpoint) {
+      return endpoint(endpoint).retryDelayNanos();
+   }
+
+   @VisibleForTesting
+   Endpoint endpoint(URI endpoint) {
+      String key = endpoint.getHost() + ":" + endpoint.getPort();
+      Endpoint limiter = endpoints.get(key);
+      if (limiter == null) {
+         Endpoint created = new Endpoint(max(maxConcurrency, 1));
+         limiter = endpoints.putIfAbsent(key, created);
+         if (limiter == null) {
+            limiter = created;
+         }
+      }
+      return limiter;
+   }
+
+   @VisibleForTesting
+   static final class Endpoint implements Permit {
+      private final int maxConcurrency;
+      private double concurrency;
+      private int inFlight;
+      /** requests per second, or infinite until the endpoint first throttles */
+      private double rate = Double.POSITIVE_INFINITY;
+      private long nextFreeNanos;
+      private long lastDecreaseNanos;
+      private long windowStartNanos;
+      private int windowCount;
+      private double lastWindowRate;
+
+      Endpoint(int maxConcurrency) {
+         this.maxConcurrency = maxConcurrency;
+         this.concurrency = maxConcurrency;
+         this.windowStartNanos = System.nanoTime();
+         this.lastDecreaseNanos = windowStartNanos - DECREASE_INTERVAL_NANOS;
+      }
+
+      /**
+       * Waits for a free slot and reserves the next send time.
+       *
+       * @return the nanoseconds to wait before sending
+       */
+      synchronized long reserve() throws InterruptedException {
+         while (inFlight >= (int) concurrency) {
+            wait();
+         }
+         inFlight++;
+         long now = System.nanoTime();
+         countRequest(now);
+         if (Double.isInfinite(rate)) {
+            return 0;
+         }
+         long sendAt = max(now, nextFreeNanos);
+         nextFreeNanos = sendAt + (long) (SECONDS.toNanos(1) / rate);
+         return sendAt - now;
+      }
+
+      /**
+       * Reserves a slot and the current send time, if both are free.
+       */
+      synchronized boolean tryReserve() {
+         long now = System.nanoTime();
+         if (inFlight >= (int) concurrency || (!Double.isInfinite(rate) && nextFreeNanos > now)) {
+            return false;
+         }
+         inFlight++;
+         countRequest(now);
+         if (!Double.isInfinite(rate)) {
+            nextFreeNanos = now + (long) (SECONDS.toNanos(1) / rate);
+         }
+         return true;
+      }
+
+      synchronized long retryDelayNanos() {
+         if (inFlight >= (int) concurrency) {
+            return SLOT_POLL_NANOS;
+         }
+         return max(nextFreeNanos - System.nanoTime(), 0);
+      }
+
+      @Override
+      public synchronized void release(int statusCode) {
+         if (statusCode == 429 || statusCode == 503) {
+            long now = System.nanoTime();
+            if (now - lastDecreaseNanos >= DECREASE_INTERVAL_NANOS) {
+               lastDecreaseNanos = now;
+               concurrency = max(1, concurrency / 2);
+               double current = Double.isInfinite(rate) ? observedRate(now) : rate;
+               rate = max(MIN_RATE, current / 2);
+            }
+         } else if (statusCode < 500) {
+            concurrency = min(maxConcurrency, concurrency + 1 / concurrency);
+            if (!Double.isInfinite(rate)) {
+               rate += 1 / rate;
+            }
+         }
+         release();
+      }
+
+      @Override
+      public synchronized void release() {
+         inFlight--;
+         notifyAll();
+      }
+
+      private void countRequest(long now) {
+         long elapsed = now - windowStartNanos;
+         if (elapsed >= SECONDS.toNanos(1)) {
+            lastWindowRate = windowCount * (double) SECONDS.toNanos(1) / elapsed;
+            windowStartNanos = now;
+            windowCount = 0;
+         }
+         windowCount++;
+      }
+
+      private double observedRate(long now) {
+         long elapsed = max(now - windowStartNanos, SECONDS.toNanos(1));
+         return max(lastWindowRate, windowCount * (double) SECONDS.toNanos(1) / elapsed);
+      }
+
+      synchronized double getConcurrency() {
+         return concurrency;
+      }
+
+      synchronized double getRate() {
+         return rate;
+      }
+   }
+}
@@ -18,7 +18,13 @@ package org.jclouds.http.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Throwables.propagate;
+import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.jclouds.Constants.PROPERTY_IDEMPOTENT_METHODS;
+import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
 import static org.jclouds.http.HttpUtils.checkRequestHasContentLengthOrChunkedEncoding;
 import static org.jclouds.http.HttpUtils.releasePayload;
 import static org.jclouds.http.HttpUtils.wirePayloadIfEnabled;
@@ -26,29 +32,44 @@ import static org.jclouds.util.Throwables2.getFirstThrowableOfType;
 
 import java.io.IOException;
 import java.net.ProtocolException;
+import java.net.URI;
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 
 import javax.annotation.Resource;
 import javax.inject.Named;
 
 import org.jclouds.Constants;
+import org.jclouds.http.AsyncHttpCommandExecutorService;
 import org.jclouds.http.HttpCommand;
-import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.HttpMessage;
 import org.jclouds.http.HttpRequest;
-import org.jclouds.http.HttpRequestFilter;
+import org.jclouds.http.HttpRequestBuilderFilter;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.http.HttpResponseException;
 import org.jclouds.http.HttpUtils;
 import org.jclouds.http.IOExceptionRetryHandler;
 import org.jclouds.http.handlers.DelegatingErrorHandler;
 import org.jclouds.http.handlers.DelegatingRetryHandler;
+import org.jclouds.http.handlers.RetryDelays;
+import org.jclouds.http.metrics.InvocationMetrics;
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.io.ContentMetadataCodec;
 import org.jclouds.logging.Logger;
+import org.jclouds.tracing.Span;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.inject.Inject;
+
+public abstract class BaseHttpCommandExecutorService<Q> implements AsyncHttpCommandExecutorService {
+   private static final String TRACEPARENT = "traceparent";
 
-public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandExecutorService {
    protected final HttpUtils utils;
    protected final ContentMetadataCodec contentMetadataCodec;
 
@@ -64,6 +85,14 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
 
    protected final HttpWire wire;
 
+   @Inject(optional = true)
+   protected AdaptiveRateLimiter rateLimiter;
+
+   // ScheduledExecutor is defined in an optional module
+   @Inject(optional = true)
+   @Named(PROPERTY_SCHEDULER_THREADS)
+   protected ScheduledExecutorService scheduler;
+
    private final Set<String> idempotentMethods;
 
    protected BaseHttpCommandExecutorService(HttpUtils utils, ContentMetadataCodec contentMetadataCodec,
@@ -81,39 +110,83 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
 
    @Override
    public HttpResponse invoke(HttpCommand command) {
+      // retry handlers may send requests of their own, which must not inherit a deferring scope
+      RetryDelays.Scope blocking = RetryDelays.block();
+      try {
+         return invokeBlocking(command);
+      } finally {
+         blocking.close();
+      }
+   }
+
+   private HttpResponse invokeBlocking(HttpCommand command) {
+      InvocationMetrics metrics = command.getMetrics();
       HttpResponse response = null;
       for (;;) {
          HttpRequest request = command.getCurrentRequest();
          Q nativeRequest = null;
+         AdaptiveRateLimiter.Permit permit = null;
+         Span attempt = null;
+         long started = 0;
+         long filtered = 0;
          try {
-            for (HttpRequestFilter filter : request.getFilters()) {
-               request = filter.filter(request);
+            if (rateLimiter != null)
+               permit = rateLimiter.acquire(request.getEndpoint());
+            if (command.getSpan() != null) {
+               attempt = startAttempt(command.getSpan(), request);
+               request = withTraceparent(request, attempt);
             }
-            checkRequestHasContentLengthOrChunkedEncoding(request,
-                  "After filtering, the request has neither chunked encoding nor content length: " + request);
-            logger.debug("Sending request %s: %s", request.hashCode(), request.getRequestLine());
-            wirePayloadIfEnabled(wire, request);
-            utils.logRequest(headerLog, request, ">>");
+            if (metrics != null)
+               started = System.nanoTime();
+            request = filterAndLog(command, request);
+            if (metrics != null)
+               filtered = System.nanoTime();
             nativeRequest = convert(request);
             response = invoke(nativeRequest);
+            if (metrics != null)
+               recordAttempt(metrics, started, filtered, request, response);
+            if (permit != null) {
+               permit.release(response.getStatusCode());
+               permit = null;
+            }
+            if (attempt != null) {
+               attempt.tag("http.status_code", Integer.toString(response.getStatusCode())).finish();
+               attempt = null;
+            }
 
-            logger.debug("Receiving response %s: %s", request.hashCode(), response.getStatusLine());
-            utils.logResponse(headerLog, response, "<<");
-            if (response.getPayload() != null && wire.enabled())
-               wire.input(response);
+            logResponse(command, request, response);
             nativeRequest = null; // response took ownership of streams
             int statusCode = response.getStatusCode();
             if (statusCode >= 300) {
-               if (shouldContinue(command, response))
+               if (shouldContinueTraced(command, response, null))
                   continue;
                else
                   break;
             } else {
                break;
             }
+         } catch (InterruptedException e) {
+            // waiting for the rate limiter or the response; give up without retrying
+            Thread.currentThread().interrupt();
+            if (attempt != null) {
+               attempt.error(e).finish();
+               attempt = null;
+            }
+            command.setException(new HttpResponseException("interrupted connecting to "
+                  + command.getCurrentRequest().getRequestLine(), command, null, e));
+            break;
          } catch (Exception e) {
+            if (permit != null) {
+               // not held while the retry handler backs off
+               permit.release();
+               permit = null;
+            }
+            if (attempt != null) {
+               attempt.error(e).finish();
+               attempt = null;
+            }
             IOException ioe = getFirstThrowableOfType(e, IOException.class);
-            if (ioe != null && shouldContinue(command, ioe)) {
+            if (ioe != null && shouldContinueTraced(command, null, ioe)) {
                continue;
             }
             command.setException(new HttpResponseException(e.getMessage() + " connecting to "
@@ -121,6 +194,10 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
             break;
 
          } finally {
+            if (permit != null)
+               permit.release();
+            if (attempt != null)
+               attempt.finish();
             cleanup(nativeRequest);
          }
       }
@@ -129,6 +206,245 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
       return response;
    }
 
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * The request is sent with {@link #invokeAsync(Object)}, and retries are chained as callbacks of its result, so
+    * that no thread waits for the response when the driver has a non-blocking client. When a
+    * {@linkplain #scheduler scheduler} is bound, the back-off delays of retries are waited on it too, rather than
+    * slept by the retry handler, and so are the waits of the {@linkplain #rateLimiter rate limiter}. Without a
+    * scheduler, the calling thread waits for the rate limiter.
+    */
+   @Override
+   public ListenableFuture<HttpResponse> invokeAsync(HttpCommand command) {
+      SettableFuture<HttpResponse> result = SettableFuture.create();
+      sendAsync(command, result);
+      return result;
+   }
+
+   private void sendAsync(HttpCommand command, SettableFuture<HttpResponse> result) {
+      AdaptiveRateLimiter.Permit permit = null;
+      if (rateLimiter != null) {
+         permit = rateLimiter.tryAcquire(command.getCurrentRequest().getEndpoint());
+         if (permit == null) {
+            waitForPermit(command, result);
+            return;
+         }
+      }
+      sendAsync(command, result, permit);
+   }
+
+   private void waitForPermit(final HttpCommand command, final SettableFuture<HttpResponse> result) {
+      URI endpoint = command.getCurrentRequest().getEndpoint();
+      if (scheduler == null) {
+         AdaptiveRateLimiter.Permit permit;
+         try {
+            permit = rateLimiter.acquire(endpoint);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            command.setException(new HttpResponseException("interrupted connecting to "
+                  + command.getCurrentRequest().getRequestLine(), command, null, e));
+            result.setException(command.getException());
+            return;
+         }
+         sendAsync(command, result, permit);
+         return;
+      }
+      try {
+         scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+               if (!result.isDone()) {
+                  sendAsync(command, result);
+               }
+            }
+         }, rateLimiter.retryDelayNanos(endpoint), NANOSECONDS);
+      } catch (RejectedExecutionException e) {
+         retryOrFail(command, e, result);
+      }
+   }
+
+   private void sendAsync(final HttpCommand command, final SettableFuture<HttpResponse> result,
+         @Nullable final AdaptiveRateLimiter.Permit permit) {
+      final InvocationMetrics metrics = command.getMetrics();
+      final Span attempt = command.getSpan() != null
+            ? startAttempt(command.getSpan(), command.getCurrentRequest())
+            : null;
+      final long started = metrics != null ? System.nanoTime() : 0;
+      final long filtered;
+      Q nativeRequest = null;
+      final HttpRequest request;
+      ListenableFuture<HttpResponse> response;
+      try {
+         request = filterAndLog(command, withTraceparent(command.getCurrentRequest(), attempt));
+         filtered = metrics != null ? System.nanoTime() : 0;
+         nativeRequest = convert(request);
+         response = invokeAsync(nativeRequest);
+      } catch (Exception e) {
+         if (permit != null)
+            permit.release();
+         if (attempt != null)
+            attempt.error(e).finish();
+         cleanup(nativeRequest);
+         retryOrFail(command, e, result);
+         return;
+      }
+      final Q sent = nativeRequest;
+      Futures.addCallback(response, new FutureCallback<HttpResponse>() {
+         @Override
+         public void onSuccess(HttpResponse response) {
+            if (permit != null)
+               permit.release(response.getStatusCode());
+            // response took ownership of streams
+            try {
+               if (metrics != null)
+                  recordAttempt(metrics, started, filtered, request, response);
+               if (attempt != null)
+                  attempt.tag("http.status_code", Integer.toString(response.getStatusCode())).finish();
+               logResponse(command, request, response);
+               boolean retry = false;
+               long delayMillis = 0;
+               if (response.getStatusCode() >= 300) {
+                  RetryDelays.Scope scope = deferRetryDelays();
+                  try {
+                     retry = shouldContinue(command, response);
+                  } finally {
+                     delayMillis = scope.close();
+                  }
+               }
+               if (retry) {
+                  resendAsync(command, result, delayMillis);
+               } else if (command.getException() != null) {
+                  result.setException(command.getException());
+               } else {
+                  result.set(response);
+               }
+            } catch (Exception e) {
+               retryOrFail(command, e, result);
+            }
+         }
+
+         @Override
+         public void onFailure(Throwable t) {
+            if (permit != null)
+               permit.release();
+            if (attempt != null)
+               attempt.error(t).finish();
+            cleanup(sent);
+            retryOrFail(command, t, result);
+         }
+      }, directExecutor());
+   }
+
+   private void retryOrFail(HttpCommand command, Throwable t, SettableFuture<HttpResponse> result) {
+      IOException ioe = getFirstThrowableOfType(t, IOException.class);
+      if (ioe != null) {
+         RetryDelays.Scope scope = deferRetryDelays();
+         boolean retry;
+         long delayMillis;
+         try {
+            retry = shouldContinue(command, ioe);
+         } finally {
+            delayMillis = scope.close();
+         }
+         if (retry) {
+            resendAsync(command, result, delayMillis);
+            return;
+         }
+      }
+      command.setException(new HttpResponseException(t.getMessage() + " connecting to "
+            + command.getCurrentRequest().getRequestLine(), command, null, t));
+      result.setException(command.getException());
+   }
+
+   private RetryDelays.Scope deferRetryDelays() {
+      return scheduler != null ? RetryDelays.defer() : RetryDelays.block();
+   }
+
+   private void resendAsync(final HttpCommand command, final SettableFuture<HttpResponse> result, long delayMillis) {
+      if (delayMillis <= 0) {
+         sendAsync(command, result);
+         return;
+      }
+      final Span backoff = command.getSpan() != null ? command.getSpan().startChild("retry backoff") : null;
+      try {
+         scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+               if (backoff != null)
+                  backoff.finish();
+               if (!result.isDone()) {
+                  sendAsync(command, result);
+               }
+            }
+         }, delayMillis, MILLISECONDS);
+      } catch (RejectedExecutionException e) {
+         if (backoff != null)
+            backoff.error(e).finish();
+         retryOrFail(command, e, result);
+      }
+   }
+
+   private static Span startAttempt(Span parent, HttpRequest request) {
+      return parent.startChild("http " + request.getMethod()).tag("http.method", request.getMethod())
+            .tag("http.url", request.getEndpoint().toString());
+   }
+
+   private static HttpRequest withTraceparent(HttpRequest request, @Nullable Span attempt) {
+      String traceparent = attempt != null ? attempt.traceparent() : null;
+      if (traceparent == null)
+         return request;
+      return request.toBuilder().replaceHeader(TRACEPARENT, traceparent).build();
+   }
+
+   /**
+    * Runs the retry handler, which may back off, within a span of the command.
+    */
+   private boolean shouldContinueTraced(HttpCommand command, @Nullable HttpResponse response,
+         @Nullable IOException ioe) {
+      Span backoff = command.getSpan() != null ? command.getSpan().startChild("retry backoff") : null;
+      try {
+         return response != null ? shouldContinue(command, response) : shouldContinue(command, ioe);
+      } finally {
+         if (backoff != null)
+            backoff.finish();
+      }
+   }
+
+   private static void recordAttempt(InvocationMetrics metrics, long started, long filtered, HttpRequest request,
+         HttpResponse response) {
+      metrics.addAttempt();
+      metrics.addFilterNanos(filtered - started);
+      metrics.addNetworkNanos(System.nanoTime() - filtered);
+      metrics.setStatusCode(response.getStatusCode());
+      metrics.addBytesSent(contentLength(request));
+      metrics.addBytesReceived(contentLength(response));
+   }
+
+   private static long contentLength(HttpMessage message) {
+      if (message.getPayload() == null)
+         return 0;
+      Long length = message.getPayload().getContentMetadata().getContentLength();
+      return length != null ? length : 0;
+   }
+
+   private HttpRequest filterAndLog(HttpCommand command, HttpRequest request) {
+      request = HttpRequestBuilderFilter.filterAll(request);
+      checkRequestHasContentLengthOrChunkedEncoding(request,
+            "After filtering, the request has neither chunked encoding nor content length: " + request);
+      logger.debug("Sending request %s: %s", request.hashCode(), request.getRequestLine());
+      wirePayloadIfEnabled(wire, command, request);
+      utils.logRequest(headerLog, request, ">>");
+      return request;
+   }
+
+   private void logResponse(HttpCommand command, HttpRequest request, HttpResponse response) {
+      logger.debug("Receiving response %s: %s", request.hashCode(), response.getStatusLine());
+      utils.logResponse(headerLog, response, "<<");
+      if (response.getPayload() != null && wire.enabled(command))
+         wire.input(response);
+   }
+
    @VisibleForTesting
    boolean shouldContinue(HttpCommand command, HttpResponse response) {
       boolean shouldContinue = false;
@@ -171,6 +487,22 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
 
    protected abstract HttpResponse invoke(Q nativeRequest) throws IOException, InterruptedException;
 
+   /**
+    * Sends the native request, completing the returned future when the response arrives. The default implementation
+    * calls the blocking {@link #invoke(Object)} on the calling thread; drivers backed by a non-blocking client should
+    * override it.
+    */
+   protected ListenableFuture<HttpResponse> invokeAsync(Q nativeRequest) {
+      try {
+         return immediateFuture(invoke(nativeRequest));
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         return immediateFailedFuture(e);
+      } catch (Exception e) {
+         return immediateFailedFuture(e);
+      }
+   }
+
    protected abstract void cleanup(Q nativeRequest);
 
 }
@@ -19,12 +19,16 @@ package org.jclouds.http.internal;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.inject.Inject;
 import org.jclouds.Constants;
+import org.jclouds.http.HttpCommand;
 import org.jclouds.logging.Logger;
 import org.jclouds.logging.internal.Wire;
 
 import javax.annotation.Resource;
 import javax.inject.Named;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
 public class HttpWire extends Wire {
 
    @Resource
@@ -36,6 +40,37 @@ public class HttpWire extends Wire {
    @Named(Constants.PROPERTY_LOGGER_WIRE_LOG_SENSITIVE_INFO)
    boolean logSensitiveInformation = false;
 
+   @VisibleForTesting
+   @Inject(optional = true)
+   @Named(Constants.PROPERTY_LOGGER_WIRE_LOG_MAX_BYTES)
+   int maxBytes = -1;
+
+   @VisibleForTesting
+   @Inject(optional = true)
+   @Named(Constants.PROPERTY_LOGGER_WIRE_LOG_SAMPLE_RATE)
+   double sampleRate = 1;
+
+   @VisibleForTesting
+   @Inject(optional = true)
+   @Named(Constants.PROPERTY_USER_THREADS)
+   ExecutorService userExecutor;
+
+   /**
+    * Whether to log the payloads of {@code command}. The sample is taken once per command, so that
+    * the request and response of a command, and those of its retries, are logged together.
+    */
+   public boolean enabled(HttpCommand command) {
+      if (!getWireLog().isDebugEnabled()) {
+         return false;
+      }
+      Boolean sampled = command.getWireSampled();
+      if (sampled == null) {
+         sampled = enabled();
+         command.setWireSampled(sampled);
+      }
+      return sampled;
+   }
+
    public Logger getWireLog() {
       return wireLog;
    }
@@ -44,4 +79,19 @@ public class HttpWire extends Wire {
    protected boolean isLogSensitiveInformation() {
       return logSensitiveInformation;
    }
+
+   @Override
+   protected int getMaxBytes() {
+      return maxBytes;
+   }
+
+   @Override
+   protected double getSampleRate() {
+      return sampleRate;
+   }
+
+   @Override
+   protected Executor getLogExecutor() {
+      return userExecutor != null ? userExecutor : super.getLogExecutor();
+   }
 }
@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.metrics;
+
+import org.jclouds.http.metrics.internal.NoOpHttpMetrics;
+
+import com.google.common.annotations.Beta;
+import com.google.inject.ImplementedBy;
+
+/**
+ * Receives the measurements of each api method invoked over http.
+ * <p>
+ * The default implementation is disabled, in which case nothing is measured. Adapter modules, such as the one in
+ * {@code jclouds-dropwizard}, bind this to an implementation that publishes to a metrics library.
+ */
+@Beta
+@ImplementedBy(NoOpHttpMetrics.class)
+public interface HttpMetrics {
+
+   /**
+    * Whether invocations should be measured at all. Checked once per invocation, before any timing starts.
+    */
+   boolean isEnabled();
+
+   /**
+    * Called once per invocation, after its response was transformed or it failed, from the thread that completed it.
+    */
+   void record(InvocationMetrics metrics);
+}
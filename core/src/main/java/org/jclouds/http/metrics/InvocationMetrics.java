@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.metrics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+
+/**
+ * The measurements of one api method invocation, across all the http requests sent for it.
+ * <p>
+ * Times are in nanoseconds. The filter and network times add up the attempts made for retries and redirects; the
+ * network time of a request runs until its response headers are received.
+ */
+@Beta
+public final class InvocationMetrics {
+
+   private final String commandName;
+   private final long startNanos;
+   private volatile long buildNanos;
+   private volatile long filterNanos;
+   private volatile long networkNanos;
+   private volatile long transformNanos;
+   private volatile long totalNanos;
+   private volatile int statusCode = -1;
+   private volatile int attempts;
+   private volatile long bytesSent;
+   private volatile long bytesReceived;
+   private volatile boolean failed;
+
+   public InvocationMetrics(String commandName) {
+      this.commandName = checkNotNull(commandName, "commandName");
+      this.startNanos = System.nanoTime();
+   }
+
+   /**
+    * The name of the api method, as returned by {@link org.jclouds.rest.config.InvocationConfig#getCommandName}.
+    */
+   public String getCommandName() {
+      return commandName;
+   }
+
+   /**
+    * Time spent turning the invocation into an http request.
+    */
+   public long getBuildNanos() {
+      return buildNanos;
+   }
+
+   /**
+    * Time spent in request filters, such as signing.
+    */
+   public long getFilterNanos() {
+      return filterNanos;
+   }
+
+   /**
+    * Time spent sending requests and waiting for their responses.
+    */
+   public long getNetworkNanos() {
+      return networkNanos;
+   }
+
+   /**
+    * Time spent parsing the response.
+    */
+   public long getTransformNanos() {
+      return transformNanos;
+   }
+
+   /**
+    * Time from the start of the invocation until it was recorded, including retry back-off.
+    */
+   public long getTotalNanos() {
+      return totalNanos;
+   }
+
+   /**
+    * The status of the last response, or -1 if none was received.
+    */
+   public int getStatusCode() {
+      return statusCode;
+   }
+
+   /**
+    * The number of requests sent after the first one, for retries or redirects.
+    */
+   public int getRetries() {
+      return Math.max(attempts - 1, 0);
+   }
+
+   /**
+    * Request payload bytes sent, as declared by their content length.
+    */
+   public long getBytesSent() {
+      return bytesSent;
+   }
+
+   /**
+    * Response payload bytes received, as declared by their content length.
+    */
+   public long getBytesReceived() {
+      return bytesReceived;
+   }
+
+   /**
+    * Whether the invocation ended with an exception, even if a fallback turned it into a value.
+    */
+   public boolean isFailed() {
+      return failed;
+   }
+
+   public void addBuildNanos(long nanos) {
+      buildNanos += nanos;
+   }
+
+   public void addFilterNanos(long nanos) {
+      filterNanos += nanos;
+   }
+
+   public void addNetworkNanos(long nanos) {
+      networkNanos += nanos;
+   }
+
+   public void addTransformNanos(long nanos) {
+      transformNanos += nanos;
+   }
+
+   public void addBytesSent(long bytes) {
+      bytesSent += bytes;
+   }
+
+   public void addBytesReceived(long bytes) {
+      bytesReceived += bytes;
+   }
+
+   /**
+    * Counts a request sent for this invocation.
+    */
+   public void addAttempt() {
+      attempts++;
+   }
+
+   public void setStatusCode(int statusCode) {
+      this.statusCode = statusCode;
+   }
+
+   public void setFailed(boolean failed) {
+      this.failed = failed;
+   }
+
+   /**
+    * Records the total time. Called once the invocation completed.
+    */
+   public void finish() {
+      this.totalNanos = System.nanoTime() - startNanos;
+   }
+
+   @Override
+   public String toString() {
+      return MoreObjects.toStringHelper(this).add("commandName", commandName).add("statusCode", statusCode)
+            .add("retries", getRetries()).add("buildNanos", buildNanos).add("filterNanos", filterNanos)
+            .add("networkNanos", networkNanos).add("transformNanos", transformNanos).add("totalNanos", totalNanos)
+            .add("bytesSent", bytesSent).add("bytesReceived", bytesReceived).add("failed", failed).toString();
+   }
+}
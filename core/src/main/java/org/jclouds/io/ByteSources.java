@@ -16,7 +16,15 @@
  */
 package org.jclouds.io;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
 import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.io.ByteSource;
 
@@ -30,4 +38,133 @@ public class ByteSources {
    public static ByteSource repeatingArrayByteSource(final byte[] input) {
       return ByteSource.concat(Iterables.cycle(ByteSource.wrap(input)));
    }
+
+   /**
+    * Create a ByteSource reading the remaining bytes of the buffers in order, without copying them. The positions of
+    * the buffers are not changed, so the source can be read any number of times, and {@link ByteSource#slice} returns
+    * views of the same buffers. The buffers must not be modified while the source is in use.
+    */
+   public static ByteSource wrap(ByteBuffer... buffers) {
+      return wrap(ImmutableList.copyOf(buffers));
+   }
+
+   /**
+    * @see #wrap(ByteBuffer...)
+    */
+   public static ByteSource wrap(List<ByteBuffer> buffers) {
+      ImmutableList.Builder<ByteBuffer> views = ImmutableList.builder();
+      long size = 0;
+      for (ByteBuffer buffer : buffers) {
+         views.add(checkNotNull(buffer, "buffer").asReadOnlyBuffer());
+         size += buffer.remaining();
+      }
+      return new ByteBufferByteSource(views.build(), size);
+   }
+
+   private static final class ByteBufferByteSource extends ByteSource {
+      private final List<ByteBuffer> buffers;
+      private final long size;
+
+      private ByteBufferByteSource(List<ByteBuffer> buffers, long size) {
+         this.buffers = buffers;
+         this.size = size;
+      }
+
+      @Override
+      public long size() {
+         return size;
+      }
+
+      @Override
+      public boolean isEmpty() {
+         return size == 0;
+      }
+
+      @Override
+      public ByteSource slice(long offset, long length) {
+         checkArgument(offset >= 0, "offset (%s) may not be negative", offset);
+         checkArgument(length >= 0, "length (%s) may not be negative", length);
+         ImmutableList.Builder<ByteBuffer> views = ImmutableList.builder();
+         long skip = offset;
+         long remaining = length;
+         long sliced = 0;
+         for (ByteBuffer buffer : buffers) {
+            if (remaining == 0) {
+               break;
+            }
+            if (skip >= buffer.remaining()) {
+               skip -= buffer.remaining();
+               continue;
+            }
+            ByteBuffer view = buffer.duplicate();
+            view.position(view.position() + (int) skip);
+            view.limit(view.position() + (int) Math.min(remaining, view.remaining()));
+            views.add(view);
+            skip = 0;
+            remaining -= view.remaining();
+            sliced += view.remaining();
+         }
+         return new ByteBufferByteSource(views.build(), sliced);
+      }
+
+      @Override
+      public InputStream openStream() {
+         return new ByteBufferInputStream(buffers);
+      }
+   }
+
+   private static final class ByteBufferInputStream extends InputStream {
+      private final List<ByteBuffer> buffers;
+      private int index = -1;
+      private ByteBuffer current = ByteBuffer.allocate(0);
+
+      private ByteBufferInputStream(List<ByteBuffer> buffers) {
+         this.buffers = buffers;
+      }
+
+      /** @return false at the end of the last buffer */
+      private boolean advance() {
+         while (!current.hasRemaining()) {
+            if (++index >= buffers.size()) {
+               return false;
+            }
+            current = buffers.get(index).duplicate();
+         }
+         return true;
+      }
+
+      @Override
+      public int read() {
+         return advance() ? current.get() & 0xff : -1;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) {
+         if (len == 0) {
+            return 0;
+         }
+         if (!advance()) {
+            return -1;
+         }
+         int n = Math.min(len, current.remaining());
+         current.get(b, off, n);
+         return n;
+      }
+
+      @Override
+      public long skip(long n) {
+         long skipped = 0;
+         while (skipped < n && advance()) {
+            int step = (int) Math.min(n - skipped, current.remaining());
+            current.position(current.position() + step);
+            skipped += step;
+         }
+         return skipped;
+      }
+
+      @Override
+      public int available() {
+         return current.remaining();
+      }
+   }
 }
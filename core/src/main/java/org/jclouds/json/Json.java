@@ -18,6 +18,11 @@ package org.jclouds.json;
 
 import java.io.InputStream;
 import java.lang.reflect.Type;
+import java.util.Iterator;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.annotations.Beta;
 
 public interface Json {
    /**
@@ -56,4 +61,15 @@ public interface Json {
     */
    <T> T fromJson(InputStream json, Class<T> classOfT);
 
+   /**
+    * Lazily deserialize the elements of a json array, reading the stream only as far as needed for the next element.
+    * If {@code arrayName} is null, the document itself must be an array; otherwise the first array value with that
+    * name is iterated, and a document without one yields no elements.
+    * <p>
+    * The stream is closed when the iterator is exhausted or fails. The returned iterator is {@link java.io.Closeable}
+    * so that callers which stop early can release the stream.
+    */
+   @Beta
+   <T> Iterator<T> fromJsonArray(InputStream json, Type elementType, @Nullable String arrayName);
+
 }
@@ -16,17 +16,23 @@
  */
 package org.jclouds.json.internal;
 
+import static com.google.common.base.Charsets.UTF_8;
+
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.lang.reflect.Type;
+import java.util.Iterator;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.json.Json;
 
 import com.google.common.collect.ForwardingObject;
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
 
 @Singleton
 public class GsonWrapper extends ForwardingObject implements Json  {
@@ -52,12 +58,24 @@ public class GsonWrapper extends ForwardingObject implements Json  {
    @SuppressWarnings("unchecked")
    @Override
    public <T> T fromJson(InputStream json, Type type) {
-      return (T) gson.fromJson(new InputStreamReader(json), type);
+      return (T) gson.fromJson(newReader(json), type);
    }
 
    @Override
    public <T> T fromJson(InputStream json, Class<T> classOfT) {
-      return gson.fromJson(new InputStreamReader(json), classOfT);
+      return gson.fromJson(newReader(json), classOfT);
+   }
+
+   @Override
+   public <T> Iterator<T> fromJsonArray(InputStream json, Type elementType, @Nullable String arrayName) {
+      return new JsonArrayIterator<T>(gson, new JsonReader(newReader(json)), elementType, arrayName);
+   }
+
+   /**
+    * json is UTF-8 (RFC 7159); the decoder buffers the stream, and {@link JsonReader} buffers the decoded chars.
+    */
+   private static Reader newReader(InputStream json) {
+      return new InputStreamReader(json, UTF_8);
    }
 
    @Override
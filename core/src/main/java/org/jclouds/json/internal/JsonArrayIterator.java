@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.json.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.util.Closeables2;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Deserializes the elements of a json array one at a time, reading only as much of the underlying stream as is needed
+ * for the next element.
+ * <p>
+ * The reader is closed once the array is exhausted or parsing fails. Callers that stop iterating early should
+ * {@link #close()} the iterator.
+ */
+public final class JsonArrayIterator<T> extends AbstractIterator<T> implements Closeable {
+
+   private final Gson gson;
+   private final JsonReader reader;
+   private final Type elementType;
+   private final String arrayName;
+   private boolean inArray;
+
+   /**
+    * @param arrayName
+    *           name of the array to iterate, found by walking the document in order; if null the document itself must
+    *           be an array
+    */
+   public JsonArrayIterator(Gson gson, JsonReader reader, Type elementType, @Nullable String arrayName) {
+      this.gson = checkNotNull(gson, "gson");
+      this.reader = checkNotNull(reader, "reader");
+      this.elementType = checkNotNull(elementType, "elementType");
+      this.arrayName = arrayName;
+      // in case keys are not in quotes
+      reader.setLenient(true);
+   }
+
+   @Override
+   protected T computeNext() {
+      try {
+         if (!inArray)
+            inArray = beginArray();
+         if (inArray && reader.hasNext())
+            return gson.fromJson(reader, elementType);
+         Closeables2.closeQuietly(reader);
+         return endOfData();
+      } catch (IOException e) {
+         Closeables2.closeQuietly(reader);
+         throw new JsonIOException(e);
+      } catch (RuntimeException e) {
+         Closeables2.closeQuietly(reader);
+         throw e;
+      }
+   }
+
+   private boolean beginArray() throws IOException {
+      JsonToken token;
+      try {
+         token = reader.peek();
+      } catch (EOFException e) {
+         // empty document
+         return false;
+      }
+      if (arrayName == null) {
+         if (token == JsonToken.NULL)
+            return false;
+         reader.beginArray();
+         return true;
+      }
+      for (; token != JsonToken.END_DOCUMENT; token = reader.peek()) {
+         switch (token) {
+         case BEGIN_ARRAY:
+            reader.beginArray();
+            break;
+         case END_ARRAY:
+            reader.endArray();
+            break;
+         case BEGIN_OBJECT:
+            reader.beginObject();
+            break;
+         case END_OBJECT:
+            reader.endObject();
+            break;
+         case NAME:
+            if (arrayName.equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+               reader.beginArray();
+               return true;
+            }
+            break;
+         default:
+            reader.skipValue();
+         }
+      }
+      return false;
+   }
+
+   @Override
+   public void close() throws IOException {
+      reader.close();
+   }
+}
@@ -50,6 +50,8 @@ import org.jclouds.reflect.InvocationSuccess;
 import org.jclouds.rest.AuthorizationException;
 import org.jclouds.rest.functions.ImplicitOptionalConverter;
 import org.jclouds.rest.suppliers.MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier;
+import org.jclouds.rest.suppliers.RefreshAheadOptions;
+import org.jclouds.rest.suppliers.ValueLoadedCallback;
 
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
@@ -105,9 +107,10 @@ public class LocationModule extends AbstractModule {
    @Memoized
    protected final Supplier<Set<? extends Location>> memoizedLocationsSupplier(
             AtomicReference<AuthorizationException> authException, @Named(PROPERTY_SESSION_INTERVAL) long seconds,
-            LocationsSupplier uncached) {
+            LocationsSupplier uncached, RefreshAheadOptions refreshAhead) {
       return MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier.create(authException, uncached, seconds,
-               TimeUnit.SECONDS);
+               TimeUnit.SECONDS, new ValueLoadedCallback.NoOpCallback<Set<? extends Location>>(),
+               refreshAhead.getRefreshExecutor());
    }
 
    @Provides
@@ -32,8 +32,13 @@ import java.io.FileNotFoundException;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static org.jclouds.io.Payloads.newPayload;
 import static org.jclouds.util.Closeables2.closeQuietly;
 
@@ -51,6 +56,27 @@ public abstract class Wire {
       return false;
    }
 
+   /**
+    * The most bytes of each payload to log, or a negative number to log payloads in full.
+    * <p>
+    * Payloads logged in full are buffered, whereas truncated payloads are logged as they stream by, by
+    * {@link #getLogExecutor()}.
+    */
+   protected int getMaxBytes() {
+      return -1;
+   }
+
+   /**
+    * The fraction of payloads to log.
+    */
+   protected double getSampleRate() {
+      return 1;
+   }
+
+   protected Executor getLogExecutor() {
+      return directExecutor();
+   }
+
    private void wire(String header, InputStream instream) {
       StringBuilder buffer = new StringBuilder();
       int ch;
@@ -83,11 +109,22 @@ public abstract class Wire {
       }
    }
 
+   /**
+    * Whether to log the next payload, sampled at {@link #getSampleRate()}.
+    */
    public boolean enabled() {
-      return getWireLog().isDebugEnabled();
+      if (!getWireLog().isDebugEnabled()) {
+         return false;
+      }
+      double sampleRate = getSampleRate();
+      return sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
    }
 
    public InputStream copy(final String header, InputStream instream) {
+      int maxBytes = getMaxBytes();
+      if (maxBytes >= 0) {
+         return new PrefixTap(header, checkNotNull(instream, "instream"), maxBytes);
+      }
       int limit = 256 * 1024;
       final FileBackedOutputStream out = new FileBackedOutputStream(limit);
       try {
@@ -192,20 +229,133 @@ public abstract class Wire {
       InputStream in = null;
       try {
          in = new FileInputStream(out);
-         wire(">> ", in);
+         int maxBytes = getMaxBytes();
+         if (maxBytes >= 0) {
+            logTruncated(">> ", ByteStreams.toByteArray(ByteStreams.limit(in, maxBytes)), out.length() > maxBytes);
+         } else {
+            wire(">> ", in);
+         }
       } catch (FileNotFoundException e) {
          logger.error(e, "Error tapping file: %s", out);
+      } catch (IOException e) {
+         logger.error(e, "Error tapping file: %s", out);
       } finally {
          closeQuietly(in);
       }
    }
 
    private void output(byte[] b) {
-      wire(">> ", new ByteArrayInputStream(checkNotNull(b, "output")));
+      checkNotNull(b, "output");
+      int maxBytes = getMaxBytes();
+      if (maxBytes >= 0) {
+         logTruncated(">> ", Arrays.copyOf(b, Math.min(b.length, maxBytes)), b.length > maxBytes);
+      } else {
+         wire(">> ", new ByteArrayInputStream(b));
+      }
    }
 
    private void output(final String s) {
       output(checkNotNull(s, "output").getBytes());
    }
 
+   private void logTruncated(final String header, final byte[] prefix, final boolean truncated) {
+      try {
+         getLogExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+               wire(header, new ByteArrayInputStream(prefix));
+               if (truncated) {
+                  getWireLog().debug(header + "[truncated after " + prefix.length + " bytes]");
+               }
+            }
+         });
+      } catch (RejectedExecutionException e) {
+         logger.debug("dropped wire log of %d bytes: %s", prefix.length, e.getMessage());
+      }
+   }
+
+   /**
+    * Passes a stream through, logging its first bytes once they have been read, or once the stream ends or is
+    * closed.
+    */
+   private class PrefixTap extends FilterInputStream {
+      private final String header;
+      private final byte[] prefix;
+      private int count;
+      private boolean truncated;
+      private boolean logged;
+
+      private PrefixTap(String header, InputStream in, int maxBytes) {
+         super(in);
+         this.header = header;
+         this.prefix = new byte[maxBytes];
+      }
+
+      @Override
+      public int read() throws IOException {
+         int b = in.read();
+         if (b == -1) {
+            logPrefix();
+         } else if (!logged) {
+            if (count < prefix.length) {
+               prefix[count++] = (byte) b;
+            } else {
+               truncate();
+            }
+         }
+         return b;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         int n = in.read(b, off, len);
+         if (n == -1) {
+            logPrefix();
+         } else if (!logged) {
+            int copied = Math.min(n, prefix.length - count);
+            System.arraycopy(b, off, prefix, count, copied);
+            count += copied;
+            if (copied < n) {
+               truncate();
+            }
+         }
+         return n;
+      }
+
+      @Override
+      public long skip(long n) throws IOException {
+         long skipped = in.skip(n);
+         if (skipped > 0 && !logged) {
+            truncate();
+         }
+         return skipped;
+      }
+
+      @Override
+      public boolean markSupported() {
+         return false;
+      }
+
+      @Override
+      public void close() throws IOException {
+         try {
+            super.close();
+         } finally {
+            logPrefix();
+         }
+      }
+
+      private void truncate() {
+         truncated = true;
+         logPrefix();
+      }
+
+      private void logPrefix() {
+         if (!logged) {
+            logged = true;
+            logTruncated(header, Arrays.copyOf(prefix, count), truncated);
+         }
+      }
+   }
+
 }
@@ -18,19 +18,12 @@ package org.jclouds.providers.config;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import java.util.Properties;
-import java.util.Set;
-
 import javax.inject.Singleton;
 
 import org.jclouds.Context;
 import org.jclouds.domain.Credentials;
-import org.jclouds.location.Iso3166;
 import org.jclouds.location.Provider;
 import org.jclouds.providers.ProviderMetadata;
-import org.jclouds.rest.annotations.Api;
-import org.jclouds.rest.annotations.ApiVersion;
-import org.jclouds.rest.annotations.BuildVersion;
 
 import com.google.common.base.Supplier;
 import com.google.common.reflect.TypeToken;
@@ -39,13 +32,14 @@ import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.Provides;
 import com.google.inject.TypeLiteral;
-import com.google.inject.name.Names;
 
 /**
  * Binds data inside {@link ProviderMetadata} to types with scopes qualified with annotations in the
  * {@code org.jclouds.location} and {@code org.jclouds.rest.annotations} packages. It also binds the
  * properties specified in {@link ProviderMetadata#getDefaultProperties()} {@link ProviderMetadata}
  * explicitly. Finally, it bind the context type so that it can be looked up later.
+ *
+ * @see BindProviderMetadata
  */
 public class BindProviderMetadataContextAndCredentials extends AbstractModule {
 
@@ -59,22 +53,8 @@ public class BindProviderMetadataContextAndCredentials extends AbstractModule {
 
    @Override
    protected void configure() {
-      bind(ProviderMetadata.class).toInstance(providerMetadata);
-      Properties toBind = new Properties();
-      toBind.putAll(providerMetadata.getApiMetadata().getDefaultProperties());
-      toBind.putAll(providerMetadata.getDefaultProperties());
-      Names.bindProperties(binder(), toBind);
+      install(new BindProviderMetadata(providerMetadata));
       bind(new TypeLiteral<Supplier<Credentials>>(){}).annotatedWith(Provider.class).toInstance(creds);
-      bindConstant().annotatedWith(Provider.class).to(providerMetadata.getId());
-      bind(new TypeLiteral<Set<String>>() {
-      }).annotatedWith(Iso3166.class).toInstance(providerMetadata.getIso3166Codes());
-      bindConstant().annotatedWith(Api.class).to(providerMetadata.getApiMetadata().getId());
-      bindConstant().annotatedWith(ApiVersion.class).to(providerMetadata.getApiMetadata().getVersion());
-      // nullable
-      bind(String.class).annotatedWith(BuildVersion.class).toProvider(
-               com.google.inject.util.Providers.of(providerMetadata.getApiMetadata().getBuildVersion().orNull()));
-      bind(new TypeLiteral<TypeToken<? extends Context>>() {
-      }).annotatedWith(Provider.class).toInstance(providerMetadata.getApiMetadata().getContext());
    }
 
    @Provides
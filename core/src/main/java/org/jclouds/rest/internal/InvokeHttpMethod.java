@@ -19,6 +19,9 @@ package org.jclouds.rest.internal;
 import static com.google.common.base.Objects.equal;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Throwables.propagate;
+import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 import java.util.concurrent.Callable;
@@ -26,20 +29,32 @@ import java.util.concurrent.Callable;
 import javax.annotation.Resource;
 import javax.inject.Inject;
 
+import org.jclouds.http.AsyncHttpCommandExecutorService;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpCommandExecutorService;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
+import org.jclouds.http.metrics.HttpMetrics;
+import org.jclouds.http.metrics.InvocationMetrics;
+import org.jclouds.http.metrics.internal.NoOpHttpMetrics;
 import org.jclouds.logging.Logger;
 import org.jclouds.reflect.Invocation;
 import org.jclouds.rest.InvocationContext;
 import org.jclouds.rest.config.InvocationConfig;
+import org.jclouds.tracing.Span;
+import org.jclouds.tracing.TraceContext;
+import org.jclouds.tracing.Tracer;
+import org.jclouds.tracing.internal.NoOpTracer;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 import com.google.common.base.Optional;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.common.util.concurrent.TimeLimiter;
 
 public class InvokeHttpMethod implements Function<Invocation, Object> {
@@ -53,6 +68,14 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
    private final Function<HttpRequest, Function<HttpResponse, ?>> transformerForRequest;
    private final InvocationConfig config;
 
+   @Inject
+   @VisibleForTesting
+   HttpMetrics metrics = NoOpHttpMetrics.INSTANCE;
+
+   @Inject
+   @VisibleForTesting
+   Tracer tracer = NoOpTracer.INSTANCE;
+
    @Inject
    @VisibleForTesting
    InvokeHttpMethod(Function<Invocation, HttpRequest> annotationProcessor,
@@ -67,6 +90,9 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
 
    @Override
    public Object apply(Invocation in) {
+      if (in.getInvokable().getReturnType().getRawType().equals(ListenableFuture.class)) {
+         return invokeAsync(in);
+      }
       Optional<Long> timeoutNanos = config.getTimeoutNanos(in);
       if (timeoutNanos.isPresent()) {
          return invokeWithTimeout(in, timeoutNanos.get());
@@ -87,14 +113,76 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
       org.jclouds.Fallback<?> fallback = getFallback(commandName, invocation, command);
 
       logger.debug(">> invoking %s", commandName);
+      Span previous = TraceContext.attach(command.getSpan());
       try {
-         return transformer.apply(http.invoke(command));
+         return invokeAndTransform(command, transformer);
       } catch (Throwable t) {
+         markFailed(command, t);
          try {
             return fallback.createOrPropagate(t);
          } catch (Exception e) {
             throw propagate(e);
          }
+      } finally {
+         TraceContext.restore(previous);
+         record(command);
+      }
+   }
+
+   /**
+    * invokes the {@linkplain HttpCommand} associated with {@code invocation}
+    * without blocking the calling thread, if the http executor supports it.
+    * The returned future holds the parsed response, or the value of the
+    * {@link #getFallback(String, Invocation, HttpCommand) fallback} if a
+    * {@code Throwable} is encountered.
+    * 
+    * @see AsyncHttpCommandExecutorService
+    */
+   public ListenableFuture<Object> invokeAsync(Invocation invocation) {
+      String commandName = config.getCommandName(invocation);
+      HttpCommand command = toCommand(commandName, invocation);
+      final Function<HttpResponse, ?> transformer = getTransformer(commandName, command);
+      final org.jclouds.Fallback<?> fallback = getFallback(commandName, invocation, command);
+
+      logger.debug(">> invoking async %s", commandName);
+      final HttpCommand sent = command;
+      final SettableFuture<Object> result = SettableFuture.create();
+      Futures.addCallback(send(command), new FutureCallback<HttpResponse>() {
+         @Override
+         public void onSuccess(HttpResponse response) {
+            Object transformed;
+            try {
+               transformed = transform(sent, transformer, response);
+            } catch (Throwable t) {
+               onFailure(t);
+               return;
+            }
+            record(sent);
+            result.set(transformed);
+         }
+
+         @Override
+         public void onFailure(Throwable t) {
+            markFailed(sent, t);
+            record(sent);
+            try {
+               result.set(fallback.createOrPropagate(t));
+            } catch (Throwable e) {
+               result.setException(e);
+            }
+         }
+      }, directExecutor());
+      return result;
+   }
+
+   private ListenableFuture<HttpResponse> send(HttpCommand command) {
+      if (http instanceof AsyncHttpCommandExecutorService) {
+         return AsyncHttpCommandExecutorService.class.cast(http).invokeAsync(command);
+      }
+      try {
+         return immediateFuture(http.invoke(command));
+      } catch (RuntimeException e) {
+         return immediateFailedFuture(e);
       }
    }
 
@@ -127,11 +215,57 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
          return timeLimiter
                .callWithTimeout(new InvokeAndTransform(commandName, command), limitNanos, NANOSECONDS, true);
       } catch (Throwable t) {
+         markFailed(command, t);
          try {
             return fallback.createOrPropagate(t);
          } catch (Exception e) {
             throw propagate(e);
          }
+      } finally {
+         record(command);
+      }
+   }
+
+   private Object invokeAndTransform(HttpCommand command, Function<HttpResponse, ?> transformer) {
+      return transform(command, transformer, http.invoke(command));
+   }
+
+   private static Object transform(HttpCommand command, Function<HttpResponse, ?> transformer,
+         HttpResponse response) {
+      InvocationMetrics measured = command.getMetrics();
+      if (measured == null) {
+         return transformer.apply(response);
+      }
+      long started = System.nanoTime();
+      try {
+         return transformer.apply(response);
+      } finally {
+         measured.addTransformNanos(System.nanoTime() - started);
+      }
+   }
+
+   private static void markFailed(HttpCommand command, Throwable t) {
+      if (command.getMetrics() != null) {
+         command.getMetrics().setFailed(true);
+      }
+      if (command.getSpan() != null) {
+         command.getSpan().error(t);
+      }
+   }
+
+   private void record(HttpCommand command) {
+      if (command.getSpan() != null) {
+         command.getSpan().finish();
+      }
+      InvocationMetrics measured = command.getMetrics();
+      if (measured == null) {
+         return;
+      }
+      measured.finish();
+      try {
+         metrics.record(measured);
+      } catch (RuntimeException e) {
+         logger.warn(e, "<< could not record metrics of %s", measured.getCommandName());
       }
    }
 
@@ -158,7 +292,12 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
 
       @Override
       public Object call() throws Exception {
-         return transformer.apply(http.invoke(command));
+         Span previous = TraceContext.attach(command.getSpan());
+         try {
+            return invokeAndTransform(command, transformer);
+         } finally {
+            TraceContext.restore(previous);
+         }
       }
 
       @Override
@@ -185,10 +324,31 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
    }
 
    private HttpCommand toCommand(String commandName, Invocation invocation) {
+      InvocationMetrics measured = null;
+      long started = 0;
+      if (metrics.isEnabled()) {
+         measured = new InvocationMetrics(commandName);
+         started = System.nanoTime();
+      }
+      Span span = tracer.isEnabled() ? tracer.startSpan(commandName, TraceContext.current()) : null;
       logger.trace(">> converting %s", commandName);
-      HttpRequest request = annotationProcessor.apply(invocation);
+      HttpRequest request;
+      try {
+         request = annotationProcessor.apply(invocation);
+      } catch (RuntimeException e) {
+         if (span != null) {
+            span.error(e).finish();
+         }
+         throw e;
+      }
       logger.trace("<< converted %s to %s", commandName, request.getRequestLine());
-      return new HttpCommand(request);
+      HttpCommand command = new HttpCommand(request);
+      if (measured != null) {
+         measured.addBuildNanos(System.nanoTime() - started);
+         command.setMetrics(measured);
+      }
+      command.setSpan(span);
+      return command;
    }
 
    private Function<HttpResponse, ?> getTransformer(String commandName, HttpCommand command) {
@@ -0,0 +1,398 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.internal;
+
+import static com.google.common.base.Throwables.propagate;
+import static java.util.Arrays.asList;
+import static org.jclouds.http.HttpUtils.tryFindHttpMethod;
+import static org.jclouds.reflect.Reflection2.getInvokableParameters;
+import static org.jclouds.util.Strings2.urlEncode;
+
+import java.lang.annotation.Annotation;
+import java.util.List;
+
+import javax.ws.rs.Encoded;
+import javax.ws.rs.FormParam;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+
+import org.jclouds.http.HttpRequestFilter;
+import org.jclouds.http.options.HttpRequestOptions;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.rest.annotations.BinderParam;
+import org.jclouds.rest.annotations.Endpoint;
+import org.jclouds.rest.annotations.EndpointParam;
+import org.jclouds.rest.annotations.FormParams;
+import org.jclouds.rest.annotations.Headers;
+import org.jclouds.rest.annotations.MapBinder;
+import org.jclouds.rest.annotations.OverrideRequestFilters;
+import org.jclouds.rest.annotations.ParamParser;
+import org.jclouds.rest.annotations.PartParam;
+import org.jclouds.rest.annotations.PayloadParam;
+import org.jclouds.rest.annotations.PayloadParams;
+import org.jclouds.rest.annotations.QueryParams;
+import org.jclouds.rest.annotations.RequestFilters;
+import org.jclouds.rest.annotations.SkipEncoding;
+import org.jclouds.rest.annotations.VirtualHost;
+import org.jclouds.rest.annotations.WrapWith;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Chars;
+import com.google.common.reflect.Invokable;
+import com.google.common.reflect.Parameter;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * The parts of a request that only depend on the annotations of an {@link Invokable} and its owner type, such as
+ * paths, static headers, filters and the positions of annotated parameters.
+ * <p/>
+ * Templates are immutable and built once per invokable, so that {@link RestAnnotationProcessor} does not have to walk
+ * the annotations on every invocation, and only needs to fill in the argument slots.
+ */
+final class RequestTemplate {
+
+   private static final LoadingCache<Invokable<?, ?>, RequestTemplate> templates = CacheBuilder.newBuilder().build(
+         new CacheLoader<Invokable<?, ?>, RequestTemplate>() {
+            @Override
+            public RequestTemplate load(Invokable<?, ?> invokable) {
+               return new RequestTemplate(invokable);
+            }
+         });
+
+   /**
+    * Returns the template for the given invokable, building it on first use.
+    */
+   static RequestTemplate forInvokable(Invokable<?, ?> invokable) {
+      try {
+         return templates.getUnchecked(invokable);
+      } catch (UncheckedExecutionException e) {
+         throw propagate(e.getCause());
+      }
+   }
+
+   /**
+    * An annotated parameter of the invokable, and how to extract its value from the invocation arguments.
+    */
+   static final class ParamSlot {
+      private final Parameter parameter;
+      private final int index;
+      private final String key;
+      private final ParamParser parser;
+      private final boolean encoded;
+      private final boolean nullable;
+
+      private ParamSlot(Parameter parameter, String key) {
+         this.parameter = parameter;
+         this.index = parameter.hashCode(); // guava issue 1243
+         this.key = key;
+         this.parser = parameter.getAnnotation(ParamParser.class);
+         this.encoded = parameter.isAnnotationPresent(Encoded.class);
+         this.nullable = parameter.isAnnotationPresent(Nullable.class);
+      }
+
+      Parameter getParameter() {
+         return parameter;
+      }
+
+      int getIndex() {
+         return index;
+      }
+
+      String getKey() {
+         return key;
+      }
+
+      @Nullable
+      ParamParser getParser() {
+         return parser;
+      }
+
+      boolean isEncoded() {
+         return encoded;
+      }
+
+      boolean isNullable() {
+         return nullable;
+      }
+   }
+
+   private final Invokable<?, ?> invokable;
+   private final Optional<String> httpMethod;
+   private final ImmutableList<String> paths;
+   private final ImmutableList<Character> skipEncoding;
+   private final ImmutableList<FormParams> formParams;
+   private final ImmutableList<QueryParams> queryParams;
+   private final ImmutableList<Headers> headers;
+   private final ImmutableList<String> produces;
+   private final PayloadParams payloadParams;
+   private final Endpoint endpoint;
+   private final ImmutableList<Class<? extends HttpRequestFilter>> filters;
+   private final boolean virtualHost;
+   private final boolean encodedUsed;
+   private final Class<? extends org.jclouds.rest.MapBinder> mapBinder;
+   private final boolean stringPayload;
+   private final WrapWith wrapWith;
+   private final ImmutableList<ParamSlot> pathParams;
+   private final ImmutableList<ParamSlot> formParamSlots;
+   private final ImmutableList<ParamSlot> queryParamSlots;
+   private final ImmutableList<ParamSlot> headerParams;
+   private final ImmutableList<ParamSlot> payloadParamSlots;
+   private final ImmutableList<Parameter> partParams;
+   private final ImmutableList<Parameter> endpointParams;
+   private final ImmutableList<Parameter> binderParams;
+   private final ImmutableSet<Integer> optionsIndexes;
+
+   private RequestTemplate(Invokable<?, ?> invokable) {
+      this.invokable = invokable;
+      Class<?> owner = invokable.getOwnerType().getRawType();
+      this.httpMethod = tryFindHttpMethod(invokable);
+
+      ImmutableList.Builder<String> paths = ImmutableList.builder();
+      if (owner.isAnnotationPresent(Path.class))
+         paths.add(owner.getAnnotation(Path.class).value());
+      if (invokable.isAnnotationPresent(Path.class))
+         paths.add(invokable.getAnnotation(Path.class).value());
+      this.paths = paths.build();
+
+      // encoding settings on the method replace those on the type
+      SkipEncoding skip = invokable.isAnnotationPresent(SkipEncoding.class) ? invokable
+            .getAnnotation(SkipEncoding.class) : owner.getAnnotation(SkipEncoding.class);
+      this.skipEncoding = skip != null ? ImmutableList.copyOf(Chars.asList(skip.value())) : null;
+
+      this.formParams = typeThenMethod(owner, invokable, FormParams.class);
+      this.queryParams = typeThenMethod(owner, invokable, QueryParams.class);
+      this.headers = typeThenMethod(owner, invokable, Headers.class);
+
+      Produces produces = invokable.isAnnotationPresent(Produces.class) ? invokable.getAnnotation(Produces.class)
+            : owner.getAnnotation(Produces.class);
+      this.produces = produces != null ? ImmutableList.copyOf(asList(produces.value())) : null;
+
+      this.payloadParams = invokable.getAnnotation(PayloadParams.class);
+      this.endpoint = invokable.isAnnotationPresent(Endpoint.class) ? invokable.getAnnotation(Endpoint.class) : owner
+            .getAnnotation(Endpoint.class);
+
+      ImmutableList.Builder<Class<? extends HttpRequestFilter>> filters = ImmutableList.builder();
+      if (owner.isAnnotationPresent(RequestFilters.class) && !(invokable.isAnnotationPresent(RequestFilters.class)
+            && invokable.isAnnotationPresent(OverrideRequestFilters.class)))
+         filters.addAll(asList(owner.getAnnotation(RequestFilters.class).value()));
+      if (invokable.isAnnotationPresent(RequestFilters.class))
+         filters.addAll(asList(invokable.getAnnotation(RequestFilters.class).value()));
+      this.filters = filters.build();
+
+      this.virtualHost = owner.isAnnotationPresent(VirtualHost.class) || invokable.isAnnotationPresent(VirtualHost.class);
+
+      this.mapBinder = invokable.isAnnotationPresent(MapBinder.class) ? invokable.getAnnotation(MapBinder.class).value()
+            : null;
+      this.stringPayload = invokable.isAnnotationPresent(org.jclouds.rest.annotations.Payload.class);
+      this.wrapWith = invokable.getAnnotation(WrapWith.class);
+
+      ImmutableList.Builder<ParamSlot> pathParams = ImmutableList.builder();
+      ImmutableList.Builder<ParamSlot> formParamSlots = ImmutableList.builder();
+      ImmutableList.Builder<ParamSlot> queryParamSlots = ImmutableList.builder();
+      ImmutableList.Builder<ParamSlot> headerParams = ImmutableList.builder();
+      ImmutableList.Builder<ParamSlot> payloadParamSlots = ImmutableList.builder();
+      ImmutableList.Builder<Parameter> partParams = ImmutableList.builder();
+      ImmutableList.Builder<Parameter> endpointParams = ImmutableList.builder();
+      ImmutableList.Builder<Parameter> binderOnly = ImmutableList.builder();
+      ImmutableList.Builder<Parameter> wrapWithOnly = ImmutableList.builder();
+      ImmutableSet.Builder<Integer> optionsIndexes = ImmutableSet.builder();
+      boolean encodedUsed = false;
+      for (Parameter param : getInvokableParameters(invokable)) {
+         if (param.isAnnotationPresent(Encoded.class))
+            encodedUsed = true;
+         if (param.isAnnotationPresent(PathParam.class))
+            pathParams.add(new ParamSlot(param, param.getAnnotation(PathParam.class).value()));
+         if (param.isAnnotationPresent(FormParam.class))
+            formParamSlots.add(new ParamSlot(param, param.getAnnotation(FormParam.class).value()));
+         if (param.isAnnotationPresent(QueryParam.class))
+            queryParamSlots.add(new ParamSlot(param, urlEncode(param.getAnnotation(QueryParam.class).value(), '/',
+                  ',')));
+         if (param.isAnnotationPresent(HeaderParam.class))
+            headerParams.add(new ParamSlot(param, param.getAnnotation(HeaderParam.class).value()));
+         if (param.isAnnotationPresent(PayloadParam.class))
+            payloadParamSlots.add(new ParamSlot(param, param.getAnnotation(PayloadParam.class).value()));
+         if (param.isAnnotationPresent(PartParam.class))
+            partParams.add(param);
+         if (param.isAnnotationPresent(EndpointParam.class))
+            endpointParams.add(param);
+         if (param.isAnnotationPresent(BinderParam.class))
+            binderOnly.add(param);
+         else if (param.isAnnotationPresent(WrapWith.class))
+            wrapWithOnly.add(param);
+         Class<?> type = param.getType().getRawType();
+         if (HttpRequestOptions.class.isAssignableFrom(type) || HttpRequestOptions[].class.isAssignableFrom(type))
+            optionsIndexes.add(param.hashCode());
+      }
+      this.encodedUsed = encodedUsed;
+      this.pathParams = pathParams.build();
+      this.formParamSlots = formParamSlots.build();
+      this.queryParamSlots = queryParamSlots.build();
+      this.headerParams = headerParams.build();
+      this.payloadParamSlots = payloadParamSlots.build();
+      this.partParams = partParams.build();
+      this.endpointParams = endpointParams.build();
+      // binders are applied before parameters that are only wrapped
+      this.binderParams = ImmutableList.<Parameter> builder().addAll(binderOnly.build()).addAll(wrapWithOnly.build())
+            .build();
+      this.optionsIndexes = optionsIndexes.build();
+   }
+
+   private static <A extends Annotation> ImmutableList<A> typeThenMethod(Class<?> owner, Invokable<?, ?> invokable,
+         Class<A> annotationType) {
+      ImmutableList.Builder<A> annotations = ImmutableList.builder();
+      if (owner.isAnnotationPresent(annotationType))
+         annotations.add(owner.getAnnotation(annotationType));
+      if (invokable.isAnnotationPresent(annotationType))
+         annotations.add(invokable.getAnnotation(annotationType));
+      return annotations.build();
+   }
+
+   Invokable<?, ?> getInvokable() {
+      return invokable;
+   }
+
+   /**
+    * @see org.jclouds.http.HttpUtils#tryFindHttpMethod
+    */
+   Optional<String> getHttpMethod() {
+      return httpMethod;
+   }
+
+   /**
+    * {@link Path} values of the owner type and the method, in the order they are appended.
+    */
+   List<String> getPaths() {
+      return paths;
+   }
+
+   /**
+    * the characters not to encode in the path, or null to use the defaults.
+    */
+   @Nullable
+   List<Character> getSkipEncoding() {
+      return skipEncoding;
+   }
+
+   List<FormParams> getFormParams() {
+      return formParams;
+   }
+
+   List<QueryParams> getQueryParams() {
+      return queryParams;
+   }
+
+   List<Headers> getHeaders() {
+      return headers;
+   }
+
+   /**
+    * content types declared with {@link Produces}, or null if not annotated.
+    */
+   @Nullable
+   List<String> getProduces() {
+      return produces;
+   }
+
+   @Nullable
+   PayloadParams getPayloadParams() {
+      return payloadParams;
+   }
+
+   @Nullable
+   Endpoint getEndpoint() {
+      return endpoint;
+   }
+
+   /**
+    * {@link RequestFilters} in the order they should be applied, honoring {@link OverrideRequestFilters}.
+    */
+   List<Class<? extends HttpRequestFilter>> getFilters() {
+      return filters;
+   }
+
+   boolean isVirtualHost() {
+      return virtualHost;
+   }
+
+   boolean isEncodedUsed() {
+      return encodedUsed;
+   }
+
+   @Nullable
+   Class<? extends org.jclouds.rest.MapBinder> getMapBinder() {
+      return mapBinder;
+   }
+
+   boolean isStringPayload() {
+      return stringPayload;
+   }
+
+   @Nullable
+   WrapWith getWrapWith() {
+      return wrapWith;
+   }
+
+   List<ParamSlot> getPathParams() {
+      return pathParams;
+   }
+
+   List<ParamSlot> getFormParamSlots() {
+      return formParamSlots;
+   }
+
+   List<ParamSlot> getQueryParamSlots() {
+      return queryParamSlots;
+   }
+
+   List<ParamSlot> getHeaderParams() {
+      return headerParams;
+   }
+
+   List<ParamSlot> getPayloadParamSlots() {
+      return payloadParamSlots;
+   }
+
+   List<Parameter> getPartParams() {
+      return partParams;
+   }
+
+   List<Parameter> getEndpointParams() {
+      return endpointParams;
+   }
+
+   /**
+    * parameters annotated with {@link BinderParam} or {@link WrapWith}.
+    */
+   List<Parameter> getBinderParams() {
+      return binderParams;
+   }
+
+   /**
+    * positions of parameters of type {@link HttpRequestOptions}.
+    */
+   ImmutableSet<Integer> getOptionsIndexes() {
+      return optionsIndexes;
+   }
+}
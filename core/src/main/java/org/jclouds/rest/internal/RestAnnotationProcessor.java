@@ -21,7 +21,6 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Predicates.instanceOf;
-import static com.google.common.collect.Collections2.filter;
 import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.get;
 import static com.google.common.collect.Iterables.transform;
@@ -33,20 +32,16 @@ import static com.google.common.net.HttpHeaders.ACCEPT;
 import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
 import static com.google.common.net.HttpHeaders.HOST;
 import static java.lang.String.format;
-import static java.util.Arrays.asList;
 import static org.jclouds.http.HttpUtils.filterOutContentHeaders;
-import static org.jclouds.http.HttpUtils.tryFindHttpMethod;
 import static org.jclouds.http.Uris.uriBuilder;
 import static org.jclouds.io.Payloads.newPayload;
 import static org.jclouds.reflect.Reflection2.getInvokableParameters;
 import static org.jclouds.util.Strings2.replaceTokens;
 import static org.jclouds.util.Strings2.urlEncode;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Array;
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -56,13 +51,6 @@ import java.util.Set;
 
 import javax.annotation.Resource;
 import javax.inject.Named;
-import javax.ws.rs.Encoded;
-import javax.ws.rs.FormParam;
-import javax.ws.rs.HeaderParam;
-import javax.ws.rs.Path;
-import javax.ws.rs.PathParam;
-import javax.ws.rs.Produces;
-import javax.ws.rs.QueryParam;
 
 import org.jclouds.Constants;
 import org.jclouds.domain.Credentials;
@@ -94,39 +82,27 @@ import org.jclouds.rest.annotations.Endpoint;
 import org.jclouds.rest.annotations.EndpointParam;
 import org.jclouds.rest.annotations.FormParams;
 import org.jclouds.rest.annotations.Headers;
-import org.jclouds.rest.annotations.MapBinder;
-import org.jclouds.rest.annotations.OverrideRequestFilters;
-import org.jclouds.rest.annotations.ParamParser;
 import org.jclouds.rest.annotations.PartParam;
-import org.jclouds.rest.annotations.PayloadParam;
 import org.jclouds.rest.annotations.PayloadParams;
 import org.jclouds.rest.annotations.QueryParams;
-import org.jclouds.rest.annotations.RequestFilters;
-import org.jclouds.rest.annotations.SkipEncoding;
-import org.jclouds.rest.annotations.VirtualHost;
 import org.jclouds.rest.annotations.WrapWith;
 import org.jclouds.rest.binders.BindMapToStringPayload;
 import org.jclouds.rest.binders.BindToJsonPayloadWrappedWith;
+import org.jclouds.rest.internal.RequestTemplate.ParamSlot;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Optional;
-import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.ImmutableSet.Builder;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
-import com.google.common.primitives.Chars;
 import com.google.common.reflect.Invokable;
 import com.google.common.reflect.Parameter;
 import com.google.inject.Inject;
@@ -191,6 +167,7 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
    public GeneratedHttpRequest apply(Invocation invocation) {
       checkNotNull(invocation, "invocation");
       inputParamValidator.validateMethodParametersOrThrow(invocation, getInvokableParameters(invocation.getInvokable()));
+      RequestTemplate template = RequestTemplate.forInvokable(invocation.getInvokable());
 
       Optional<URI> endpoint = Optional.absent();
       HttpRequest r = findOrNull(invocation.getArgs(), HttpRequest.class);
@@ -224,11 +201,11 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
          requestMethod = r.getMethod();
          requestBuilder.fromHttpRequest(r);
       } else {
-         requestMethod = tryFindHttpMethod(invocation.getInvokable()).get();
+         requestMethod = template.getHttpMethod().get();
          requestBuilder.method(requestMethod);
       }
 
-      requestBuilder.filters(getFiltersIfAnnotated(invocation));
+      requestBuilder.filters(getFiltersIfAnnotated(template));
       if (stripExpectHeader) {
          requestBuilder.filter(new StripExpectHeader());
       }
@@ -244,9 +221,10 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       // URI template in rfc6570 form
       UriBuilder uriBuilder = uriBuilder(endpoint.get().toString());
 
-      overridePathEncoding(uriBuilder, invocation);
+      if (template.getSkipEncoding() != null)
+         uriBuilder.skipPathEncoding(template.getSkipEncoding());
 
-      boolean encodeFullPath = !isEncodedUsed(invocation);
+      boolean encodeFullPath = !template.isEncodedUsed();
       if (caller != null)
          tokenValues.putAll(addPathAndGetTokens(caller, uriBuilder, encodeFullPath));
       tokenValues.putAll(addPathAndGetTokens(invocation, uriBuilder, encodeFullPath));
@@ -271,7 +249,7 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       if (r != null)
          headers.putAll(r.getHeaders());
 
-      if (shouldAddHostHeader(invocation)) {
+      if (template.isVirtualHost()) {
          StringBuilder hostHeader = new StringBuilder(endpoint.get().getHost());
          if (endpoint.get().getPort() != -1)
             hostHeader.append(":").append(endpoint.get().getPort());
@@ -279,7 +257,7 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       }
 
       Payload payload = null;
-      for (HttpRequestOptions options : findOptionsIn(invocation)) {
+      for (HttpRequestOptions options : findOptionsIn(invocation, template)) {
          injector.injectMembers(options);  // TODO test case
          for (Entry<String, String> header : options.buildRequestHeaders().entries()) {
             headers.put(header.getKey(), replaceTokens(header.getValue(), tokenValues));
@@ -316,7 +294,7 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
                Payload.class);
       }
 
-      List<? extends Part> parts = getParts(invocation, ImmutableMultimap.<String, Object> builder()
+      List<? extends Part> parts = getParts(invocation, template, ImmutableMultimap.<String, Object> builder()
             .putAll(tokenValues).putAll(formParams).build());
 
       if (!parts.isEmpty()) {
@@ -336,7 +314,7 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       }
       GeneratedHttpRequest request = requestBuilder.build();
 
-      org.jclouds.rest.MapBinder mapBinder = getMapPayloadBinderOrNull(invocation);
+      org.jclouds.rest.MapBinder mapBinder = getMapPayloadBinderOrNull(invocation, template);
       if (mapBinder != null) {
          Map<String, Object> mapParams;
          if (caller != null) {
@@ -345,13 +323,12 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
          } else {
             mapParams = buildPayloadParams(invocation);
          }
-         if (invocation.getInvokable().isAnnotationPresent(PayloadParams.class)) {
-            PayloadParams params = invocation.getInvokable().getAnnotation(PayloadParams.class);
-            addMapPayload(mapParams, params, headers, tokenValues);
+         if (template.getPayloadParams() != null) {
+            addMapPayload(mapParams, template.getPayloadParams(), headers, tokenValues);
          }
          request = mapBinder.bindToRequest(request, mapParams);
       } else {
-         request = decorateRequest(request);
+         request = decorateRequest(request, template);
       }
 
       if (request.getPayload() != null) {
@@ -376,16 +353,6 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       return ImmutableMap.copyOf(out);
    }
 
-   private void overridePathEncoding(UriBuilder uriBuilder, Invocation invocation) {
-      if (invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(SkipEncoding.class)) {
-         uriBuilder.skipPathEncoding(Chars.asList(invocation.getInvokable().getOwnerType().getRawType()
-               .getAnnotation(SkipEncoding.class).value()));
-      }
-      if (invocation.getInvokable().isAnnotationPresent(SkipEncoding.class)) {
-         uriBuilder.skipPathEncoding(Chars.asList(invocation.getInvokable().getAnnotation(SkipEncoding.class).value()));
-      }
-   }
-
    // different than guava as accepts null
    private static enum NullableToStringFunction implements Function<Object, String> {
       INSTANCE;
@@ -413,44 +380,33 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
 
    private Multimap<String, Object> addPathAndGetTokens(Invocation invocation, UriBuilder uriBuilder,
                                                         boolean encodeFullPath) {
-      if (invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(Path.class))
-         uriBuilder.appendPath(invocation.getInvokable().getOwnerType().getRawType().getAnnotation(Path.class).value());
-      if (invocation.getInvokable().isAnnotationPresent(Path.class))
-         uriBuilder.appendPath(invocation.getInvokable().getAnnotation(Path.class).value());
-      return getPathParamKeyValues(invocation, encodeFullPath);
+      RequestTemplate template = RequestTemplate.forInvokable(invocation.getInvokable());
+      for (String path : template.getPaths())
+         uriBuilder.appendPath(path);
+      return getPathParamKeyValues(invocation, template, encodeFullPath);
    }
 
    private Multimap<String, Object> addFormParams(Multimap<String, ?> tokenValues, Invocation invocation) {
+      RequestTemplate template = RequestTemplate.forInvokable(invocation.getInvokable());
       Multimap<String, Object> formMap = LinkedListMultimap.create();
-      if (invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(FormParams.class)) {
-         FormParams form = invocation.getInvokable().getOwnerType().getRawType().getAnnotation(FormParams.class);
-         addForm(formMap, form, tokenValues);
-      }
-
-      if (invocation.getInvokable().isAnnotationPresent(FormParams.class)) {
-         FormParams form = invocation.getInvokable().getAnnotation(FormParams.class);
+      for (FormParams form : template.getFormParams()) {
          addForm(formMap, form, tokenValues);
       }
 
-      for (Entry<String, Object> form : getFormParamKeyValues(invocation).entries()) {
+      for (Entry<String, Object> form : getFormParamKeyValues(invocation, template).entries()) {
          formMap.put(form.getKey(), replaceTokens(form.getValue().toString(), tokenValues));
       }
       return formMap;
    }
 
    private Multimap<String, Object> addQueryParams(Multimap<String, ?> tokenValues, Invocation invocation) {
+      RequestTemplate template = RequestTemplate.forInvokable(invocation.getInvokable());
       Multimap<String, Object> queryMap = LinkedListMultimap.create();
-      if (invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(QueryParams.class)) {
-         QueryParams query = invocation.getInvokable().getOwnerType().getRawType().getAnnotation(QueryParams.class);
-         addQuery(queryMap, query, tokenValues);
-      }
-
-      if (invocation.getInvokable().isAnnotationPresent(QueryParams.class)) {
-         QueryParams query = invocation.getInvokable().getAnnotation(QueryParams.class);
+      for (QueryParams query : template.getQueryParams()) {
          addQuery(queryMap, query, tokenValues);
       }
 
-      for (Entry<String, Object> query : getQueryParamKeyValues(invocation, tokenValues).entries()) {
+      for (Entry<String, Object> query : getQueryParamKeyValues(invocation, template, tokenValues).entries()) {
          queryMap.put(query.getKey(), query.getValue());
       }
       return queryMap;
@@ -490,38 +446,24 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       }
    }
 
-   private List<HttpRequestFilter> getFiltersIfAnnotated(Invocation invocation) {
+   private List<HttpRequestFilter> getFiltersIfAnnotated(RequestTemplate template) {
       List<HttpRequestFilter> filters = newArrayList();
-      if (invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(RequestFilters.class)) {
-         for (Class<? extends HttpRequestFilter> clazz : invocation.getInvokable().getOwnerType().getRawType()
-               .getAnnotation(RequestFilters.class).value()) {
-            HttpRequestFilter instance = injector.getInstance(clazz);
-            filters.add(instance);
-            logger.trace("adding filter %s from annotation on %s", instance, invocation.getInvokable().getOwnerType()
-                  .getRawType().getName());
-         }
-      }
-      if (invocation.getInvokable().isAnnotationPresent(RequestFilters.class)) {
-         if (invocation.getInvokable().isAnnotationPresent(OverrideRequestFilters.class))
-            filters.clear();
-         for (Class<? extends HttpRequestFilter> clazz : invocation.getInvokable().getAnnotation(RequestFilters.class)
-               .value()) {
-            HttpRequestFilter instance = injector.getInstance(clazz);
-            filters.add(instance);
-            logger.trace("adding filter %s from annotation on %s", instance, invocation.getInvokable().getName());
-         }
+      for (Class<? extends HttpRequestFilter> clazz : template.getFilters()) {
+         HttpRequestFilter instance = injector.getInstance(clazz);
+         filters.add(instance);
+         logger.trace("adding filter %s from annotation on %s", instance, template.getInvokable());
       }
       return filters;
    }
 
    @VisibleForTesting
    static URI getEndpointInParametersOrNull(Invocation invocation, Injector injector) {
-      Collection<Parameter> endpointParams = parametersWithAnnotation(invocation.getInvokable(), EndpointParam.class);
+      List<Parameter> endpointParams = RequestTemplate.forInvokable(invocation.getInvokable()).getEndpointParams();
       if (endpointParams.isEmpty())
          return null;
       checkState(endpointParams.size() == 1, "invocation.getInvoked() %s has too many EndpointParam annotations",
             invocation.getInvokable());
-      Parameter endpointParam = get(endpointParams, 0);
+      Parameter endpointParam = endpointParams.get(0);
       Function<Object, URI> parser = injector.getInstance(endpointParam.getAnnotation(EndpointParam.class).parser());
       int position = endpointParam.hashCode();  // guava issue 1243
       try {
@@ -535,27 +477,14 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       }
    }
 
-   private static Collection<Parameter> parametersWithAnnotation(Invokable<?, ?> invokable,
-         final Class<? extends Annotation> annotationType) {
-      return filter(getInvokableParameters(invokable), new Predicate<Parameter>() {
-         public boolean apply(Parameter in) {
-            return in.isAnnotationPresent(annotationType);
-         }
-      });
-   }
-
    private static final TypeLiteral<Supplier<URI>> uriSupplierLiteral = new TypeLiteral<Supplier<URI>>() {
    };
 
    protected Optional<URI> getEndpointFor(Invocation invocation) {
       URI endpoint = getEndpointInParametersOrNull(invocation, injector);
       if (endpoint == null) {
-         Endpoint annotation;
-         if (invocation.getInvokable().isAnnotationPresent(Endpoint.class)) {
-            annotation = invocation.getInvokable().getAnnotation(Endpoint.class);
-         } else if (invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(Endpoint.class)) {
-            annotation = invocation.getInvokable().getOwnerType().getRawType().getAnnotation(Endpoint.class);
-         } else {
+         Endpoint annotation = RequestTemplate.forInvokable(invocation.getInvokable()).getEndpoint();
+         if (annotation == null) {
             logger.trace("no annotations on class or invocation.getInvoked(): %s", invocation.getInvokable());
             return Optional.absent();
          }
@@ -578,7 +507,7 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       return baseURI.resolve(original);
    }
 
-   private org.jclouds.rest.MapBinder getMapPayloadBinderOrNull(Invocation invocation) {
+   private org.jclouds.rest.MapBinder getMapPayloadBinderOrNull(Invocation invocation, RequestTemplate template) {
       if (invocation.getArgs() != null) {
          for (Object arg : invocation.getArgs()) {
             if (arg instanceof Object[]) {
@@ -604,29 +533,22 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
             }
          }
       }
-      if (invocation.getInvokable().isAnnotationPresent(MapBinder.class)) {
-         return injector.getInstance(invocation.getInvokable().getAnnotation(MapBinder.class).value());
-      } else if (invocation.getInvokable().isAnnotationPresent(org.jclouds.rest.annotations.Payload.class)) {
+      if (template.getMapBinder() != null) {
+         return injector.getInstance(template.getMapBinder());
+      } else if (template.isStringPayload()) {
          return injector.getInstance(BindMapToStringPayload.class);
-      } else if (invocation.getInvokable().isAnnotationPresent(WrapWith.class)) {
+      } else if (template.getWrapWith() != null) {
          return injector.getInstance(BindToJsonPayloadWrappedWith.Factory.class).create(
-               invocation.getInvokable().getAnnotation(WrapWith.class).value());
+               template.getWrapWith().value());
       }
       return null;
    }
 
-   private boolean shouldAddHostHeader(Invocation invocation) {
-      return invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(VirtualHost.class) || invocation
-            .getInvokable().isAnnotationPresent(VirtualHost.class);
-   }
-
-   private GeneratedHttpRequest decorateRequest(GeneratedHttpRequest request) throws NegativeArraySizeException {
+   private GeneratedHttpRequest decorateRequest(GeneratedHttpRequest request, RequestTemplate template)
+         throws NegativeArraySizeException {
       Invocation invocation = request.getInvocation();
       List<Object> args = request.getInvocation().getArgs();
-      Set<Parameter> binderOrWrapWith = ImmutableSet.copyOf(concat(
-            parametersWithAnnotation(invocation.getInvokable(), BinderParam.class),
-            parametersWithAnnotation(invocation.getInvokable(), WrapWith.class)));
-      OUTER: for (Parameter entry : binderOrWrapWith) {
+      OUTER: for (Parameter entry : template.getBinderParams()) {
          int position = entry.hashCode();
          boolean shouldBreak = false;
          Binder binder;
@@ -678,24 +600,9 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       return request;
    }
 
-   private static final LoadingCache<Invokable<?, ?>, Set<Integer>> invokableToIndexesOfOptions = CacheBuilder
-         .newBuilder().build(new CacheLoader<Invokable<?, ?>, Set<Integer>>() {
-            @Override
-            public Set<Integer> load(Invokable<?, ?> invokable) {
-               Builder<Integer> toReturn = ImmutableSet.builder();
-               for (Parameter param : getInvokableParameters(invokable)) {
-                  Class<?> type = param.getType().getRawType();
-                  if (HttpRequestOptions.class.isAssignableFrom(type)
-                        || HttpRequestOptions[].class.isAssignableFrom(type))
-                     toReturn.add(param.hashCode());
-               }
-               return toReturn.build();
-            }
-         });
-
-   private Set<HttpRequestOptions> findOptionsIn(Invocation invocation) {
+   private static Set<HttpRequestOptions> findOptionsIn(Invocation invocation, RequestTemplate template) {
       ImmutableSet.Builder<HttpRequestOptions> result = ImmutableSet.builder();
-      for (int index : invokableToIndexesOfOptions.getUnchecked(invocation.getInvokable())) {
+      for (int index : template.getOptionsIndexes()) {
          if (invocation.getArgs().size() >= index + 1) {// accommodate
                                                         // varinvocation.getArgs()
             if (invocation.getArgs().get(index) instanceof Object[]) {
@@ -717,15 +624,19 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
    }
 
    private Multimap<String, String> buildHeaders(Multimap<String, ?> tokenValues, Invocation invocation) {
+      RequestTemplate template = RequestTemplate.forInvokable(invocation.getInvokable());
       Multimap<String, String> headers = LinkedHashMultimap.create();
-      addHeaderIfAnnotationPresentOnMethod(headers, invocation, tokenValues);
-      for (Parameter headerParam : parametersWithAnnotation(invocation.getInvokable(), HeaderParam.class)) {
-         Annotation key = headerParam.getAnnotation(HeaderParam.class);
-         String value = invocation.getArgs().get(headerParam.hashCode()).toString();
+      for (Headers header : template.getHeaders()) {
+         addHeader(headers, header, tokenValues);
+      }
+      for (ParamSlot headerParam : template.getHeaderParams()) {
+         String value = invocation.getArgs().get(headerParam.getIndex()).toString();
          value = replaceTokens(value, tokenValues);
-         headers.put(((HeaderParam) key).value(), value);
+         headers.put(headerParam.getKey(), value);
+      }
+      if (template.getProduces() != null) {
+         headers.replaceValues(CONTENT_TYPE, template.getProduces());
       }
-      addProducesIfPresentOnTypeOrMethod(headers, invocation);
       addConsumesIfPresentOnTypeOrMethod(headers, invocation);
       return headers;
    }
@@ -736,29 +647,6 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
          headers.replaceValues(ACCEPT, accept);
    }
 
-   private void addProducesIfPresentOnTypeOrMethod(Multimap<String, String> headers, Invocation invocation) {
-      if (invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(Produces.class)) {
-         Produces header = invocation.getInvokable().getOwnerType().getRawType().getAnnotation(Produces.class);
-         headers.replaceValues(CONTENT_TYPE, asList(header.value()));
-      }
-      if (invocation.getInvokable().isAnnotationPresent(Produces.class)) {
-         Produces header = invocation.getInvokable().getAnnotation(Produces.class);
-         headers.replaceValues(CONTENT_TYPE, asList(header.value()));
-      }
-   }
-
-   private void addHeaderIfAnnotationPresentOnMethod(Multimap<String, String> headers, Invocation invocation,
-         Multimap<String, ?> tokenValues) {
-      if (invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(Headers.class)) {
-         Headers header = invocation.getInvokable().getOwnerType().getRawType().getAnnotation(Headers.class);
-         addHeader(headers, header, tokenValues);
-      }
-      if (invocation.getInvokable().isAnnotationPresent(Headers.class)) {
-         Headers header = invocation.getInvokable().getAnnotation(Headers.class);
-         addHeader(headers, header, tokenValues);
-      }
-   }
-
    private static void addHeader(Multimap<String, String> headers, Headers header, Multimap<String, ?> tokenValues) {
       for (int i = 0; i < header.keys().length; i++) {
          String value = header.values()[i];
@@ -770,9 +658,10 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       }
    }
 
-   private static List<Part> getParts(Invocation invocation, Multimap<String, ?> tokenValues) {
+   private static List<Part> getParts(Invocation invocation, RequestTemplate template,
+         Multimap<String, ?> tokenValues) {
       ImmutableList.Builder<Part> parts = ImmutableList.<Part> builder();
-      for (Parameter param : parametersWithAnnotation(invocation.getInvokable(), PartParam.class)) {
+      for (Parameter param : template.getPartParams()) {
          PartParam partParam = param.getAnnotation(PartParam.class);
          PartOptions options = new PartOptions();
          if (!PartParam.NO_CONTENT_TYPE.equals(partParam.contentType()))
@@ -799,67 +688,55 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       return request;
    }
 
-   private boolean isEncodedUsed(Invocation invocation) {
-      return !parametersWithAnnotation(invocation.getInvokable(), Encoded.class).isEmpty();
-   }
-
-   private Multimap<String, Object> getPathParamKeyValues(Invocation invocation, boolean encodeFullPath) {
+   private Multimap<String, Object> getPathParamKeyValues(Invocation invocation, RequestTemplate template,
+         boolean encodeFullPath) {
       Multimap<String, Object> pathParamValues = LinkedHashMultimap.create();
-      for (Parameter param : parametersWithAnnotation(invocation.getInvokable(), PathParam.class)) {
-         PathParam pathParam = param.getAnnotation(PathParam.class);
-         String paramKey = pathParam.value();
-         Optional<?> paramValue = getParamValue(invocation, param.getAnnotation(ParamParser.class), param.hashCode(),
-               paramKey);
+      for (ParamSlot param : template.getPathParams()) {
+         Optional<?> paramValue = getParamValue(invocation, param);
          if (paramValue.isPresent()) {
-            if (!encodeFullPath && !param.isAnnotationPresent(Encoded.class)) {
-               pathParamValues.put(paramKey, urlEncode(paramValue.get().toString()));
+            if (!encodeFullPath && !param.isEncoded()) {
+               pathParamValues.put(param.getKey(), urlEncode(paramValue.get().toString()));
             } else {
-               pathParamValues.put(paramKey, paramValue.get().toString());
+               pathParamValues.put(param.getKey(), paramValue.get().toString());
             }
          }
       }
       return pathParamValues;
    }
 
-   private Optional<?> getParamValue(Invocation invocation, @Nullable ParamParser extractor, int argIndex,
-         String paramKey) {
-      Object arg = invocation.getArgs().get(argIndex);
-      if (extractor != null && checkPresentOrNullable(invocation, paramKey, argIndex, arg)) {
+   private Optional<?> getParamValue(Invocation invocation, ParamSlot param) {
+      Object arg = invocation.getArgs().get(param.getIndex());
+      if (param.getParser() != null && checkPresentOrNullable(invocation, param, arg)) {
          // ParamParsers can deal with nullable parameters
-         arg = injector.getInstance(extractor.value()).apply(arg);
+         arg = injector.getInstance(param.getParser().value()).apply(arg);
       }
-      checkPresentOrNullable(invocation, paramKey, argIndex, arg);
+      checkPresentOrNullable(invocation, param, arg);
       return Optional.fromNullable(arg);
    }
 
-   private boolean checkPresentOrNullable(Invocation invocation, String paramKey, int argIndex, Object arg) {
-      if (arg == null && !getInvokableParameters(invocation.getInvokable()).get(argIndex).isAnnotationPresent(Nullable.class))
-         throw new NullPointerException(format("param{%s} for invocation %s.%s", paramKey, invocation.getInvokable()
-               .getOwnerType().getRawType().getSimpleName(), invocation.getInvokable().getName()));
+   private static boolean checkPresentOrNullable(Invocation invocation, ParamSlot param, Object arg) {
+      if (arg == null && !param.isNullable())
+         throw new NullPointerException(format("param{%s} for invocation %s.%s", param.getKey(), invocation
+               .getInvokable().getOwnerType().getRawType().getSimpleName(), invocation.getInvokable().getName()));
       return true;
    }
 
-   private Multimap<String, Object> getFormParamKeyValues(Invocation invocation) {
+   private Multimap<String, Object> getFormParamKeyValues(Invocation invocation, RequestTemplate template) {
       Multimap<String, Object> formParamValues = LinkedHashMultimap.create();
-      for (Parameter param : parametersWithAnnotation(invocation.getInvokable(), FormParam.class)) {
-         FormParam formParam = param.getAnnotation(FormParam.class);
-         String paramKey = formParam.value();
-         Optional<?> paramValue = getParamValue(invocation, param.getAnnotation(ParamParser.class), param.hashCode(),
-               paramKey);
+      for (ParamSlot param : template.getFormParamSlots()) {
+         Optional<?> paramValue = getParamValue(invocation, param);
          if (paramValue.isPresent())
-            formParamValues.put(paramKey, paramValue.get().toString());
+            formParamValues.put(param.getKey(), paramValue.get().toString());
       }
       return formParamValues;
    }
 
-   private Multimap<String, Object> getQueryParamKeyValues(Invocation invocation, Multimap<String, ?> tokenValues) {
+   private Multimap<String, Object> getQueryParamKeyValues(Invocation invocation, RequestTemplate template,
+         Multimap<String, ?> tokenValues) {
       Multimap<String, Object> queryParamValues = LinkedHashMultimap.create();
-      for (Parameter param : parametersWithAnnotation(invocation.getInvokable(), QueryParam.class)) {
-         QueryParam queryParam = param.getAnnotation(QueryParam.class);
-         String paramKey = urlEncode(queryParam.value(), '/', ',');
-         Optional<?> paramValue = getParamValue(invocation, param.getAnnotation(ParamParser.class), param.hashCode(),
-               paramKey);
-         boolean encoded = param.isAnnotationPresent(Encoded.class);
+      for (ParamSlot param : template.getQueryParamSlots()) {
+         Optional<?> paramValue = getParamValue(invocation, param);
+         boolean encoded = param.isEncoded();
          if (paramValue.isPresent())
             if (paramValue.get() instanceof Iterable) {
                @SuppressWarnings("unchecked")
@@ -868,10 +745,10 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
                for (String stringValue : iterableStrings) {
                   values.add(new QueryValue(replaceTokens(stringValue, tokenValues), encoded));
                }
-               queryParamValues.putAll(paramKey, values);
+               queryParamValues.putAll(param.getKey(), values);
             } else {
                String value = paramValue.get().toString();
-               queryParamValues.put(paramKey, new QueryValue(replaceTokens(value, tokenValues), encoded));
+               queryParamValues.put(param.getKey(), new QueryValue(replaceTokens(value, tokenValues), encoded));
             }
       }
       return queryParamValues;
@@ -879,13 +756,10 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
 
    private Map<String, Object> buildPayloadParams(Invocation invocation) {
       Map<String, Object> payloadParamValues = Maps.newLinkedHashMap();
-      for (Parameter param : parametersWithAnnotation(invocation.getInvokable(), PayloadParam.class)) {
-         PayloadParam payloadParam = param.getAnnotation(PayloadParam.class);
-         String paramKey = payloadParam.value();
-         Optional<?> paramValue = getParamValue(invocation, param.getAnnotation(ParamParser.class), param.hashCode(),
-               paramKey);
+      for (ParamSlot param : RequestTemplate.forInvokable(invocation.getInvokable()).getPayloadParamSlots()) {
+         Optional<?> paramValue = getParamValue(invocation, param);
          if (paramValue.isPresent())
-            payloadParamValues.put(paramKey, paramValue.get());
+            payloadParamValues.put(param.getKey(), paramValue.get());
       }
       return payloadParamValues;
    }
@@ -18,19 +18,24 @@ package org.jclouds.rest.suppliers;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Throwables.propagate;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.jclouds.util.Throwables2.getFirstThrowableOfType;
 
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.rest.AuthorizationException;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Optional;
 import com.google.common.base.Supplier;
+import com.google.common.base.Ticker;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ForwardingObject;
 import com.google.common.util.concurrent.UncheckedExecutionException;
@@ -50,6 +55,9 @@ import com.google.common.util.concurrent.UncheckedExecutionException;
  * 
  * Note this implementation is folded into the same class, vs being decorated as stacktraces are exceptionally long and
  * difficult to grok otherwise. We use {@link LoadingCache} to deal with concurrency issues related to the supplier.
+ * <p/>
+ * Given a refresh executor, the value is reloaded on it once it is older than the duration, and the old value is
+ * returned until the reload completes, instead of expiring and being reloaded by the next caller.
  */
 public class MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier<T> extends ForwardingObject implements
       Supplier<T> {
@@ -112,7 +120,10 @@ public class MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier<T> ext
    private final Supplier<T> delegate;
    private final long duration;
    private final TimeUnit unit;
+   private final boolean refreshAhead;
+   private final Ticker ticker;
    private final LoadingCache<String, Optional<T>> cache;
+   private volatile Long loadedNanos;
 
    public static <T> MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier<T> create(
          AtomicReference<AuthorizationException> authException, Supplier<T> delegate, long duration, TimeUnit unit) {
@@ -129,14 +140,47 @@ public class MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier<T> ext
       return new MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier<T>(authException, delegate, duration,
             unit, valueLoadedCallback);
    }
+
+   /**
+    * Creates a memoized supplier that calls the given callback each time values are loaded, and that reloads values
+    * on {@code refreshExecutor}, if not null.
+    */
+   public static <T> MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier<T> create(
+         AtomicReference<AuthorizationException> authException, Supplier<T> delegate, long duration, TimeUnit unit,
+         ValueLoadedCallback<T> valueLoadedCallback, @Nullable Executor refreshExecutor) {
+      return new MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier<T>(authException, delegate, duration,
+            unit, valueLoadedCallback, refreshExecutor, Ticker.systemTicker());
+   }
    
    MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier(AtomicReference<AuthorizationException> authException,
          Supplier<T> delegate, long duration, TimeUnit unit, ValueLoadedCallback<T> valueLoadedCallback) {
+      this(authException, delegate, duration, unit, valueLoadedCallback, null, Ticker.systemTicker());
+   }
+
+   MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier(AtomicReference<AuthorizationException> authException,
+         Supplier<T> delegate, long duration, TimeUnit unit, final ValueLoadedCallback<T> valueLoadedCallback,
+         @Nullable Executor refreshExecutor, final Ticker ticker) {
       this.delegate = delegate;
       this.duration = duration;
       this.unit = unit;
-      this.cache = CacheBuilder.newBuilder().expireAfterWrite(duration, unit)
-            .build(new SetAndThrowAuthorizationExceptionSupplierBackedLoader<T>(delegate, authException, valueLoadedCallback));
+      this.refreshAhead = refreshExecutor != null;
+      this.ticker = checkNotNull(ticker, "ticker");
+      checkNotNull(valueLoadedCallback, "valueLoadedCallback");
+      CacheLoader<String, Optional<T>> loader = new SetAndThrowAuthorizationExceptionSupplierBackedLoader<T>(delegate,
+            authException, new ValueLoadedCallback<T>() {
+               @Override
+               public void valueLoaded(Optional<T> value) {
+                  loadedNanos = ticker.read();
+                  valueLoadedCallback.valueLoaded(value);
+               }
+            });
+      CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().ticker(ticker).recordStats();
+      if (refreshAhead) {
+         this.cache = builder.refreshAfterWrite(duration, unit).build(CacheLoader.asyncReloading(loader,
+               refreshExecutor));
+      } else {
+         this.cache = builder.expireAfterWrite(duration, unit).build(loader);
+      }
    }
 
    @Override
@@ -155,10 +199,25 @@ public class MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier<T> ext
       }
    }
 
+   /**
+    * Statistics on the loads of the value, such as their count, failures and total time.
+    */
+   public CacheStats getLoadStats() {
+      return cache.stats();
+   }
+
+   /**
+    * How long ago the value returned was loaded, or -1 if it has not been loaded yet.
+    */
+   public long getValueAge(TimeUnit unit) {
+      Long loaded = loadedNanos;
+      return loaded != null ? unit.convert(ticker.read() - loaded, NANOSECONDS) : -1;
+   }
+
    @Override
    public String toString() {
       return MoreObjects.toStringHelper(this).add("delegate", delegate).add("duration", duration).add("unit", unit)
-            .toString();
+            .add("refreshAhead", refreshAhead).toString();
    }
 
 }
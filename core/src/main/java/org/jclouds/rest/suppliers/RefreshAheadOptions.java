@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.suppliers;
+
+import static org.jclouds.Constants.PROPERTY_SESSION_REFRESH_AHEAD;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import javax.inject.Named;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.annotations.Beta;
+import com.google.inject.Inject;
+
+/**
+ * Whether the values memoized for the session interval are reloaded ahead of expiring.
+ *
+ * @see org.jclouds.Constants#PROPERTY_SESSION_REFRESH_AHEAD
+ */
+@Beta
+public final class RefreshAheadOptions {
+
+   @Inject(optional = true)
+   @Named(PROPERTY_SESSION_REFRESH_AHEAD)
+   boolean enabled = false;
+
+   @Inject(optional = true)
+   @Named(PROPERTY_USER_THREADS)
+   ExecutorService userExecutor;
+
+   /**
+    * The executor to reload values on, or null if they expire instead.
+    */
+   @Nullable
+   public Executor getRefreshExecutor() {
+      return enabled ? userExecutor : null;
+   }
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.tracing;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * A timed operation within a trace, created by a {@link Tracer}.
+ * <p>
+ * Spans may be finished on a different thread than the one that started them.
+ */
+@Beta
+public interface Span {
+
+   /**
+    * Starts a span as a child of this one.
+    */
+   Span startChild(String name);
+
+   Span tag(String key, String value);
+
+   /**
+    * Marks the span as failed.
+    */
+   Span error(Throwable error);
+
+   void finish();
+
+   /**
+    * The value of a W3C trace context <code>traceparent</code> header identifying this span, sent with the http
+    * request it times so that the provider's traces can be correlated, or null to send none.
+    *
+    * @see <a href="https://www.w3.org/TR/trace-context/#traceparent-header">traceparent header</a>
+    */
+   @Nullable
+   String traceparent();
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.tracing;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.Callable;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * The span current on each thread, which the spans of api invocations are children of.
+ * <p>
+ * Tasks submitted to the executors jclouds creates run with the span that was current when they were submitted, so
+ * that work handed off to the user executor stays in the caller's trace.
+ */
+@Beta
+public final class TraceContext {
+
+   private static final ThreadLocal<Span> CURRENT = new ThreadLocal<Span>();
+
+   /**
+    * The span current on this thread, or null if there is none.
+    */
+   @Nullable
+   public static Span current() {
+      return CURRENT.get();
+   }
+
+   /**
+    * Makes {@code span} current on this thread.
+    *
+    * @return the previously current span, to pass to {@link #restore(Span)}
+    */
+   @Nullable
+   public static Span attach(@Nullable Span span) {
+      Span previous = CURRENT.get();
+      restore(span);
+      return previous;
+   }
+
+   /**
+    * Makes {@code previous}, returned by {@link #attach(Span)}, current again.
+    */
+   public static void restore(@Nullable Span previous) {
+      if (previous == null) {
+         CURRENT.remove();
+      } else {
+         CURRENT.set(previous);
+      }
+   }
+
+   /**
+    * Returns a task that runs {@code task} with the span current on this thread, or {@code task} itself if there is
+    * none.
+    */
+   public static <T> Callable<T> wrap(final Callable<T> task) {
+      checkNotNull(task, "task");
+      final Span span = CURRENT.get();
+      if (span == null) {
+         return task;
+      }
+      return new Callable<T>() {
+         @Override
+         public T call() throws Exception {
+            Span previous = attach(span);
+            try {
+               return task.call();
+            } finally {
+               restore(previous);
+            }
+         }
+      };
+   }
+
+   /**
+    * @see #wrap(Callable)
+    */
+   public static Runnable wrap(final Runnable task) {
+      checkNotNull(task, "task");
+      final Span span = CURRENT.get();
+      if (span == null) {
+         return task;
+      }
+      return new Runnable() {
+         @Override
+         public void run() {
+            Span previous = attach(span);
+            try {
+               task.run();
+            } finally {
+               restore(previous);
+            }
+         }
+      };
+   }
+
+   private TraceContext() {
+      throw new AssertionError("intentionally unimplemented");
+   }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.tracing;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.tracing.internal.NoOpTracer;
+
+import com.google.common.annotations.Beta;
+import com.google.inject.ImplementedBy;
+
+/**
+ * Opens a {@link Span} for each api method invoked over http.
+ * <p>
+ * The default implementation is disabled, in which case no span is created. When enabled, an invocation span is a
+ * child of the {@linkplain TraceContext#current() current span}, and has a child span for each http attempt and for
+ * each back-off before a retry.
+ */
+@Beta
+@ImplementedBy(NoOpTracer.class)
+public interface Tracer {
+
+   /**
+    * Whether invocations should be traced at all. Checked once per invocation.
+    */
+   boolean isEnabled();
+
+   /**
+    * Starts a span as a child of {@code parent}, or of a new trace if {@code parent} is null.
+    */
+   Span startSpan(String name, @Nullable Span parent);
+}
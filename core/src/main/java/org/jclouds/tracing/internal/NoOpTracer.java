@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.tracing.internal;
+
+import javax.inject.Singleton;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.tracing.Span;
+import org.jclouds.tracing.Tracer;
+
+/**
+ * Traces nothing.
+ */
+@Singleton
+public final class NoOpTracer implements Tracer, Span {
+
+   public static final NoOpTracer INSTANCE = new NoOpTracer();
+
+   @Override
+   public boolean isEnabled() {
+      return false;
+   }
+
+   @Override
+   public Span startSpan(String name, @Nullable Span parent) {
+      return this;
+   }
+
+   @Override
+   public Span startChild(String name) {
+      return this;
+   }
+
+   @Override
+   public Span tag(String key, String value) {
+      return this;
+   }
+
+   @Override
+   public Span error(Throwable error) {
+      return this;
+   }
+
+   @Override
+   public void finish() {
+   }
+
+   @Override
+   public String traceparent() {
+      return null;
+   }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds;
+
+import java.io.IOException;
+
+import org.jclouds.logging.config.NullLoggingModule;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Module;
+
+/**
+ * Compares the time taken to create a context per credential with {@link ContextBuilder} and with a
+ * {@link ContextTemplate}. No requests are made to the provider.
+ */
+@Test(groups = "performance", singleThreaded = true)
+public abstract class BaseContextStartupPerformanceTest {
+   protected static int WARMUP_COUNT = 10;
+   protected static int LOOP_COUNT = 50;
+
+   /**
+    * @return a builder for the provider or api under test, without credentials
+    */
+   protected abstract ContextBuilder newBuilder();
+
+   protected abstract Class<? extends View> viewType();
+
+   protected Iterable<Module> setupModules() {
+      return ImmutableSet.<Module> of(new NullLoggingModule());
+   }
+
+   @Test
+   public void testContextBuilder() throws IOException {
+      for (int i = 0; i < WARMUP_COUNT; i++)
+         close(newBuilder().modules(setupModules()).credentials("identity" + i, "credential").build(viewType()));
+      long start = System.nanoTime();
+      for (int i = 0; i < LOOP_COUNT; i++)
+         close(newBuilder().modules(setupModules()).credentials("identity" + i, "credential").build(viewType()));
+      report("ContextBuilder", System.nanoTime() - start);
+   }
+
+   @Test
+   public void testContextTemplate() throws IOException {
+      ContextTemplate template = newBuilder().modules(setupModules()).template();
+      for (int i = 0; i < WARMUP_COUNT; i++)
+         close(template.buildView(viewType(), "identity" + i, "credential"));
+      long start = System.nanoTime();
+      for (int i = 0; i < LOOP_COUNT; i++)
+         close(template.buildView(viewType(), "identity" + i, "credential"));
+      report("ContextTemplate", System.nanoTime() - start);
+   }
+
+   private static void close(View view) throws IOException {
+      view.unwrap().close();
+   }
+
+   private void report(String method, long nanos) {
+      System.out.printf("TIMING: %s %s took %.3fms per context%n", getClass().getSimpleName(), method,
+            (double) nanos / LOOP_COUNT / 1000000);
+   }
+}
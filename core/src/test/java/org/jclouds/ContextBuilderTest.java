@@ -19,6 +19,8 @@ package org.jclouds;
 import static com.google.common.base.Suppliers.ofInstance;
 import static org.jclouds.providers.AnonymousProviderMetadata.forApiOnEndpoint;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
 
 import java.net.URI;
 import java.util.Arrays;
@@ -32,6 +34,7 @@ import org.jclouds.events.config.EventBusModule;
 import org.jclouds.http.IntegrationTestClient;
 import org.jclouds.http.config.ConfiguresHttpCommandExecutorService;
 import org.jclouds.http.config.JavaUrlHttpCommandExecutorServiceModule;
+import org.jclouds.lifecycle.Closer;
 import org.jclouds.location.Provider;
 import org.jclouds.logging.config.LoggingModule;
 import org.jclouds.logging.config.NullLoggingModule;
@@ -45,6 +48,7 @@ import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.inject.AbstractModule;
+import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.Module;
 import com.google.inject.TypeLiteral;
@@ -130,6 +134,29 @@ public class ContextBuilderTest {
       assertEquals(version, "1.1");
    }
 
+   @Test
+   public void testTemplateBindsCredentialsPerContext() {
+      ContextTemplate template = testContextBuilder().credentials("ignored", "ignored").template();
+      Injector foo = template.buildInjector("foo", "BAR");
+      Injector bar = template.buildInjector("bar", "BAZ");
+      Key<Supplier<Credentials>> credentials = Key.get(new TypeLiteral<Supplier<Credentials>>() {
+      }, Provider.class);
+      assertEquals(foo.getInstance(credentials).get(), new Credentials("foo", "BAR"));
+      assertEquals(bar.getInstance(credentials).get(), new Credentials("bar", "BAZ"));
+      assertNotSame(foo.getInstance(Closer.class), bar.getInstance(Closer.class));
+   }
+
+   @Test
+   public void testTemplateKeepsResolvedProperties() {
+      Properties overrides = new Properties();
+      overrides.setProperty(Constants.PROPERTY_API_VERSION, "1.1");
+      ContextTemplate template = testContextBuilder().endpoint("http://service.com").overrides(overrides).template();
+      Injector injector = template.buildInjector("foo", "bar");
+      assertEquals(injector.getInstance(ProviderMetadata.class).getEndpoint(), "http://service.com");
+      assertEquals(injector.getInstance(Key.get(String.class, ApiVersion.class)), "1.1");
+      assertNull(template.getProviderMetadata().getDefaultProperties().getProperty(Constants.PROPERTY_IDENTITY));
+   }
+
    @Test
    public void testAllPropertiesAreStrings() {
       Properties overrides = new Properties();
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds;
+
+import static org.jclouds.providers.AnonymousProviderMetadata.forApiOnEndpoint;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import java.io.IOException;
+import java.util.Properties;
+
+import org.jclouds.domain.Credentials;
+import org.jclouds.http.IntegrationTestClient;
+import org.jclouds.http.internal.AdaptiveRateLimiter;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.location.Provider;
+import org.jclouds.logging.config.NullLoggingModule;
+import org.jclouds.providers.ProviderMetadata;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.AbstractModule;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Module;
+import com.google.inject.TypeLiteral;
+import com.google.inject.name.Names;
+
+@Test(groups = "unit", testName = "ContextTemplateTest")
+public class ContextTemplateTest {
+   private static final Key<Object> SHARED = Key.get(Object.class, Names.named("shared"));
+   private static final Key<Supplier<Credentials>> CREDENTIALS = Key.get(new TypeLiteral<Supplier<Credentials>>() {
+   }, Provider.class);
+
+   @DataProvider(name = "builders")
+   public Object[][] createBuilders() {
+      Properties overrides = new Properties();
+      overrides.setProperty(Constants.PROPERTY_API_VERSION, "1.1");
+      return new Object[][] {
+            { newBuilder() },
+            { newBuilder().name("mytest") },
+            { newBuilder().credentials("ignored", "ignored") },
+            { newBuilder().endpoint("http://service.com").overrides(overrides) }
+      };
+   }
+
+   @Test(dataProvider = "builders")
+   public void testContextsReuseTemplate(ContextBuilder builder) throws IOException {
+      final Object shared = new Object();
+      Module sharedModule = new AbstractModule() {
+         @Override
+         protected void configure() {
+            bind(SHARED).toInstance(shared);
+         }
+      };
+      ContextTemplate template = builder.modules(ImmutableSet.of(sharedModule, new NullLoggingModule())).template();
+      Injector foo = template.buildInjector("foo", "BAR");
+      Injector bar = template.buildInjector("bar", "BAZ");
+      try {
+         // properties and metadata are resolved once, by the template
+         assertSame(foo.getInstance(ProviderMetadata.class), template.getProviderMetadata());
+         assertSame(bar.getInstance(ProviderMetadata.class), template.getProviderMetadata());
+         // modules passed to the builder are reused by every context
+         assertSame(foo.getInstance(SHARED), shared);
+         assertSame(bar.getInstance(SHARED), shared);
+         // as children of one injector holding the configuration
+         assertSame(foo.getParent(), bar.getParent());
+         assertSame(foo.getParent().getInstance(ProviderMetadata.class), template.getProviderMetadata());
+         // while each context gets its own injector, default modules, rate limits and credentials
+         assertNotSame(foo, bar);
+         assertNotSame(foo.getInstance(Closer.class), bar.getInstance(Closer.class));
+         assertNotSame(foo.getInstance(AdaptiveRateLimiter.class), bar.getInstance(AdaptiveRateLimiter.class));
+         assertEquals(foo.getInstance(CREDENTIALS).get(), new Credentials("foo", "BAR"));
+         assertEquals(bar.getInstance(CREDENTIALS).get(), new Credentials("bar", "BAZ"));
+      } finally {
+         foo.getInstance(Closer.class).close();
+         bar.getInstance(Closer.class).close();
+      }
+   }
+
+   private static ContextBuilder newBuilder() {
+      return ContextBuilder.newBuilder(forApiOnEndpoint(IntegrationTestClient.class, "http://localhost"));
+   }
+}
@@ -16,15 +16,24 @@
  */
 package org.jclouds.collect;
 
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
 
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+
 import org.easymock.EasyMock;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 
 /**
  * Tests behavior of {@code IterableWithMarkers}.
@@ -70,4 +79,72 @@ public class PagedIterablesTest {
       EasyMock.verify(markerToNext);
 
    }
+
+   /** serves page {@code n} for marker {@code n}, up to {@code pages} pages, recording the markers requested */
+   private static class NumberedPages implements Function<Object, IterableWithMarker<String>> {
+      private final int pages;
+      private final List<Object> requested = Lists.newCopyOnWriteArrayList();
+
+      private NumberedPages(int pages) {
+         this.pages = pages;
+      }
+
+      private IterableWithMarker<String> page(int n) {
+         return IterableWithMarkers.from(ImmutableSet.of("page" + n), n + 1 < pages ? n + 1 : null);
+      }
+
+      @Override
+      public IterableWithMarker<String> apply(Object marker) {
+         requested.add(marker);
+         return page((Integer) marker);
+      }
+   }
+
+   public void testPrefetchConcatsAllPages() {
+      NumberedPages pages = new NumberedPages(5);
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(2));
+      try {
+         PagedIterable<String> iterable = PagedIterables.prefetch(pages.page(0), pages, executor, 2);
+         Assert.assertEquals(iterable.concat().toList(),
+               ImmutableList.of("page0", "page1", "page2", "page3", "page4"));
+         Assert.assertEquals(pages.requested, ImmutableList.<Object> of(1, 2, 3, 4));
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   public void testPrefetchFetchesUpToLookaheadPagesAhead() {
+      NumberedPages pages = new NumberedPages(10);
+      Iterator<IterableWithMarker<String>> iterator = PagedIterables.prefetch(pages.page(0), pages,
+            newDirectExecutorService(), 3).iterator();
+
+      Assert.assertEquals(iterator.next().toList(), ImmutableList.of("page0"));
+      Assert.assertEquals(pages.requested, ImmutableList.<Object> of(1, 2, 3));
+      Assert.assertEquals(iterator.next().toList(), ImmutableList.of("page1"));
+      Assert.assertEquals(pages.requested, ImmutableList.<Object> of(1, 2, 3, 4));
+   }
+
+   public void testPrefetchSinglePageResultReturnsSame() {
+      IterableWithMarker<String> initial = IterableWithMarkers.from(ImmutableSet.of("foo", "bar"));
+      NumberedPages pages = new NumberedPages(1);
+
+      PagedIterable<String> iterable = PagedIterables.prefetch(initial, pages, newDirectExecutorService(), 2);
+
+      Assert.assertSame(iterable.get(0), initial);
+      Assert.assertEquals(iterable.size(), 1);
+      Assert.assertTrue(pages.requested.isEmpty());
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testPrefetchPropagatesFailure() {
+      Function<Object, IterableWithMarker<String>> failing = new Function<Object, IterableWithMarker<String>>() {
+         @Override
+         public IterableWithMarker<String> apply(Object marker) {
+            throw new IllegalStateException();
+         }
+      };
+      IterableWithMarker<String> initial = IterableWithMarkers.from(ImmutableSet.of("foo"), "MARKER1");
+
+      PagedIterables.prefetch(initial, failing, newDirectExecutorService(), 2).concat().toList();
+   }
 }
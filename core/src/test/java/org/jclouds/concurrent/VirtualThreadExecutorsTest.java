@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.concurrent;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+
+@Test(groups = "unit", testName = "VirtualThreadExecutorsTest")
+public class VirtualThreadExecutorsTest {
+
+   @Test(timeOut = 10000)
+   public void testLimitConcurrency() throws Exception {
+      ExecutorService executor = VirtualThreadExecutors.limitConcurrency(Executors.newCachedThreadPool(), 2);
+      try {
+         assertMaxConcurrency(executor, 2);
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   @Test(timeOut = 10000)
+   public void testVirtualThreadPerTaskExecutor() throws Exception {
+      if (!VirtualThreadExecutors.isSupported())
+         throw new SkipException("virtual threads are not supported on java " + System.getProperty("java.version"));
+      ExecutorService executor = VirtualThreadExecutors.newVirtualThreadPerTaskExecutor("user thread ", 3);
+      try {
+         assertTrue(executor.submit(new Callable<String>() {
+            @Override
+            public String call() {
+               return Thread.currentThread().getName();
+            }
+         }).get().startsWith("user thread "));
+         assertMaxConcurrency(executor, 3);
+      } finally {
+         executor.shutdown();
+         assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+      }
+   }
+
+   @Test(expectedExceptions = UnsupportedOperationException.class)
+   public void testUnsupportedJvm() {
+      if (VirtualThreadExecutors.isSupported())
+         throw new SkipException("virtual threads are supported on java " + System.getProperty("java.version"));
+      VirtualThreadExecutors.newVirtualThreadPerTaskExecutor("user thread ", 0);
+   }
+
+   private static void assertMaxConcurrency(ExecutorService executor, int maxConcurrency) throws Exception {
+      final AtomicInteger running = new AtomicInteger();
+      final AtomicInteger maxRunning = new AtomicInteger();
+      List<Future<?>> futures = Lists.newArrayList();
+      for (int i = 0; i < 20; i++) {
+         futures.add(executor.submit(new Runnable() {
+            @Override
+            public void run() {
+               int now = running.incrementAndGet();
+               while (true) {
+                  int max = maxRunning.get();
+                  if (now <= max || maxRunning.compareAndSet(max, now))
+                     break;
+               }
+               try {
+                  Thread.sleep(20);
+               } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+               } finally {
+                  running.decrementAndGet();
+               }
+            }
+         }));
+      }
+      for (Future<?> future : futures)
+         future.get();
+      assertEquals(maxRunning.get(), maxConcurrency);
+   }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.functions;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+
+import javax.xml.parsers.SAXParserFactory;
+
+import org.jclouds.util.Strings2;
+import org.testng.annotations.Test;
+import org.xml.sax.Attributes;
+import org.xml.sax.XMLReader;
+
+@Test(groups = "unit", testName = "XMLReaderPoolTest")
+public class XMLReaderPoolTest {
+
+   static class CountingHandler extends ParseSax.HandlerWithResult<Integer> {
+      private int elements;
+
+      @Override
+      public void startElement(String uri, String localName, String qName, Attributes attributes) {
+         elements++;
+      }
+
+      @Override
+      public Integer getResult() {
+         return elements;
+      }
+   }
+
+   public void testReleasedReaderIsReused() {
+      XMLReaderPool pool = new XMLReaderPool(SAXParserFactory.newInstance());
+      XMLReader reader = pool.acquire();
+      assertNotSame(pool.acquire(), reader);
+      pool.release(reader);
+      assertSame(pool.acquire(), reader);
+   }
+
+   public void testParseReturnsReaderOnlyOnSuccess() {
+      XMLReaderPool pool = new XMLReaderPool(SAXParserFactory.newInstance());
+      assertEquals(new ParseSax<Integer>(pool, new CountingHandler()).parse(Strings2.toInputStream("<a><b/><c/></a>"))
+            .intValue(), 3);
+      assertEquals(new ParseSax<Integer>(pool, new CountingHandler()).parse(Strings2.toInputStream("<a><b/></a>"))
+            .intValue(), 2);
+
+      XMLReader idle = pool.acquire();
+      try {
+         new ParseSax<Integer>(pool, new CountingHandler()).parse(Strings2.toInputStream("<a><b></a>"));
+         fail("expected a parse error");
+      } catch (RuntimeException expected) {
+      }
+      pool.release(idle);
+      assertSame(pool.acquire(), idle);
+      assertNotSame(pool.acquire(), idle);
+   }
+}
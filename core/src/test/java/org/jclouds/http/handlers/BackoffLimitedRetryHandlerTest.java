@@ -19,16 +19,21 @@ package org.jclouds.http.handlers;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.jclouds.reflect.Reflection2.method;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
 import java.io.IOException;
 import java.io.InputStream;
 
+import org.jclouds.Constants;
 import org.jclouds.ContextBuilder;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.http.IntegrationTestClient;
+import org.jclouds.http.handlers.BackoffLimitedRetryHandler.Jitter;
 import org.jclouds.io.Payloads;
 import org.jclouds.providers.AnonymousProviderMetadata;
 import org.jclouds.reflect.Invocation;
@@ -37,7 +42,11 @@ import org.testng.annotations.Test;
 
 import com.google.common.base.Function;
 import com.google.common.collect.ImmutableList;
+import com.google.common.net.HttpHeaders;
 import com.google.common.reflect.Invokable;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.name.Names;
 
 @Test(groups = "unit", testName = "BackoffLimitedRetryHandlerTest")
 public class BackoffLimitedRetryHandlerTest {
@@ -191,4 +200,75 @@ public class BackoffLimitedRetryHandlerTest {
       assertEquals(handler.shouldRetryRequest(command, response), false); // Failure 6
    }
 
+   @Test
+   void testDeferredDelayIsNotSlept() {
+      long startTime = System.nanoTime();
+      RetryDelays.Scope scope = RetryDelays.defer();
+      long delay;
+      try {
+         handler.imposeBackoffExponentialDelay(500, 2, 3, 5, "TEST FAILURE: 3");
+      } finally {
+         delay = scope.close();
+      }
+      long elapsedTime = (System.nanoTime() - startTime) / 1000000;
+      assertThat(elapsedTime).isLessThan(500);
+      assertThat(delay).isBetween(4500L, 5000L);
+   }
+
+   @Test
+   void testRetryAfterReplacesBackoff() throws SecurityException, NoSuchMethodException {
+      HttpCommand command = createCommand();
+      HttpResponse response = HttpResponse.builder().statusCode(503).addHeader(HttpHeaders.RETRY_AFTER, "7").build();
+
+      RetryDelays.Scope scope = RetryDelays.defer();
+      try {
+         assertTrue(handler.shouldRetryRequest(command, response));
+      } finally {
+         assertEquals(scope.close(), 7000L);
+      }
+   }
+
+   @Test
+   void testRetryAfterBeyondMaxWaitIsNotRetried() throws SecurityException, NoSuchMethodException {
+      HttpCommand command = createCommand();
+      HttpResponse response = HttpResponse.builder().statusCode(503).addHeader(HttpHeaders.RETRY_AFTER, "3600")
+            .build();
+
+      assertFalse(handler.shouldRetryRequest(command, response));
+   }
+
+   @Test
+   void testParseRetryAfter() {
+      assertEquals(BackoffLimitedRetryHandler.parseRetryAfter("120"), Long.valueOf(120000L));
+      assertEquals(BackoffLimitedRetryHandler.parseRetryAfter("Fri, 31 Dec 1999 23:59:59 GMT"), Long.valueOf(0L));
+      assertNull(BackoffLimitedRetryHandler.parseRetryAfter("soon"));
+   }
+
+   @Test
+   void testFullJitterStaysBelowExponentialDelay() {
+      BackoffLimitedRetryHandler fullJitter = handlerWithJitter(Jitter.FULL);
+      for (int i = 0; i < 100; i++) {
+         assertThat(fullJitter.calculateBackoffExponentialDelay(100, 1000, 2, 2)).isBetween(0L, 400L);
+         assertThat(fullJitter.calculateBackoffExponentialDelay(100, 1000, 2, 5)).isBetween(0L, 1000L);
+      }
+   }
+
+   @Test
+   void testDecorrelatedJitterIsBoundedByPreviousDelay() {
+      BackoffLimitedRetryHandler decorrelated = handlerWithJitter(Jitter.DECORRELATED);
+      for (int i = 0; i < 100; i++) {
+         assertThat(decorrelated.calculateBackoffExponentialDelay(100, 10000, 2, 1)).isBetween(100L, 300L);
+         assertThat(decorrelated.calculateBackoffExponentialDelay(100, 10000, 2, 3)).isBetween(100L, 1200L);
+         assertThat(decorrelated.calculateBackoffExponentialDelay(100, 1000, 2, 5)).isBetween(100L, 1000L);
+      }
+   }
+
+   private static BackoffLimitedRetryHandler handlerWithJitter(final Jitter jitter) {
+      return Guice.createInjector(new AbstractModule() {
+         @Override
+         protected void configure() {
+            bindConstant().annotatedWith(Names.named(Constants.PROPERTY_RETRY_JITTER)).to(jitter);
+         }
+      }).getInstance(BackoffLimitedRetryHandler.class);
+   }
 }
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.internal;
+
+import static org.jclouds.Constants.PROPERTY_ADAPTIVE_RATE_LIMIT;
+import static org.jclouds.Constants.PROPERTY_MAX_CONNECTIONS_PER_CONTEXT;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.http.internal.AdaptiveRateLimiter.Endpoint;
+import org.jclouds.http.internal.AdaptiveRateLimiter.Permit;
+import org.testng.annotations.Test;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.name.Names;
+
+@Test(groups = "unit", testName = "AdaptiveRateLimiterTest")
+public class AdaptiveRateLimiterTest {
+
+   private static final URI ENDPOINT = URI.create("https://storage.example.com/bucket/key");
+
+   public void testDisabledByDefault() throws InterruptedException {
+      AdaptiveRateLimiter limiter = new AdaptiveRateLimiter();
+      assertSame(limiter.acquire(ENDPOINT), limiter.acquire(ENDPOINT));
+   }
+
+   public void testThrottlingHalvesConcurrencyOnce() throws InterruptedException {
+      AdaptiveRateLimiter limiter = newLimiter(8);
+      Endpoint endpoint = limiter.endpoint(ENDPOINT);
+
+      Permit first = limiter.acquire(ENDPOINT);
+      Permit second = limiter.acquire(ENDPOINT);
+      first.release(503);
+      second.release(429);
+
+      assertEquals(endpoint.getConcurrency(), 4.0);
+      assertTrue(endpoint.getRate() >= 1);
+      assertFalse(Double.isInfinite(endpoint.getRate()));
+   }
+
+   public void testSuccessGrowsLimitsBackUpToMax() throws InterruptedException {
+      AdaptiveRateLimiter limiter = newLimiter(2);
+      Endpoint endpoint = limiter.endpoint(ENDPOINT);
+      limiter.acquire(ENDPOINT).release(503);
+      assertEquals(endpoint.getConcurrency(), 1.0);
+      double throttledRate = endpoint.getRate();
+
+      limiter.acquire(ENDPOINT).release(200);
+
+      assertEquals(endpoint.getConcurrency(), 2.0);
+      assertTrue(endpoint.getRate() > throttledRate);
+   }
+
+   public void testEndpointsAreLimitedSeparately() throws InterruptedException {
+      AdaptiveRateLimiter limiter = newLimiter(8);
+      limiter.acquire(ENDPOINT).release(503);
+
+      assertEquals(limiter.endpoint(URI.create("https://other.example.com")).getConcurrency(), 8.0);
+      assertSame(limiter.endpoint(URI.create("https://storage.example.com/other")), limiter.endpoint(ENDPOINT));
+   }
+
+   public void testAcquireWaitsForAFreeSlot() throws InterruptedException {
+      final AdaptiveRateLimiter limiter = newLimiter(1);
+      Permit held = limiter.acquire(ENDPOINT);
+      final CountDownLatch acquired = new CountDownLatch(1);
+      Thread waiter = new Thread() {
+         @Override
+         public void run() {
+            try {
+               limiter.acquire(ENDPOINT).release(200);
+               acquired.countDown();
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            }
+         }
+      };
+      waiter.start();
+
+      assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+      held.release(200);
+      assertTrue(acquired.await(5, TimeUnit.SECONDS));
+   }
+
+   public void testTryAcquireDoesNotWaitForAFreeSlot() throws InterruptedException {
+      AdaptiveRateLimiter limiter = newLimiter(1);
+      Permit held = limiter.tryAcquire(ENDPOINT);
+      assertNotNull(held);
+
+      assertNull(limiter.tryAcquire(ENDPOINT));
+      assertTrue(limiter.retryDelayNanos(ENDPOINT) > 0);
+      held.release(200);
+      assertNotNull(limiter.tryAcquire(ENDPOINT));
+   }
+
+   private static AdaptiveRateLimiter newLimiter(final int maxConcurrency) {
+      return Guice.createInjector(new AbstractModule() {
+         @Override
+         protected void configure() {
+            bindConstant().annotatedWith(Names.named(PROPERTY_ADAPTIVE_RATE_LIMIT)).to(true);
+            bindConstant().annotatedWith(Names.named(PROPERTY_MAX_CONNECTIONS_PER_CONTEXT)).to(maxConcurrency);
+         }
+      }).getInstance(AdaptiveRateLimiter.class);
+   }
+}
@@ -16,6 +16,9 @@
  */
 package org.jclouds.http.internal;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.easymock.EasyMock.eq;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.getCurrentArguments;
@@ -32,6 +35,11 @@ import static org.testng.Assert.fail;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -43,14 +51,18 @@ import org.jclouds.http.HttpException;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpRequestFilter;
 import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
 import org.jclouds.http.HttpUtils;
 import org.jclouds.http.IOExceptionRetryHandler;
 import org.jclouds.http.handlers.DelegatingErrorHandler;
 import org.jclouds.http.handlers.DelegatingRetryHandler;
+import org.jclouds.http.handlers.RetryDelays;
 import org.jclouds.io.ContentMetadataCodec;
 import org.jclouds.rest.internal.BaseHttpApiMetadata;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
@@ -202,14 +214,22 @@ public class BaseHttpCommandExecutorServiceTest {
    }
 
    public void testDoNotRetryPostOnException() throws IOException {
-      helperRetryOnlyIdempotent("POST");
+      helperRetryOnlyIdempotent("POST", false);
    }
 
    public void testRetryGetOnException() throws IOException {
-      helperRetryOnlyIdempotent("GET");
+      helperRetryOnlyIdempotent("GET", false);
    }
 
-   private void helperRetryOnlyIdempotent(String method) throws IOException {
+   public void testAsyncDoNotRetryPostOnException() throws IOException {
+      helperRetryOnlyIdempotent("POST", true);
+   }
+
+   public void testAsyncRetryGetOnException() throws IOException {
+      helperRetryOnlyIdempotent("GET", true);
+   }
+
+   private void helperRetryOnlyIdempotent(String method, boolean async) throws IOException {
       final IOException error = new IOException("test exception");
       HttpRequestFilter throwingFilter = new HttpRequestFilter() {
          @Override
@@ -229,13 +249,165 @@ public class BaseHttpCommandExecutorServiceTest {
 
       BaseHttpCommandExecutorService<?> service = mockHttpCommandExecutorService(ioRetryHandler);
       try {
-         service.invoke(command);
+         if (async)
+            service.invokeAsync(command).get();
+         else
+            service.invoke(command);
          fail("Expected to fail due to throwing filter");
       } catch (Exception e) {}
 
       verify(ioRetryHandler);
    }
 
+   public void testAsyncRetryDelayIsScheduled() throws Exception {
+      final IOException error = new IOException("test exception");
+      HttpRequestFilter throwingFilter = new HttpRequestFilter() {
+         @Override
+         public HttpRequest filter(HttpRequest request) throws HttpException {
+            throw new HttpException(error);
+         }
+      };
+      HttpCommand command = new HttpCommand(HttpRequest.builder().endpoint("http://localhost").method("GET")
+            .filter(throwingFilter).build());
+
+      IOExceptionRetryHandler ioRetryHandler = EasyMock.createMock(IOExceptionRetryHandler.class);
+      expect(ioRetryHandler.shouldRetryRequest(command, error)).andAnswer(new IAnswer<Boolean>() {
+         @Override
+         public Boolean answer() throws Throwable {
+            RetryDelays.sleep(10000);
+            return true;
+         }
+      });
+      ScheduledExecutorService scheduler = EasyMock.createMock(ScheduledExecutorService.class);
+      expect(scheduler.schedule(EasyMock.<Runnable> anyObject(), eq(10000L), eq(MILLISECONDS))).andReturn(null);
+      replay(ioRetryHandler, scheduler);
+
+      BaseHttpCommandExecutorService<?> service = mockHttpCommandExecutorService(ioRetryHandler);
+      service.scheduler = scheduler;
+      long start = System.nanoTime();
+      Future<HttpResponse> result = service.invokeAsync(command);
+
+      assertFalse(result.isDone());
+      assertTrue(NANOSECONDS.toMillis(System.nanoTime() - start) < 10000);
+      verify(ioRetryHandler, scheduler);
+   }
+
+   public void testAsyncReturnsResponse() throws Exception {
+      HttpResponse response = HttpResponse.builder().statusCode(200).build();
+      BaseHttpCommandExecutorService<?> service = mockHttpCommandExecutorService(response);
+      assertEquals(service.invokeAsync(mockHttpCommand()).get(), response);
+   }
+
+   public void testAsyncReportsErrorInFuture() throws Exception {
+      HttpResponse response = HttpResponse.builder().statusCode(500).build();
+      HttpCommand command = mockHttpCommand();
+      final HttpResponseException error = new HttpResponseException(command, response);
+
+      DelegatingRetryHandler retryHandler = EasyMock.createMock(DelegatingRetryHandler.class);
+      DelegatingErrorHandler errorHandler = EasyMock.createMock(DelegatingErrorHandler.class);
+      expect(retryHandler.shouldRetryRequest(command, response)).andReturn(false);
+      errorHandler.handleError(command, response);
+      expectLastCall().andAnswer(new IAnswer<Void>() {
+         @Override
+         public Void answer() throws Throwable {
+            HttpCommand command = (HttpCommand) getCurrentArguments()[0];
+            command.setException(error);
+            return null;
+         }
+      });
+      replay(retryHandler, errorHandler);
+
+      MockHttpCommandExecutorService service = (MockHttpCommandExecutorService) mockHttpCommandExecutorService(
+            retryHandler, errorHandler);
+      service.response = response;
+      try {
+         service.invokeAsync(command).get();
+         fail("Expected the future to fail with the error set by the error handler");
+      } catch (ExecutionException e) {
+         assertEquals(e.getCause(), error);
+      }
+
+      verify(retryHandler, errorHandler);
+   }
+
+   public void testInterruptedWhileRateLimitedIsNotRetried() throws IOException {
+      HttpCommand command = new HttpCommand(HttpRequest.builder().endpoint("http://localhost").method("GET").build());
+      IOExceptionRetryHandler ioRetryHandler = EasyMock.createMock(IOExceptionRetryHandler.class);
+      replay(ioRetryHandler);
+
+      BaseHttpCommandExecutorService<?> service = mockHttpCommandExecutorService(ioRetryHandler);
+      service.rateLimiter = new AdaptiveRateLimiter() {
+         @Override
+         public Permit acquire(URI endpoint) throws InterruptedException {
+            throw new InterruptedException();
+         }
+      };
+      try {
+         service.invoke(command);
+         fail("Expected to fail due to the interrupt");
+      } catch (HttpResponseException e) {
+         assertTrue(e.getCause() instanceof InterruptedException, e.toString());
+      }
+      // also clears the flag for the following tests
+      assertTrue(Thread.interrupted());
+      verify(ioRetryHandler);
+   }
+
+   public void testAsyncReportsStatusToRateLimiter() throws Exception {
+      final List<Integer> released = Lists.newArrayList();
+      BaseHttpCommandExecutorService<?> service = mockHttpCommandExecutorService(
+            HttpResponse.builder().statusCode(200).build());
+      service.rateLimiter = new AdaptiveRateLimiter() {
+         @Override
+         public Permit tryAcquire(URI endpoint) {
+            return new Permit() {
+               @Override
+               public void release(int statusCode) {
+                  released.add(statusCode);
+               }
+
+               @Override
+               public void release() {
+                  released.add(-1);
+               }
+            };
+         }
+      };
+
+      service.invokeAsync(mockHttpCommand()).get();
+
+      assertEquals(released, ImmutableList.of(200));
+   }
+
+   public void testAsyncWaitForRateLimiterIsScheduled() throws Exception {
+      ScheduledExecutorService scheduler = EasyMock.createMock(ScheduledExecutorService.class);
+      expect(scheduler.schedule(EasyMock.<Runnable> anyObject(), eq(5000000L), eq(NANOSECONDS))).andReturn(null);
+      replay(scheduler);
+
+      BaseHttpCommandExecutorService<?> service = mockHttpCommandExecutorService(
+            HttpResponse.builder().statusCode(200).build());
+      service.scheduler = scheduler;
+      service.rateLimiter = new AdaptiveRateLimiter() {
+         @Override
+         public Permit acquire(URI endpoint) {
+            throw new AssertionError("async requests must not block on the rate limiter");
+         }
+
+         @Override
+         public Permit tryAcquire(URI endpoint) {
+            return null;
+         }
+
+         @Override
+         public long retryDelayNanos(URI endpoint) {
+            return 5000000L;
+         }
+      };
+
+      assertFalse(service.invokeAsync(mockHttpCommand()).isDone());
+      verify(scheduler);
+   }
+
    private HttpCommand mockHttpCommand() {
       return new HttpCommand(HttpRequest.builder().endpoint("http://localhost").method("mock").build());
    }
@@ -255,6 +427,21 @@ public class BaseHttpCommandExecutorServiceTest {
       return injector.getInstance(BaseHttpCommandExecutorService.class);
    }
 
+   private BaseHttpCommandExecutorService<?> mockHttpCommandExecutorService(HttpResponse response) {
+      Injector injector = Guice.createInjector(new AbstractModule() {
+         @Override
+         protected void configure() {
+            Names.bindProperties(binder(), BaseHttpApiMetadata.defaultProperties());
+            bind(BaseHttpCommandExecutorService.class).to(MockHttpCommandExecutorService.class);
+         }
+      });
+
+      MockHttpCommandExecutorService service = (MockHttpCommandExecutorService) injector
+            .getInstance(BaseHttpCommandExecutorService.class);
+      service.response = response;
+      return service;
+   }
+
    private BaseHttpCommandExecutorService<?> mockHttpCommandExecutorService(final IOExceptionRetryHandler ioRetryHandler) {
       Injector injector = Guice.createInjector(new AbstractModule() {
          @Override
@@ -305,6 +492,7 @@ public class BaseHttpCommandExecutorServiceTest {
    }
 
    private static class MockHttpCommandExecutorService extends BaseHttpCommandExecutorService<Object> {
+      private HttpResponse response;
 
       @Inject
       MockHttpCommandExecutorService(HttpUtils utils, ContentMetadataCodec contentMetadataCodec,
@@ -321,7 +509,7 @@ public class BaseHttpCommandExecutorServiceTest {
 
       @Override
       protected HttpResponse invoke(Object nativeRequest) throws IOException, InterruptedException {
-         return null;
+         return response;
       }
 
       @Override
@@ -16,6 +16,7 @@
  */
 package org.jclouds.http.internal;
 
+import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.io.PayloadEnclosing;
 import org.jclouds.io.payloads.StringPayload;
@@ -27,7 +28,9 @@ import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
 
 @Test(groups = "unit", sequential = true)
 public class WireTest {
@@ -157,6 +160,51 @@ public class WireTest {
       assertEquals(wireLog.buff.toString(), "<< \"foo\"", "Expected payload to be printed in logs");
    }
 
+   public void testInputInputStreamTruncated() throws Exception {
+      HttpWire wire = setUp();
+      wire.maxBytes = 3;
+      InputStream in = wire.input(new ByteArrayInputStream("foobar".getBytes()));
+      assertEquals(Strings2.toStringAndClose(in), "foobar");
+      assertEquals(((BufferLogger) wire.getWireLog()).buff.toString(), "<< \"foo\"<< [truncated after 3 bytes]");
+   }
+
+   public void testInputInputStreamWithinMaxBytes() throws Exception {
+      HttpWire wire = setUp();
+      wire.maxBytes = 3;
+      InputStream in = wire.input(new ByteArrayInputStream("foo".getBytes()));
+      assertEquals(Strings2.toStringAndClose(in), "foo");
+      assertEquals(((BufferLogger) wire.getWireLog()).buff.toString(), "<< \"foo\"");
+   }
+
+   public void testOutputBytesTruncated() throws Exception {
+      HttpWire wire = setUp();
+      wire.maxBytes = 3;
+      wire.output("foobar".getBytes());
+      assertEquals(((BufferLogger) wire.getWireLog()).buff.toString(), ">> \"foo\">> [truncated after 3 bytes]");
+   }
+
+   public void testSampleRate() throws Exception {
+      HttpWire wire = setUp();
+      wire.sampleRate = 0;
+      assertFalse(wire.enabled());
+      wire.sampleRate = 1;
+      assertTrue(wire.enabled());
+   }
+
+   public void testSampleIsTakenOncePerCommand() throws Exception {
+      HttpWire wire = setUp();
+      HttpCommand unsampled = new HttpCommand(HttpRequest.builder().method("GET").endpoint("http://localhost").build());
+      wire.sampleRate = 0;
+      assertFalse(wire.enabled(unsampled));
+      wire.sampleRate = 1;
+      assertFalse(wire.enabled(unsampled));
+
+      HttpCommand sampled = new HttpCommand(HttpRequest.builder().method("GET").endpoint("http://localhost").build());
+      assertTrue(wire.enabled(sampled));
+      wire.sampleRate = 0;
+      assertTrue(wire.enabled(sampled));
+   }
+
    @Test
    public void testOutputPayload() throws Exception {
       HttpWire wire = setUp();
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.io;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.testng.annotations.Test;
+
+import com.google.common.io.ByteSource;
+
+@Test(groups = "unit", testName = "ByteSourcesTest")
+public class ByteSourcesTest {
+
+   private static final byte[] BYTES = "abcdefghij".getBytes();
+
+   private static ByteSource wrapped() {
+      ByteBuffer first = ByteBuffer.wrap(BYTES, 0, 4);
+      ByteBuffer second = ByteBuffer.allocateDirect(6);
+      second.put(BYTES, 4, 6);
+      second.flip();
+      return ByteSources.wrap(first, second);
+   }
+
+   public void testWrapReadsBuffersInOrder() throws IOException {
+      ByteSource source = wrapped();
+      assertEquals(source.size(), 10);
+      assertEquals(source.read(), BYTES);
+      // reading does not consume the buffers
+      assertEquals(source.read(), BYTES);
+   }
+
+   public void testSliceAcrossBuffers() throws IOException {
+      ByteSource slice = wrapped().slice(2, 5);
+      assertEquals(slice.size(), 5);
+      assertEquals(slice.read(), "cdefg".getBytes());
+      assertEquals(slice.slice(3, 10).read(), "fg".getBytes());
+   }
+
+   public void testSliceBeyondEnd() throws IOException {
+      assertEquals(wrapped().slice(12, 3).size(), 0);
+   }
+}
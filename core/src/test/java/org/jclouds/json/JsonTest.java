@@ -16,13 +16,19 @@
  */
 package org.jclouds.json;
 
+import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.io.BaseEncoding.base16;
 import static com.google.common.primitives.Bytes.asList;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.fail;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -223,6 +229,42 @@ public class JsonTest {
                EnumInsideWithParser.Test.UNRECOGNIZED);
    }
 
+   public void testFromJsonArrayTopLevel() {
+      Iterator<ObjectNoDefaultConstructor> elements = json.fromJsonArray(
+            utf8("[{\"stringValue\":\"foo\",\"intValue\":1},{\"stringValue\":\"b\u00e4r\",\"intValue\":2}]"),
+            ObjectNoDefaultConstructor.class, null);
+      assertEquals(ImmutableList.copyOf(elements), ImmutableList.of(new ObjectNoDefaultConstructor("foo", 1),
+            new ObjectNoDefaultConstructor("b\u00e4r", 2)));
+   }
+
+   public void testFromJsonArrayNamed() {
+      Iterator<String> elements = json.fromJsonArray(
+            utf8("{\"marker\":\"m\",\"other\":[\"x\"],\"nested\":{\"items\":\"no\",\"list\":{\"items\":[\"a\",\"b\"]}}}"),
+            String.class, "items");
+      assertEquals(ImmutableList.copyOf(elements), ImmutableList.of("a", "b"));
+   }
+
+   public void testFromJsonArrayNamedMissing() {
+      assertFalse(json.fromJsonArray(utf8("{\"other\":[\"x\"]}"), String.class, "items").hasNext());
+      assertFalse(json.fromJsonArray(utf8(""), String.class, null).hasNext());
+   }
+
+   public void testFromJsonArrayIsLazy() {
+      InputStream truncated = utf8("[\"a\",\"b\",");
+      Iterator<String> elements = json.fromJsonArray(truncated, String.class, null);
+      assertEquals(elements.next(), "a");
+      assertEquals(elements.next(), "b");
+      try {
+         elements.hasNext();
+         fail("expected the truncated document to fail on the third element");
+      } catch (RuntimeException expected) {
+      }
+   }
+
+   private static InputStream utf8(String in) {
+      return new ByteArrayInputStream(in.getBytes(UTF_8));
+   }
+
    @AutoValue
    abstract static class SerializedNamesType {
       abstract String id();
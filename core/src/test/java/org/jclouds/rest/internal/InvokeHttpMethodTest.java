@@ -22,7 +22,10 @@ import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.jclouds.reflect.Reflection2.method;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import javax.inject.Named;
@@ -31,9 +34,14 @@ import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpCommandExecutorService;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
+import org.jclouds.http.metrics.HttpMetrics;
+import org.jclouds.http.metrics.InvocationMetrics;
 import org.jclouds.reflect.Invocation;
 import org.jclouds.rest.config.InvocationConfig;
 import org.jclouds.rest.internal.InvokeHttpMethod.InvokeAndTransform;
+import org.jclouds.tracing.Span;
+import org.jclouds.tracing.TraceContext;
+import org.jclouds.tracing.Tracer;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
@@ -44,6 +52,7 @@ import com.google.common.base.Functions;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.TimeLimiter;
 
 @Test(groups = "unit", singleThreaded = true)
@@ -121,6 +130,99 @@ public class InvokeHttpMethodTest {
       assertEquals(invokeHttpMethod.apply(get), fallbackResponse);
    }
 
+   public void testRecordsMetricsWhenEnabled() throws Exception {
+      final List<InvocationMetrics> recorded = Lists.newArrayList();
+      invokeHttpMethod.metrics = new HttpMetrics() {
+         @Override
+         public boolean isEnabled() {
+            return true;
+         }
+
+         @Override
+         public void record(InvocationMetrics metrics) {
+            recorded.add(metrics);
+         }
+      };
+      IllegalStateException exception = new IllegalStateException();
+      expect(config.getTimeoutNanos(get)).andReturn(Optional.<Long> absent());
+      expect(http.invoke(new HttpCommand(getRequest))).andThrow(exception);
+      expect(fallback.createOrPropagate(exception)).andReturn(fallbackResponse);
+      replay(http, timeLimiter, fallback, config);
+
+      invokeHttpMethod.apply(get);
+
+      assertEquals(recorded.size(), 1);
+      assertEquals(recorded.get(0).getCommandName(), "ns:get");
+      assertTrue(recorded.get(0).isFailed());
+      assertTrue(recorded.get(0).getTotalNanos() >= recorded.get(0).getBuildNanos());
+   }
+
+   public void testTracesInvocationWhenEnabled() throws Exception {
+      final List<RecordingSpan> started = Lists.newArrayList();
+      invokeHttpMethod.tracer = new Tracer() {
+         @Override
+         public boolean isEnabled() {
+            return true;
+         }
+
+         @Override
+         public Span startSpan(String name, Span parent) {
+            RecordingSpan span = new RecordingSpan(name);
+            started.add(span);
+            return span;
+         }
+      };
+      IllegalStateException exception = new IllegalStateException();
+      expect(config.getTimeoutNanos(get)).andReturn(Optional.<Long> absent());
+      expect(http.invoke(new HttpCommand(getRequest))).andThrow(exception);
+      expect(fallback.createOrPropagate(exception)).andReturn(fallbackResponse);
+      replay(http, timeLimiter, fallback, config);
+
+      invokeHttpMethod.apply(get);
+
+      assertEquals(started.size(), 1);
+      assertEquals(started.get(0).name, "ns:get");
+      assertEquals(started.get(0).error, exception);
+      assertTrue(started.get(0).finished);
+      assertNull(TraceContext.current());
+   }
+
+   private static class RecordingSpan implements Span {
+      private final String name;
+      private Throwable error;
+      private boolean finished;
+
+      private RecordingSpan(String name) {
+         this.name = name;
+      }
+
+      @Override
+      public Span startChild(String name) {
+         return new RecordingSpan(name);
+      }
+
+      @Override
+      public Span tag(String key, String value) {
+         return this;
+      }
+
+      @Override
+      public Span error(Throwable error) {
+         this.error = error;
+         return this;
+      }
+
+      @Override
+      public void finish() {
+         finished = true;
+      }
+
+      @Override
+      public String traceparent() {
+         return null;
+      }
+   }
+
    public void testTimeLimitedRunsFallbackCreateOrPropagate() throws Exception {
       IllegalStateException exception = new IllegalStateException();
       expect(config.getTimeoutNanos(get)).andReturn(Optional.of(250000000L));
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.internal;
+
+import static org.jclouds.reflect.Reflection2.method;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import javax.ws.rs.Encoded;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpRequestFilter;
+import org.jclouds.http.filters.StripExpectHeader;
+import org.jclouds.http.options.HttpRequestOptions;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.rest.annotations.BinderParam;
+import org.jclouds.rest.annotations.OverrideRequestFilters;
+import org.jclouds.rest.annotations.RequestFilters;
+import org.jclouds.rest.annotations.SkipEncoding;
+import org.jclouds.rest.annotations.VirtualHost;
+import org.jclouds.rest.binders.BindToStringPayload;
+import org.jclouds.rest.internal.RequestTemplate.ParamSlot;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.reflect.Invokable;
+
+@Test(groups = "unit", testName = "RequestTemplateTest")
+public class RequestTemplateTest {
+
+   @Path("/type")
+   @SkipEncoding('/')
+   @RequestFilters(StripExpectHeader.class)
+   @Produces("text/plain")
+   interface TemplatedApi {
+      @GET
+      @Path("/{container}")
+      @VirtualHost
+      String get(@PathParam("container") String container, @Nullable @QueryParam("a key") String query,
+            @HeaderParam("x-header") @Encoded String header, HttpRequestOptions... options);
+
+      @PUT
+      @SkipEncoding(':')
+      @Produces("application/json")
+      @OverrideRequestFilters
+      @RequestFilters(NoopFilter.class)
+      void put(@BinderParam(BindToStringPayload.class) String content);
+   }
+
+   static final class NoopFilter implements HttpRequestFilter {
+      @Override
+      public HttpRequest filter(HttpRequest request) {
+         return request;
+      }
+   }
+
+   public void testTemplateIsCachedPerInvokable() {
+      Invokable<?, ?> invokable = method(TemplatedApi.class, "get", String.class, String.class, String.class,
+            HttpRequestOptions[].class);
+      assertSame(RequestTemplate.forInvokable(invokable), RequestTemplate.forInvokable(invokable));
+   }
+
+   public void testTypeAndMethodAnnotations() {
+      RequestTemplate template = RequestTemplate.forInvokable(method(TemplatedApi.class, "get", String.class,
+            String.class, String.class, HttpRequestOptions[].class));
+      assertEquals(template.getHttpMethod().get(), "GET");
+      assertEquals(template.getPaths(), ImmutableList.of("/type", "/{container}"));
+      assertEquals(template.getSkipEncoding(), ImmutableList.of('/'));
+      assertEquals(template.getProduces(), ImmutableList.of("text/plain"));
+      assertEquals(template.getFilters(), ImmutableList.of(StripExpectHeader.class));
+      assertTrue(template.isVirtualHost());
+      assertTrue(template.isEncodedUsed());
+      assertNull(template.getMapBinder());
+      assertTrue(template.getBinderParams().isEmpty());
+      assertEquals(template.getOptionsIndexes(), ImmutableSet.of(3));
+   }
+
+   public void testParamSlots() {
+      RequestTemplate template = RequestTemplate.forInvokable(method(TemplatedApi.class, "get", String.class,
+            String.class, String.class, HttpRequestOptions[].class));
+
+      ParamSlot path = template.getPathParams().get(0);
+      assertEquals(path.getIndex(), 0);
+      assertEquals(path.getKey(), "container");
+      assertFalse(path.isNullable());
+
+      ParamSlot query = template.getQueryParamSlots().get(0);
+      assertEquals(query.getIndex(), 1);
+      assertEquals(query.getKey(), "a%20key");
+      assertTrue(query.isNullable());
+
+      ParamSlot header = template.getHeaderParams().get(0);
+      assertEquals(header.getIndex(), 2);
+      assertEquals(header.getKey(), "x-header");
+      assertTrue(header.isEncoded());
+   }
+
+   public void testMethodAnnotationsOverrideType() {
+      RequestTemplate template = RequestTemplate.forInvokable(method(TemplatedApi.class, "put", String.class));
+      assertEquals(template.getHttpMethod().get(), "PUT");
+      assertEquals(template.getPaths(), ImmutableList.of("/type"));
+      assertEquals(template.getSkipEncoding(), ImmutableList.of(':'));
+      assertEquals(template.getProduces(), ImmutableList.of("application/json"));
+      assertEquals(template.getFilters(), ImmutableList.of(NoopFilter.class));
+      assertFalse(template.isVirtualHost());
+      assertFalse(template.isEncodedUsed());
+      assertEquals(template.getBinderParams().size(), 1);
+      assertTrue(template.getOptionsIndexes().isEmpty());
+   }
+}
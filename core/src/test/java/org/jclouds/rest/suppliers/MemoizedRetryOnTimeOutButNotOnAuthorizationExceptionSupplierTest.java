@@ -20,7 +20,9 @@ import static com.google.common.base.Suppliers.ofInstance;
 import static com.google.common.util.concurrent.Atomics.newReference;
 import static org.testng.Assert.assertEquals;
 
+import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -32,6 +34,9 @@ import org.testng.annotations.Test;
 import com.google.common.base.Optional;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.base.Ticker;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Atomics;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.common.util.concurrent.Uninterruptibles;
 
@@ -125,6 +130,51 @@ public class MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplierTest {
       assertEquals(handler.count.get(), 2);
    }
 
+   public void testRefreshAheadReturnsOldValueWhileReloading() {
+      final AtomicInteger loads = new AtomicInteger();
+      Supplier<Integer> counter = new Supplier<Integer>() {
+         @Override
+         public Integer get() {
+            return loads.incrementAndGet();
+         }
+      };
+      final List<Runnable> reloads = Lists.newArrayList();
+      Executor queue = new Executor() {
+         @Override
+         public void execute(Runnable command) {
+            reloads.add(command);
+         }
+      };
+      ManualTicker ticker = new ManualTicker();
+      MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier<Integer> supplier =
+            new MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier<Integer>(
+                  Atomics.<AuthorizationException> newReference(), counter, 60, TimeUnit.SECONDS,
+                  new ValueLoadedCallback.NoOpCallback<Integer>(), queue, ticker);
+
+      assertEquals(supplier.getValueAge(TimeUnit.SECONDS), -1);
+      assertEquals(supplier.get(), Integer.valueOf(1));
+
+      // the value is stale: it is still returned, and a reload is queued
+      ticker.nanos += TimeUnit.SECONDS.toNanos(61);
+      assertEquals(supplier.get(), Integer.valueOf(1));
+      assertEquals(reloads.size(), 1);
+      assertEquals(supplier.getValueAge(TimeUnit.SECONDS), 61);
+
+      reloads.get(0).run();
+      assertEquals(supplier.get(), Integer.valueOf(2));
+      assertEquals(supplier.getValueAge(TimeUnit.SECONDS), 0);
+      assertEquals(supplier.getLoadStats().loadSuccessCount(), 2);
+   }
+
+   static class ManualTicker extends Ticker {
+      long nanos;
+
+      @Override
+      public long read() {
+         return nanos;
+      }
+   }
+
    static class ValueLoadedEventHandler implements ValueLoadedCallback<String>{
       AtomicInteger count = new AtomicInteger(0);
 
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.tracing;
+
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.jclouds.tracing.internal.NoOpTracer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "TraceContextTest", singleThreaded = true)
+public class TraceContextTest {
+
+   @AfterMethod(alwaysRun = true)
+   void clear() {
+      TraceContext.restore(null);
+   }
+
+   public void testAttachAndRestore() {
+      Span span = NoOpTracer.INSTANCE;
+      Span previous = TraceContext.attach(span);
+      assertNull(previous);
+      assertSame(TraceContext.current(), span);
+      TraceContext.restore(previous);
+      assertNull(TraceContext.current());
+   }
+
+   public void testWrapRunsWithSubmittingSpan() throws Exception {
+      final Span span = NoOpTracer.INSTANCE;
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+         TraceContext.attach(span);
+         Callable<Span> task = TraceContext.wrap(new Callable<Span>() {
+            @Override
+            public Span call() {
+               return TraceContext.current();
+            }
+         });
+         TraceContext.restore(null);
+
+         assertSame(executor.submit(task).get(), span);
+         assertNull(executor.submit(new Callable<Span>() {
+            @Override
+            public Span call() {
+               return TraceContext.current();
+            }
+         }).get());
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   public void testWrapWithoutSpanReturnsTask() {
+      Runnable task = new Runnable() {
+         @Override
+         public void run() {
+         }
+      };
+      assertSame(TraceContext.wrap(task), task);
+   }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.metrics.dropwizard;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jclouds.http.metrics.HttpMetrics;
+import org.jclouds.http.metrics.InvocationMetrics;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+/**
+ * Publishes the measurements of each api method to a {@link MetricRegistry}, under
+ * <code>jclouds.http.<i>commandName</i></code>: a timer per phase ({@code build}, {@code filter}, {@code network},
+ * {@code transform} and {@code total}), histograms of {@code retries}, {@code bytes-sent} and {@code bytes-received},
+ * a meter of {@code failures} and a meter per {@code status} code.
+ */
+public class DropwizardHttpMetrics implements HttpMetrics {
+
+   public static final String PREFIX = "jclouds.http";
+
+   private final MetricRegistry registry;
+   private final ConcurrentMap<String, CommandMetrics> commands = new ConcurrentHashMap<String, CommandMetrics>();
+
+   public DropwizardHttpMetrics(MetricRegistry registry) {
+      this.registry = checkNotNull(registry, "registry");
+   }
+
+   @Override
+   public boolean isEnabled() {
+      return true;
+   }
+
+   @Override
+   public void record(InvocationMetrics metrics) {
+      CommandMetrics command = commands.get(metrics.getCommandName());
+      if (command == null) {
+         CommandMetrics created = new CommandMetrics(registry, name(PREFIX, metrics.getCommandName()));
+         command = commands.putIfAbsent(metrics.getCommandName(), created);
+         if (command == null) {
+            command = created;
+         }
+      }
+      command.record(registry, metrics);
+   }
+
+   /**
+    * The metrics of one command, looked up once.
+    */
+   private static final class CommandMetrics {
+      private final String prefix;
+      private final Timer build;
+      private final Timer filter;
+      private final Timer network;
+      private final Timer transform;
+      private final Timer total;
+      private final Histogram retries;
+      private final Histogram bytesSent;
+      private final Histogram bytesReceived;
+      private final Meter failures;
+
+      CommandMetrics(MetricRegistry registry, String prefix) {
+         this.prefix = prefix;
+         this.build = registry.timer(name(prefix, "build"));
+         this.filter = registry.timer(name(prefix, "filter"));
+         this.network = registry.timer(name(prefix, "network"));
+         this.transform = registry.timer(name(prefix, "transform"));
+         this.total = registry.timer(name(prefix, "total"));
+         this.retries = registry.histogram(name(prefix, "retries"));
+         this.bytesSent = registry.histogram(name(prefix, "bytes-sent"));
+         this.bytesReceived = registry.histogram(name(prefix, "bytes-received"));
+         this.failures = registry.meter(name(prefix, "failures"));
+      }
+
+      void record(MetricRegistry registry, InvocationMetrics metrics) {
+         build.update(metrics.getBuildNanos(), NANOSECONDS);
+         filter.update(metrics.getFilterNanos(), NANOSECONDS);
+         network.update(metrics.getNetworkNanos(), NANOSECONDS);
+         transform.update(metrics.getTransformNanos(), NANOSECONDS);
+         total.update(metrics.getTotalNanos(), NANOSECONDS);
+         retries.update(metrics.getRetries());
+         bytesSent.update(metrics.getBytesSent());
+         bytesReceived.update(metrics.getBytesReceived());
+         if (metrics.isFailed()) {
+            failures.mark();
+         }
+         if (metrics.getStatusCode() != -1) {
+            registry.meter(name(prefix, "status", Integer.toString(metrics.getStatusCode()))).mark();
+         }
+      }
+   }
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.metrics.dropwizard.config;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.jclouds.http.metrics.HttpMetrics;
+import org.jclouds.metrics.dropwizard.DropwizardHttpMetrics;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.inject.AbstractModule;
+
+/**
+ * Publishes http metrics of type {@link DropwizardHttpMetrics} to the given registry.
+ */
+public class DropwizardMetricsModule extends AbstractModule {
+
+   private final MetricRegistry registry;
+
+   public DropwizardMetricsModule(MetricRegistry registry) {
+      this.registry = checkNotNull(registry, "registry");
+   }
+
+   @Override
+   protected void configure() {
+      bind(HttpMetrics.class).toInstance(new DropwizardHttpMetrics(registry));
+   }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.metrics.dropwizard;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.jclouds.http.metrics.HttpMetrics;
+import org.jclouds.http.metrics.InvocationMetrics;
+import org.jclouds.metrics.dropwizard.config.DropwizardMetricsModule;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.inject.Guice;
+
+@Test(groups = "unit", testName = "DropwizardHttpMetricsTest")
+public class DropwizardHttpMetricsTest {
+
+   public void testModuleBindsHttpMetrics() {
+      MetricRegistry registry = new MetricRegistry();
+      HttpMetrics metrics = Guice.createInjector(new DropwizardMetricsModule(registry)).getInstance(HttpMetrics.class);
+      assertTrue(metrics instanceof DropwizardHttpMetrics);
+      assertTrue(metrics.isEnabled());
+   }
+
+   public void testRecordsPerCommand() {
+      MetricRegistry registry = new MetricRegistry();
+      HttpMetrics metrics = new DropwizardHttpMetrics(registry);
+
+      InvocationMetrics put = new InvocationMetrics("S3Client.putObject");
+      put.addAttempt();
+      put.addAttempt();
+      put.addNetworkNanos(1000);
+      put.addBytesSent(42);
+      put.setStatusCode(200);
+      put.finish();
+      metrics.record(put);
+
+      InvocationMetrics failed = new InvocationMetrics("S3Client.putObject");
+      failed.addAttempt();
+      failed.setStatusCode(503);
+      failed.setFailed(true);
+      failed.finish();
+      metrics.record(failed);
+
+      String prefix = "jclouds.http.S3Client.putObject";
+      assertEquals(registry.timer(prefix + ".network").getCount(), 2);
+      assertEquals(registry.timer(prefix + ".total").getCount(), 2);
+      assertEquals(registry.histogram(prefix + ".retries").getSnapshot().getMax(), 1);
+      assertEquals(registry.histogram(prefix + ".bytes-sent").getSnapshot().getMax(), 42);
+      assertEquals(registry.meter(prefix + ".status.200").getCount(), 1);
+      assertEquals(registry.meter(prefix + ".status.503").getCount(), 1);
+      assertEquals(registry.meter(prefix + ".failures").getCount(), 1);
+      assertFalse(registry.getNames().contains("jclouds.http.S3Client.getObject.total"));
+   }
+}
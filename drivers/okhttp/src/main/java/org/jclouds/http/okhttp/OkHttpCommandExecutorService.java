@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.net.Proxy;
 import java.net.URI;
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.inject.Named;
 
@@ -47,10 +48,16 @@ import org.jclouds.io.ContentMetadataCodec;
 import org.jclouds.io.MutableContentMetadata;
 import org.jclouds.io.Payload;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableMultimap.Builder;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.inject.Inject;
+import com.squareup.okhttp.Call;
+import com.squareup.okhttp.Callback;
 import com.squareup.okhttp.Headers;
 import com.squareup.okhttp.MediaType;
 import com.squareup.okhttp.OkHttpClient;
@@ -61,6 +68,7 @@ import com.squareup.okhttp.Response;
 public final class OkHttpCommandExecutorService extends BaseHttpCommandExecutorService<Request> {
    private final Function<URI, Proxy> proxyForURI;
    private final OkHttpClient globalClient;
+   private final ConcurrentMap<Proxy, OkHttpClient> proxyClients = Maps.newConcurrentMap();
    private final String userAgent;
 
    @Inject
@@ -147,11 +155,61 @@ public final class OkHttpCommandExecutorService extends BaseHttpCommandExecutorS
 
    @Override
    protected HttpResponse invoke(Request nativeRequest) throws IOException, InterruptedException {
-      OkHttpClient requestScopedClient = globalClient.clone();
-      requestScopedClient.setProxy(proxyForURI.apply(nativeRequest.uri()));
+      return toHttpResponse(newCall(nativeRequest).execute());
+   }
+
+   /**
+    * Enqueues the call on the dispatcher of the client, so the calling thread is not blocked while the request is in
+    * flight.
+    */
+   @Override
+   protected ListenableFuture<HttpResponse> invokeAsync(Request nativeRequest) {
+      final SettableFuture<HttpResponse> future = SettableFuture.create();
+      try {
+         newCall(nativeRequest).enqueue(new Callback() {
+            @Override
+            public void onFailure(Request request, IOException e) {
+               future.setException(e);
+            }
+
+            @Override
+            public void onResponse(Response response) throws IOException {
+               try {
+                  future.set(toHttpResponse(response));
+               } catch (Exception e) {
+                  future.setException(e);
+               }
+            }
+         });
+      } catch (IOException e) {
+         future.setException(e);
+      }
+      return future;
+   }
+
+   private Call newCall(Request nativeRequest) throws IOException {
+      return clientFor(proxyForURI.apply(nativeRequest.uri())).newCall(nativeRequest);
+   }
 
-      Response response = requestScopedClient.newCall(nativeRequest).execute();
+   @VisibleForTesting
+   OkHttpClient clientFor(Proxy proxy) {
+      if (proxy == null) {
+         return globalClient;
+      }
+      OkHttpClient proxyClient = proxyClients.get(proxy);
+      if (proxyClient == null) {
+         // clones share the connection pool and dispatcher of the global client
+         proxyClient = globalClient.clone();
+         proxyClient.setProxy(proxy);
+         OkHttpClient existing = proxyClients.putIfAbsent(proxy, proxyClient);
+         if (existing != null) {
+            proxyClient = existing;
+         }
+      }
+      return proxyClient;
+   }
 
+   private HttpResponse toHttpResponse(Response response) throws IOException {
       HttpResponse.Builder<?> builder = HttpResponse.builder();
       builder.statusCode(response.code());
       builder.message(response.message());
@@ -16,6 +16,9 @@
  */
 package org.jclouds.http.okhttp.config;
 
+import static org.jclouds.http.okhttp.reference.OkHttpConstants.PROPERTY_HTTP2;
+import static org.jclouds.http.okhttp.reference.OkHttpConstants.PROPERTY_KEEP_ALIVE_DURATION;
+
 import java.util.concurrent.TimeUnit;
 
 import javax.inject.Named;
@@ -27,14 +30,19 @@ import org.jclouds.http.HttpUtils;
 import org.jclouds.http.config.ConfiguresHttpCommandExecutorService;
 import org.jclouds.http.config.SSLModule;
 import org.jclouds.http.okhttp.OkHttpClientSupplier;
+import org.jclouds.http.okhttp.OkHttpClientSupplier.NewOkHttpClient;
 import org.jclouds.http.okhttp.OkHttpCommandExecutorService;
 
 import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
 import com.google.inject.AbstractModule;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.Scopes;
+import com.squareup.okhttp.ConnectionPool;
+import com.squareup.okhttp.Dispatcher;
 import com.squareup.okhttp.OkHttpClient;
+import com.squareup.okhttp.Protocol;
 
 /**
  * Configures the {@link OkHttpCommandExecutorService}.
@@ -57,6 +65,14 @@ public class OkHttpCommandExecutorServiceModule extends AbstractModule {
       private final HttpUtils utils;
       private final OkHttpClientSupplier clientSupplier;
 
+      @Inject(optional = true)
+      @Named(PROPERTY_KEEP_ALIVE_DURATION)
+      private long keepAliveDuration = TimeUnit.MINUTES.toMillis(5);
+
+      @Inject(optional = true)
+      @Named(PROPERTY_HTTP2)
+      private boolean http2 = false;
+
       @Inject
       OkHttpClientProvider(HttpUtils utils, @Named("untrusted") HostnameVerifier verifier,
             @Named("untrusted") Supplier<SSLContext> untrustedSSLContextProvider, OkHttpClientSupplier clientSupplier) {
@@ -83,6 +99,19 @@ public class OkHttpCommandExecutorServiceModule extends AbstractModule {
             client.setSslSocketFactory(untrustedSSLContextProvider.get().getSocketFactory());
          }
 
+         // shared by the clients derived per proxy, so connections are reused across all requests. A client
+         // supplied by the user keeps its own pool and dispatcher settings.
+         if (clientSupplier instanceof NewOkHttpClient) {
+            client.setConnectionPool(new ConnectionPool(utils.getMaxConnections(), keepAliveDuration));
+            Dispatcher dispatcher = client.getDispatcher();
+            dispatcher.setMaxRequests(utils.getMaxConnections());
+            dispatcher.setMaxRequestsPerHost(utils.getMaxConnectionsPerHost() > 0 ? utils.getMaxConnectionsPerHost()
+                  : utils.getMaxConnections());
+         }
+         if (http2) {
+            client.setProtocols(ImmutableList.of(Protocol.HTTP_2, Protocol.HTTP_1_1));
+         }
+
          return client;
       }
    }
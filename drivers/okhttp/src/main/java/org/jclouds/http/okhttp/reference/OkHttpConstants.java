@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.okhttp.reference;
+
+/**
+ * Configuration properties of the OkHttp driver. The connection pool and dispatcher are otherwise sized from
+ * {@link org.jclouds.Constants#PROPERTY_MAX_CONNECTIONS_PER_CONTEXT} and
+ * {@link org.jclouds.Constants#PROPERTY_MAX_CONNECTIONS_PER_HOST}. Pool and dispatcher settings are not applied to a
+ * client supplied through {@link org.jclouds.http.okhttp.OkHttpClientSupplier}.
+ */
+public final class OkHttpConstants {
+
+   /**
+    * Long property. default (300000)
+    * <p/>
+    * How many milliseconds an idle pooled connection is kept open for reuse.
+    */
+   public static final String PROPERTY_KEEP_ALIVE_DURATION = "jclouds.okhttp.keep-alive-duration";
+
+   /**
+    * Boolean property. default (false)
+    * <p/>
+    * Whether to offer HTTP/2 when negotiating TLS connections, so that concurrent requests to a host that accepts it
+    * are multiplexed over one connection. Requires ALPN support in the JVM; other connections use HTTP/1.1.
+    */
+   public static final String PROPERTY_HTTP2 = "jclouds.okhttp.http2";
+
+   private OkHttpConstants() {
+      throw new AssertionError("intentionally unimplemented");
+   }
+}
@@ -19,11 +19,17 @@ package org.jclouds.http.okhttp;
 import static org.jclouds.Constants.PROPERTY_MAX_CONNECTIONS_PER_CONTEXT;
 import static org.jclouds.Constants.PROPERTY_MAX_CONNECTIONS_PER_HOST;
 import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.providers.AnonymousProviderMetadata.forApiOnEndpoint;
 import static org.jclouds.util.Closeables2.closeQuietly;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
 
 import java.io.Closeable;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
 import java.util.List;
 import java.util.Properties;
 
@@ -31,7 +37,9 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 
+import org.jclouds.ContextBuilder;
 import org.jclouds.http.BaseHttpCommandExecutorServiceIntegrationTest;
+import org.jclouds.http.HttpCommandExecutorService;
 import org.jclouds.http.HttpResponseException;
 import org.jclouds.http.config.ConfiguresHttpCommandExecutorService;
 import org.jclouds.http.okhttp.config.OkHttpCommandExecutorServiceModule;
@@ -42,9 +50,14 @@ import org.testng.annotations.Test;
 
 import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Closer;
 import com.google.inject.AbstractModule;
+import com.google.inject.Injector;
 import com.google.inject.Module;
+import com.squareup.okhttp.ConnectionPool;
 import com.squareup.okhttp.ConnectionSpec;
+import com.squareup.okhttp.Dispatcher;
 import com.squareup.okhttp.OkHttpClient;
 import com.squareup.okhttp.TlsVersion;
 import com.squareup.okhttp.mockwebserver.MockResponse;
@@ -230,6 +243,71 @@ public class OkHttpCommandExecutorServiceTest extends BaseHttpCommandExecutorSer
       }
    }
 
+   @Test
+   public void testPoolAndDispatcherSizedFromProperties() throws Exception {
+      Injector injector = injector(createConnectionModule());
+      try {
+         OkHttpClient client = injector.getInstance(OkHttpClient.class);
+         assertNotNull(client.getConnectionPool());
+         assertNotSame(client.getConnectionPool(), ConnectionPool.getDefault());
+         assertEquals(client.getDispatcher().getMaxRequests(), 50);
+         // no per host limit falls back to the per context one
+         assertEquals(client.getDispatcher().getMaxRequestsPerHost(), 50);
+      } finally {
+         closeQuietly(injector.getInstance(Closer.class));
+      }
+   }
+
+   @Test
+   public void testSuppliedClientPoolAndDispatcherAreLeftAlone() throws Exception {
+      Injector injector = injector(new ConnectionSpecModule(ConnectionSpec.CLEARTEXT));
+      try {
+         OkHttpClient client = injector.getInstance(OkHttpClient.class);
+         Dispatcher defaults = new Dispatcher();
+         assertNull(client.getConnectionPool());
+         assertEquals(client.getDispatcher().getMaxRequests(), defaults.getMaxRequests());
+         assertEquals(client.getDispatcher().getMaxRequestsPerHost(), defaults.getMaxRequestsPerHost());
+      } finally {
+         closeQuietly(injector.getInstance(Closer.class));
+      }
+   }
+
+   @Test
+   public void testClientIsReusedPerProxy() throws Exception {
+      Injector injector = injector(createConnectionModule());
+      try {
+         OkHttpCommandExecutorService service = (OkHttpCommandExecutorService) injector
+               .getInstance(HttpCommandExecutorService.class);
+         OkHttpClient global = injector.getInstance(OkHttpClient.class);
+         Proxy proxy = new Proxy(Proxy.Type.HTTP, InetSocketAddress.createUnresolved("proxy", 8080));
+         Proxy otherProxy = new Proxy(Proxy.Type.HTTP, InetSocketAddress.createUnresolved("other", 8080));
+
+         assertSame(service.clientFor(null), global);
+         OkHttpClient proxyClient = service.clientFor(proxy);
+         assertSame(proxyClient.getProxy(), proxy);
+         assertSame(service.clientFor(new Proxy(Proxy.Type.HTTP, InetSocketAddress.createUnresolved("proxy", 8080))),
+               proxyClient);
+         OkHttpClient otherClient = service.clientFor(otherProxy);
+         assertNotSame(otherClient, proxyClient);
+         assertSame(otherClient.getProxy(), otherProxy);
+
+         // all clients share the connections and request limits of the global one
+         assertSame(proxyClient.getConnectionPool(), global.getConnectionPool());
+         assertSame(otherClient.getConnectionPool(), global.getConnectionPool());
+         assertSame(proxyClient.getDispatcher(), global.getDispatcher());
+         assertSame(otherClient.getDispatcher(), global.getDispatcher());
+      } finally {
+         closeQuietly(injector.getInstance(Closer.class));
+      }
+   }
+
+   private Injector injector(Module connectionModule) {
+      Properties properties = new Properties();
+      addOverrideProperties(properties);
+      return ContextBuilder.newBuilder(forApiOnEndpoint(PatchApi.class, "http://localhost"))
+            .modules(ImmutableSet.of(connectionModule)).overrides(properties).buildInjector();
+   }
+
    @ConfiguresHttpCommandExecutorService
    private static final class ConnectionSpecModule extends AbstractModule {
       private final List<ConnectionSpec> connectionSpecs;
@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.aws.ec2;
+
+import org.jclouds.BaseContextStartupPerformanceTest;
+import org.jclouds.ContextBuilder;
+import org.jclouds.View;
+import org.jclouds.compute.ComputeServiceContext;
+import org.testng.annotations.Test;
+
+@Test(groups = "performance", singleThreaded = true, testName = "AWSEC2ContextStartupPerformanceTest")
+public class AWSEC2ContextStartupPerformanceTest extends BaseContextStartupPerformanceTest {
+
+   @Override
+   protected ContextBuilder newBuilder() {
+      return ContextBuilder.newBuilder("aws-ec2");
+   }
+
+   @Override
+   protected Class<? extends View> viewType() {
+      return ComputeServiceContext.class;
+   }
+}
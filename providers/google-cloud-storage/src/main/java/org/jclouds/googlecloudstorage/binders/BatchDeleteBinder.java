@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.binders;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Map;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.rest.MapBinder;
+import org.jclouds.util.Strings2;
+
+/**
+ * Binds one {@code DELETE} request per object name into a {@code multipart/mixed} batch request.
+ *
+ * @see <a href="https://cloud.google.com/storage/docs/json_api/v1/how-tos/batch"/>
+ */
+public final class BatchDeleteBinder implements MapBinder {
+   private static final String BOUNDARY = "batch_boundary";
+
+   @Override public <R extends HttpRequest> R bindToRequest(R request, Map<String, Object> postParams) {
+      String bucket = Strings2.urlEncode(checkNotNull(postParams.get("bucket"), "bucket").toString());
+      @SuppressWarnings("unchecked")
+      Iterable<String> objectNames = (Iterable<String>) checkNotNull(postParams.get("objectNames"), "objectNames");
+
+      StringBuilder body = new StringBuilder();
+      int contentId = 0;
+      for (String objectName : objectNames) {
+         body.append("--").append(BOUNDARY).append("\r\n");
+         body.append("Content-Type: application/http\r\n");
+         body.append("Content-ID: <").append(++contentId).append(">\r\n\r\n");
+         body.append("DELETE /storage/v1/b/").append(bucket).append("/o/").append(Strings2.urlEncode(objectName))
+               .append(" HTTP/1.1\r\n\r\n");
+      }
+      body.append("--").append(BOUNDARY).append("--\r\n");
+
+      Payload payload = Payloads.newStringPayload(body.toString());
+      payload.getContentMetadata().setContentType("multipart/mixed; boundary=" + BOUNDARY);
+      request.setPayload(payload);
+      return request;
+   }
+
+   @Override public <R extends HttpRequest> R bindToRequest(R request, Object input) {
+      throw new UnsupportedOperationException("use map form");
+   }
+}
@@ -262,6 +262,18 @@ public final class GoogleCloudStorageBlobStore extends BaseBlobStore {
       api.getObjectApi().deleteObject(container, Strings2.urlEncode(name));
    }
 
+   @Override
+   public void removeBlobs(String container, Iterable<String> names) {
+      for (List<String> partition : Iterables.partition(names, getMaximumBatchDeleteSize())) {
+         api.getObjectApi().deleteObjects(container, partition);
+      }
+   }
+
+   @Override
+   public int getMaximumBatchDeleteSize() {
+      return 100;
+   }
+
    @Override
    public BlobAccess getBlobAccess(String container, String name) {
       ObjectAccessControls controls = api.getObjectAccessControlsApi().getObjectAccessControls(container,
@@ -32,6 +32,7 @@ import javax.ws.rs.Produces;
 
 import org.jclouds.Fallbacks.FalseOnNotFoundOr404;
 import org.jclouds.Fallbacks.NullOnNotFoundOr404;
+import org.jclouds.googlecloudstorage.binders.BatchDeleteBinder;
 import org.jclouds.googlecloudstorage.binders.MultipartUploadBinder;
 import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
 import org.jclouds.googlecloudstorage.domain.ListPageWithPrefixes;
@@ -46,6 +47,7 @@ import org.jclouds.googlecloudstorage.options.InsertObjectOptions;
 import org.jclouds.googlecloudstorage.options.ListObjectOptions;
 import org.jclouds.googlecloudstorage.options.RewriteObjectOptions;
 import org.jclouds.googlecloudstorage.options.UpdateObjectOptions;
+import org.jclouds.googlecloudstorage.parser.ParseBatchDeleteResponse;
 import org.jclouds.googlecloudstorage.parser.ParseToPayloadEnclosing;
 import org.jclouds.http.options.HttpRequestOptions;
 import org.jclouds.io.Payload;
@@ -222,6 +224,22 @@ public interface ObjectApi {
    boolean deleteObject(@PathParam("bucket") String bucketName, @PathParam("object") @Encoded String objectName,
             DeleteObjectOptions options);
 
+   /**
+    * Deletes up to 100 objects with a single batch request. Objects that do not exist are ignored.
+    *
+    * @param bucketName
+    *           Name of the bucket in which the objects to be deleted reside
+    * @param objectNames
+    *           Names of the objects, not url-encoded
+    */
+   @Named("Object:batchDelete")
+   @POST
+   @Path("batch/storage/v1")
+   @MapBinder(BatchDeleteBinder.class)
+   @ResponseParser(ParseBatchDeleteResponse.class)
+   void deleteObjects(@PayloadParam("bucket") String bucketName,
+            @PayloadParam("objectNames") Iterable<String> objectNames);
+
    /**
     * Retrieves a list of objects matching the criteria.
     *
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.parser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.util.Strings2;
+
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+
+/**
+ * Checks the status of each request in the {@code multipart/mixed} response to a batch delete. Objects that were
+ * already gone are not an error, any other failure is reported with the statuses that failed.
+ */
+public final class ParseBatchDeleteResponse implements Function<HttpResponse, Void> {
+   private static final Pattern STATUS_LINE = Pattern.compile("^HTTP/1\\.1 (\\d{3})[^\\r\\n]*", Pattern.MULTILINE);
+
+   @Override
+   public Void apply(HttpResponse response) {
+      if (response.getPayload() == null) {
+         return null;
+      }
+      String body;
+      try {
+         body = Strings2.toStringAndClose(response.getPayload().openStream());
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      }
+      List<String> failures = new ArrayList<String>();
+      Matcher matcher = STATUS_LINE.matcher(body);
+      while (matcher.find()) {
+         int status = Integer.parseInt(matcher.group(1));
+         if ((status < 200 || status >= 300) && status != 404) {
+            failures.add(matcher.group().trim());
+         }
+      }
+      if (!failures.isEmpty()) {
+         throw new HttpResponseException("batch delete failed for " + failures.size() + " objects: " + failures,
+               null, response);
+      }
+      return null;
+   }
+}
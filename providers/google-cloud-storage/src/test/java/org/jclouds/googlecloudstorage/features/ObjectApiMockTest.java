@@ -38,11 +38,13 @@ import org.jclouds.googlecloudstorage.options.RewriteObjectOptions;
 import org.jclouds.googlecloudstorage.parse.ParseGoogleCloudStorageObject;
 import org.jclouds.googlecloudstorage.parse.ParseGoogleCloudStorageObjectListTest;
 import org.jclouds.googlecloudstorage.parse.ParseObjectRewriteResponse;
+import org.jclouds.http.HttpResponseException;
 import org.jclouds.http.internal.PayloadEnclosingImpl;
 import org.jclouds.io.PayloadEnclosing;
 import org.jclouds.util.Strings2;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.net.MediaType;
 import com.squareup.okhttp.mockwebserver.MockResponse;
 import com.squareup.okhttp.mockwebserver.RecordedRequest;
@@ -136,6 +138,30 @@ public class ObjectApiMockTest extends BaseGoogleCloudStorageApiMockTest {
       assertSent(server, "DELETE", "/storage/v1/b/test/o/dir%2Fobject%20name", null);
    }
 
+   public void batchDelete() throws Exception {
+      server.enqueue(new MockResponse().setHeader("Content-Type", "multipart/mixed; boundary=batch_response")
+            .setBody("--batch_response\r\nContent-Type: application/http\r\n\r\nHTTP/1.1 204 No Content\r\n\r\n"
+                  + "--batch_response\r\nContent-Type: application/http\r\n\r\nHTTP/1.1 404 Not Found\r\n\r\n"
+                  + "--batch_response--\r\n"));
+
+      objectApi().deleteObjects("test", ImmutableList.of("object_name", "dir/object name"));
+      RecordedRequest request = assertSent(server, "POST", "/batch/storage/v1", null);
+      assertEquals(request.getHeader("Content-Type"), "multipart/mixed; boundary=batch_boundary");
+      String body = new String(request.getBody(), UTF_8);
+      assertTrue(body.contains("DELETE /storage/v1/b/test/o/object_name HTTP/1.1"), body);
+      assertTrue(body.contains("DELETE /storage/v1/b/test/o/dir%2Fobject%20name HTTP/1.1"), body);
+   }
+
+   @Test(expectedExceptions = HttpResponseException.class)
+   public void batchDelete_partialFailure() throws Exception {
+      server.enqueue(new MockResponse().setHeader("Content-Type", "multipart/mixed; boundary=batch_response")
+            .setBody("--batch_response\r\nContent-Type: application/http\r\n\r\nHTTP/1.1 204 No Content\r\n\r\n"
+                  + "--batch_response\r\nContent-Type: application/http\r\n\r\nHTTP/1.1 403 Forbidden\r\n\r\n"
+                  + "--batch_response--\r\n"));
+
+      objectApi().deleteObjects("test", ImmutableList.of("object_name", "other_name"));
+   }
+
    public void list() throws Exception {
       server.enqueue(jsonResponse("/object_list.json"));
 